@@ -30,6 +30,25 @@ public class TagalongConfiguration {
    */
   public static boolean isReplayMode = false;
 
+  /**
+   * Set deferDeviceBringUp to true to bring up every microsystem's devices in parallel rather than
+   * one at a time inside each constructor, the following line of code must then be put into
+   * Robot.java's constructor after the RobotContainer is constructed!
+   *
+   * ```
+   * BootCoordinator.bringUpAll();
+   * ```
+   */
+  public static boolean deferDeviceBringUp = false;
+  /**
+   * Longest time to wait for devices to come alive during boot in seconds
+   */
+  public static double BOOT_DEADLINE_S = 5.0;
+  /**
+   * Maximum number of microsystems brought up at the same time by the BootCoordinator
+   */
+  public static int BOOT_PARALLELISM = 8;
+
   /**
    * Add microsystem names to shuffleboardMicrosystems list if they should be
    * logged via shuffleboard entries.
@@ -45,4 +64,40 @@ public class TagalongConfiguration {
    * FeedForward tuning mode and logged on shuffleboard accordingly.
    */
   public static final List<String> ffTuningMicrosystems = new ArrayList<>();
+  /**
+   * Add microsystem names to highFrequencyMicrosystems list to sample their primary motor
+   * position, velocity and current on a background thread at HIGH_FREQUENCY_SAMPLE_HZ.
+   */
+  public static final List<String> highFrequencyMicrosystems = new ArrayList<>();
+
+  /**
+   * Sampling rate of highFrequencyMicrosystems, best used with microsystems on a CAN FD bus
+   */
+  public static double HIGH_FREQUENCY_SAMPLE_HZ = 250.0;
+  /**
+   * Number of high frequency samples buffered between main loop drains
+   */
+  public static int HIGH_FREQUENCY_BUFFER_SIZE = 32;
+
+  /**
+   * Add microsystem names to controlThreadMicrosystems list to follow their profiles on a dedicated
+   * thread at CONTROL_THREAD_HZ rather than in the command scheduler loop. Commands are unchanged,
+   * their followLastProfile calls hand the profile to the thread.
+   */
+  public static final List<String> controlThreadMicrosystems = new ArrayList<>();
+  /**
+   * Rate of the control thread in hertz
+   */
+  public static double CONTROL_THREAD_HZ = 200.0;
+  /**
+   * Longest time the control thread keeps following a profile after the main loop last asked it
+   * to in seconds, so a stalled or finished command stops the thread like it stops the main loop
+   */
+  public static double CONTROL_THREAD_TIMEOUT_S = 0.1;
+
+  /**
+   * Rate the DeviceHealthMonitor polls every microsystem device for resets and sticky faults,
+   * resets are handled up to one period late
+   */
+  public static double HEALTH_MONITOR_HZ = 4.0;
 }
@@ -0,0 +1,261 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.commands.base;
+
+import tagalong.commands.TagalongCommand;
+import tagalong.controls.ElevatorPivotPlanner;
+import tagalong.subsystems.TagalongSubsystemBase;
+import tagalong.subsystems.micro.Elevator;
+import tagalong.subsystems.micro.Pivot;
+import tagalong.subsystems.micro.augments.ElevatorAugment;
+import tagalong.subsystems.micro.augments.PivotAugment;
+
+/**
+ * Base Command for a pivot on an elevator carriage, moves both to a goal configuration along a
+ * collision free path from the planner. The elevator and pivot move together along each straight
+ * line of the path, arriving at each waypoint at the same time before starting the next line.
+ *
+ * Ends without moving if no path exists.
+ */
+public class ElevatePivotPlannedCmd<
+    T extends TagalongSubsystemBase & ElevatorAugment & PivotAugment> extends TagalongCommand {
+  /**
+   * The subsystem's underlying Tagalong Elevator that the command acts on and operates.
+   */
+  private final Elevator _elevator;
+  /**
+   * The subsystem's underlying Tagalong Pivot that the command acts on and operates.
+   */
+  private final Pivot _pivot;
+  /**
+   * Planner holding the keep out regions, shared by every command on the subsystem
+   */
+  private final ElevatorPivotPlanner _planner;
+  /**
+   * Target height for this command
+   */
+  private final double _goalPositionM;
+  /**
+   * Target pivot position for this command, relative to the pivot's scope
+   */
+  private final double _goalPositionRot;
+  /**
+   * Bounds of the elevator goal tolerance
+   */
+  private final double _lowerBoundM, _upperBoundM;
+  /**
+   * Bounds of the pivot goal tolerance
+   */
+  private final double _lowerBoundRot, _upperBoundRot;
+  /**
+   * True if the elevator and pivot should actively hold position after the
+   * command completes.
+   * False otherwise.
+   */
+  private final boolean _holdPositionAfter;
+  /**
+   * True if the command has started to move yet
+   * False if waiting for a safe state before moving
+   */
+  private boolean _startedMovement;
+  /**
+   * True if the planner found a path
+   */
+  private boolean _foundPath;
+  /**
+   * Index of the waypoint being moved to
+   */
+  private int _waypoint;
+
+  @Override
+  public void initialize() {
+    _elevator.setHoldPosition(false);
+    _pivot.setHoldPosition(false);
+    _startedMovement = false;
+    _foundPath = false;
+  }
+
+  @Override
+  public void execute() {
+    // if the mechanisms have not started moving, check for legal states
+    if (!_startedMovement) {
+      if (!_elevator.isSafeToMove() || !_pivot.isSafeToMove()) {
+        return;
+      }
+      _startedMovement = true;
+      _foundPath = _planner.plan(
+          _elevator.getElevatorHeightM(),
+          _pivot.getPivotPosition() - _pivot.getScopeOffset(),
+          _goalPositionM,
+          _goalPositionRot
+      );
+      if (!_foundPath) {
+        return;
+      }
+      startWaypoint(0);
+    } else if (!_foundPath) {
+      return;
+    } else if (_waypoint < _planner.getNumWaypoints() - 1 && _elevator.isProfileFinished()
+               && _pivot.isProfileFinished()) {
+      startWaypoint(_waypoint + 1);
+    }
+
+    _elevator.followLastProfile();
+    _pivot.followLastProfile();
+  }
+
+  @Override
+  public void end(boolean interrupted) {
+    _elevator.setHoldPosition(_holdPositionAfter);
+    _pivot.setHoldPosition(_holdPositionAfter);
+  }
+
+  @Override
+  public boolean isFinished() {
+    if (!_startedMovement) {
+      return false;
+    }
+    return !_foundPath
+        || (_waypoint == _planner.getNumWaypoints() - 1 && _elevator.isProfileFinished()
+            && _pivot.isProfileFinished()
+            && _elevator.isElevatorInTolerance(_lowerBoundM, _upperBoundM)
+            && _pivot.isPivotInTolerance(_lowerBoundRot, _upperBoundRot));
+  }
+
+  /**
+   * Gets whether the planner found a path once the command started moving
+   *
+   * @return True if a path was found
+   */
+  public boolean isPathFound() {
+    return _foundPath;
+  }
+
+  /**
+   * Starts the elevator and pivot profiles to the waypoint, slowing the faster one to arrive with
+   * the slower one
+   *
+   * @param waypoint index of the waypoint
+   */
+  private void startWaypoint(int waypoint) {
+    _waypoint = waypoint;
+    _elevator.setElevatorProfile(
+        _planner.getWaypointHeightM(waypoint), 0.0, _elevator._maxVelocityMPS
+    );
+    _pivot.setPivotProfile(
+        _planner.getWaypointAngleRot(waypoint) + _pivot.getScopeOffset(),
+        0.0,
+        _pivot._maxVelocityRPS,
+        _pivot._maxAccelerationRPS2
+    );
+    double durationS = Math.max(_elevator.getProfileDurationS(), _pivot.getProfileDurationS());
+    _elevator.synchronizeProfile(durationS);
+    _pivot.synchronizeProfile(durationS);
+  }
+
+  /**
+   * Constructor that creates the command with the below parameters.
+   *
+   * @param subsystem       Tagalong Subsystem containing an elevator and a pivot
+   *                        microsystem
+   * @param planner         Planner holding the keep out regions, already built
+   * @param goalPositionM   The target height for the elevator, in meters
+   * @param goalPositionRot The target position for the pivot, in rotations
+   */
+  public ElevatePivotPlannedCmd(
+      T subsystem, ElevatorPivotPlanner planner, double goalPositionM, double goalPositionRot
+  ) {
+    this(subsystem, planner, goalPositionM, goalPositionRot, true);
+  }
+
+  /**
+   * Constructor that creates the command with the below parameters.
+   *
+   * @param subsystem         Tagalong Subsystem containing an elevator and a
+   *                          pivot microsystem
+   * @param planner           Planner holding the keep out regions, already built
+   * @param goalPositionM     The target height for the elevator, in meters
+   * @param goalPositionRot   The target position for the pivot, in rotations
+   * @param holdPositionAfter If the elevator and pivot should hold position when
+   *                          the command completes
+   */
+  public ElevatePivotPlannedCmd(
+      T subsystem,
+      ElevatorPivotPlanner planner,
+      double goalPositionM,
+      double goalPositionRot,
+      boolean holdPositionAfter
+  ) {
+    this(
+        subsystem.getElevator(),
+        subsystem.getPivot(),
+        subsystem,
+        planner,
+        goalPositionM,
+        goalPositionRot,
+        holdPositionAfter
+    );
+  }
+
+  /**
+   * Full constructor, with the below parameters.
+   *
+   * @param elevatorId        Integer ID of the elevator microsystem inside the
+   *                          Tagalong Subsystem
+   * @param pivotId           Integer ID of the pivot microsystem inside the
+   *                          Tagalong Subsystem
+   * @param subsystem         Tagalong Subsystem containing an elevator and a
+   *                          pivot microsystem
+   * @param planner           Planner holding the keep out regions, already built
+   * @param goalPositionM     The target height for the elevator, in meters
+   * @param goalPositionRot   The target position for the pivot, in rotations
+   * @param holdPositionAfter If the elevator and pivot should hold position when
+   *                          the command completes
+   */
+  public ElevatePivotPlannedCmd(
+      int elevatorId,
+      int pivotId,
+      T subsystem,
+      ElevatorPivotPlanner planner,
+      double goalPositionM,
+      double goalPositionRot,
+      boolean holdPositionAfter
+  ) {
+    this(
+        subsystem.getElevator(elevatorId),
+        subsystem.getPivot(pivotId),
+        subsystem,
+        planner,
+        goalPositionM,
+        goalPositionRot,
+        holdPositionAfter
+    );
+  }
+
+  private ElevatePivotPlannedCmd(
+      Elevator elevator,
+      Pivot pivot,
+      T subsystem,
+      ElevatorPivotPlanner planner,
+      double goalPositionM,
+      double goalPositionRot,
+      boolean holdPositionAfter
+  ) {
+    _elevator = elevator;
+    _pivot = pivot;
+    _planner = planner;
+    _goalPositionM = goalPositionM;
+    _goalPositionRot = goalPositionRot;
+    _holdPositionAfter = holdPositionAfter;
+    _lowerBoundM = goalPositionM - Math.abs(_elevator._defaultElevatorLowerToleranceM);
+    _upperBoundM = goalPositionM + Math.abs(_elevator._defaultElevatorUpperToleranceM);
+    _lowerBoundRot = goalPositionRot - Math.abs(_pivot._defaultPivotLowerToleranceRot);
+    _upperBoundRot = goalPositionRot + Math.abs(_pivot._defaultPivotUpperToleranceRot);
+
+    addRequirements(subsystem);
+  }
+}
@@ -0,0 +1,279 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.commands.base;
+
+import tagalong.commands.TagalongCommand;
+import tagalong.subsystems.TagalongSubsystemBase;
+import tagalong.subsystems.micro.Elevator;
+import tagalong.subsystems.micro.augments.ElevatorAugment;
+
+/**
+ * Base Command for linear system movement, moves system through each waypoint height without
+ * stopping and ends at the last.
+ */
+public class ElevateThroughCmd<T extends TagalongSubsystemBase & ElevatorAugment>
+    extends TagalongCommand {
+  /**
+   * The subsystem's underlying Tagalong Elevator that the command acts on and operates.
+   */
+  private final Elevator _elevator;
+  /**
+   * Waypoint heights in meters, the last is the goal
+   */
+  private final double[] _waypointsM;
+  /**
+   * Largest speed through each waypoint in meters per second, null for no caps
+   */
+  private final double[] _velocityCapsMPS;
+  /**
+   * Lower bound of the goal tolerance
+   */
+  private final double _lowerBoundM;
+  /**
+   * Upper bound of the goal tolerance
+   */
+  private final double _upperBoundM;
+  /**
+   * True if the elevator should actively hold position after the command
+   * completes.
+   * False otherwise.
+   */
+  private final boolean _holdPositionAfter;
+  /**
+   * Max velocity of the elevator for this specific command
+   */
+  private final double _maxVelocityMPS;
+  /**
+   * True if the command has started to move yet
+   * False if waiting for a safe state before moving
+   */
+  private boolean _startedMovement;
+
+  @Override
+  public void initialize() {
+    _elevator.setHoldPosition(false);
+    _startedMovement = false;
+  }
+
+  @Override
+  public void execute() {
+    // if elevator has not started moving, check for legal states
+    if (!_startedMovement) {
+      if (_elevator.isSafeToMove()) {
+        _elevator.setElevatorWaypointProfile(_waypointsM, _velocityCapsMPS, _maxVelocityMPS);
+        _startedMovement = true;
+        _elevator.followLastProfile();
+      }
+    } else {
+      _elevator.followLastProfile();
+    }
+  }
+
+  @Override
+  public void end(boolean interrupted) {
+    _elevator.setHoldPosition(_holdPositionAfter);
+  }
+
+  @Override
+  public boolean isFinished() {
+    return _startedMovement && _elevator.isProfileFinished()
+        && _elevator.isElevatorInTolerance(_lowerBoundM, _upperBoundM);
+  }
+
+  /**
+   * Constructor that creates the command with the below parameters.
+   *
+   * @param elevator   Tagalong Subsystem containing an elevator microsystem
+   * @param waypointsM The heights to move through, in meters, the last is the goal
+   */
+  public ElevateThroughCmd(T elevator, double[] waypointsM) {
+    this(elevator, waypointsM, null, true, elevator.getElevator()._maxVelocityMPS);
+  }
+
+  /**
+   * Constructor that creates the command with the below parameters.
+   *
+   * @param id         Integer ID of the elevator microsystem inside the
+   *                   Tagalong Subsystem
+   * @param elevator   Tagalong Subsystem containing an elevator microsystem
+   * @param waypointsM The heights to move through, in meters, the last is the goal
+   */
+  public ElevateThroughCmd(int id, T elevator, double[] waypointsM) {
+    this(id, elevator, waypointsM, null, true, elevator.getElevator(id)._maxVelocityMPS);
+  }
+
+  /**
+   * Constructor that creates the command with the below parameters.
+   *
+   * @param elevator          Tagalong Subsystem containing an elevator
+   *                          microsystem
+   * @param waypointsM        The heights to move through, in meters, the last
+   *                          is the goal
+   * @param velocityCapsMPS   Largest speed through each waypoint, in meters per
+   *                          second, null for no caps
+   * @param holdPositionAfter If the elevator should hold position when the
+   *                          command completes
+   * @param maxVelocityMPS    maximum velocity, in meters per second, the elevator
+   *                          can move
+   */
+  public ElevateThroughCmd(
+      T elevator,
+      double[] waypointsM,
+      double[] velocityCapsMPS,
+      boolean holdPositionAfter,
+      double maxVelocityMPS
+  ) {
+    this(
+        elevator,
+        waypointsM,
+        velocityCapsMPS,
+        holdPositionAfter,
+        maxVelocityMPS,
+        elevator.getElevator()._defaultElevatorLowerToleranceM,
+        elevator.getElevator()._defaultElevatorUpperToleranceM
+    );
+  }
+
+  /**
+   * Constructor that creates the command with the below parameters.
+   *
+   * @param id                Integer ID of the elevator microsystem inside the
+   *                          Tagalong Subsystem
+   * @param elevator          Tagalong Subsystem containing an elevator
+   *                          microsystem
+   * @param waypointsM        The heights to move through, in meters, the last
+   *                          is the goal
+   * @param velocityCapsMPS   Largest speed through each waypoint, in meters per
+   *                          second, null for no caps
+   * @param holdPositionAfter If the elevator should hold position when the
+   *                          command completes
+   * @param maxVelocityMPS    maximum velocity, in meters per second, the elevator
+   *                          can move
+   */
+  public ElevateThroughCmd(
+      int id,
+      T elevator,
+      double[] waypointsM,
+      double[] velocityCapsMPS,
+      boolean holdPositionAfter,
+      double maxVelocityMPS
+  ) {
+    this(
+        id,
+        elevator,
+        waypointsM,
+        velocityCapsMPS,
+        holdPositionAfter,
+        maxVelocityMPS,
+        elevator.getElevator(id)._defaultElevatorLowerToleranceM,
+        elevator.getElevator(id)._defaultElevatorUpperToleranceM
+    );
+  }
+
+  /**
+   * Full constructor, with the below parameters.
+   *
+   * @param elevator          Tagalong Subsystem containing an elevator
+   *                          microsystem
+   * @param waypointsM        The heights to move through, in meters, the last
+   *                          is the goal
+   * @param velocityCapsMPS   Largest speed through each waypoint, in meters per
+   *                          second, null for no caps
+   * @param holdPositionAfter If the elevator should hold position when the
+   *                          command completes
+   * @param maxVelocityMPS    maximum velocity, in meters per second, the elevator
+   *                          can move
+   * @param lowerToleranceM   the lower bound for the goal height tolerance, in
+   *                          meters
+   * @param upperToleranceM   the upper bound for the goal height tolerance, in
+   *                          meters
+   */
+  public ElevateThroughCmd(
+      T elevator,
+      double[] waypointsM,
+      double[] velocityCapsMPS,
+      boolean holdPositionAfter,
+      double maxVelocityMPS,
+      double lowerToleranceM,
+      double upperToleranceM
+  ) {
+    this(
+        elevator.getElevator(),
+        elevator,
+        waypointsM,
+        velocityCapsMPS,
+        holdPositionAfter,
+        maxVelocityMPS,
+        lowerToleranceM,
+        upperToleranceM
+    );
+  }
+
+  /**
+   * Full constructor, with the below parameters.
+   *
+   * @param id                Integer ID of the elevator microsystem inside the
+   *                          Tagalong Subsystem
+   * @param elevator          Tagalong Subsystem containing an elevator
+   *                          microsystem
+   * @param waypointsM        The heights to move through, in meters, the last
+   *                          is the goal
+   * @param velocityCapsMPS   Largest speed through each waypoint, in meters per
+   *                          second, null for no caps
+   * @param holdPositionAfter If the elevator should hold position when the
+   *                          command completes
+   * @param maxVelocityMPS    maximum velocity, in meters per second, the elevator
+   *                          can move
+   * @param lowerToleranceM   the lower bound for the goal height tolerance, in
+   *                          meters
+   * @param upperToleranceM   the upper bound for the goal height tolerance, in
+   *                          meters
+   */
+  public ElevateThroughCmd(
+      int id,
+      T elevator,
+      double[] waypointsM,
+      double[] velocityCapsMPS,
+      boolean holdPositionAfter,
+      double maxVelocityMPS,
+      double lowerToleranceM,
+      double upperToleranceM
+  ) {
+    this(
+        elevator.getElevator(id),
+        elevator,
+        waypointsM,
+        velocityCapsMPS,
+        holdPositionAfter,
+        maxVelocityMPS,
+        lowerToleranceM,
+        upperToleranceM
+    );
+  }
+
+  private ElevateThroughCmd(
+      Elevator microsystem,
+      T elevator,
+      double[] waypointsM,
+      double[] velocityCapsMPS,
+      boolean holdPositionAfter,
+      double maxVelocityMPS,
+      double lowerToleranceM,
+      double upperToleranceM
+  ) {
+    _elevator = microsystem;
+    _waypointsM = waypointsM;
+    _velocityCapsMPS = velocityCapsMPS;
+    _holdPositionAfter = holdPositionAfter;
+    _maxVelocityMPS = maxVelocityMPS;
+    double goalPositionM = waypointsM[waypointsM.length - 1];
+    _lowerBoundM = goalPositionM - Math.abs(lowerToleranceM);
+    _upperBoundM = goalPositionM + Math.abs(upperToleranceM);
+
+    addRequirements(elevator);
+  }
+}
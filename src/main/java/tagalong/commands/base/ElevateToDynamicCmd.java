@@ -8,7 +8,9 @@ package tagalong.commands.base;
 
 import java.util.function.BooleanSupplier;
 import java.util.function.DoubleSupplier;
+import tagalong.TagalongConfiguration;
 import tagalong.commands.TagalongCommand;
+import tagalong.controls.DynamicGoalFilter;
 import tagalong.subsystems.TagalongSubsystemBase;
 import tagalong.subsystems.micro.Elevator;
 import tagalong.subsystems.micro.augments.ElevatorAugment;
@@ -46,11 +48,16 @@ public class ElevateToDynamicCmd<T extends TagalongSubsystemBase & ElevatorAugme
    * Goal height of the elevator in meters
    */
   private double _goalPositionM;
+  /**
+   * Filter deciding when the goal has moved enough to re-plan
+   */
+  private final DynamicGoalFilter _goalFilter;
 
   @Override
   public void initialize() {
     _elevator.setHoldPosition(false);
     _startedMovement = false;
+    _goalFilter.reset();
   }
 
   @Override
@@ -58,13 +65,17 @@ public class ElevateToDynamicCmd<T extends TagalongSubsystemBase & ElevatorAugme
     // if elevator has not started moving, check for legal states
     _goalPositionM = _elevator.clampElevatorPosition(_goalSupplierM.getAsDouble());
     if (_startedMovement) {
-      _elevator.setElevatorProfile(
-          _goalPositionM, 0.0, _maxVelocityMPS, _elevator._maxAccelerationMPS2, false
-      );
+      // Only re-plan once the goal moves past the deadband or the re-plan interval expires
+      if (_goalFilter.update(_goalPositionM, TagalongConfiguration.LOOP_PERIOD_S)) {
+        _elevator.setElevatorProfile(
+            _goalFilter.getGoal(), 0.0, _maxVelocityMPS, _elevator._maxAccelerationMPS2, false
+        );
+      }
       _elevator.followLastProfile();
     } else if (_startCondition.getAsBoolean()) {
       _startedMovement = true;
-      _elevator.setElevatorProfile(_goalPositionM, 0.0, _maxVelocityMPS);
+      _goalFilter.update(_goalPositionM, TagalongConfiguration.LOOP_PERIOD_S);
+      _elevator.setElevatorProfile(_goalFilter.getGoal(), 0.0, _maxVelocityMPS);
       _elevator.followLastProfile();
     }
   }
@@ -110,6 +121,11 @@ public class ElevateToDynamicCmd<T extends TagalongSubsystemBase & ElevatorAugme
     _holdPositionAfter = holdPositionAfter;
     _maxVelocityMPS = maxVelocityMPS;
     _startCondition = startSupplier;
+    _goalFilter = new DynamicGoalFilter(
+        _elevator._conf.dynamicGoalDeadband,
+        _elevator._conf.dynamicGoalReplanIntervalS,
+        _elevator._conf.dynamicGoalFilterTimeConstantS
+    );
 
     addRequirements(elevator);
   }
@@ -142,6 +158,11 @@ public class ElevateToDynamicCmd<T extends TagalongSubsystemBase & ElevatorAugme
     _holdPositionAfter = holdPositionAfter;
     _maxVelocityMPS = maxVelocityMPS;
     _startCondition = startSupplier;
+    _goalFilter = new DynamicGoalFilter(
+        _elevator._conf.dynamicGoalDeadband,
+        _elevator._conf.dynamicGoalReplanIntervalS,
+        _elevator._conf.dynamicGoalFilterTimeConstantS
+    );
 
     addRequirements(elevator);
   }
@@ -0,0 +1,343 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.commands.base;
+
+import java.util.ArrayList;
+import tagalong.commands.TagalongCommand;
+import tagalong.subsystems.TagalongSubsystemBase;
+import tagalong.subsystems.micro.Elevator;
+import tagalong.subsystems.micro.Microsystem;
+import tagalong.subsystems.micro.Pivot;
+import tagalong.subsystems.micro.Roller;
+import tagalong.subsystems.micro.augments.ElevatorAugment;
+import tagalong.subsystems.micro.augments.PivotAugment;
+import tagalong.subsystems.micro.augments.RollerAugment;
+
+/**
+ * Base Command for coordinated movement, moves several microsystems to their goals so they all
+ * arrive at the same time. Each profile's minimum time is found once every microsystem is safe to
+ * move, then the faster profiles are slowed to the slowest one's time. Only microsystems in the
+ * TRAPEZOIDAL or DYNAMIC_MOTION_MAGIC profile modes can be slowed, others keep their own timing.
+ *
+ * Goals are added with elevateTo, pivotTo and rollTo before the command is scheduled.
+ */
+public class MoveTogetherCmd extends TagalongCommand {
+  /**
+   * A microsystem moving to its goal as part of the command
+   */
+  private abstract static class Axis {
+    /**
+     * The microsystem moving
+     */
+    final Microsystem _microsystem;
+
+    Axis(Microsystem microsystem) {
+      _microsystem = microsystem;
+    }
+
+    /**
+     * @return True if the microsystem can start moving
+     */
+    abstract boolean isSafeToMove();
+
+    /**
+     * Starts the microsystem's profile at its full constraints
+     */
+    abstract void startProfile();
+
+    /**
+     * Follows the microsystem's profile
+     */
+    abstract void followLastProfile();
+
+    /**
+     * @return True if the microsystem is in tolerance of its goal
+     */
+    abstract boolean isInTolerance();
+  }
+
+  /**
+   * Microsystems moving together
+   */
+  private final ArrayList<Axis> _axes = new ArrayList<>();
+  /**
+   * True if the microsystems should actively hold position after the command
+   * completes.
+   * False otherwise.
+   */
+  private final boolean _holdPositionAfter;
+  /**
+   * True if the command has started to move yet
+   * False if waiting for a safe state before moving
+   */
+  private boolean _startedMovement;
+  /**
+   * Time every microsystem takes to reach its goal, in seconds
+   */
+  private double _durationS;
+
+  @Override
+  public void initialize() {
+    for (int i = 0; i < _axes.size(); i++) {
+      _axes.get(i)._microsystem.setHoldPosition(false);
+    }
+    _startedMovement = false;
+  }
+
+  @Override
+  public void execute() {
+    // if the microsystems have not started moving, wait until all of them can
+    if (!_startedMovement) {
+      for (int i = 0; i < _axes.size(); i++) {
+        if (!_axes.get(i).isSafeToMove()) {
+          return;
+        }
+      }
+
+      _durationS = 0.0;
+      for (int i = 0; i < _axes.size(); i++) {
+        Axis axis = _axes.get(i);
+        axis.startProfile();
+        _durationS = Math.max(_durationS, axis._microsystem.getProfileDurationS());
+      }
+      for (int i = 0; i < _axes.size(); i++) {
+        _axes.get(i)._microsystem.synchronizeProfile(_durationS);
+      }
+      _startedMovement = true;
+    }
+
+    for (int i = 0; i < _axes.size(); i++) {
+      _axes.get(i).followLastProfile();
+    }
+  }
+
+  @Override
+  public void end(boolean interrupted) {
+    for (int i = 0; i < _axes.size(); i++) {
+      _axes.get(i)._microsystem.setHoldPosition(_holdPositionAfter);
+    }
+  }
+
+  @Override
+  public boolean isFinished() {
+    if (!_startedMovement) {
+      return false;
+    }
+    for (int i = 0; i < _axes.size(); i++) {
+      Axis axis = _axes.get(i);
+      if (!axis._microsystem.isProfileFinished() || !axis.isInTolerance()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets the time every microsystem takes to reach its goal
+   *
+   * @return duration in seconds, 0.0 before the microsystems start moving
+   */
+  public double getDurationS() {
+    return _startedMovement ? _durationS : 0.0;
+  }
+
+  /**
+   * Constructor with default to hold position after
+   */
+  public MoveTogetherCmd() {
+    this(true);
+  }
+
+  /**
+   * Constructor that creates the command with the below parameters.
+   *
+   * @param holdPositionAfter If the microsystems should hold position when the
+   *                          command completes
+   */
+  public MoveTogetherCmd(boolean holdPositionAfter) {
+    _holdPositionAfter = holdPositionAfter;
+  }
+
+  /**
+   * Adds an elevator goal
+   *
+   * @param elevator      Tagalong Subsystem containing an elevator microsystem
+   * @param goalPositionM The target height for the elevator, in meters
+   * @return The command, for chaining
+   */
+  public <T extends TagalongSubsystemBase & ElevatorAugment> MoveTogetherCmd elevateTo(
+      T elevator, double goalPositionM
+  ) {
+    return addElevator(elevator.getElevator(), elevator, goalPositionM);
+  }
+
+  /**
+   * Adds an elevator goal
+   *
+   * @param id            Integer ID of the elevator microsystem inside the
+   *                      Tagalong Subsystem
+   * @param elevator      Tagalong Subsystem containing an elevator microsystem
+   * @param goalPositionM The target height for the elevator, in meters
+   * @return The command, for chaining
+   */
+  public <T extends TagalongSubsystemBase & ElevatorAugment> MoveTogetherCmd elevateTo(
+      int id, T elevator, double goalPositionM
+  ) {
+    return addElevator(elevator.getElevator(id), elevator, goalPositionM);
+  }
+
+  /**
+   * Adds a pivot goal, relative to the pivot's current scope
+   *
+   * @param pivot           Tagalong Subsystem containing a pivot microsystem
+   * @param goalPositionRot The target position for the pivot, in rotations
+   * @return The command, for chaining
+   */
+  public <T extends TagalongSubsystemBase & PivotAugment> MoveTogetherCmd pivotTo(
+      T pivot, double goalPositionRot
+  ) {
+    return addPivot(pivot.getPivot(), pivot, goalPositionRot);
+  }
+
+  /**
+   * Adds a pivot goal, relative to the pivot's current scope
+   *
+   * @param id              Integer ID of the pivot microsystem inside the
+   *                        Tagalong Subsystem
+   * @param pivot           Tagalong Subsystem containing a pivot microsystem
+   * @param goalPositionRot The target position for the pivot, in rotations
+   * @return The command, for chaining
+   */
+  public <T extends TagalongSubsystemBase & PivotAugment> MoveTogetherCmd pivotTo(
+      int id, T pivot, double goalPositionRot
+  ) {
+    return addPivot(pivot.getPivot(id), pivot, goalPositionRot);
+  }
+
+  /**
+   * Adds a roller goal
+   *
+   * @param roller          Tagalong Subsystem containing a roller microsystem
+   * @param goalPositionRot The target position for the roller, in rotations
+   * @return The command, for chaining
+   */
+  public <T extends TagalongSubsystemBase & RollerAugment> MoveTogetherCmd rollTo(
+      T roller, double goalPositionRot
+  ) {
+    return addRoller(roller.getRoller(), roller, goalPositionRot);
+  }
+
+  /**
+   * Adds a roller goal
+   *
+   * @param id              Integer ID of the roller microsystem inside the
+   *                        Tagalong Subsystem
+   * @param roller          Tagalong Subsystem containing a roller microsystem
+   * @param goalPositionRot The target position for the roller, in rotations
+   * @return The command, for chaining
+   */
+  public <T extends TagalongSubsystemBase & RollerAugment> MoveTogetherCmd rollTo(
+      int id, T roller, double goalPositionRot
+  ) {
+    return addRoller(roller.getRoller(id), roller, goalPositionRot);
+  }
+
+  private MoveTogetherCmd addElevator(
+      Elevator elevator, TagalongSubsystemBase subsystem, double goalPositionM
+  ) {
+    double lowerBoundM = goalPositionM - Math.abs(elevator._defaultElevatorLowerToleranceM);
+    double upperBoundM = goalPositionM + Math.abs(elevator._defaultElevatorUpperToleranceM);
+    _axes.add(new Axis(elevator) {
+      @Override
+      boolean isSafeToMove() {
+        return elevator.isSafeToMove();
+      }
+
+      @Override
+      void startProfile() {
+        elevator.setElevatorProfile(goalPositionM, 0.0, elevator._maxVelocityMPS);
+      }
+
+      @Override
+      void followLastProfile() {
+        elevator.followLastProfile();
+      }
+
+      @Override
+      boolean isInTolerance() {
+        return elevator.isElevatorInTolerance(lowerBoundM, upperBoundM);
+      }
+    });
+    addRequirements(subsystem);
+    return this;
+  }
+
+  private MoveTogetherCmd addPivot(
+      Pivot pivot, TagalongSubsystemBase subsystem, double goalPositionRot
+  ) {
+    double lowerBoundRot = goalPositionRot - Math.abs(pivot._defaultPivotLowerToleranceRot);
+    double upperBoundRot = goalPositionRot + Math.abs(pivot._defaultPivotUpperToleranceRot);
+    _axes.add(new Axis(pivot) {
+      @Override
+      boolean isSafeToMove() {
+        return pivot.isSafeToMove();
+      }
+
+      @Override
+      void startProfile() {
+        pivot.setPivotProfile(
+            goalPositionRot + pivot.getScopeOffset(),
+            0.0,
+            pivot._maxVelocityRPS,
+            pivot._maxAccelerationRPS2
+        );
+      }
+
+      @Override
+      void followLastProfile() {
+        pivot.followLastProfile();
+      }
+
+      @Override
+      boolean isInTolerance() {
+        return pivot.isPivotInTolerance(lowerBoundRot, upperBoundRot);
+      }
+    });
+    addRequirements(subsystem);
+    return this;
+  }
+
+  private MoveTogetherCmd addRoller(
+      Roller roller, TagalongSubsystemBase subsystem, double goalPositionRot
+  ) {
+    double lowerBoundRot = goalPositionRot - Math.abs(roller._defaultRollerLowerToleranceRot);
+    double upperBoundRot = goalPositionRot + Math.abs(roller._defaultRollerUpperToleranceRot);
+    _axes.add(new Axis(roller) {
+      @Override
+      boolean isSafeToMove() {
+        return true;
+      }
+
+      @Override
+      void startProfile() {
+        roller.setRollerProfile(goalPositionRot, 0.0, roller._maxVelocityRPS);
+      }
+
+      @Override
+      void followLastProfile() {
+        roller.followLastProfile();
+      }
+
+      @Override
+      boolean isInTolerance() {
+        return roller.isRollerInTolerance(lowerBoundRot, upperBoundRot);
+      }
+    });
+    addRequirements(subsystem);
+    return this;
+  }
+}
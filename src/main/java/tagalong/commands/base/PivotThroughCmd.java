@@ -0,0 +1,283 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.commands.base;
+
+import tagalong.commands.TagalongCommand;
+import tagalong.subsystems.TagalongSubsystemBase;
+import tagalong.subsystems.micro.Pivot;
+import tagalong.subsystems.micro.augments.PivotAugment;
+
+/**
+ * Base Command for pivot movement, moves system through each waypoint position without
+ * stopping and ends at the last.
+ */
+public class PivotThroughCmd<T extends TagalongSubsystemBase & PivotAugment>
+    extends TagalongCommand {
+  /**
+   * The subsystem's underlying Tagalong Pivot that the command acts on and operates.
+   */
+  private final Pivot _pivot;
+  /**
+   * Waypoint positions in rotations, the last is the goal
+   */
+  private final double[] _waypointsRot;
+  /**
+   * Waypoint positions with the pivot's scope offset applied
+   */
+  private final double[] _scopedWaypointsRot;
+  /**
+   * Largest speed through each waypoint in rotations per second, null for no caps
+   */
+  private final double[] _velocityCapsRPS;
+  /**
+   * Lower bound of the goal tolerance
+   */
+  private final double _lowerBoundRot;
+  /**
+   * Upper bound of the goal tolerance
+   */
+  private final double _upperBoundRot;
+  /**
+   * True if the pivot should actively hold position after the command
+   * completes.
+   * False otherwise.
+   */
+  private final boolean _holdPositionAfter;
+  /**
+   * Max velocity of the pivot for this specific command
+   */
+  private final double _maxVelocityRPS;
+  /**
+   * True if the command has started to move yet
+   */
+  private boolean _startedMovement;
+
+  @Override
+  public void initialize() {
+    _pivot.setHoldPosition(false);
+    _startedMovement = false;
+  }
+
+  @Override
+  public void execute() {
+    if (!_startedMovement) {
+      _startedMovement = true;
+      double scopeOffset = _pivot.getScopeOffset();
+      for (int i = 0; i < _waypointsRot.length; i++) {
+        _scopedWaypointsRot[i] = _waypointsRot[i] + scopeOffset;
+      }
+      _pivot.setPivotWaypointProfile(_scopedWaypointsRot, _velocityCapsRPS, _maxVelocityRPS);
+    }
+
+    _pivot.followLastProfile();
+  }
+
+  @Override
+  public void end(boolean interrupted) {
+    _pivot.setHoldPosition(_holdPositionAfter);
+  }
+
+  @Override
+  public boolean isFinished() {
+    return _startedMovement && _pivot.isProfileFinished()
+        && _pivot.isPivotInTolerance(_lowerBoundRot, _upperBoundRot);
+  }
+
+  /**
+   * Constructor that creates the command with the below parameters.
+   *
+   * @param pivot   Tagalong Subsystem containing a pivot microsystem
+   * @param waypointsRot The positions to move through, in rotations, the last is the goal
+   */
+  public PivotThroughCmd(T pivot, double[] waypointsRot) {
+    this(pivot, waypointsRot, null, true, pivot.getPivot()._maxVelocityRPS);
+  }
+
+  /**
+   * Constructor that creates the command with the below parameters.
+   *
+   * @param id         Integer ID of the pivot microsystem inside the
+   *                   Tagalong Subsystem
+   * @param pivot   Tagalong Subsystem containing a pivot microsystem
+   * @param waypointsRot The positions to move through, in rotations, the last is the goal
+   */
+  public PivotThroughCmd(int id, T pivot, double[] waypointsRot) {
+    this(id, pivot, waypointsRot, null, true, pivot.getPivot(id)._maxVelocityRPS);
+  }
+
+  /**
+   * Constructor that creates the command with the below parameters.
+   *
+   * @param pivot          Tagalong Subsystem containing a pivot
+   *                          microsystem
+   * @param waypointsRot        The positions to move through, in rotations, the last
+   *                          is the goal
+   * @param velocityCapsRPS   Largest speed through each waypoint, in rotations
+   *                          per second, null for no caps
+   * @param holdPositionAfter If the pivot should hold position when the
+   *                          command completes
+   * @param maxVelocityRPS    maximum velocity, in rotations per second, the pivot
+   *                          can move
+   */
+  public PivotThroughCmd(
+      T pivot,
+      double[] waypointsRot,
+      double[] velocityCapsRPS,
+      boolean holdPositionAfter,
+      double maxVelocityRPS
+  ) {
+    this(
+        pivot,
+        waypointsRot,
+        velocityCapsRPS,
+        holdPositionAfter,
+        maxVelocityRPS,
+        pivot.getPivot()._defaultPivotLowerToleranceRot,
+        pivot.getPivot()._defaultPivotUpperToleranceRot
+    );
+  }
+
+  /**
+   * Constructor that creates the command with the below parameters.
+   *
+   * @param id                Integer ID of the pivot microsystem inside the
+   *                          Tagalong Subsystem
+   * @param pivot          Tagalong Subsystem containing a pivot
+   *                          microsystem
+   * @param waypointsRot        The positions to move through, in rotations, the last
+   *                          is the goal
+   * @param velocityCapsRPS   Largest speed through each waypoint, in rotations
+   *                          per second, null for no caps
+   * @param holdPositionAfter If the pivot should hold position when the
+   *                          command completes
+   * @param maxVelocityRPS    maximum velocity, in rotations per second, the pivot
+   *                          can move
+   */
+  public PivotThroughCmd(
+      int id,
+      T pivot,
+      double[] waypointsRot,
+      double[] velocityCapsRPS,
+      boolean holdPositionAfter,
+      double maxVelocityRPS
+  ) {
+    this(
+        id,
+        pivot,
+        waypointsRot,
+        velocityCapsRPS,
+        holdPositionAfter,
+        maxVelocityRPS,
+        pivot.getPivot(id)._defaultPivotLowerToleranceRot,
+        pivot.getPivot(id)._defaultPivotUpperToleranceRot
+    );
+  }
+
+  /**
+   * Full constructor, with the below parameters.
+   *
+   * @param pivot          Tagalong Subsystem containing a pivot
+   *                          microsystem
+   * @param waypointsRot        The positions to move through, in rotations, the last
+   *                          is the goal
+   * @param velocityCapsRPS   Largest speed through each waypoint, in rotations
+   *                          per second, null for no caps
+   * @param holdPositionAfter If the pivot should hold position when the
+   *                          command completes
+   * @param maxVelocityRPS    maximum velocity, in rotations per second, the pivot
+   *                          can move
+   * @param lowerToleranceRot   the lower bound for the goal position tolerance, in
+   *                          rotations
+   * @param upperToleranceRot   the upper bound for the goal position tolerance, in
+   *                          rotations
+   */
+  public PivotThroughCmd(
+      T pivot,
+      double[] waypointsRot,
+      double[] velocityCapsRPS,
+      boolean holdPositionAfter,
+      double maxVelocityRPS,
+      double lowerToleranceRot,
+      double upperToleranceRot
+  ) {
+    this(
+        pivot.getPivot(),
+        pivot,
+        waypointsRot,
+        velocityCapsRPS,
+        holdPositionAfter,
+        maxVelocityRPS,
+        lowerToleranceRot,
+        upperToleranceRot
+    );
+  }
+
+  /**
+   * Full constructor, with the below parameters.
+   *
+   * @param id                Integer ID of the pivot microsystem inside the
+   *                          Tagalong Subsystem
+   * @param pivot          Tagalong Subsystem containing a pivot
+   *                          microsystem
+   * @param waypointsRot        The positions to move through, in rotations, the last
+   *                          is the goal
+   * @param velocityCapsRPS   Largest speed through each waypoint, in rotations
+   *                          per second, null for no caps
+   * @param holdPositionAfter If the pivot should hold position when the
+   *                          command completes
+   * @param maxVelocityRPS    maximum velocity, in rotations per second, the pivot
+   *                          can move
+   * @param lowerToleranceRot   the lower bound for the goal position tolerance, in
+   *                          rotations
+   * @param upperToleranceRot   the upper bound for the goal position tolerance, in
+   *                          rotations
+   */
+  public PivotThroughCmd(
+      int id,
+      T pivot,
+      double[] waypointsRot,
+      double[] velocityCapsRPS,
+      boolean holdPositionAfter,
+      double maxVelocityRPS,
+      double lowerToleranceRot,
+      double upperToleranceRot
+  ) {
+    this(
+        pivot.getPivot(id),
+        pivot,
+        waypointsRot,
+        velocityCapsRPS,
+        holdPositionAfter,
+        maxVelocityRPS,
+        lowerToleranceRot,
+        upperToleranceRot
+    );
+  }
+
+  private PivotThroughCmd(
+      Pivot microsystem,
+      T pivot,
+      double[] waypointsRot,
+      double[] velocityCapsRPS,
+      boolean holdPositionAfter,
+      double maxVelocityRPS,
+      double lowerToleranceRot,
+      double upperToleranceRot
+  ) {
+    _pivot = microsystem;
+    _waypointsRot = waypointsRot;
+    _scopedWaypointsRot = new double[waypointsRot.length];
+    _velocityCapsRPS = velocityCapsRPS;
+    _holdPositionAfter = holdPositionAfter;
+    _maxVelocityRPS = maxVelocityRPS;
+    double goalPositionRot = waypointsRot[waypointsRot.length - 1];
+    _lowerBoundRot = goalPositionRot - Math.abs(lowerToleranceRot);
+    _upperBoundRot = goalPositionRot + Math.abs(upperToleranceRot);
+
+    addRequirements(pivot);
+  }
+}
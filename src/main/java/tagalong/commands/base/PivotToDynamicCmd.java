@@ -8,7 +8,9 @@ package tagalong.commands.base;
 
 import java.util.function.BooleanSupplier;
 import java.util.function.DoubleSupplier;
+import tagalong.TagalongConfiguration;
 import tagalong.commands.TagalongCommand;
+import tagalong.controls.DynamicGoalFilter;
 import tagalong.subsystems.TagalongSubsystemBase;
 import tagalong.subsystems.micro.Pivot;
 import tagalong.subsystems.micro.augments.PivotAugment;
@@ -46,11 +48,16 @@ public class PivotToDynamicCmd<T extends TagalongSubsystemBase & PivotAugment>
    * The goal position in rotations
    */
   private double _goalPositionRot;
+  /**
+   * Filter deciding when the goal has moved enough to re-plan
+   */
+  private final DynamicGoalFilter _goalFilter;
 
   @Override
   public void initialize() {
     _pivot.setHoldPosition(false);
     _startedMovement = false;
+    _goalFilter.reset();
   }
 
   @Override
@@ -58,11 +65,15 @@ public class PivotToDynamicCmd<T extends TagalongSubsystemBase & PivotAugment>
     // if pivot has not started moving, check for legal states
     _goalPositionRot = _goalSupplierRot.getAsDouble();
     if (_startedMovement) {
-      _pivot.setPivotProfile(_goalPositionRot, 0.0, _maxVelocityRPS);
+      // Only re-plan once the goal moves past the deadband or the re-plan interval expires
+      if (_goalFilter.update(_goalPositionRot, TagalongConfiguration.LOOP_PERIOD_S)) {
+        _pivot.setPivotProfile(_goalFilter.getGoal(), 0.0, _maxVelocityRPS);
+      }
       _pivot.followLastProfile();
     } else if (_startCondition.getAsBoolean()) {
       _startedMovement = true;
-      _pivot.setPivotProfile(_goalPositionRot, 0.0, _maxVelocityRPS);
+      _goalFilter.update(_goalPositionRot, TagalongConfiguration.LOOP_PERIOD_S);
+      _pivot.setPivotProfile(_goalFilter.getGoal(), 0.0, _maxVelocityRPS);
       _pivot.followLastProfile();
     }
   }
@@ -108,6 +119,11 @@ public class PivotToDynamicCmd<T extends TagalongSubsystemBase & PivotAugment>
     _holdPositionAfter = holdPositionAfter;
     _maxVelocityRPS = maxVelocityRPS;
     _startCondition = startSupplier;
+    _goalFilter = new DynamicGoalFilter(
+        _pivot._conf.dynamicGoalDeadband,
+        _pivot._conf.dynamicGoalReplanIntervalS,
+        _pivot._conf.dynamicGoalFilterTimeConstantS
+    );
 
     addRequirements(pivot);
   }
@@ -140,6 +156,11 @@ public class PivotToDynamicCmd<T extends TagalongSubsystemBase & PivotAugment>
     _holdPositionAfter = holdPositionAfter;
     _maxVelocityRPS = maxVelocityRPS;
     _startCondition = startSupplier;
+    _goalFilter = new DynamicGoalFilter(
+        _pivot._conf.dynamicGoalDeadband,
+        _pivot._conf.dynamicGoalReplanIntervalS,
+        _pivot._conf.dynamicGoalFilterTimeConstantS
+    );
 
     addRequirements(pivot);
   }
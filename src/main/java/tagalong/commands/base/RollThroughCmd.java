@@ -0,0 +1,274 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.commands.base;
+
+import tagalong.commands.TagalongCommand;
+import tagalong.subsystems.TagalongSubsystemBase;
+import tagalong.subsystems.micro.Roller;
+import tagalong.subsystems.micro.augments.RollerAugment;
+
+/**
+ * Base Command for rotational roller movement, moves system through each waypoint position without
+ * stopping and ends at the last.
+ */
+public class RollThroughCmd<T extends TagalongSubsystemBase & RollerAugment>
+    extends TagalongCommand {
+  /**
+   * The subsystem's underlying Tagalong Roller that the command acts on and operates.
+   */
+  private final Roller _roller;
+  /**
+   * Waypoint positions in rotations, the last is the goal
+   */
+  private final double[] _waypointsRot;
+  /**
+   * Largest speed through each waypoint in rotations per second, null for no caps
+   */
+  private final double[] _velocityCapsRPS;
+  /**
+   * Lower bound of the goal tolerance
+   */
+  private final double _lowerBoundRot;
+  /**
+   * Upper bound of the goal tolerance
+   */
+  private final double _upperBoundRot;
+  /**
+   * True if the roller should actively hold position after the command
+   * completes.
+   * False otherwise.
+   */
+  private final boolean _holdPositionAfter;
+  /**
+   * Max velocity of the roller for this specific command
+   */
+  private final double _maxVelocityRPS;
+  /**
+   * True if the command has started to move yet
+   */
+  private boolean _startedMovement;
+
+  @Override
+  public void initialize() {
+    _roller.setHoldPosition(false);
+    _startedMovement = false;
+  }
+
+  @Override
+  public void execute() {
+    if (!_startedMovement) {
+      _startedMovement = true;
+      _roller.setRollerWaypointProfile(_waypointsRot, _velocityCapsRPS, _maxVelocityRPS);
+    }
+
+    _roller.followLastProfile();
+  }
+
+  @Override
+  public void end(boolean interrupted) {
+    _roller.setHoldPosition(_holdPositionAfter);
+  }
+
+  @Override
+  public boolean isFinished() {
+    return _startedMovement && _roller.isProfileFinished()
+        && _roller.isRollerInTolerance(_lowerBoundRot, _upperBoundRot);
+  }
+
+  /**
+   * Constructor that creates the command with the below parameters.
+   *
+   * @param roller   Tagalong Subsystem containing a roller microsystem
+   * @param waypointsRot The positions to move through, in rotations, the last is the goal
+   */
+  public RollThroughCmd(T roller, double[] waypointsRot) {
+    this(roller, waypointsRot, null, true, roller.getRoller()._maxVelocityRPS);
+  }
+
+  /**
+   * Constructor that creates the command with the below parameters.
+   *
+   * @param id         Integer ID of the roller microsystem inside the
+   *                   Tagalong Subsystem
+   * @param roller   Tagalong Subsystem containing a roller microsystem
+   * @param waypointsRot The positions to move through, in rotations, the last is the goal
+   */
+  public RollThroughCmd(int id, T roller, double[] waypointsRot) {
+    this(id, roller, waypointsRot, null, true, roller.getRoller(id)._maxVelocityRPS);
+  }
+
+  /**
+   * Constructor that creates the command with the below parameters.
+   *
+   * @param roller          Tagalong Subsystem containing a roller
+   *                          microsystem
+   * @param waypointsRot        The positions to move through, in rotations, the last
+   *                          is the goal
+   * @param velocityCapsRPS   Largest speed through each waypoint, in rotations
+   *                          per second, null for no caps
+   * @param holdPositionAfter If the roller should hold position when the
+   *                          command completes
+   * @param maxVelocityRPS    maximum velocity, in rotations per second, the roller
+   *                          can move
+   */
+  public RollThroughCmd(
+      T roller,
+      double[] waypointsRot,
+      double[] velocityCapsRPS,
+      boolean holdPositionAfter,
+      double maxVelocityRPS
+  ) {
+    this(
+        roller,
+        waypointsRot,
+        velocityCapsRPS,
+        holdPositionAfter,
+        maxVelocityRPS,
+        roller.getRoller()._defaultRollerLowerToleranceRot,
+        roller.getRoller()._defaultRollerUpperToleranceRot
+    );
+  }
+
+  /**
+   * Constructor that creates the command with the below parameters.
+   *
+   * @param id                Integer ID of the roller microsystem inside the
+   *                          Tagalong Subsystem
+   * @param roller          Tagalong Subsystem containing a roller
+   *                          microsystem
+   * @param waypointsRot        The positions to move through, in rotations, the last
+   *                          is the goal
+   * @param velocityCapsRPS   Largest speed through each waypoint, in rotations
+   *                          per second, null for no caps
+   * @param holdPositionAfter If the roller should hold position when the
+   *                          command completes
+   * @param maxVelocityRPS    maximum velocity, in rotations per second, the roller
+   *                          can move
+   */
+  public RollThroughCmd(
+      int id,
+      T roller,
+      double[] waypointsRot,
+      double[] velocityCapsRPS,
+      boolean holdPositionAfter,
+      double maxVelocityRPS
+  ) {
+    this(
+        id,
+        roller,
+        waypointsRot,
+        velocityCapsRPS,
+        holdPositionAfter,
+        maxVelocityRPS,
+        roller.getRoller(id)._defaultRollerLowerToleranceRot,
+        roller.getRoller(id)._defaultRollerUpperToleranceRot
+    );
+  }
+
+  /**
+   * Full constructor, with the below parameters.
+   *
+   * @param roller          Tagalong Subsystem containing a roller
+   *                          microsystem
+   * @param waypointsRot        The positions to move through, in rotations, the last
+   *                          is the goal
+   * @param velocityCapsRPS   Largest speed through each waypoint, in rotations
+   *                          per second, null for no caps
+   * @param holdPositionAfter If the roller should hold position when the
+   *                          command completes
+   * @param maxVelocityRPS    maximum velocity, in rotations per second, the roller
+   *                          can move
+   * @param lowerToleranceRot   the lower bound for the goal position tolerance, in
+   *                          rotations
+   * @param upperToleranceRot   the upper bound for the goal position tolerance, in
+   *                          rotations
+   */
+  public RollThroughCmd(
+      T roller,
+      double[] waypointsRot,
+      double[] velocityCapsRPS,
+      boolean holdPositionAfter,
+      double maxVelocityRPS,
+      double lowerToleranceRot,
+      double upperToleranceRot
+  ) {
+    this(
+        roller.getRoller(),
+        roller,
+        waypointsRot,
+        velocityCapsRPS,
+        holdPositionAfter,
+        maxVelocityRPS,
+        lowerToleranceRot,
+        upperToleranceRot
+    );
+  }
+
+  /**
+   * Full constructor, with the below parameters.
+   *
+   * @param id                Integer ID of the roller microsystem inside the
+   *                          Tagalong Subsystem
+   * @param roller          Tagalong Subsystem containing a roller
+   *                          microsystem
+   * @param waypointsRot        The positions to move through, in rotations, the last
+   *                          is the goal
+   * @param velocityCapsRPS   Largest speed through each waypoint, in rotations
+   *                          per second, null for no caps
+   * @param holdPositionAfter If the roller should hold position when the
+   *                          command completes
+   * @param maxVelocityRPS    maximum velocity, in rotations per second, the roller
+   *                          can move
+   * @param lowerToleranceRot   the lower bound for the goal position tolerance, in
+   *                          rotations
+   * @param upperToleranceRot   the upper bound for the goal position tolerance, in
+   *                          rotations
+   */
+  public RollThroughCmd(
+      int id,
+      T roller,
+      double[] waypointsRot,
+      double[] velocityCapsRPS,
+      boolean holdPositionAfter,
+      double maxVelocityRPS,
+      double lowerToleranceRot,
+      double upperToleranceRot
+  ) {
+    this(
+        roller.getRoller(id),
+        roller,
+        waypointsRot,
+        velocityCapsRPS,
+        holdPositionAfter,
+        maxVelocityRPS,
+        lowerToleranceRot,
+        upperToleranceRot
+    );
+  }
+
+  private RollThroughCmd(
+      Roller microsystem,
+      T roller,
+      double[] waypointsRot,
+      double[] velocityCapsRPS,
+      boolean holdPositionAfter,
+      double maxVelocityRPS,
+      double lowerToleranceRot,
+      double upperToleranceRot
+  ) {
+    _roller = microsystem;
+    _waypointsRot = waypointsRot;
+    _velocityCapsRPS = velocityCapsRPS;
+    _holdPositionAfter = holdPositionAfter;
+    _maxVelocityRPS = maxVelocityRPS;
+    double goalPositionRot = waypointsRot[waypointsRot.length - 1];
+    _lowerBoundRot = goalPositionRot - Math.abs(lowerToleranceRot);
+    _upperBoundRot = goalPositionRot + Math.abs(upperToleranceRot);
+
+    addRequirements(roller);
+  }
+}
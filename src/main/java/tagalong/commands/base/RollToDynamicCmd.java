@@ -7,7 +7,9 @@
 package tagalong.commands.base;
 
 import java.util.function.DoubleSupplier;
+import tagalong.TagalongConfiguration;
 import tagalong.commands.TagalongCommand;
+import tagalong.controls.DynamicGoalFilter;
 import tagalong.subsystems.TagalongSubsystemBase;
 import tagalong.subsystems.micro.Roller;
 import tagalong.subsystems.micro.augments.RollerAugment;
@@ -37,20 +39,28 @@ public class RollToDynamicCmd<T extends TagalongSubsystemBase & RollerAugment>
    * Goal position of the roller in rotations
    */
   private double _goalPositionRot;
+  /**
+   * Filter deciding when the goal has moved enough to re-plan
+   */
+  private final DynamicGoalFilter _goalFilter;
 
   @Override
   public void initialize() {
     _roller.setHoldPosition(false);
     _roller.resetToleranceTimer();
+    _goalFilter.reset();
     _roller.setRollerProfile(_goalPositionRot, 0.0, _maxVelocityRPS);
   }
 
   @Override
   public void execute() {
     _goalPositionRot = _goalSupplierRot.getAsDouble();
-    _roller.setRollerProfile(
-        _goalPositionRot, 0.0, _maxVelocityRPS, _roller._maxAccelerationRPS2, false
-    );
+    // Only re-plan once the goal moves past the deadband or the re-plan interval expires
+    if (_goalFilter.update(_goalPositionRot, TagalongConfiguration.LOOP_PERIOD_S)) {
+      _roller.setRollerProfile(
+          _goalFilter.getGoal(), 0.0, _maxVelocityRPS, _roller._maxAccelerationRPS2, false
+      );
+    }
     _roller.followLastProfile();
   }
 
@@ -91,6 +101,11 @@ public class RollToDynamicCmd<T extends TagalongSubsystemBase & RollerAugment>
     _goalSupplierRot = goalSupplierRot;
     _holdPositionAfter = holdPositionAfter;
     _maxVelocityRPS = maxVelocityRPS;
+    _goalFilter = new DynamicGoalFilter(
+        _roller._conf.dynamicGoalDeadband,
+        _roller._conf.dynamicGoalReplanIntervalS,
+        _roller._conf.dynamicGoalFilterTimeConstantS
+    );
 
     addRequirements(roller);
   }
@@ -116,6 +131,11 @@ public class RollToDynamicCmd<T extends TagalongSubsystemBase & RollerAugment>
     _goalSupplierRot = goalSupplierRot;
     _holdPositionAfter = holdPositionAfter;
     _maxVelocityRPS = maxVelocityRPS;
+    _goalFilter = new DynamicGoalFilter(
+        _roller._conf.dynamicGoalDeadband,
+        _roller._conf.dynamicGoalReplanIntervalS,
+        _roller._conf.dynamicGoalFilterTimeConstantS
+    );
 
     addRequirements(roller);
   }
@@ -0,0 +1,100 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.controls;
+
+/**
+ * Goal filter for dynamic commands, deciding when a changing goal is worth re-planning the profile
+ * to. Goals are low pass filtered, then only re-planned when the filtered goal moves further than
+ * the deadband from the planned goal or when a smaller change has waited for the re-plan interval.
+ * Noisy goals then stop restarting the profile every loop.
+ */
+public class DynamicGoalFilter {
+  /**
+   * Smallest goal change that re-plans right away, in profile units
+   */
+  private final double _deadband;
+  /**
+   * Longest time a smaller goal change waits before re-planning, in seconds
+   */
+  private final double _replanIntervalS;
+  /**
+   * Time constant of the low pass filter in seconds, 0.0 to not filter
+   */
+  private final double _timeConstantS;
+  /**
+   * Low pass filtered goal,
+   * Goal of the last re-plan
+   */
+  private double _filteredGoal, _plannedGoal;
+  /**
+   * Time since the last re-plan in seconds
+   */
+  private double _sincePlanS;
+  /**
+   * False until the first goal after a reset
+   */
+  private boolean _initialized = false;
+
+  /**
+   * Constructs a goal filter
+   *
+   * @param deadband        smallest goal change that re-plans right away, in profile units
+   * @param replanIntervalS longest time a smaller goal change waits before re-planning, in seconds
+   * @param timeConstantS   time constant of the low pass filter in seconds, 0.0 to not filter
+   */
+  public DynamicGoalFilter(double deadband, double replanIntervalS, double timeConstantS) {
+    _deadband = deadband;
+    _replanIntervalS = replanIntervalS;
+    _timeConstantS = timeConstantS;
+  }
+
+  /**
+   * Forgets the filtered goal, the next update re-plans to its goal unfiltered
+   */
+  public void reset() {
+    _initialized = false;
+  }
+
+  /**
+   * Filters the newest goal
+   *
+   * @param goal goal in profile units
+   * @param dtS  time since the last update in seconds
+   * @return True if the profile should be re-planned to getGoal
+   */
+  public boolean update(double goal, double dtS) {
+    if (!_initialized) {
+      _initialized = true;
+      _filteredGoal = goal;
+      _plannedGoal = goal;
+      _sincePlanS = 0.0;
+      return true;
+    }
+
+    if (_timeConstantS > 0.0) {
+      _filteredGoal += (goal - _filteredGoal) * (1.0 - Math.exp(-dtS / _timeConstantS));
+    } else {
+      _filteredGoal = goal;
+    }
+    _sincePlanS += dtS;
+
+    double change = Math.abs(_filteredGoal - _plannedGoal);
+    if (change > _deadband || (change > 0.0 && _sincePlanS >= _replanIntervalS)) {
+      _plannedGoal = _filteredGoal;
+      _sincePlanS = 0.0;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * @return goal of the last re-plan in profile units
+   */
+  public double getGoal() {
+    return _plannedGoal;
+  }
+}
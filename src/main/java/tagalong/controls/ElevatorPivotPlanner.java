@@ -0,0 +1,531 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.controls;
+
+import java.util.ArrayList;
+import tagalong.math.GeometricUtils;
+
+/**
+ * Collision free planner for a pivot on an elevator carriage, searching the configuration space of
+ * elevator height and pivot angle. Keep out regions are polygons in that space added at boot, build
+ * rasterizes them into an occupancy grid with a precomputed clearance field so a query only runs a
+ * time weighted A* search over the grid, never allocating.
+ *
+ * Paths are simplified into the fewest straight line waypoints that stay clear of the keep out
+ * regions, both mechanisms move together along each line. A path is only as fine as the grid, so
+ * the clearance margin should cover a cell and any deviation from the straight lines.
+ */
+public class ElevatorPivotPlanner {
+  /**
+   * Clearance field weights for a straight and a diagonal step, approximating 1 and sqrt(2)
+   */
+  private static final int STRAIGHT_WEIGHT = 3, DIAGONAL_WEIGHT = 4;
+  /**
+   * Clearance of cells with no keep out region in range
+   */
+  private static final int FAR_CLEARANCE = Integer.MAX_VALUE / 2;
+  /**
+   * Samples per cell when checking a straight line is clear
+   */
+  private static final int LINE_SAMPLES_PER_CELL = 3;
+
+  /**
+   * Lowest elevator height of the grid in meters,
+   * Lowest pivot angle of the grid in rotations
+   */
+  private final double _minHeightM, _minAngleRot;
+  /**
+   * Number of cells along the elevator height,
+   * Number of cells along the pivot angle
+   */
+  private final int _heightCells, _angleCells;
+  /**
+   * Cell size in meters,
+   * Cell size in rotations
+   */
+  private final double _cellHeightM, _cellAngleRot;
+  /**
+   * Cells of margin kept from every keep out region
+   */
+  private final int _clearanceCells;
+  /**
+   * Maximum elevator velocity in meters per second,
+   * Maximum pivot velocity in rotations per second
+   */
+  private final double _maxVelocityMPS, _maxVelocityRPS;
+
+  /**
+   * Keep out polygon vertices, only used until build
+   */
+  private final ArrayList<double[]> _keepOutHeightsM = new ArrayList<>(),
+                                    _keepOutAnglesRot = new ArrayList<>();
+  /**
+   * Whether each cell keeps the clearance margin
+   */
+  private final boolean[] _free;
+  /**
+   * Weighted distance from each cell to the nearest keep out cell
+   */
+  private final int[] _clearance;
+  /**
+   * True once build has rasterized the keep out regions
+   */
+  private boolean _built = false;
+
+  /**
+   * Search time from the start to each cell in seconds,
+   * Search time plus the estimate to the goal, the heap priority
+   */
+  private final double[] _cost, _priority;
+  /**
+   * Cell each cell was reached from
+   */
+  private final int[] _parent;
+  /**
+   * Search that last opened each cell,
+   * Search that last closed each cell
+   */
+  private final int[] _openedSearch, _closedSearch;
+  /**
+   * Binary heap of open cells,
+   * Heap index of each open cell
+   */
+  private final int[] _heap, _heapIndex;
+  /**
+   * Number of cells in the heap,
+   * Number of the current search
+   */
+  private int _heapSize, _search = 0;
+  /**
+   * Cells of the last path from start to goal
+   */
+  private final int[] _path;
+  /**
+   * Cell of the last query's start, allowed even when inside the margin
+   */
+  private int _startCell;
+
+  /**
+   * Waypoint heights in meters and angles in rotations of the last planned path
+   */
+  private final double[] _waypointHeightsM, _waypointAnglesRot;
+  /**
+   * Number of waypoints of the last planned path
+   */
+  private int _numWaypoints = 0;
+
+  /**
+   * Constructs a planner over the configuration space
+   *
+   * @param minHeightM     lowest elevator height in meters
+   * @param maxHeightM     highest elevator height in meters
+   * @param heightCells    number of cells along the elevator height
+   * @param minAngleRot    lowest pivot angle in rotations
+   * @param maxAngleRot    highest pivot angle in rotations
+   * @param angleCells     number of cells along the pivot angle
+   * @param clearanceCells cells of margin to keep from every keep out region
+   * @param maxVelocityMPS maximum elevator velocity in meters per second, weighs path time
+   * @param maxVelocityRPS maximum pivot velocity in rotations per second, weighs path time
+   */
+  public ElevatorPivotPlanner(
+      double minHeightM,
+      double maxHeightM,
+      int heightCells,
+      double minAngleRot,
+      double maxAngleRot,
+      int angleCells,
+      int clearanceCells,
+      double maxVelocityMPS,
+      double maxVelocityRPS
+  ) {
+    _minHeightM = minHeightM;
+    _minAngleRot = minAngleRot;
+    _heightCells = heightCells;
+    _angleCells = angleCells;
+    _cellHeightM = (maxHeightM - minHeightM) / heightCells;
+    _cellAngleRot = (maxAngleRot - minAngleRot) / angleCells;
+    _clearanceCells = clearanceCells;
+    _maxVelocityMPS = maxVelocityMPS;
+    _maxVelocityRPS = maxVelocityRPS;
+
+    int numCells = heightCells * angleCells;
+    _free = new boolean[numCells];
+    _clearance = new int[numCells];
+    _cost = new double[numCells];
+    _priority = new double[numCells];
+    _parent = new int[numCells];
+    _openedSearch = new int[numCells];
+    _closedSearch = new int[numCells];
+    _heap = new int[numCells];
+    _heapIndex = new int[numCells];
+    _path = new int[numCells];
+    _waypointHeightsM = new double[numCells];
+    _waypointAnglesRot = new double[numCells];
+  }
+
+  /**
+   * Adds a keep out region, takes effect at the next build
+   *
+   * @param heightsM  elevator heights of the polygon's vertices in meters, in order around the
+   *     polygon
+   * @param anglesRot pivot angles of the polygon's vertices in rotations, in order around the
+   *     polygon
+   */
+  public void addKeepOut(double[] heightsM, double[] anglesRot) {
+    assert (heightsM.length == anglesRot.length && heightsM.length >= 3);
+    _keepOutHeightsM.add(heightsM.clone());
+    _keepOutAnglesRot.add(anglesRot.clone());
+  }
+
+  /**
+   * Rasterizes the keep out regions into the occupancy grid and precomputes the clearance field,
+   * ran once at boot
+   */
+  public void build() {
+    for (int h = 0; h < _heightCells; h++) {
+      for (int a = 0; a < _angleCells; a++) {
+        double heightM = cellHeightM(h);
+        double angleRot = cellAngleRot(a);
+        boolean keepOut = false;
+        for (int i = 0; i < _keepOutHeightsM.size() && !keepOut; i++) {
+          keepOut = GeometricUtils.inPolygon(
+              heightM, angleRot, _keepOutHeightsM.get(i), _keepOutAnglesRot.get(i)
+          );
+        }
+        _clearance[h * _angleCells + a] = keepOut ? 0 : FAR_CLEARANCE;
+      }
+    }
+
+    // Two pass chamfer distance transform, first from the top left then from the bottom right
+    for (int h = 0; h < _heightCells; h++) {
+      for (int a = 0; a < _angleCells; a++) {
+        relaxClearance(h, a, h - 1, a - 1, DIAGONAL_WEIGHT);
+        relaxClearance(h, a, h - 1, a, STRAIGHT_WEIGHT);
+        relaxClearance(h, a, h - 1, a + 1, DIAGONAL_WEIGHT);
+        relaxClearance(h, a, h, a - 1, STRAIGHT_WEIGHT);
+      }
+    }
+    for (int h = _heightCells - 1; h >= 0; h--) {
+      for (int a = _angleCells - 1; a >= 0; a--) {
+        relaxClearance(h, a, h + 1, a + 1, DIAGONAL_WEIGHT);
+        relaxClearance(h, a, h + 1, a, STRAIGHT_WEIGHT);
+        relaxClearance(h, a, h + 1, a - 1, DIAGONAL_WEIGHT);
+        relaxClearance(h, a, h, a + 1, STRAIGHT_WEIGHT);
+      }
+    }
+
+    for (int i = 0; i < _free.length; i++) {
+      _free[i] = _clearance[i] > _clearanceCells * STRAIGHT_WEIGHT;
+    }
+    _built = true;
+  }
+
+  /**
+   * Checks a configuration keeps the clearance margin from every keep out region
+   *
+   * @param heightM  elevator height in meters
+   * @param angleRot pivot angle in rotations
+   * @return True if the configuration's cell is free
+   */
+  public boolean isFree(double heightM, double angleRot) {
+    return _built && _free[cellOf(heightM, angleRot)];
+  }
+
+  /**
+   * Gets the clearance of a configuration
+   *
+   * @param heightM  elevator height in meters
+   * @param angleRot pivot angle in rotations
+   * @return approximate distance to the nearest keep out region in cells
+   */
+  public double getClearanceCells(double heightM, double angleRot) {
+    return (double) _clearance[cellOf(heightM, angleRot)] / STRAIGHT_WEIGHT;
+  }
+
+  /**
+   * Plans the shortest time path between configurations, replacing the waypoints. The start may be
+   * inside the margin so the mechanism can move out of it, the goal must be free.
+   *
+   * @param startHeightM  starting elevator height in meters
+   * @param startAngleRot starting pivot angle in rotations
+   * @param goalHeightM   goal elevator height in meters
+   * @param goalAngleRot  goal pivot angle in rotations
+   * @return True if a path was found
+   */
+  public boolean plan(
+      double startHeightM, double startAngleRot, double goalHeightM, double goalAngleRot
+  ) {
+    _numWaypoints = 0;
+    if (!_built) {
+      return false;
+    }
+    _startCell = cellOf(startHeightM, startAngleRot);
+    int goalCell = cellOf(goalHeightM, goalAngleRot);
+    if (!_free[goalCell]) {
+      return false;
+    }
+    if (!search(_startCell, goalCell)) {
+      return false;
+    }
+
+    // Walk back from the goal, then put the path in order
+    int length = 0;
+    for (int cell = goalCell; cell != _startCell; cell = _parent[cell]) {
+      _path[length++] = cell;
+    }
+    _path[length++] = _startCell;
+    for (int i = 0; i < length / 2; i++) {
+      int swap = _path[i];
+      _path[i] = _path[length - 1 - i];
+      _path[length - 1 - i] = swap;
+    }
+
+    // Keep the furthest cell along the path each straight line from the last waypoint clears
+    double fromHeightM = startHeightM;
+    double fromAngleRot = startAngleRot;
+    int next = 1;
+    while (next < length - 1
+           && !isLineFree(fromHeightM, fromAngleRot, goalHeightM, goalAngleRot)) {
+      int furthest = next;
+      while (furthest + 1 < length - 1
+             && isLineFree(
+                 fromHeightM,
+                 fromAngleRot,
+                 cellHeightM(_path[furthest + 1] / _angleCells),
+                 cellAngleRot(_path[furthest + 1] % _angleCells)
+             )) {
+        furthest++;
+      }
+      fromHeightM = cellHeightM(_path[furthest] / _angleCells);
+      fromAngleRot = cellAngleRot(_path[furthest] % _angleCells);
+      addWaypoint(fromHeightM, fromAngleRot);
+      next = furthest + 1;
+    }
+    addWaypoint(goalHeightM, goalAngleRot);
+    return true;
+  }
+
+  /**
+   * @return number of waypoints of the last planned path, the last is the goal
+   */
+  public int getNumWaypoints() {
+    return _numWaypoints;
+  }
+
+  /**
+   * @param index index of the waypoint
+   * @return elevator height of the waypoint in meters
+   */
+  public double getWaypointHeightM(int index) {
+    return _waypointHeightsM[index];
+  }
+
+  /**
+   * @param index index of the waypoint
+   * @return pivot angle of the waypoint in rotations
+   */
+  public double getWaypointAngleRot(int index) {
+    return _waypointAnglesRot[index];
+  }
+
+  /**
+   * A* search from the start to the goal, weighing each step by the time the slower mechanism
+   * takes to cross it
+   *
+   * @return True if the goal was reached
+   */
+  private boolean search(int startCell, int goalCell) {
+    _search++;
+    _heapSize = 0;
+    int goalH = goalCell / _angleCells;
+    int goalA = goalCell % _angleCells;
+
+    _openedSearch[startCell] = _search;
+    _cost[startCell] = 0.0;
+    _priority[startCell] =
+        stepTime(startCell / _angleCells - goalH, startCell % _angleCells - goalA);
+    push(startCell);
+
+    while (_heapSize > 0) {
+      int cell = pop();
+      if (cell == goalCell) {
+        return true;
+      }
+      _closedSearch[cell] = _search;
+      int h = cell / _angleCells;
+      int a = cell % _angleCells;
+
+      for (int dh = -1; dh <= 1; dh++) {
+        for (int da = -1; da <= 1; da++) {
+          int nh = h + dh;
+          int na = a + da;
+          if ((dh == 0 && da == 0) || nh < 0 || nh >= _heightCells || na < 0
+              || na >= _angleCells) {
+            continue;
+          }
+          int neighbor = nh * _angleCells + na;
+          if (!isSearchable(neighbor) || _closedSearch[neighbor] == _search) {
+            continue;
+          }
+          // Diagonal steps may not cut the corner of a blocked cell
+          if (dh != 0 && da != 0
+              && (!isSearchable(nh * _angleCells + a) || !isSearchable(h * _angleCells + na))) {
+            continue;
+          }
+
+          double cost = _cost[cell] + stepTime(dh, da);
+          if (_openedSearch[neighbor] != _search) {
+            _openedSearch[neighbor] = _search;
+            _cost[neighbor] = cost;
+            _parent[neighbor] = cell;
+            _priority[neighbor] = cost + stepTime(nh - goalH, na - goalA);
+            push(neighbor);
+          } else if (cost < _cost[neighbor]) {
+            _priority[neighbor] -= _cost[neighbor] - cost;
+            _cost[neighbor] = cost;
+            _parent[neighbor] = cell;
+            siftUp(_heapIndex[neighbor]);
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return True if the search may enter the cell
+   */
+  private boolean isSearchable(int cell) {
+    return _free[cell] || cell == _startCell;
+  }
+
+  /**
+   * @return time the slower mechanism takes to move the number of cells, in seconds, also an
+   *     admissible estimate of the time left to the goal
+   */
+  private double stepTime(int heightCells, int angleCells) {
+    return Math.max(
+        Math.abs(heightCells) * _cellHeightM / _maxVelocityMPS,
+        Math.abs(angleCells) * _cellAngleRot / _maxVelocityRPS
+    );
+  }
+
+  /**
+   * @return True if every sample along the straight line between configurations is searchable
+   */
+  private boolean isLineFree(
+      double fromHeightM, double fromAngleRot, double toHeightM, double toAngleRot
+  ) {
+    double heightSpanM = toHeightM - fromHeightM;
+    double angleSpanRot = toAngleRot - fromAngleRot;
+    int samples = (int) Math.ceil(
+        LINE_SAMPLES_PER_CELL
+        * Math.max(Math.abs(heightSpanM) / _cellHeightM, Math.abs(angleSpanRot) / _cellAngleRot)
+    );
+    for (int i = 0; i <= samples; i++) {
+      double t = samples == 0 ? 1.0 : (double) i / samples;
+      if (!isSearchable(cellOf(fromHeightM + heightSpanM * t, fromAngleRot + angleSpanRot * t))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void addWaypoint(double heightM, double angleRot) {
+    _waypointHeightsM[_numWaypoints] = heightM;
+    _waypointAnglesRot[_numWaypoints] = angleRot;
+    _numWaypoints++;
+  }
+
+  /**
+   * Lowers the cell's clearance to the neighbor's plus the step weight, neighbors off the grid are
+   * ignored
+   */
+  private void relaxClearance(int h, int a, int nh, int na, int weight) {
+    if (nh < 0 || nh >= _heightCells || na < 0 || na >= _angleCells) {
+      return;
+    }
+    int cell = h * _angleCells + a;
+    int through = _clearance[nh * _angleCells + na] + weight;
+    if (through < _clearance[cell]) {
+      _clearance[cell] = through;
+    }
+  }
+
+  /**
+   * @return cell containing the configuration, clamped to the grid
+   */
+  private int cellOf(double heightM, double angleRot) {
+    int h = (int) Math.floor((heightM - _minHeightM) / _cellHeightM);
+    int a = (int) Math.floor((angleRot - _minAngleRot) / _cellAngleRot);
+    h = Math.max(0, Math.min(_heightCells - 1, h));
+    a = Math.max(0, Math.min(_angleCells - 1, a));
+    return h * _angleCells + a;
+  }
+
+  private double cellHeightM(int h) {
+    return _minHeightM + (h + 0.5) * _cellHeightM;
+  }
+
+  private double cellAngleRot(int a) {
+    return _minAngleRot + (a + 0.5) * _cellAngleRot;
+  }
+
+  /* -------- Indexed binary heap of open cells ordered by priority -------- */
+  private void push(int cell) {
+    _heap[_heapSize] = cell;
+    _heapIndex[cell] = _heapSize;
+    siftUp(_heapSize++);
+  }
+
+  private int pop() {
+    int top = _heap[0];
+    _heapSize--;
+    if (_heapSize > 0) {
+      _heap[0] = _heap[_heapSize];
+      _heapIndex[_heap[0]] = 0;
+      siftDown(0);
+    }
+    return top;
+  }
+
+  private void siftUp(int index) {
+    int cell = _heap[index];
+    while (index > 0) {
+      int parent = (index - 1) >>> 1;
+      if (_priority[_heap[parent]] <= _priority[cell]) {
+        break;
+      }
+      _heap[index] = _heap[parent];
+      _heapIndex[_heap[index]] = index;
+      index = parent;
+    }
+    _heap[index] = cell;
+    _heapIndex[cell] = index;
+  }
+
+  private void siftDown(int index) {
+    int cell = _heap[index];
+    while (true) {
+      int child = 2 * index + 1;
+      if (child >= _heapSize) {
+        break;
+      }
+      if (child + 1 < _heapSize && _priority[_heap[child + 1]] < _priority[_heap[child]]) {
+        child++;
+      }
+      if (_priority[cell] <= _priority[_heap[child]]) {
+        break;
+      }
+      _heap[index] = _heap[child];
+      _heapIndex[_heap[index]] = index;
+      index = child;
+    }
+    _heap[index] = cell;
+    _heapIndex[cell] = index;
+  }
+}
@@ -0,0 +1,278 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.controls;
+
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+
+/**
+ * Time optimal pivot profile whose acceleration limits follow the torque left over after gravity.
+ * The arm model V = kS + kG * cos(angle) + kV * velocity + kA * acceleration gives the acceleration
+ * available at each angle and speed, so moves with gravity or near vertical run faster while moves
+ * fighting gravity at horizontal stay within the voltage and current budget.
+ *
+ * When the goal is set the move is planned into a table of positions, velocities and times with a
+ * backward pass limiting deceleration into the goal and a forward pass limiting acceleration from
+ * the start. Each loop the table is sampled, never allocating. Moves are planned in a single
+ * direction, so a start velocity away from the goal is treated as starting from rest.
+ */
+public class GravityAwarePivotProfile implements MotionProfile {
+  /**
+   * Number of positions in the table
+   */
+  private static final int TABLE_SIZE = 128;
+  /**
+   * Smallest acceleration planned in rotations per second squared, keeps the table finite when
+   * gravity uses up the whole budget
+   */
+  private static final double MIN_ACCELERATION = 1e-3;
+
+  /**
+   * Static gain in volts,
+   * Gravity gain in volts,
+   * Velocity gain in volts per rotation per second,
+   * Acceleration gain in volts per rotation per second squared
+   */
+  private final double _kS, _kG, _kV, _kA;
+  /**
+   * Radians added to the pivot angle for the center of mass
+   */
+  private final double _ffOffsetRad;
+  /**
+   * Voltage budget,
+   * Largest voltage the current limit allows across the motor resistance, in volts
+   */
+  private final double _maxInputVolts, _maxTorqueVolts;
+  /**
+   * Maximum velocity in rotations per second,
+   * Acceleration ceiling in rotations per second squared
+   */
+  private double _maxVelocity, _maxAcceleration;
+
+  /**
+   * Table positions in rotations, velocities in rotations per second and times in seconds, in the
+   * direction of motion
+   */
+  private final double[] _position = new double[TABLE_SIZE];
+  private final double[] _velocity = new double[TABLE_SIZE];
+  private final double[] _time = new double[TABLE_SIZE];
+  /**
+   * Whether the table describes a plan for the current limits
+   */
+  private boolean _planned;
+  /**
+   * Direction of motion of the plan, 0.0 if there is no move
+   */
+  private double _direction;
+  /**
+   * Goal position and velocity of the plan
+   */
+  private double _goalPosition, _goalVelocity;
+  /**
+   * Time into the plan of the last calculated state,
+   * Time from the current state of the last calculate to the end of the plan, in seconds
+   */
+  private double _planTime, _totalTime;
+  /**
+   * Last calculated position and velocity
+   */
+  private double _lastPosition, _lastVelocity;
+
+  /**
+   * Constructs a profile from the arm model in rotation units
+   *
+   * @param kS             static gain in volts
+   * @param kG             gravity gain in volts
+   * @param kV             velocity gain in volts per rotation per second
+   * @param kA             acceleration gain in volts per rotation per second squared
+   * @param ffOffsetRad    radians added to the pivot angle for the center of mass
+   * @param maxInputVolts  voltage budget
+   * @param maxTorqueVolts largest voltage the current limit allows across the motor resistance,
+   *     infinite without a current limit
+   */
+  public GravityAwarePivotProfile(
+      double kS,
+      double kG,
+      double kV,
+      double kA,
+      double ffOffsetRad,
+      double maxInputVolts,
+      double maxTorqueVolts
+  ) {
+    _kS = kS;
+    _kG = kG;
+    _kV = kV;
+    _kA = kA;
+    _ffOffsetRad = ffOffsetRad;
+    _maxInputVolts = maxInputVolts;
+    _maxTorqueVolts = maxTorqueVolts;
+  }
+
+  /**
+   * Replaces the limits, the next calculate re-plans if either changed. The profile is finished
+   * until the next calculate just like the trapezoid.
+   *
+   * @param maxVelocity     maximum velocity in rotations per second
+   * @param maxAcceleration acceleration ceiling in rotations per second squared, infinite to only
+   *     use the model
+   */
+  public void setLimits(double maxVelocity, double maxAcceleration) {
+    if (maxVelocity == _maxVelocity && maxAcceleration == _maxAcceleration) {
+      return;
+    }
+    _maxVelocity = maxVelocity;
+    _maxAcceleration = maxAcceleration;
+    _planned = false;
+    _totalTime = 0.0;
+  }
+
+  /**
+   * Acceleration available in the direction of motion
+   *
+   * @param position  pivot position in rotations
+   * @param speed     speed in the direction of motion in rotations per second
+   * @param direction direction of motion
+   * @return acceleration in rotations per second squared
+   */
+  public double getAcceleration(double position, double speed, double direction) {
+    double torqueVolts = Math.min(_maxInputVolts - _kV * speed, _maxTorqueVolts);
+    double accel = (torqueVolts - _kS - direction * gravityVolts(position)) / _kA;
+    return Math.max(MIN_ACCELERATION, Math.min(accel, _maxAcceleration));
+  }
+
+  /**
+   * Deceleration available against the direction of motion
+   *
+   * @param position  pivot position in rotations
+   * @param speed     speed in the direction of motion in rotations per second
+   * @param direction direction of motion
+   * @return deceleration in rotations per second squared
+   */
+  public double getDeceleration(double position, double speed, double direction) {
+    double torqueVolts = Math.min(_maxInputVolts + _kV * speed, _maxTorqueVolts);
+    double decel = (torqueVolts + _kS + direction * gravityVolts(position)) / _kA;
+    return Math.max(MIN_ACCELERATION, Math.min(decel, _maxAcceleration));
+  }
+
+  @Override
+  public void calculate(
+      double t,
+      TrapezoidProfile.State current,
+      TrapezoidProfile.State goal,
+      TrapezoidProfile.State result
+  ) {
+    boolean continuing = current.position == _lastPosition && current.velocity == _lastVelocity;
+    if (!_planned || !continuing || goal.position != _goalPosition
+        || goal.velocity != _goalVelocity) {
+      plan(current.position, current.velocity, goal.position, goal.velocity);
+    }
+
+    double duration = _time[TABLE_SIZE - 1];
+    _totalTime = _direction == 0.0 ? 0.0 : duration - _planTime;
+    _planTime += t;
+    sample(_planTime);
+
+    result.position = _lastPosition;
+    result.velocity = _lastVelocity;
+  }
+
+  @Override
+  public double totalTime() {
+    return _totalTime;
+  }
+
+  /**
+   * Plans the table from the start state to the goal
+   */
+  private void plan(
+      double startPosition, double startVelocity, double goalPosition, double goalVelocity
+  ) {
+    _planned = true;
+    _planTime = 0.0;
+    _goalPosition = goalPosition;
+    _goalVelocity = goalVelocity;
+    _direction = Math.signum(goalPosition - startPosition);
+    if (_direction == 0.0) {
+      return;
+    }
+
+    double startSpeed = Math.max(0.0, Math.min(startVelocity * _direction, _maxVelocity));
+    double goalSpeed = Math.max(0.0, Math.min(goalVelocity * _direction, _maxVelocity));
+    double step = (goalPosition - startPosition) / (TABLE_SIZE - 1);
+    double distanceStep = Math.abs(step);
+
+    // Backward pass, the fastest speed at each position that can still slow to the goal speed
+    _velocity[TABLE_SIZE - 1] = goalSpeed;
+    for (int i = TABLE_SIZE - 1; i > 0; i--) {
+      _position[i] = startPosition + step * i;
+      // Deceleration grows with speed, so the slower end of each step is the conservative one
+      double decel = Math.min(
+          getDeceleration(_position[i], _velocity[i], _direction),
+          getDeceleration(startPosition + step * (i - 1), _velocity[i], _direction)
+      );
+      _velocity[i - 1] = Math.min(
+          _maxVelocity, Math.sqrt(_velocity[i] * _velocity[i] + 2.0 * decel * distanceStep)
+      );
+    }
+    _position[0] = startPosition;
+    _position[TABLE_SIZE - 1] = goalPosition;
+
+    // Forward pass, accelerate as hard as the model allows until the backward pass takes over
+    _velocity[0] = Math.min(_velocity[0], startSpeed);
+    _time[0] = 0.0;
+    for (int i = 0; i < TABLE_SIZE - 1; i++) {
+      // Acceleration falls with speed, so limit each step by the speed it would end at
+      double speedSquared = _velocity[i] * _velocity[i];
+      double startAccel = getAcceleration(_position[i], _velocity[i], _direction);
+      double endSpeed = Math.sqrt(speedSquared + 2.0 * startAccel * distanceStep);
+      double accel = Math.min(
+          getAcceleration(_position[i], endSpeed, _direction),
+          getAcceleration(_position[i + 1], endSpeed, _direction)
+      );
+      _velocity[i + 1] =
+          Math.min(_velocity[i + 1], Math.sqrt(speedSquared + 2.0 * accel * distanceStep));
+      _time[i + 1] = _time[i] + 2.0 * distanceStep / (_velocity[i] + _velocity[i + 1]);
+    }
+  }
+
+  /**
+   * Samples the table at the time into the plan with constant acceleration between positions,
+   * storing the state as the last calculated state
+   */
+  private void sample(double time) {
+    if (_direction == 0.0 || time >= _time[TABLE_SIZE - 1]) {
+      _lastPosition = _goalPosition;
+      _lastVelocity = _goalVelocity;
+      return;
+    }
+
+    // Last table entry at or before the time
+    int low = 0;
+    int high = TABLE_SIZE - 1;
+    while (high - low > 1) {
+      int mid = (low + high) >>> 1;
+      if (_time[mid] <= time) {
+        low = mid;
+      } else {
+        high = mid;
+      }
+    }
+
+    double dt = Math.max(0.0, time - _time[low]);
+    double segmentTime = _time[low + 1] - _time[low];
+    double accel = (_velocity[low + 1] - _velocity[low]) / segmentTime;
+    double speed = _velocity[low] + accel * dt;
+    _lastPosition = _position[low] + _direction * (_velocity[low] * dt + accel * dt * dt / 2.0);
+    _lastVelocity = _direction * speed;
+  }
+
+  /**
+   * @return volts needed to hold the pivot against gravity at the position
+   */
+  private double gravityVolts(double position) {
+    return _kG * Math.cos(position * 2.0 * Math.PI + _ffOffsetRad);
+  }
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.controls;
+
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+
+/**
+ * Motion profile followed by a microsystem each loop. Implementations must not allocate while
+ * calculating.
+ */
+public interface MotionProfile {
+  /**
+   * Calculates the state of the profile t seconds after the current state. The result may be
+   * written into the current state.
+   *
+   * @param t       time since the current state in seconds
+   * @param current current state, not modified unless it is also the result
+   * @param goal    goal state, not modified
+   * @param result  state the calculated state is written into
+   */
+  void calculate(
+      double t,
+      TrapezoidProfile.State current,
+      TrapezoidProfile.State goal,
+      TrapezoidProfile.State result
+  );
+
+  /**
+   * @return total time of the last calculated profile in seconds
+   */
+  double totalTime();
+
+  /**
+   * @param t time since the start of the last calculated profile in seconds
+   * @return True if the last calculated profile is finished at t
+   */
+  default boolean isFinished(double t) {
+    return t >= totalTime();
+  }
+}
@@ -0,0 +1,283 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.controls;
+
+/**
+ * Steady state Kalman filter for a pivot, fusing the rotor position and velocity, an optional
+ * absolute encoder and the applied voltage through the arm model
+ * kA * dv/dt = u - kS * sgn(v) - kG * cos(angle) - kV * v. The estimated position is in the rotor's
+ * frame so it can seed profiles followed on the rotor. With an encoder, the offset between the
+ * encoder and the rotor (backlash and zeroing error) is estimated as a slow random walk, giving a
+ * smooth absolute angle.
+ *
+ * The gains are solved once at construction with one measurement applied at a time, so each loop
+ * is a few multiplies on preallocated storage.
+ */
+public class PivotStateEstimator {
+  /**
+   * Most iterations of the covariance recursion when solving for the gains
+   */
+  private static final int MAX_ITERATIONS = 100000;
+  /**
+   * Relative change of the covariance treated as converged
+   */
+  private static final double CONVERGENCE = 1e-12;
+
+  /**
+   * Static friction in volts,
+   * Gravity at horizontal in volts,
+   * Offset from the encoder angle to the feedforward angle in radians
+   */
+  private final double _kS, _kG, _ffOffsetRad;
+  /**
+   * Number of states, position and velocity followed by the encoder offset with an encoder
+   */
+  private final int _numStates;
+  /**
+   * Number of measurements, rotor position and velocity followed by the encoder with an encoder
+   */
+  private final int _numMeasurements;
+  /**
+   * Discrete state matrix, row major
+   */
+  private final double[] _A;
+  /**
+   * Discrete input matrix
+   */
+  private final double[] _B;
+  /**
+   * Steady state gain of each measurement applied in order, one row per measurement
+   */
+  private final double[] _gains;
+  /**
+   * Estimated state,
+   * Scratch state
+   */
+  private final double[] _x, _scratch;
+  /**
+   * False until the estimate is reset to a measurement
+   */
+  private boolean _initialized = false;
+
+  /**
+   * Constructs an estimator from the arm model and noise
+   *
+   * @param kS                  static friction in volts
+   * @param kG                  gravity at horizontal in volts
+   * @param kV                  velocity gain in volts per rotation per second
+   * @param kA                  acceleration gain in volts per rotation per second squared
+   * @param ffOffsetRad         offset from the encoder angle to the feedforward angle in radians
+   * @param hasEncoder          True to fuse an absolute encoder
+   * @param modelStdDev         standard deviation of the model's acceleration, in rotations per
+   *     second squared
+   * @param offsetStdDev        standard deviation of the encoder offset's change, in rotations per
+   *     second
+   * @param rotorPositionStdDev standard deviation of the rotor position in pivot rotations
+   * @param rotorVelocityStdDev standard deviation of the rotor velocity in pivot rotations per
+   *     second
+   * @param encoderStdDev       standard deviation of the encoder position in pivot rotations
+   * @param dtS                 loop period in seconds
+   */
+  public PivotStateEstimator(
+      double kS,
+      double kG,
+      double kV,
+      double kA,
+      double ffOffsetRad,
+      boolean hasEncoder,
+      double modelStdDev,
+      double offsetStdDev,
+      double rotorPositionStdDev,
+      double rotorVelocityStdDev,
+      double encoderStdDev,
+      double dtS
+  ) {
+    _kS = kS;
+    _kG = kG;
+    _ffOffsetRad = ffOffsetRad;
+    int n = hasEncoder ? 3 : 2;
+    _numStates = n;
+    _numMeasurements = n;
+    _A = new double[n * n];
+    _B = new double[n];
+    _gains = new double[n * n];
+    _x = new double[n];
+    _scratch = new double[n];
+
+    // Exact discretization for a voltage held over the loop, the offset is constant
+    double decay = Math.exp(-kV / kA * dtS);
+    _A[0] = 1.0;
+    _A[1] = (1.0 - decay) * kA / kV;
+    _A[n + 1] = decay;
+    _B[0] = (dtS - _A[1]) / kV;
+    _B[1] = (1.0 - decay) / kV;
+    if (hasEncoder) {
+      _A[8] = 1.0;
+    }
+
+    // The rotor measures position and velocity, the encoder measures position plus offset
+    double[] c = new double[n * n];
+    c[0] = 1.0;
+    c[n + 1] = 1.0;
+    double[] r = new double[n];
+    r[0] = rotorPositionStdDev * rotorPositionStdDev / dtS;
+    r[1] = rotorVelocityStdDev * rotorVelocityStdDev / dtS;
+    double[] q = new double[n * n];
+    q[n + 1] = modelStdDev * modelStdDev * dtS;
+    if (hasEncoder) {
+      c[6] = 1.0;
+      c[8] = 1.0;
+      r[2] = encoderStdDev * encoderStdDev / dtS;
+      q[8] = offsetStdDev * offsetStdDev * dtS;
+    }
+    solveGains(c, r, q);
+  }
+
+  /**
+   * Iterates the predicted covariance and the sequential measurement updates until they converge,
+   * keeping the gain of each measurement from the last iteration
+   *
+   * @param c measurement rows, row major
+   * @param r measurement noise
+   * @param q process noise, row major
+   */
+  private void solveGains(double[] c, double[] r, double[] q) {
+    int n = _numStates;
+    double[] p = q.clone();
+    double[] next = new double[n * n];
+    double[] pc = new double[n];
+    for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+      // Predict, P = A P A' + Q
+      for (int i = 0; i < n; i++) {
+        for (int j = 0; j < n; j++) {
+          double value = q[i * n + j];
+          for (int k = 0; k < n; k++) {
+            for (int l = 0; l < n; l++) {
+              value += _A[i * n + k] * p[k * n + l] * _A[j * n + l];
+            }
+          }
+          next[i * n + j] = value;
+        }
+      }
+
+      // Correct with each measurement in turn, P = P - K c' P
+      for (int meas = 0; meas < _numMeasurements; meas++) {
+        double cpc = r[meas];
+        for (int i = 0; i < n; i++) {
+          pc[i] = 0.0;
+          for (int j = 0; j < n; j++) {
+            pc[i] += next[i * n + j] * c[meas * n + j];
+          }
+          cpc += c[meas * n + i] * pc[i];
+        }
+        for (int i = 0; i < n; i++) {
+          _gains[meas * n + i] = pc[i] / cpc;
+        }
+        for (int i = 0; i < n; i++) {
+          for (int j = 0; j < n; j++) {
+            next[i * n + j] -= _gains[meas * n + i] * pc[j];
+          }
+        }
+      }
+
+      double change = 0.0;
+      double size = 0.0;
+      for (int i = 0; i < n * n; i++) {
+        change = Math.max(change, Math.abs(next[i] - p[i]));
+        size = Math.max(size, Math.abs(next[i]));
+      }
+      System.arraycopy(next, 0, p, 0, n * n);
+      if (change <= CONVERGENCE * size) {
+        break;
+      }
+    }
+  }
+
+  /**
+   * Sets the estimate to the measurements, the next update predicts from them
+   *
+   * @param rotorPositionRot rotor position in pivot rotations
+   * @param rotorVelocityRPS rotor velocity in pivot rotations per second
+   * @param encoderPositionRot encoder position in pivot rotations, ignored without an encoder
+   */
+  public void reset(double rotorPositionRot, double rotorVelocityRPS, double encoderPositionRot) {
+    _x[0] = rotorPositionRot;
+    _x[1] = rotorVelocityRPS;
+    if (_numStates == 3) {
+      _x[2] = encoderPositionRot - rotorPositionRot;
+    }
+    _initialized = true;
+  }
+
+  /**
+   * Predicts the estimate over the loop from the voltage applied during it, then corrects it with
+   * the newest measurements. The first update after construction resets to the measurements.
+   *
+   * @param rotorPositionRot   rotor position in pivot rotations
+   * @param rotorVelocityRPS   rotor velocity in pivot rotations per second
+   * @param encoderPositionRot encoder position in pivot rotations, ignored without an encoder
+   * @param volts              voltage applied during the loop
+   */
+  public void update(
+      double rotorPositionRot, double rotorVelocityRPS, double encoderPositionRot, double volts
+  ) {
+    if (!_initialized) {
+      reset(rotorPositionRot, rotorVelocityRPS, encoderPositionRot);
+      return;
+    }
+    int n = _numStates;
+
+    double input = volts - _kS * Math.signum(_x[1])
+        - _kG * Math.cos(2.0 * Math.PI * getEncoderPosition() + _ffOffsetRad);
+    for (int i = 0; i < n; i++) {
+      double next = _B[i] * input;
+      for (int j = 0; j < n; j++) {
+        next += _A[i * n + j] * _x[j];
+      }
+      _scratch[i] = next;
+    }
+    System.arraycopy(_scratch, 0, _x, 0, n);
+
+    correct(0, rotorPositionRot - _x[0]);
+    correct(1, rotorVelocityRPS - _x[1]);
+    if (n == 3) {
+      correct(2, encoderPositionRot - _x[0] - _x[2]);
+    }
+  }
+
+  /**
+   * @param measurement measurement index
+   * @param innovation  measurement minus the measurement predicted by the estimate
+   */
+  private void correct(int measurement, double innovation) {
+    for (int i = 0; i < _numStates; i++) {
+      _x[i] += _gains[measurement * _numStates + i] * innovation;
+    }
+  }
+
+  /**
+   * @return estimated position in the rotor's frame, in pivot rotations
+   */
+  public double getPosition() {
+    return _x[0];
+  }
+
+  /**
+   * @return estimated velocity in pivot rotations per second
+   */
+  public double getVelocity() {
+    return _x[1];
+  }
+
+  /**
+   * @return estimated position in the encoder's frame in pivot rotations, the rotor's frame
+   *     without an encoder
+   */
+  public double getEncoderPosition() {
+    return _numStates == 3 ? _x[0] + _x[2] : _x[0];
+  }
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.controls;
+
+/**
+ * How a microsystem generates and follows its motion profiles
+ */
+public enum ProfileMode {
+  /**
+   * Trapezoidal profile calculated on the roboRIO each loop, streamed as position setpoints
+   */
+  TRAPEZOIDAL,
+  /**
+   * Exponential profile of a voltage limited motor calculated on the roboRIO each loop, streamed as
+   * position setpoints. Accelerates hardest at low speed and eases into the motor's top speed,
+   * constrained by the feedforward gains and motor model so per profile limits are ignored.
+   */
+  EXPONENTIAL,
+  /**
+   * Jerk limited S-curve profile calculated on the roboRIO each loop, streamed as position
+   * setpoints. Uses the trapezoidal limits and the configured jerk limit.
+   */
+  S_CURVE,
+  /**
+   * Time optimal pivot profile planned into a table when the goal is set, with acceleration limits
+   * from the arm model at each angle so moves with gravity run faster. Pivots only, other
+   * microsystems follow trapezoids.
+   */
+  GRAVITY_AWARE,
+  /**
+   * Motion Magic profile calculated on the TalonFX at 1 kHz using the configured trapezoidal
+   * limits, sent once per goal. Profiles always end at rest and per profile limits are ignored.
+   */
+  MOTION_MAGIC,
+  /**
+   * Motion Magic profile calculated on the TalonFX at 1 kHz with the limits of each profile sent
+   * with its goal. Profiles always end at rest, requires a CANivore bus.
+   */
+  DYNAMIC_MOTION_MAGIC;
+
+  /**
+   * @return True if the profile is calculated on the motor controller
+   */
+  public boolean isOnDevice() {
+    return this == MOTION_MAGIC || this == DYNAMIC_MOTION_MAGIC;
+  }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.controls;
+
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free snapshot of a followed profile's state, published by one thread and read by any
+ * other. Readers retry rather than block while a publish is in progress, neither side allocates.
+ */
+public class ProfileStateSnapshot {
+  /**
+   * Number of publishes started and finished, odd while a publish is in progress
+   */
+  private final AtomicLong _sequence = new AtomicLong(0);
+  /**
+   * Position in profile units,
+   * Velocity in profile units per second,
+   * Time the writer has followed the profile for in seconds
+   */
+  private double _position, _velocity, _elapsedS;
+  /**
+   * True if the profile had finished as of the writer's elapsed time
+   */
+  private boolean _finished;
+
+  /**
+   * Publishes a new state, only called by the single writer thread
+   *
+   * @param position position in profile units
+   * @param velocity velocity in profile units per second
+   * @param elapsedS time the writer has followed the profile for in seconds
+   * @param finished True if the profile has finished as of elapsedS
+   */
+  public void publish(double position, double velocity, double elapsedS, boolean finished) {
+    long sequence = _sequence.get();
+    _sequence.set(sequence + 1);
+    VarHandle.releaseFence();
+    _position = position;
+    _velocity = velocity;
+    _elapsedS = elapsedS;
+    _finished = finished;
+    _sequence.set(sequence + 2);
+  }
+
+  /**
+   * Copies the last published state
+   *
+   * @param result state to store the position and velocity in
+   * @return time the writer had followed the profile for in seconds
+   */
+  public double read(TrapezoidProfile.State result) {
+    while (true) {
+      long sequence = _sequence.get();
+      double position = _position;
+      double velocity = _velocity;
+      double elapsedS = _elapsedS;
+      VarHandle.acquireFence();
+      if ((sequence & 1) == 0 && _sequence.get() == sequence) {
+        result.position = position;
+        result.velocity = velocity;
+        return elapsedS;
+      }
+      Thread.onSpinWait();
+    }
+  }
+
+  /**
+   * @return True if the last published profile had finished on the writer's time base
+   */
+  public boolean isFinished() {
+    while (true) {
+      long sequence = _sequence.get();
+      boolean finished = _finished;
+      VarHandle.acquireFence();
+      if ((sequence & 1) == 0 && _sequence.get() == sequence) {
+        return finished;
+      }
+      Thread.onSpinWait();
+    }
+  }
+}
@@ -0,0 +1,398 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.controls;
+
+/**
+ * State space controller for a DC motor mechanism modeled as dv/dt = -kV / kA * v + u / kA, the
+ * same loop as WPILib's LinearSystemLoop (plant, Kalman filter, LQR and plant inversion
+ * feedforward) but never allocates. The LQR and steady state Kalman gains are solved once at
+ * construction, so each loop is a few multiplies on preallocated storage.
+ *
+ * Position controllers estimate position and velocity from a position measurement, velocity
+ * controllers estimate velocity from a velocity measurement. The Kalman filter also estimates an
+ * input disturbance in volts, like a game piece dragging on a flywheel, which is cancelled in the
+ * output so the reference is held without steady state error. Static friction and gravity are
+ * left to the caller's feedforward.
+ */
+public class StateSpaceController {
+  /**
+   * Most iterations of the Riccati recursion when solving for the gains
+   */
+  private static final int MAX_ITERATIONS = 100000;
+  /**
+   * Relative change of the Riccati solution treated as converged
+   */
+  private static final double CONVERGENCE = 1e-12;
+
+  /**
+   * Number of controlled states, 2 (position, velocity) or 1 (velocity). The estimate holds one
+   * more, the input disturbance.
+   */
+  private final int _numStates;
+  /**
+   * Discrete state matrix of the estimate, row major
+   */
+  private final double[] _A;
+  /**
+   * Discrete input matrix of the estimate
+   */
+  private final double[] _B;
+  /**
+   * LQR gain in volts per unit of state error
+   */
+  private final double[] _K;
+  /**
+   * Steady state Kalman gain
+   */
+  private final double[] _L;
+  /**
+   * Largest output in volts
+   */
+  private final double _maxVolts;
+  /**
+   * Estimated state followed by the estimated disturbance,
+   * Reference state the output drives toward,
+   * Scratch state
+   */
+  private final double[] _xHat, _r, _scratch;
+
+  /**
+   * Creates a controller estimating position and velocity from position measurements
+   *
+   * @param kV                velocity gain in volts per unit per second
+   * @param kA                acceleration gain in volts per unit per second squared
+   * @param positionTolerance LQR position error weight, in units
+   * @param velocityTolerance LQR velocity error weight, in units per second
+   * @param maxVolts          largest output in volts, also the LQR control effort weight
+   * @param modelStdDev       standard deviation of the model's acceleration, in units per second
+   *     squared
+   * @param disturbanceStdDev standard deviation of the disturbance's change, in volts per second
+   * @param measurementStdDev standard deviation of the position measurement, in units
+   * @param dtS               loop period in seconds
+   * @return position controller
+   */
+  public static StateSpaceController createPositionController(
+      double kV,
+      double kA,
+      double positionTolerance,
+      double velocityTolerance,
+      double maxVolts,
+      double modelStdDev,
+      double disturbanceStdDev,
+      double measurementStdDev,
+      double dtS
+  ) {
+    return new StateSpaceController(
+        2,
+        kV,
+        kA,
+        new double[] {positionTolerance, velocityTolerance},
+        maxVolts,
+        modelStdDev,
+        disturbanceStdDev,
+        measurementStdDev,
+        dtS
+    );
+  }
+
+  /**
+   * Creates a controller estimating velocity from velocity measurements
+   *
+   * @param kV                velocity gain in volts per unit per second
+   * @param kA                acceleration gain in volts per unit per second squared
+   * @param velocityTolerance LQR velocity error weight, in units per second
+   * @param maxVolts          largest output in volts, also the LQR control effort weight
+   * @param modelStdDev       standard deviation of the model's acceleration, in units per second
+   *     squared
+   * @param disturbanceStdDev standard deviation of the disturbance's change, in volts per second
+   * @param measurementStdDev standard deviation of the velocity measurement, in units per second
+   * @param dtS               loop period in seconds
+   * @return velocity controller
+   */
+  public static StateSpaceController createVelocityController(
+      double kV,
+      double kA,
+      double velocityTolerance,
+      double maxVolts,
+      double modelStdDev,
+      double disturbanceStdDev,
+      double measurementStdDev,
+      double dtS
+  ) {
+    return new StateSpaceController(
+        1,
+        kV,
+        kA,
+        new double[] {velocityTolerance},
+        maxVolts,
+        modelStdDev,
+        disturbanceStdDev,
+        measurementStdDev,
+        dtS
+    );
+  }
+
+  private StateSpaceController(
+      int numStates,
+      double kV,
+      double kA,
+      double[] tolerances,
+      double maxVolts,
+      double modelStdDev,
+      double disturbanceStdDev,
+      double measurementStdDev,
+      double dtS
+  ) {
+    int n = numStates;
+    int m = n + 1;
+    _numStates = n;
+    _maxVolts = maxVolts;
+    _A = new double[m * m];
+    _B = new double[m];
+    _K = new double[n];
+    _L = new double[m];
+    _xHat = new double[m];
+    _r = new double[n];
+    _scratch = new double[m];
+
+    // Exact discretization for an input held over the loop, the disturbance adds to the input
+    int v = n - 1;
+    double decay = Math.exp(-kV / kA * dtS);
+    _A[v * m + v] = decay;
+    _B[v] = (1.0 - decay) / kV;
+    if (n == 2) {
+      _A[0] = 1.0;
+      _A[1] = (1.0 - decay) * kA / kV;
+      _B[0] = (dtS - _A[1]) / kV;
+    }
+    for (int i = 0; i < n; i++) {
+      _A[i * m + n] = _B[i];
+    }
+    _A[n * m + n] = 1.0;
+
+    // LQR on the controlled states from Bryson's rule, u = K (r - x)
+    double[] a = new double[n * n];
+    for (int i = 0; i < n; i++) {
+      System.arraycopy(_A, i * m, a, i * n, n);
+    }
+    double[] q = new double[n * n];
+    for (int i = 0; i < n; i++) {
+      q[i * n + i] = 1.0 / (tolerances[i] * tolerances[i]);
+    }
+    double r = 1.0 / (maxVolts * maxVolts);
+    double[] p = solveRiccati(a, _B, q, r, n);
+    double[] pa = multiply(p, a, n);
+    double bpb = quadratic(_B, p, n);
+    for (int j = 0; j < n; j++) {
+      double bpa = 0.0;
+      for (int i = 0; i < n; i++) {
+        bpa += _B[i] * pa[i * n + j];
+      }
+      _K[j] = bpa / (r + bpb);
+    }
+
+    // Steady state Kalman filter from the dual problem, noise enters the velocity and disturbance
+    double[] aT = new double[m * m];
+    for (int i = 0; i < m; i++) {
+      for (int j = 0; j < m; j++) {
+        aT[i * m + j] = _A[j * m + i];
+      }
+    }
+    // The measured state is always the first, position or velocity
+    double[] c = new double[m];
+    c[0] = 1.0;
+    double[] qNoise = new double[m * m];
+    qNoise[v * m + v] = modelStdDev * modelStdDev * dtS;
+    qNoise[n * m + n] = disturbanceStdDev * disturbanceStdDev * dtS;
+    double rNoise = measurementStdDev * measurementStdDev / dtS;
+    double[] prior = solveRiccati(aT, c, qNoise, rNoise, m);
+    for (int i = 0; i < m; i++) {
+      _L[i] = prior[i * m] / (prior[0] + rNoise);
+    }
+  }
+
+  /**
+   * Sets the estimate and reference to a measured state and clears the disturbance, call before
+   * the first calculate and whenever the controller takes over from another output
+   *
+   * @param position measured position in units, ignored by velocity controllers
+   * @param velocity measured velocity in units per second
+   */
+  public void reset(double position, double velocity) {
+    if (_numStates == 2) {
+      _xHat[0] = position;
+    }
+    _xHat[_numStates - 1] = velocity;
+    _xHat[_numStates] = 0.0;
+    System.arraycopy(_xHat, 0, _r, 0, _numStates);
+  }
+
+  /**
+   * Corrects the estimate with the measurement, then calculates the output driving the estimate
+   * from the current reference to the next one and predicts the estimate over the loop
+   *
+   * @param measurement  measured position for position controllers, velocity for velocity
+   *     controllers
+   * @param nextPosition reference position at the end of the loop in units, ignored by velocity
+   *     controllers
+   * @param nextVelocity reference velocity at the end of the loop in units per second
+   * @return output in volts, without static friction or gravity
+   */
+  public double calculate(double measurement, double nextPosition, double nextVelocity) {
+    int n = _numStates;
+    int m = n + 1;
+    double innovation = measurement - _xHat[0];
+    for (int i = 0; i < m; i++) {
+      _xHat[i] += _L[i] * innovation;
+    }
+
+    // Plant inversion feedforward, the least squares input from the reference to the next one
+    _scratch[n - 1] = nextVelocity;
+    if (n == 2) {
+      _scratch[0] = nextPosition;
+    }
+    double bDotResidual = 0.0;
+    double bDotB = 0.0;
+    for (int i = 0; i < n; i++) {
+      double residual = _scratch[i];
+      for (int j = 0; j < n; j++) {
+        residual -= _A[i * m + j] * _r[j];
+      }
+      bDotResidual += _B[i] * residual;
+      bDotB += _B[i] * _B[i];
+    }
+    double output = bDotResidual / bDotB - _xHat[n];
+    for (int i = 0; i < n; i++) {
+      output += _K[i] * (_r[i] - _xHat[i]);
+    }
+    output = Math.max(-_maxVolts, Math.min(_maxVolts, output));
+
+    for (int i = 0; i < m; i++) {
+      double next = _B[i] * output;
+      for (int j = 0; j < m; j++) {
+        next += _A[i * m + j] * _xHat[j];
+      }
+      _scratch[i] = next;
+    }
+    System.arraycopy(_scratch, 0, _xHat, 0, m);
+
+    _r[n - 1] = nextVelocity;
+    if (n == 2) {
+      _r[0] = nextPosition;
+    }
+    return output;
+  }
+
+  /**
+   * @return True if the controller measures and controls velocity only
+   */
+  public boolean isVelocityController() {
+    return _numStates == 1;
+  }
+
+  /**
+   * @return estimated velocity in units per second
+   */
+  public double getEstimatedVelocity() {
+    return _xHat[_numStates - 1];
+  }
+
+  /**
+   * @return estimated input disturbance in volts
+   */
+  public double getEstimatedDisturbance() {
+    return _xHat[_numStates];
+  }
+
+  /**
+   * @param state controlled state index
+   * @return LQR gain of the state in volts per unit of error
+   */
+  public double getGain(int state) {
+    return _K[state];
+  }
+
+  /**
+   * Solves the discrete algebraic Riccati equation for a single input by iterating the Riccati
+   * recursion, only ran at construction
+   *
+   * @param a state matrix, row major
+   * @param b input matrix
+   * @param q state cost, row major
+   * @param r input cost
+   * @param n number of states
+   * @return solution, row major
+   */
+  private static double[] solveRiccati(double[] a, double[] b, double[] q, double r, int n) {
+    double[] p = q.clone();
+    for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+      double[] pa = multiply(p, a, n);
+      double[] bpa = new double[n];
+      for (int j = 0; j < n; j++) {
+        for (int i = 0; i < n; i++) {
+          bpa[j] += b[i] * pa[i * n + j];
+        }
+      }
+      double scale = 1.0 / (r + quadratic(b, p, n));
+
+      double change = 0.0;
+      double size = 0.0;
+      double[] next = new double[n * n];
+      for (int i = 0; i < n; i++) {
+        for (int j = 0; j < n; j++) {
+          double apa = 0.0;
+          for (int k = 0; k < n; k++) {
+            apa += a[k * n + i] * pa[k * n + j];
+          }
+          double value = q[i * n + j] + apa - bpa[i] * bpa[j] * scale;
+          next[i * n + j] = value;
+          change = Math.max(change, Math.abs(value - p[i * n + j]));
+          size = Math.max(size, Math.abs(value));
+        }
+      }
+      p = next;
+      if (change <= CONVERGENCE * size) {
+        break;
+      }
+    }
+    return p;
+  }
+
+  /**
+   * @param x left matrix, row major
+   * @param y right matrix, row major
+   * @param n matrix size
+   * @return x * y
+   */
+  private static double[] multiply(double[] x, double[] y, int n) {
+    double[] result = new double[n * n];
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < n; j++) {
+        for (int k = 0; k < n; k++) {
+          result[i * n + j] += x[i * n + k] * y[k * n + j];
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @param v vector
+   * @param m matrix, row major
+   * @param n vector size
+   * @return v' * m * v
+   */
+  private static double quadratic(double[] v, double[] m, int n) {
+    double result = 0.0;
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < n; j++) {
+        result += v[i] * m[i * n + j] * v[j];
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,233 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.controls;
+
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+
+/**
+ * Mutable exponential motion profile for a voltage limited DC motor, matches WPILib's
+ * ExponentialProfile but never allocates. The mechanism is modeled as dv/dt = A * v + B * u with
+ * the input u limited to the maximum input, so the profile accelerates hard at low speed and eases
+ * into the motor's top speed instead of following a constant acceleration limit.
+ */
+public class TagalongExponentialProfile implements MotionProfile {
+  /**
+   * Tolerance on velocities near the asymptotic top speed
+   */
+  private static final double EPSILON = 1e-9;
+
+  /**
+   * Maximum input in volts,
+   * State space A in 1 / seconds,
+   * State space B in units per second squared per volt
+   */
+  private double _maxInput, _A, _B;
+  /**
+   * Time the input flips,
+   * Total time of the last calculated profile, in seconds
+   */
+  private double _inflectionTime, _totalTime;
+
+  /**
+   * Constructs a profile from feedforward characteristics
+   *
+   * @param maxInput maximum input in volts
+   * @param kV       velocity gain in volts per unit per second
+   * @param kA       acceleration gain in volts per unit per second squared
+   */
+  public TagalongExponentialProfile(double maxInput, double kV, double kA) {
+    setCharacteristics(maxInput, kV, kA);
+  }
+
+  /**
+   * Replaces the constraints, the profile is finished until the next calculate just like a newly
+   * constructed WPILib profile
+   *
+   * @param maxInput maximum input in volts
+   * @param kV       velocity gain in volts per unit per second
+   * @param kA       acceleration gain in volts per unit per second squared
+   */
+  public void setCharacteristics(double maxInput, double kV, double kA) {
+    _maxInput = maxInput;
+    _A = -kV / kA;
+    _B = 1.0 / kA;
+    _inflectionTime = 0.0;
+    _totalTime = 0.0;
+  }
+
+  /**
+   * @return maximum input in volts
+   */
+  public double getMaxInput() {
+    return _maxInput;
+  }
+
+  /**
+   * @return asymptotic top speed in units per second
+   */
+  public double getMaxVelocity() {
+    return -_maxInput * _B / _A;
+  }
+
+  @Override
+  public void calculate(
+      double t,
+      TrapezoidProfile.State current,
+      TrapezoidProfile.State goal,
+      TrapezoidProfile.State result
+  ) {
+    double currentPosition = current.position;
+    double currentVelocity = current.velocity;
+    double goalPosition = goal.position;
+    double goalVelocity = goal.velocity;
+
+    double u = shouldFlipInput(currentPosition, currentVelocity, goalPosition, goalVelocity)
+        ? -_maxInput
+        : _maxInput;
+
+    double inflectionPosition;
+    double inflectionVelocity;
+    if (currentPosition == goalPosition && currentVelocity == goalVelocity) {
+      inflectionPosition = currentPosition;
+      inflectionVelocity = currentVelocity;
+    } else {
+      inflectionVelocity = solveForInflectionVelocity(
+          u, currentPosition, currentVelocity, goalPosition, goalVelocity
+      );
+      inflectionPosition =
+          computeDistanceFromVelocity(inflectionVelocity, -u, goalPosition, goalVelocity);
+    }
+
+    // Coasting at the asymptotic top speed never reaches it exactly, stop just short of it and
+    // cruise the remaining distance
+    double maxVelocity = getMaxVelocity();
+    if (Math.abs(Math.signum(u) * maxVelocity - inflectionVelocity) < EPSILON) {
+      double solvableVelocity = inflectionVelocity;
+      double timeToSolvable;
+      double positionAtSolvable;
+      if (Math.abs(currentVelocity - inflectionVelocity) < EPSILON) {
+        timeToSolvable = 0.0;
+        positionAtSolvable = currentPosition;
+      } else {
+        if (Math.abs(currentVelocity) > maxVelocity) {
+          solvableVelocity += Math.signum(u) * EPSILON;
+        } else {
+          solvableVelocity -= Math.signum(u) * EPSILON;
+        }
+        timeToSolvable = computeTimeFromVelocity(solvableVelocity, u, currentVelocity);
+        positionAtSolvable =
+            computeDistanceFromVelocity(solvableVelocity, u, currentPosition, currentVelocity);
+      }
+      _inflectionTime = timeToSolvable
+          + Math.signum(u) * (inflectionPosition - positionAtSolvable) / maxVelocity;
+    } else {
+      _inflectionTime = computeTimeFromVelocity(inflectionVelocity, u, currentVelocity);
+    }
+    _totalTime =
+        _inflectionTime - computeTimeFromVelocity(inflectionVelocity, -u, goalVelocity);
+
+    double position;
+    double velocity;
+    if (t < 0) {
+      position = currentPosition;
+      velocity = currentVelocity;
+    } else if (t < _inflectionTime) {
+      position = computeDistanceFromTime(t, u, currentPosition, currentVelocity);
+      velocity = computeVelocityFromTime(t, u, currentVelocity);
+    } else if (t < _totalTime) {
+      position = computeDistanceFromTime(t - _totalTime, -u, goalPosition, goalVelocity);
+      velocity = computeVelocityFromTime(t - _totalTime, -u, goalVelocity);
+    } else {
+      position = goalPosition;
+      velocity = goalVelocity;
+    }
+
+    result.position = position;
+    result.velocity = velocity;
+  }
+
+  @Override
+  public double totalTime() {
+    return _totalTime;
+  }
+
+  /**
+   * @return time the input flips in the last calculated profile in seconds
+   */
+  public double inflectionTime() {
+    return _inflectionTime;
+  }
+
+  private double computeDistanceFromTime(
+      double t, double input, double initialPosition, double initialVelocity
+  ) {
+    return initialPosition
+        + (-_B * input * t + (initialVelocity + _B * input / _A) * (Math.exp(_A * t) - 1)) / _A;
+  }
+
+  private double computeVelocityFromTime(double t, double input, double initialVelocity) {
+    return (initialVelocity + _B * input / _A) * Math.exp(_A * t) - _B * input / _A;
+  }
+
+  private double computeTimeFromVelocity(double velocity, double input, double initialVelocity) {
+    return Math.log((_A * velocity + _B * input) / (_A * initialVelocity + _B * input)) / _A;
+  }
+
+  private double computeDistanceFromVelocity(
+      double velocity, double input, double initialPosition, double initialVelocity
+  ) {
+    return initialPosition + (velocity - initialVelocity) / _A
+        - _B * input / (_A * _A)
+        * Math.log((_A * velocity + _B * input) / (_A * initialVelocity + _B * input));
+  }
+
+  private double solveForInflectionVelocity(
+      double input,
+      double currentPosition,
+      double currentVelocity,
+      double goalPosition,
+      double goalVelocity
+  ) {
+    double positionDelta = goalPosition - currentPosition;
+    double velocityDelta = goalVelocity - currentVelocity;
+
+    double scalar = (_A * currentVelocity + _B * input) * (_A * goalVelocity - _B * input);
+    double power = -_A / _B / input * (_A * positionDelta - velocityDelta);
+
+    double a = -_A * _A;
+    double c = _B * _B * input * input + scalar * Math.exp(power);
+
+    if (-1e-9 < c && c < 0) {
+      // Numerical stability issue, the solution is effectively 0
+      return 0;
+    }
+    return Math.signum(input) * Math.sqrt(-c / a);
+  }
+
+  private boolean shouldFlipInput(
+      double currentPosition, double currentVelocity, double goalPosition, double goalVelocity
+  ) {
+    double xForward =
+        computeDistanceFromVelocity(goalVelocity, _maxInput, currentPosition, currentVelocity);
+    double xReverse =
+        computeDistanceFromVelocity(goalVelocity, -_maxInput, currentPosition, currentVelocity);
+
+    double maxVelocity = getMaxVelocity();
+    if (currentVelocity >= maxVelocity) {
+      return goalPosition < xReverse;
+    }
+    if (currentVelocity <= -maxVelocity) {
+      return goalPosition < xForward;
+    }
+
+    boolean a = currentVelocity >= 0;
+    boolean b = goalVelocity >= 0;
+    boolean c = goalPosition >= xForward;
+    boolean d = goalPosition >= xReverse;
+    return (a && !d) || (b && !c) || (!c && !d);
+  }
+}
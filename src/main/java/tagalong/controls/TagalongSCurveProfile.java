@@ -0,0 +1,335 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.controls;
+
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+
+/**
+ * Jerk limited seven segment motion profile, the trapezoid with its corners rounded off. Each
+ * change of velocity ramps the acceleration up and back down at the jerk limit, so the mechanism
+ * is never kicked with a step in acceleration.
+ *
+ * Unlike the trapezoid, acceleration is part of the state, so a plan is only made when the goal or
+ * constraints change and is otherwise followed in time. Re-planning mid-motion first ramps the
+ * current acceleration back to zero, keeping acceleration continuous at the cost of being slightly
+ * slower than optimal. Never allocates.
+ */
+public class TagalongSCurveProfile implements MotionProfile {
+  /**
+   * Segment 0 ramps the starting acceleration to zero, segments 1 to 3 change to the peak
+   * velocity, segment 4 cruises and segments 5 to 7 change to the goal velocity
+   */
+  private static final int NUM_SEGMENTS = 8;
+  /**
+   * Iterations when solving for a peak velocity below the velocity limit, halving the interval
+   * each time
+   */
+  private static final int PEAK_VELOCITY_ITERATIONS = 60;
+
+  /**
+   * Maximum velocity in units per second,
+   * Maximum acceleration in units per second squared,
+   * Maximum jerk in units per second cubed
+   */
+  private double _maxVelocity, _maxAcceleration, _maxJerk;
+  /**
+   * Duration of each constant jerk segment in seconds
+   */
+  private final double[] _segmentDuration = new double[NUM_SEGMENTS];
+  /**
+   * Jerk of each segment in units per second cubed
+   */
+  private final double[] _segmentJerk = new double[NUM_SEGMENTS];
+  /**
+   * Whether the segments describe a plan for the current constraints
+   */
+  private boolean _planned;
+  /**
+   * Position, velocity and acceleration the plan starts from
+   */
+  private double _startPosition, _startVelocity, _startAcceleration;
+  /**
+   * Position and velocity once the starting acceleration is ramped to zero
+   */
+  private double _rampedPosition, _rampedVelocity;
+  /**
+   * Goal position and velocity of the plan
+   */
+  private double _goalPosition, _goalVelocity;
+  /**
+   * Duration of the plan,
+   * Time into the plan of the last calculated state,
+   * Time from the current state of the last calculate to the end of the plan, in seconds
+   */
+  private double _planDuration, _planTime, _totalTime;
+  /**
+   * Last calculated position, velocity and acceleration
+   */
+  private double _lastPosition, _lastVelocity, _lastAcceleration;
+
+  /**
+   * Constructs a profile
+   *
+   * @param maxVelocity     maximum velocity in units per second
+   * @param maxAcceleration maximum acceleration in units per second squared
+   * @param maxJerk         maximum jerk in units per second cubed
+   */
+  public TagalongSCurveProfile(double maxVelocity, double maxAcceleration, double maxJerk) {
+    setConstraints(maxVelocity, maxAcceleration, maxJerk);
+  }
+
+  /**
+   * Replaces the constraints, the next calculate re-plans if any of them changed. The profile is
+   * finished until the next calculate just like the trapezoid.
+   *
+   * @param maxVelocity     maximum velocity in units per second
+   * @param maxAcceleration maximum acceleration in units per second squared
+   * @param maxJerk         maximum jerk in units per second cubed
+   */
+  public void setConstraints(double maxVelocity, double maxAcceleration, double maxJerk) {
+    if (maxVelocity == _maxVelocity && maxAcceleration == _maxAcceleration
+        && maxJerk == _maxJerk) {
+      return;
+    }
+    _maxVelocity = maxVelocity;
+    _maxAcceleration = maxAcceleration;
+    _maxJerk = maxJerk;
+    _planned = false;
+    _totalTime = 0.0;
+  }
+
+  /**
+   * @return maximum velocity in units per second
+   */
+  public double getMaxVelocity() {
+    return _maxVelocity;
+  }
+
+  /**
+   * @return maximum acceleration in units per second squared
+   */
+  public double getMaxAcceleration() {
+    return _maxAcceleration;
+  }
+
+  /**
+   * @return maximum jerk in units per second cubed
+   */
+  public double getMaxJerk() {
+    return _maxJerk;
+  }
+
+  /**
+   * @return acceleration of the last calculated state in units per second squared
+   */
+  public double getAcceleration() {
+    return _lastAcceleration;
+  }
+
+  /**
+   * Calculates the state of the profile t seconds after the current state. If the current state is
+   * the last calculated state and the goal is unchanged the existing plan is followed, otherwise a
+   * new plan is made from the current state.
+   *
+   * @param t       time since the current state in seconds
+   * @param current current state, not modified unless it is also the result
+   * @param goal    goal state, not modified
+   * @param result  state the calculated state is written into
+   */
+  @Override
+  public void calculate(
+      double t,
+      TrapezoidProfile.State current,
+      TrapezoidProfile.State goal,
+      TrapezoidProfile.State result
+  ) {
+    boolean continuing = current.position == _lastPosition && current.velocity == _lastVelocity;
+    if (!_planned || !continuing || goal.position != _goalPosition
+        || goal.velocity != _goalVelocity) {
+      plan(
+          current.position,
+          current.velocity,
+          continuing ? _lastAcceleration : 0.0,
+          goal.position,
+          goal.velocity
+      );
+    }
+
+    _totalTime = _planDuration - _planTime;
+    _planTime += t;
+    sample(_planTime);
+
+    result.position = _lastPosition;
+    result.velocity = _lastVelocity;
+  }
+
+  @Override
+  public double totalTime() {
+    return _totalTime;
+  }
+
+  /**
+   * Plans the segments from the start state to the goal
+   */
+  private void plan(
+      double startPosition,
+      double startVelocity,
+      double startAcceleration,
+      double goalPosition,
+      double goalVelocity
+  ) {
+    _planned = true;
+    _planTime = 0.0;
+    _startPosition = startPosition;
+    _startVelocity = startVelocity;
+    _startAcceleration = startAcceleration;
+    _goalPosition = goalPosition;
+    _goalVelocity = goalVelocity;
+
+    // Ramp the starting acceleration to zero
+    double rampTime = Math.abs(startAcceleration) / _maxJerk;
+    double rampJerk = -Math.signum(startAcceleration) * _maxJerk;
+    _segmentDuration[0] = rampTime;
+    _segmentJerk[0] = rampJerk;
+    _rampedPosition = startPosition + startVelocity * rampTime
+        + startAcceleration * rampTime * rampTime / 2.0
+        + rampJerk * rampTime * rampTime * rampTime / 6.0;
+    _rampedVelocity =
+        startVelocity + startAcceleration * rampTime + rampJerk * rampTime * rampTime / 2.0;
+
+    // Like the trapezoid, start and end within the velocity limit
+    _rampedVelocity = clamp(_rampedVelocity, _maxVelocity);
+    double endVelocity = clamp(goalVelocity, _maxVelocity);
+    double distance = goalPosition - _rampedPosition;
+
+    // Work in a frame where more distance is needed than changing velocity directly covers, so
+    // the peak velocity is at least both end velocities
+    double direction =
+        distance >= velocityChangeDistance(_rampedVelocity, endVelocity) ? 1.0 : -1.0;
+    double startV = _rampedVelocity * direction;
+    double endV = endVelocity * direction;
+    distance *= direction;
+
+    double peakVelocity = _maxVelocity;
+    double cruiseTime = 0.0;
+    double fullSpeedDistance = noCruiseDistance(startV, peakVelocity, endV);
+    if (fullSpeedDistance <= distance) {
+      cruiseTime = (distance - fullSpeedDistance) / peakVelocity;
+    } else {
+      // Too short to reach full speed, the distance only rises with the peak velocity once past
+      // any dip, so bisect for the crossing
+      double low = Math.max(startV, endV);
+      double high = peakVelocity;
+      for (int i = 0; i < PEAK_VELOCITY_ITERATIONS; i++) {
+        double mid = (low + high) / 2.0;
+        if (noCruiseDistance(startV, mid, endV) <= distance) {
+          low = mid;
+        } else {
+          high = mid;
+        }
+      }
+      peakVelocity = (low + high) / 2.0;
+    }
+
+    planVelocityChange(1, startV * direction, peakVelocity * direction);
+    _segmentDuration[4] = cruiseTime;
+    _segmentJerk[4] = 0.0;
+    planVelocityChange(5, peakVelocity * direction, endV * direction);
+
+    _planDuration = 0.0;
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      _planDuration += _segmentDuration[i];
+    }
+  }
+
+  /**
+   * Fills three segments that change velocity with the acceleration starting and ending at zero
+   */
+  private void planVelocityChange(int firstSegment, double fromVelocity, double toVelocity) {
+    double change = Math.abs(toVelocity - fromVelocity);
+    double jerk = Math.signum(toVelocity - fromVelocity) * _maxJerk;
+    double jerkTime;
+    double constantTime;
+    if (change * _maxJerk >= _maxAcceleration * _maxAcceleration) {
+      jerkTime = _maxAcceleration / _maxJerk;
+      constantTime = change / _maxAcceleration - jerkTime;
+    } else {
+      jerkTime = Math.sqrt(change / _maxJerk);
+      constantTime = 0.0;
+    }
+    _segmentDuration[firstSegment] = jerkTime;
+    _segmentJerk[firstSegment] = jerk;
+    _segmentDuration[firstSegment + 1] = constantTime;
+    _segmentJerk[firstSegment + 1] = 0.0;
+    _segmentDuration[firstSegment + 2] = jerkTime;
+    _segmentJerk[firstSegment + 2] = -jerk;
+  }
+
+  /**
+   * @return time to change velocity with the acceleration starting and ending at zero
+   */
+  private double velocityChangeTime(double fromVelocity, double toVelocity) {
+    double change = Math.abs(toVelocity - fromVelocity);
+    if (change * _maxJerk >= _maxAcceleration * _maxAcceleration) {
+      return change / _maxAcceleration + _maxAcceleration / _maxJerk;
+    }
+    return 2.0 * Math.sqrt(change / _maxJerk);
+  }
+
+  /**
+   * @return distance covered changing velocity, the acceleration is symmetric so the average
+   *     velocity is the mean of the two
+   */
+  private double velocityChangeDistance(double fromVelocity, double toVelocity) {
+    return (fromVelocity + toVelocity) / 2.0 * velocityChangeTime(fromVelocity, toVelocity);
+  }
+
+  /**
+   * @return distance covered changing to the peak velocity and then to the end velocity
+   */
+  private double noCruiseDistance(double startVelocity, double peakVelocity, double endVelocity) {
+    return velocityChangeDistance(startVelocity, peakVelocity)
+        + velocityChangeDistance(peakVelocity, endVelocity);
+  }
+
+  /**
+   * Integrates the plan to the time into it, storing the state as the last calculated state
+   */
+  private void sample(double time) {
+    if (time >= _planDuration) {
+      _lastPosition = _goalPosition;
+      _lastVelocity = _goalVelocity;
+      _lastAcceleration = 0.0;
+      return;
+    }
+    double position = _startPosition;
+    double velocity = _startVelocity;
+    double acceleration = _startAcceleration;
+    double remaining = time;
+    for (int i = 0; i < NUM_SEGMENTS && remaining > 0.0; i++) {
+      if (i == 1) {
+        // Continue from the clamped ramp end
+        position = _rampedPosition;
+        velocity = _rampedVelocity;
+        acceleration = 0.0;
+      }
+      double dt = Math.min(remaining, _segmentDuration[i]);
+      double jerk = _segmentJerk[i];
+      position += velocity * dt + acceleration * dt * dt / 2.0 + jerk * dt * dt * dt / 6.0;
+      velocity += acceleration * dt + jerk * dt * dt / 2.0;
+      acceleration += jerk * dt;
+      remaining -= dt;
+    }
+    _lastPosition = position;
+    _lastVelocity = velocity;
+    _lastAcceleration = acceleration;
+  }
+
+  private static double clamp(double value, double limit) {
+    return Math.max(-limit, Math.min(limit, value));
+  }
+}
@@ -0,0 +1,195 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.controls;
+
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+
+/**
+ * Mutable trapezoidal motion profile, matches WPILib's TrapezoidProfile but never allocates.
+ * Constraints are replaced in place and the next state is written into a caller owned state, so a
+ * microsystem can re-plan every loop without producing garbage.
+ */
+public class TagalongTrapezoidProfile implements MotionProfile {
+  /**
+   * Bisection iterations when scaling a profile with a moving start or goal to a duration
+   */
+  private static final int SCALE_ITERATIONS = 40;
+
+  /**
+   * Maximum velocity in units per second,
+   * Maximum acceleration in units per second squared
+   */
+  private double _maxVelocity, _maxAcceleration;
+  /**
+   * Time the acceleration phase ends,
+   * Time the full speed phase ends,
+   * Time the deceleration phase ends, the total time of the last calculated profile, in seconds
+   */
+  private double _endAccel, _endFullSpeed, _endDecel;
+  /**
+   * Scratch state for timing profiles while scaling
+   */
+  private final TrapezoidProfile.State _scaleResult = new TrapezoidProfile.State();
+
+  /**
+   * Constructs a profile
+   *
+   * @param constraints velocity and acceleration constraints
+   */
+  public TagalongTrapezoidProfile(TrapezoidProfile.Constraints constraints) {
+    setConstraints(constraints);
+  }
+
+  /**
+   * Replaces the constraints
+   *
+   * @param constraints velocity and acceleration constraints
+   */
+  public void setConstraints(TrapezoidProfile.Constraints constraints) {
+    setConstraints(constraints.maxVelocity, constraints.maxAcceleration);
+  }
+
+  /**
+   * Replaces the constraints, the profile is finished until the next calculate just like a newly
+   * constructed WPILib profile
+   *
+   * @param maxVelocity     maximum velocity in units per second
+   * @param maxAcceleration maximum acceleration in units per second squared
+   */
+  public void setConstraints(double maxVelocity, double maxAcceleration) {
+    _maxVelocity = maxVelocity;
+    _maxAcceleration = maxAcceleration;
+    _endAccel = 0.0;
+    _endFullSpeed = 0.0;
+    _endDecel = 0.0;
+  }
+
+  /**
+   * @return maximum velocity in units per second
+   */
+  public double getMaxVelocity() {
+    return _maxVelocity;
+  }
+
+  /**
+   * @return maximum acceleration in units per second squared
+   */
+  public double getMaxAcceleration() {
+    return _maxAcceleration;
+  }
+
+  /**
+   * Slows the constraints, velocity by a scale and acceleration by its square, so the profile from
+   * the current state to the goal takes the duration. A profile between rest states slows exactly
+   * by the scale, otherwise the scale is found by bisection. Never speeds a profile up.
+   *
+   * @param current   current state
+   * @param goal      goal state
+   * @param durationS duration the profile should take, in seconds
+   * @return scale applied to the velocity constraint, 1.0 if the profile is already at the goal
+   *     or takes the duration or longer
+   */
+  public double scaleToDuration(
+      TrapezoidProfile.State current, TrapezoidProfile.State goal, double durationS
+  ) {
+    calculate(0.0, current, goal, _scaleResult);
+    // Already at the goal, or already slow enough
+    if (_endDecel == 0.0 || _endDecel >= durationS) {
+      return 1.0;
+    }
+
+    double maxVelocity = _maxVelocity;
+    double maxAcceleration = _maxAcceleration;
+    double scale;
+    if (current.velocity == 0.0 && goal.velocity == 0.0) {
+      scale = _endDecel / durationS;
+    } else {
+      // Slower constraints only lengthen the profile, keep the fastest scale within the duration
+      double low = 0.0;
+      scale = 1.0;
+      for (int i = 0; i < SCALE_ITERATIONS; i++) {
+        double mid = (low + scale) / 2.0;
+        setConstraints(maxVelocity * mid, maxAcceleration * mid * mid);
+        calculate(0.0, current, goal, _scaleResult);
+        if (_endDecel > durationS) {
+          low = mid;
+        } else {
+          scale = mid;
+        }
+      }
+    }
+    setConstraints(maxVelocity * scale, maxAcceleration * scale * scale);
+    return scale;
+  }
+
+  @Override
+  public void calculate(
+      double t,
+      TrapezoidProfile.State current,
+      TrapezoidProfile.State goal,
+      TrapezoidProfile.State result
+  ) {
+    // Work in a frame where the profile always moves forward
+    double direction = current.position > goal.position ? -1.0 : 1.0;
+    double currentPosition = current.position * direction;
+    double currentVelocity = current.velocity * direction;
+    double goalPosition = goal.position * direction;
+    double goalVelocity = goal.velocity * direction;
+
+    if (Math.abs(currentVelocity) > _maxVelocity) {
+      currentVelocity = Math.copySign(_maxVelocity, currentVelocity);
+    }
+
+    // Treat a truncated profile with non-zero end velocities as a full trapezoid
+    double cutoffBegin = currentVelocity / _maxAcceleration;
+    double cutoffDistBegin = cutoffBegin * cutoffBegin * _maxAcceleration / 2.0;
+    double cutoffEnd = goalVelocity / _maxAcceleration;
+    double cutoffDistEnd = cutoffEnd * cutoffEnd * _maxAcceleration / 2.0;
+
+    double fullTrapezoidDist = cutoffDistBegin + (goalPosition - currentPosition) + cutoffDistEnd;
+    double accelerationTime = _maxVelocity / _maxAcceleration;
+    double fullSpeedDist =
+        fullTrapezoidDist - accelerationTime * accelerationTime * _maxAcceleration;
+
+    // The profile never reaches full speed
+    if (fullSpeedDist < 0) {
+      accelerationTime = Math.sqrt(fullTrapezoidDist / _maxAcceleration);
+      fullSpeedDist = 0;
+    }
+
+    _endAccel = accelerationTime - cutoffBegin;
+    _endFullSpeed = _endAccel + fullSpeedDist / _maxVelocity;
+    _endDecel = _endFullSpeed + accelerationTime - cutoffEnd;
+
+    double position;
+    double velocity;
+    if (t < _endAccel) {
+      velocity = currentVelocity + t * _maxAcceleration;
+      position = currentPosition + (currentVelocity + t * _maxAcceleration / 2.0) * t;
+    } else if (t < _endFullSpeed) {
+      velocity = _maxVelocity;
+      position = currentPosition
+          + (currentVelocity + _endAccel * _maxAcceleration / 2.0) * _endAccel
+          + _maxVelocity * (t - _endAccel);
+    } else if (t <= _endDecel) {
+      double timeLeft = _endDecel - t;
+      velocity = goalVelocity + timeLeft * _maxAcceleration;
+      position = goalPosition - (goalVelocity + timeLeft * _maxAcceleration / 2.0) * timeLeft;
+    } else {
+      velocity = goalVelocity;
+      position = goalPosition;
+    }
+
+    result.position = position * direction;
+    result.velocity = velocity * direction;
+  }
+
+  @Override
+  public double totalTime() {
+    return _endDecel;
+  }
+}
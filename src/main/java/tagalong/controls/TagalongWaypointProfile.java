@@ -0,0 +1,227 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.controls;
+
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+
+/**
+ * Continuous profile through an ordered list of waypoints, chaining trapezoids that pass through
+ * each intermediate waypoint at the fastest speed that still lets every later waypoint be reached
+ * within the acceleration limit. The mechanism only stops where it reverses direction or where a
+ * waypoint caps its speed to zero.
+ *
+ * Waypoints are set in place and the profile ignores the goal passed to calculate, the last
+ * waypoint is the goal. Never allocates once constructed.
+ */
+public class TagalongWaypointProfile implements MotionProfile {
+  /**
+   * Largest number of waypoints in a profile
+   */
+  public static final int MAX_WAYPOINTS = 16;
+
+  /**
+   * Profile of the segment being followed
+   */
+  private final TagalongTrapezoidProfile _segmentProfile =
+      new TagalongTrapezoidProfile(new TrapezoidProfile.Constraints(0.0, 0.0));
+  /**
+   * Scratch states for the segment start, segment goal and calculated state
+   */
+  private final TrapezoidProfile.State _segmentStart = new TrapezoidProfile.State(),
+                                       _segmentGoal = new TrapezoidProfile.State(),
+                                       _segmentResult = new TrapezoidProfile.State();
+  /**
+   * Waypoint positions
+   */
+  private final double[] _positions = new double[MAX_WAYPOINTS];
+  /**
+   * Speed caps at each waypoint, planned velocities once planned
+   */
+  private final double[] _velocities = new double[MAX_WAYPOINTS];
+  /**
+   * Time to follow every segment after each waypoint in seconds
+   */
+  private final double[] _timeAfter = new double[MAX_WAYPOINTS];
+  /**
+   * Number of waypoints,
+   * Index of the waypoint the followed segment ends at
+   */
+  private int _numWaypoints, _segment;
+  /**
+   * Maximum velocity in units per second,
+   * Maximum acceleration in units per second squared
+   */
+  private double _maxVelocity, _maxAcceleration;
+  /**
+   * Time from the current state of the last calculate to the last waypoint in seconds
+   */
+  private double _totalTime;
+
+  /**
+   * Replaces the constraints, takes effect at the next plan
+   *
+   * @param maxVelocity     maximum velocity in units per second
+   * @param maxAcceleration maximum acceleration in units per second squared
+   */
+  public void setConstraints(double maxVelocity, double maxAcceleration) {
+    _maxVelocity = maxVelocity;
+    _maxAcceleration = maxAcceleration;
+  }
+
+  /**
+   * Sets the number of waypoints, followed by setWaypoint for each of them
+   *
+   * @param numWaypoints number of waypoints, at most MAX_WAYPOINTS
+   */
+  public void setNumWaypoints(int numWaypoints) {
+    assert (numWaypoints > 0 && numWaypoints <= MAX_WAYPOINTS);
+    _numWaypoints = numWaypoints;
+  }
+
+  /**
+   * Sets a waypoint, takes effect at the next plan
+   *
+   * @param index       index of the waypoint
+   * @param position    position in units
+   * @param velocityCap largest speed passing through the waypoint in units per second, ignored for
+   *     the last waypoint which is always reached at rest
+   */
+  public void setWaypoint(int index, double position, double velocityCap) {
+    _positions[index] = position;
+    _velocities[index] = Math.abs(velocityCap);
+  }
+
+  /**
+   * @return number of waypoints
+   */
+  public int getNumWaypoints() {
+    return _numWaypoints;
+  }
+
+  /**
+   * @return position of the last waypoint in units
+   */
+  public double getGoalPosition() {
+    return _positions[_numWaypoints - 1];
+  }
+
+  /**
+   * @return index of the waypoint the profile is heading to
+   */
+  public int getSegment() {
+    return _segment;
+  }
+
+  /**
+   * Plans the velocity through every waypoint starting from a state, the profile is then followed
+   * from that state
+   *
+   * @param start starting state
+   */
+  public void plan(TrapezoidProfile.State start) {
+    int last = _numWaypoints - 1;
+    _velocities[last] = 0.0;
+
+    // Stop wherever the direction reverses, otherwise stay under the caps and velocity limit
+    for (int i = 0; i < last; i++) {
+      double arriving = direction(i, start.position);
+      double leaving = direction(i + 1, start.position);
+      _velocities[i] = arriving == 0.0 || arriving != leaving
+          ? 0.0
+          : Math.min(_velocities[i], _maxVelocity);
+    }
+    // Backward pass, every waypoint must be slow enough to slow down for the next
+    for (int i = last - 1; i >= 0; i--) {
+      if (_velocities[i] > 0.0) {
+        _velocities[i] = Math.min(_velocities[i], reachableSpeed(_velocities[i + 1], i + 1, start));
+      }
+    }
+    // Forward pass, every waypoint must be reachable from the previous one
+    double speed = Math.max(0.0, start.velocity * direction(0, start.position));
+    for (int i = 0; i < last; i++) {
+      _velocities[i] = Math.min(_velocities[i], reachableSpeed(speed, i, start));
+      speed = _velocities[i];
+    }
+    // Signed velocities in the direction each waypoint is passed
+    for (int i = 0; i < last; i++) {
+      _velocities[i] *= direction(i, start.position);
+    }
+
+    // Time after each waypoint for totalTime
+    _segmentProfile.setConstraints(_maxVelocity, _maxAcceleration);
+    _timeAfter[last] = 0.0;
+    for (int i = last - 1; i >= 0; i--) {
+      loadWaypoint(_segmentStart, i);
+      loadWaypoint(_segmentGoal, i + 1);
+      _segmentProfile.calculate(0.0, _segmentStart, _segmentGoal, _segmentResult);
+      _timeAfter[i] = _timeAfter[i + 1] + _segmentProfile.totalTime();
+    }
+
+    _segment = 0;
+    _totalTime = 0.0;
+  }
+
+  @Override
+  public void calculate(
+      double t,
+      TrapezoidProfile.State current,
+      TrapezoidProfile.State goal,
+      TrapezoidProfile.State result
+  ) {
+    _segmentStart.position = current.position;
+    _segmentStart.velocity = current.velocity;
+
+    // Carry the time left after reaching a waypoint into the next segment
+    double remaining = t;
+    double elapsed = 0.0;
+    while (true) {
+      loadWaypoint(_segmentGoal, _segment);
+      _segmentProfile.calculate(remaining, _segmentStart, _segmentGoal, _segmentResult);
+      double segmentTime = _segmentProfile.totalTime();
+      if (segmentTime > remaining || _segment == _numWaypoints - 1) {
+        _totalTime = elapsed + segmentTime + _timeAfter[_segment];
+        break;
+      }
+      remaining -= segmentTime;
+      elapsed += segmentTime;
+      _segmentStart.position = _segmentGoal.position;
+      _segmentStart.velocity = _segmentGoal.velocity;
+      _segment++;
+    }
+
+    result.position = _segmentResult.position;
+    result.velocity = _segmentResult.velocity;
+  }
+
+  @Override
+  public double totalTime() {
+    return _totalTime;
+  }
+
+  /**
+   * @return direction of travel into the waypoint
+   */
+  private double direction(int index, double startPosition) {
+    double from = index == 0 ? startPosition : _positions[index - 1];
+    return Math.signum(_positions[index] - from);
+  }
+
+  /**
+   * @return fastest speed at the end of the segment into a waypoint given the speed at its start,
+   *     the same bound applies in reverse
+   */
+  private double reachableSpeed(double speed, int index, TrapezoidProfile.State start) {
+    double from = index == 0 ? start.position : _positions[index - 1];
+    double distance = Math.abs(_positions[index] - from);
+    return Math.min(_maxVelocity, Math.sqrt(speed * speed + 2.0 * _maxAcceleration * distance));
+  }
+
+  private void loadWaypoint(TrapezoidProfile.State state, int index) {
+    state.position = _positions[index];
+    state.velocity = _velocities[index];
+  }
+}
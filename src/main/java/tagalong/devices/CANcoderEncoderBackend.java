@@ -0,0 +1,107 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.devices;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.hardware.CANcoder;
+import com.ctre.phoenix6.sim.CANcoderSimState;
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularVelocity;
+
+/**
+ * Encoder backend for a real or Phoenix simulated CANcoder
+ */
+public class CANcoderEncoderBackend implements EncoderBackend {
+  /**
+   * Encoder device
+   */
+  private final CANcoder _encoder;
+  /**
+   * Position signal
+   */
+  private final StatusSignal<Angle> _positionSignal;
+  /**
+   * Velocity signal
+   */
+  private final StatusSignal<AngularVelocity> _velocitySignal;
+  /**
+   * All input signals
+   */
+  private final BaseStatusSignal[] _signals;
+  /**
+   * Sticky fault bit field signal, a copy only refreshed by the DeviceHealthMonitor thread
+   */
+  private final StatusSignal<Integer> _stickyFaultSignal;
+  /**
+   * Phoenix simulation state of the encoder
+   */
+  private final CANcoderSimState _simState;
+
+  /**
+   * Constructs a CANcoder backend
+   *
+   * @param encoder encoder device
+   */
+  public CANcoderEncoderBackend(CANcoder encoder) {
+    _encoder = encoder;
+    _positionSignal = encoder.getPosition();
+    _velocitySignal = encoder.getVelocity();
+    _signals = new BaseStatusSignal[] {_positionSignal, _velocitySignal};
+    _stickyFaultSignal = encoder.getStickyFaultField().clone();
+    _simState = encoder.getSimState();
+  }
+
+  /**
+   * @return encoder device
+   */
+  public CANcoder getEncoder() {
+    return _encoder;
+  }
+
+  @Override
+  public BaseStatusSignal[] getStatusSignals() {
+    return _signals;
+  }
+
+  @Override
+  public void refresh() {
+    BaseStatusSignal.refreshAll(_signals);
+  }
+
+  @Override
+  public double getPositionRot() {
+    return _positionSignal.getValueAsDouble();
+  }
+
+  @Override
+  public double getVelocityRPS() {
+    return _velocitySignal.getValueAsDouble();
+  }
+
+  @Override
+  public boolean isAlive() {
+    return _encoder.isConnected();
+  }
+
+  @Override
+  public boolean hasResetOccurred() {
+    return _encoder.hasResetOccurred();
+  }
+
+  @Override
+  public int getStickyFaults() {
+    return _stickyFaultSignal.refresh().getValue();
+  }
+
+  @Override
+  public void setSimulatedState(double positionRot, double velocityRPS, double supplyVoltage) {
+    _simState.setRawPosition(positionRot);
+    _simState.setVelocity(velocityRPS);
+    _simState.setSupplyVoltage(supplyVoltage);
+  }
+}
@@ -0,0 +1,37 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.devices;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Background worker for blocking device configuration calls so the robot loop never waits on a
+ * configurator. Tasks run one at a time in submission order.
+ */
+public class DeviceConfigExecutor {
+  /**
+   * Single daemon thread running all configuration tasks
+   */
+  private static final ExecutorService _executor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "TagalongConfig");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * Queues a configuration task
+   *
+   * @param task configuration task returning true if every configuration applied successfully
+   * @return future completed with the task's result once it has ran
+   */
+  public static CompletableFuture<Boolean> submit(Supplier<Boolean> task) {
+    return CompletableFuture.supplyAsync(task, _executor);
+  }
+}
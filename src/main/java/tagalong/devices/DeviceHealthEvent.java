@@ -0,0 +1,71 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.devices;
+
+/**
+ * Device reset or sticky fault change posted by the DeviceHealthMonitor
+ */
+public class DeviceHealthEvent {
+  /**
+   * Kinds of health events
+   */
+  public enum Type {
+    /**
+     * The device rebooted and lost its configuration and control request
+     */
+    RESET,
+    /**
+     * The device's latched sticky faults changed
+     */
+    STICKY_FAULT,
+    /**
+     * The owner finished reapplying the configuration of reset devices, posted by the owner's
+     * reconfiguration task rather than the DeviceHealthMonitor
+     */
+    RECONFIGURED
+  }
+
+  /**
+   * Kind of event
+   */
+  public final Type type;
+  /**
+   * Owner defined device bit, identifies which of the owner's devices the event is for
+   */
+  public final int device;
+  /**
+   * Name of the device for reporting
+   */
+  public final String deviceName;
+  /**
+   * Sticky fault bit field when the event was posted
+   */
+  public final int stickyFaults;
+  /**
+   * FPGA timestamp the event was detected at in seconds
+   */
+  public final double timestampS;
+
+  /**
+   * Constructs a health event
+   *
+   * @param type         kind of event
+   * @param device       owner defined device bit
+   * @param deviceName   name of the device for reporting
+   * @param stickyFaults sticky fault bit field
+   * @param timestampS   FPGA timestamp the event was detected at in seconds
+   */
+  public DeviceHealthEvent(
+      Type type, int device, String deviceName, int stickyFaults, double timestampS
+  ) {
+    this.type = type;
+    this.device = device;
+    this.deviceName = deviceName;
+    this.stickyFaults = stickyFaults;
+    this.timestampS = timestampS;
+  }
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.devices;
+
+import edu.wpi.first.wpilibj.Timer;
+import java.util.Queue;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+import tagalong.TagalongConfiguration;
+
+/**
+ * Background thread polling device resets and sticky faults at
+ * TagalongConfiguration.HEALTH_MONITOR_HZ so the robot loop never does. It is the only caller of
+ * each watched device's reset check, events are posted into the owner's lock-free queue and
+ * drained by the owner's periodic.
+ */
+public class DeviceHealthMonitor {
+  /**
+   * Watched device
+   */
+  private static class Watch {
+    /**
+     * Owner defined device bit
+     */
+    final int device;
+    /**
+     * Name of the device for reporting
+     */
+    final String deviceName;
+    /**
+     * Reset check, true if the device reset since the last call
+     */
+    final BooleanSupplier resetCheck;
+    /**
+     * Sticky fault bit field supplier
+     */
+    final IntSupplier stickyFaults;
+    /**
+     * Owner's event queue
+     */
+    final Queue<DeviceHealthEvent> events;
+    /**
+     * Sticky fault bit field at the last poll
+     */
+    int lastStickyFaults = 0;
+
+    /**
+     * @param device       owner defined device bit
+     * @param deviceName   name of the device for reporting
+     * @param resetCheck   reset check
+     * @param stickyFaults sticky fault bit field supplier
+     * @param events       owner's event queue
+     */
+    Watch(
+        int device,
+        String deviceName,
+        BooleanSupplier resetCheck,
+        IntSupplier stickyFaults,
+        Queue<DeviceHealthEvent> events
+    ) {
+      this.device = device;
+      this.deviceName = deviceName;
+      this.resetCheck = resetCheck;
+      this.stickyFaults = stickyFaults;
+      this.events = events;
+    }
+  }
+
+  /**
+   * Watched devices, replaced rather than resized so the running thread always sees a consistent
+   * set
+   */
+  private static volatile Watch[] _watches = new Watch[0];
+  /**
+   * Background polling thread, started by the first watch
+   */
+  private static Thread _thread;
+
+  /**
+   * Starts polling a device. The reset check must not be called by anything else as each call
+   * clears the device's reset flag.
+   *
+   * @param device       owner defined device bit, returned in the device's events
+   * @param deviceName   name of the device for reporting
+   * @param resetCheck   reset check, true if the device reset since the last call
+   * @param stickyFaults sticky fault bit field supplier
+   * @param events       lock-free queue the events are posted into
+   */
+  public static synchronized void watch(
+      int device,
+      String deviceName,
+      BooleanSupplier resetCheck,
+      IntSupplier stickyFaults,
+      Queue<DeviceHealthEvent> events
+  ) {
+    Watch[] watches = new Watch[_watches.length + 1];
+    System.arraycopy(_watches, 0, watches, 0, _watches.length);
+    watches[_watches.length] = new Watch(device, deviceName, resetCheck, stickyFaults, events);
+    _watches = watches;
+
+    if (_thread == null) {
+      _thread = new Thread(DeviceHealthMonitor::run, "TagalongHealth");
+      _thread.setDaemon(true);
+      _thread.setPriority(Thread.MIN_PRIORITY);
+      _thread.start();
+    }
+  }
+
+  /**
+   * Polling loop
+   */
+  private static void run() {
+    while (!Thread.currentThread().isInterrupted()) {
+      Timer.delay(1.0 / TagalongConfiguration.HEALTH_MONITOR_HZ);
+      for (Watch watch : _watches) {
+        poll(watch);
+      }
+    }
+  }
+
+  /**
+   * Polls a single device and posts any events
+   *
+   * @param watch watched device
+   */
+  private static void poll(Watch watch) {
+    if (watch.resetCheck.getAsBoolean()) {
+      watch.events.offer(new DeviceHealthEvent(
+          DeviceHealthEvent.Type.RESET,
+          watch.device,
+          watch.deviceName,
+          watch.lastStickyFaults,
+          Timer.getFPGATimestamp()
+      ));
+    }
+
+    int stickyFaults = watch.stickyFaults.getAsInt();
+    if (stickyFaults != watch.lastStickyFaults) {
+      watch.lastStickyFaults = stickyFaults;
+      watch.events.offer(new DeviceHealthEvent(
+          DeviceHealthEvent.Type.STICKY_FAULT,
+          watch.device,
+          watch.deviceName,
+          stickyFaults,
+          Timer.getFPGATimestamp()
+      ));
+    }
+  }
+}
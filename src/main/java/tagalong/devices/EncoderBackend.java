@@ -0,0 +1,64 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.devices;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+
+/**
+ * Hardware layer under a microsystem's external encoder. Inputs are read from the values cached
+ * at the last refresh.
+ */
+public interface EncoderBackend {
+  /**
+   * @return Phoenix status signals backing the inputs, refreshed by the owning microsystem or the
+   *     StatusSignalRegistry, empty for backends without Phoenix devices
+   */
+  BaseStatusSignal[] getStatusSignals();
+
+  /**
+   * Refreshes the inputs, only needed when the status signals are not refreshed by the owner
+   */
+  void refresh();
+
+  /**
+   * @return encoder position in rotations
+   */
+  double getPositionRot();
+
+  /**
+   * @return encoder velocity in rotations per second
+   */
+  double getVelocityRPS();
+
+  /**
+   * @return True if the encoder is communicating
+   */
+  boolean isAlive();
+
+  /**
+   * @return True if the encoder has reset since the last call
+   */
+  boolean hasResetOccurred();
+
+  /**
+   * Refreshes and returns the sticky fault bit field, called from the DeviceHealthMonitor thread
+   * only
+   *
+   * @return sticky fault bit field, 0 if no faults are latched
+   */
+  int getStickyFaults();
+
+  /**
+   * Feeds the state of a simulated mechanism to the encoder, called each simulation loop.
+   * Backends without a simulated device ignore it.
+   *
+   * @param positionRot   encoder position in rotations
+   * @param velocityRPS   encoder velocity in rotations per second
+   * @param supplyVoltage supply voltage
+   */
+  void setSimulatedState(double positionRot, double velocityRPS, double supplyVoltage);
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.devices;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.CANBus;
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.StatusSignal;
+import edu.wpi.first.wpilibj.Timer;
+import java.util.HashMap;
+import java.util.Map;
+import tagalong.TagalongConfiguration;
+
+/**
+ * Acquisition thread sampling opted in microsystem signals faster than the robot loop, one thread
+ * per CAN bus. CAN FD buses block on waitForAll so samples follow the device update rate, other
+ * buses fall back to sleeping between refreshes. Samples are pushed into each microsystem's
+ * SignalSampleBuffer and drained by the main loop.
+ */
+public class HighFrequencySampler {
+  /**
+   * Samplers indexed by CAN bus
+   */
+  private static final Map<String, HighFrequencySampler> _samplers = new HashMap<>();
+
+  /**
+   * True if the bus supports CAN FD and waitForAll can be used
+   */
+  private final boolean _isNetworkFD;
+  /**
+   * Sampling period in seconds
+   */
+  private final double _periodS;
+  /**
+   * All sampled signals, refreshed together
+   */
+  private volatile BaseStatusSignal[] _allSignals = new BaseStatusSignal[0];
+  /**
+   * Sampled signals per entry, position, velocity and current
+   */
+  private volatile BaseStatusSignal[][] _entrySignals = new BaseStatusSignal[0][];
+  /**
+   * Destination buffer per entry
+   */
+  private volatile SignalSampleBuffer[] _entryBuffers = new SignalSampleBuffer[0];
+  /**
+   * Background acquisition thread
+   */
+  private final Thread _thread;
+
+  /**
+   * Constructs a sampler for a single CAN bus
+   *
+   * @param canBus CAN bus the sampled devices are on
+   */
+  private HighFrequencySampler(String canBus) {
+    _isNetworkFD = new CANBus(canBus).isNetworkFD();
+    _periodS = 1.0 / TagalongConfiguration.HIGH_FREQUENCY_SAMPLE_HZ;
+    _thread = new Thread(this::run, "TagalongSampler-" + canBus);
+    _thread.setDaemon(true);
+    _thread.setPriority(Thread.MAX_PRIORITY - 1);
+  }
+
+  /**
+   * Registers signals to be sampled at TagalongConfiguration.HIGH_FREQUENCY_SAMPLE_HZ. The signals
+   * must not be refreshed by any other thread, pass clones of the main loop signals, and their
+   * update frequencies must be at least the sample rate. Must be called during robot construction.
+   *
+   * @param canBus   CAN bus the signals' device is on
+   * @param position position signal
+   * @param velocity velocity signal
+   * @param current  current signal
+   * @param buffer   buffer the samples are pushed into
+   */
+  public static synchronized void register(
+      String canBus,
+      StatusSignal<?> position,
+      StatusSignal<?> velocity,
+      StatusSignal<?> current,
+      SignalSampleBuffer buffer
+  ) {
+    HighFrequencySampler sampler = _samplers.get(canBus);
+    boolean start = sampler == null;
+    if (start) {
+      sampler = new HighFrequencySampler(canBus);
+      _samplers.put(canBus, sampler);
+    }
+    sampler.add(new BaseStatusSignal[] {position, velocity, current}, buffer);
+    if (start) {
+      sampler._thread.start();
+    }
+  }
+
+  /**
+   * Appends an entry, arrays are replaced rather than resized so the running thread always sees
+   * a consistent set
+   *
+   * @param signals position, velocity and current signals
+   * @param buffer  destination buffer
+   */
+  private void add(BaseStatusSignal[] signals, SignalSampleBuffer buffer) {
+    int entries = _entryBuffers.length;
+    BaseStatusSignal[][] entrySignals = new BaseStatusSignal[entries + 1][];
+    SignalSampleBuffer[] entryBuffers = new SignalSampleBuffer[entries + 1];
+    System.arraycopy(_entrySignals, 0, entrySignals, 0, entries);
+    System.arraycopy(_entryBuffers, 0, entryBuffers, 0, entries);
+    entrySignals[entries] = signals;
+    entryBuffers[entries] = buffer;
+
+    BaseStatusSignal[] allSignals = new BaseStatusSignal[_allSignals.length + signals.length];
+    System.arraycopy(_allSignals, 0, allSignals, 0, _allSignals.length);
+    System.arraycopy(signals, 0, allSignals, _allSignals.length, signals.length);
+
+    // Buffers are published last, the thread reads them first
+    _allSignals = allSignals;
+    _entrySignals = entrySignals;
+    _entryBuffers = entryBuffers;
+  }
+
+  /**
+   * Acquisition loop
+   */
+  private void run() {
+    while (!Thread.currentThread().isInterrupted()) {
+      SignalSampleBuffer[] buffers = _entryBuffers;
+      BaseStatusSignal[][] entrySignals = _entrySignals;
+      BaseStatusSignal[] allSignals = _allSignals;
+
+      StatusCode status;
+      if (_isNetworkFD) {
+        status = BaseStatusSignal.waitForAll(2.0 * _periodS, allSignals);
+      } else {
+        Timer.delay(_periodS);
+        status = BaseStatusSignal.refreshAll(allSignals);
+      }
+      // Stale or missing samples are dropped rather than pushed
+      if (!status.isOK()) {
+        continue;
+      }
+
+      for (int i = 0; i < buffers.length; i++) {
+        BaseStatusSignal[] signals = entrySignals[i];
+        buffers[i].push(
+            signals[0].getTimestamp().getTime(),
+            signals[0].getValueAsDouble(),
+            signals[1].getValueAsDouble(),
+            signals[2].getValueAsDouble()
+        );
+      }
+    }
+  }
+}
@@ -0,0 +1,198 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.devices;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+
+/**
+ * Hardware layer under a microsystem's primary motor. Inputs are read from the values cached at
+ * the last refresh, positions are in motor rotations and voltages in volts.
+ */
+public interface MotorBackend {
+  /**
+   * @return Phoenix status signals backing the inputs, refreshed by the owning microsystem or the
+   *     StatusSignalRegistry, empty for backends without Phoenix devices
+   */
+  BaseStatusSignal[] getStatusSignals();
+
+  /**
+   * Refreshes the inputs, only needed when the status signals are not refreshed by the owner
+   */
+  void refresh();
+
+  /**
+   * @return motor position in rotations
+   */
+  double getPositionRot();
+
+  /**
+   * @return motor velocity in rotations per second
+   */
+  double getVelocityRPS();
+
+  /**
+   * @return applied motor voltage
+   */
+  double getVoltage();
+
+  /**
+   * @return motor stator current in amps
+   */
+  double getCurrentAmps();
+
+  /**
+   * @return latency compensated motor position in rotations, the uncompensated position if the
+   *     backend does not compensate
+   */
+  double getCompensatedPositionRot();
+
+  /**
+   * @return latency compensated motor velocity in rotations per second, the uncompensated velocity
+   *     if the backend does not compensate
+   */
+  double getCompensatedVelocityRPS();
+
+  /**
+   * @return applied duty cycle from -1.0 to 1.0
+   */
+  double getDutyCycle();
+
+  /**
+   * Overwrites the motor position
+   *
+   * @param rotations new motor position in rotations
+   * @return True if successful
+   */
+  boolean setPosition(double rotations);
+
+  /**
+   * Closed loop position control using slot 0
+   *
+   * @param positionRot position setpoint in rotations
+   * @param velocityRPS velocity setpoint in rotations per second, used by the slot's kS and kV
+   * @param feedForward feedforward in volts
+   * @return True if successful
+   */
+  boolean setPositionVoltage(double positionRot, double velocityRPS, double feedForward);
+
+  /**
+   * Closed loop velocity control using slot 1
+   *
+   * @param velocityRPS velocity setpoint in rotations per second
+   * @param feedForward feedforward in volts
+   * @return True if successful
+   */
+  boolean setVelocityVoltage(double velocityRPS, double feedForward);
+
+  /**
+   * Motion Magic position control using slot 0 and the configured Motion Magic limits, the profile
+   * is calculated on the device
+   *
+   * @param positionRot goal position in rotations
+   * @param feedForward additional feedforward in volts
+   * @return True if successful
+   */
+  boolean setMotionMagicVoltage(double positionRot, double feedForward);
+
+  /**
+   * Motion Magic position control using slot 0 with per request limits, the profile is calculated
+   * on the device
+   *
+   * @param positionRot      goal position in rotations
+   * @param velocityRPS      cruise velocity in rotations per second
+   * @param accelerationRPS2 acceleration in rotations per second squared
+   * @param feedForward      additional feedforward in volts
+   * @return True if successful
+   */
+  boolean setDynamicMotionMagicVoltage(
+      double positionRot, double velocityRPS, double accelerationRPS2, double feedForward
+  );
+
+  /**
+   * Open loop voltage control
+   *
+   * @param volts output in volts
+   * @return True if successful
+   */
+  boolean setVoltage(double volts);
+
+  /**
+   * Torque current control
+   *
+   * @param amps torque current in amps
+   * @return True if successful
+   */
+  boolean setTorqueCurrent(double amps);
+
+  /**
+   * Closed loop position control using slot 0 with field oriented torque current output, the
+   * slot's gains are in amps
+   *
+   * @param positionRot     position setpoint in rotations
+   * @param velocityRPS     velocity setpoint in rotations per second, used by the slot's kS and kV
+   * @param feedForwardAmps feedforward in amps
+   * @return True if successful
+   */
+  boolean setPositionTorqueCurrent(double positionRot, double velocityRPS, double feedForwardAmps);
+
+  /**
+   * Closed loop velocity control using slot 1 with field oriented torque current output, the
+   * slot's gains are in amps
+   *
+   * @param velocityRPS     velocity setpoint in rotations per second
+   * @param feedForwardAmps feedforward in amps
+   * @return True if successful
+   */
+  boolean setVelocityTorqueCurrent(double velocityRPS, double feedForwardAmps);
+
+  /**
+   * Open loop duty cycle control
+   *
+   * @param dutyCycle duty cycle from -1.0 to 1.0
+   */
+  void setDutyCycle(double dutyCycle);
+
+  /**
+   * @return True if the motor is communicating
+   */
+  boolean isAlive();
+
+  /**
+   * @return True if the motor has reset since the last call
+   */
+  boolean hasResetOccurred();
+
+  /**
+   * Refreshes and returns the sticky fault bit field, called from the DeviceHealthMonitor thread
+   * only
+   *
+   * @return sticky fault bit field, 0 if no faults are latched
+   */
+  int getStickyFaults();
+
+  /**
+   * Registers the position, velocity and current inputs with the high frequency sampler
+   *
+   * @param canBus CAN bus of the motor
+   * @param buffer buffer the samples are pushed into
+   * @return True if the backend supports high frequency sampling
+   */
+  boolean registerHighFrequencySampling(String canBus, SignalSampleBuffer buffer);
+
+  /**
+   * Feeds the rotor state of a simulated mechanism to the motor, called each simulation loop.
+   * Backends without a simulated device ignore it.
+   *
+   * @param positionRot      rotor position in rotations
+   * @param velocityRPS      rotor velocity in rotations per second
+   * @param accelerationRPS2 rotor acceleration in rotations per second squared
+   * @param supplyVoltage    supply voltage
+   */
+  void setSimulatedRotorState(
+      double positionRot, double velocityRPS, double accelerationRPS2, double supplyVoltage
+  );
+}
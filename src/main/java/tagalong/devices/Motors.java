@@ -53,6 +53,11 @@ public enum Motors implements CanDeviceInterface {
    * Motor's simulation supplier
    */
   public final Function<Integer, DCMotor> simSupplier;
+  /**
+   * Torque constant of a single motor in newton meters per amp,
+   * Winding resistance of a single motor in ohms
+   */
+  public final double kTNMPerAmp, resistanceOhms;
 
   /**
    *
@@ -63,6 +68,31 @@ public enum Motors implements CanDeviceInterface {
     maxRPS =
         VelocityUnits.ROTATIONS_PER_MINUTE.convertX(maxRPM, VelocityUnits.ROTATIONS_PER_SECOND);
     this.simSupplier = simSupplier;
+    DCMotor motor = simSupplier.apply(1);
+    kTNMPerAmp = motor.KtNMPerAmp;
+    resistanceOhms = motor.rOhms;
+  }
+
+  /**
+   * Converts torque on one motor's shaft to the stator current producing it
+   *
+   * @param torqueNM torque in newton meters
+   * @return stator current in amps
+   */
+  public double torqueToCurrent(double torqueNM) {
+    return torqueNM / kTNMPerAmp;
+  }
+
+  /**
+   * Converts a feedforward voltage to the stator current producing the same torque, the torque the
+   * voltage produces at stall. Only valid for the static friction, gravity and acceleration terms,
+   * back EMF needs no current under torque control.
+   *
+   * @param volts feedforward in volts
+   * @return stator current in amps
+   */
+  public double feedforwardVoltsToCurrent(double volts) {
+    return torqueToCurrent(volts * kTNMPerAmp / resistanceOhms);
   }
 
   // FUTURE DEV: Make some defaults, especially current limits, specific to each motor
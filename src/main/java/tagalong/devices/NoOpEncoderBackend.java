@@ -0,0 +1,65 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.devices;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+
+/**
+ * Encoder backend for disabled microsystems, reads zeros
+ */
+public final class NoOpEncoderBackend implements EncoderBackend {
+  /**
+   * Shared instance, the backend is stateless
+   */
+  public static final NoOpEncoderBackend INSTANCE = new NoOpEncoderBackend();
+
+  /**
+   * Empty signal set
+   */
+  private static final BaseStatusSignal[] NO_SIGNALS = new BaseStatusSignal[0];
+
+  /**
+   * Use INSTANCE
+   */
+  private NoOpEncoderBackend() {}
+
+  @Override
+  public BaseStatusSignal[] getStatusSignals() {
+    return NO_SIGNALS;
+  }
+
+  @Override
+  public void refresh() {}
+
+  @Override
+  public double getPositionRot() {
+    return 0.0;
+  }
+
+  @Override
+  public double getVelocityRPS() {
+    return 0.0;
+  }
+
+  @Override
+  public boolean isAlive() {
+    return false;
+  }
+
+  @Override
+  public boolean hasResetOccurred() {
+    return false;
+  }
+
+  @Override
+  public int getStickyFaults() {
+    return 0;
+  }
+
+  @Override
+  public void setSimulatedState(double positionRot, double velocityRPS, double supplyVoltage) {}
+}
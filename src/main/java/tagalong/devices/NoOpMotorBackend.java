@@ -0,0 +1,149 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.devices;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+
+/**
+ * Motor backend for disabled microsystems, reads zeros and ignores every output
+ */
+public final class NoOpMotorBackend implements MotorBackend {
+  /**
+   * Shared instance, the backend is stateless
+   */
+  public static final NoOpMotorBackend INSTANCE = new NoOpMotorBackend();
+
+  /**
+   * Empty signal set
+   */
+  private static final BaseStatusSignal[] NO_SIGNALS = new BaseStatusSignal[0];
+
+  /**
+   * Use INSTANCE
+   */
+  private NoOpMotorBackend() {}
+
+  @Override
+  public BaseStatusSignal[] getStatusSignals() {
+    return NO_SIGNALS;
+  }
+
+  @Override
+  public void refresh() {}
+
+  @Override
+  public double getPositionRot() {
+    return 0.0;
+  }
+
+  @Override
+  public double getVelocityRPS() {
+    return 0.0;
+  }
+
+  @Override
+  public double getVoltage() {
+    return 0.0;
+  }
+
+  @Override
+  public double getCurrentAmps() {
+    return 0.0;
+  }
+
+  @Override
+  public double getCompensatedPositionRot() {
+    return 0.0;
+  }
+
+  @Override
+  public double getCompensatedVelocityRPS() {
+    return 0.0;
+  }
+
+  @Override
+  public double getDutyCycle() {
+    return 0.0;
+  }
+
+  @Override
+  public boolean setPosition(double rotations) {
+    return true;
+  }
+
+  @Override
+  public boolean setPositionVoltage(double positionRot, double velocityRPS, double feedForward) {
+    return true;
+  }
+
+  @Override
+  public boolean setVelocityVoltage(double velocityRPS, double feedForward) {
+    return true;
+  }
+
+  @Override
+  public boolean setMotionMagicVoltage(double positionRot, double feedForward) {
+    return true;
+  }
+
+  @Override
+  public boolean setDynamicMotionMagicVoltage(
+      double positionRot, double velocityRPS, double accelerationRPS2, double feedForward
+  ) {
+    return true;
+  }
+
+  @Override
+  public boolean setVoltage(double volts) {
+    return true;
+  }
+
+  @Override
+  public boolean setTorqueCurrent(double amps) {
+    return true;
+  }
+
+  @Override
+  public boolean setPositionTorqueCurrent(
+      double positionRot, double velocityRPS, double feedForwardAmps
+  ) {
+    return true;
+  }
+
+  @Override
+  public boolean setVelocityTorqueCurrent(double velocityRPS, double feedForwardAmps) {
+    return true;
+  }
+
+  @Override
+  public void setDutyCycle(double dutyCycle) {}
+
+  @Override
+  public boolean isAlive() {
+    return false;
+  }
+
+  @Override
+  public boolean hasResetOccurred() {
+    return false;
+  }
+
+  @Override
+  public int getStickyFaults() {
+    return 0;
+  }
+
+  @Override
+  public boolean registerHighFrequencySampling(String canBus, SignalSampleBuffer buffer) {
+    return false;
+  }
+
+  @Override
+  public void setSimulatedRotorState(
+      double positionRot, double velocityRPS, double accelerationRPS2, double supplyVoltage
+  ) {}
+}
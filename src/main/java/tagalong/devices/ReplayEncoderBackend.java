@@ -0,0 +1,72 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.devices;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+
+/**
+ * Encoder backend for log replay, inputs are supplied from the log through setInputs
+ */
+public class ReplayEncoderBackend implements EncoderBackend {
+  /**
+   * Empty signal set
+   */
+  private static final BaseStatusSignal[] NO_SIGNALS = new BaseStatusSignal[0];
+
+  /**
+   * Replayed position in rotations,
+   * Replayed velocity in rotations per second
+   */
+  private double _positionRot, _velocityRPS;
+
+  /**
+   * Supplies the logged inputs for the current loop
+   *
+   * @param positionRot position in rotations
+   * @param velocityRPS velocity in rotations per second
+   */
+  public void setInputs(double positionRot, double velocityRPS) {
+    _positionRot = positionRot;
+    _velocityRPS = velocityRPS;
+  }
+
+  @Override
+  public BaseStatusSignal[] getStatusSignals() {
+    return NO_SIGNALS;
+  }
+
+  @Override
+  public void refresh() {}
+
+  @Override
+  public double getPositionRot() {
+    return _positionRot;
+  }
+
+  @Override
+  public double getVelocityRPS() {
+    return _velocityRPS;
+  }
+
+  @Override
+  public boolean isAlive() {
+    return true;
+  }
+
+  @Override
+  public boolean hasResetOccurred() {
+    return false;
+  }
+
+  @Override
+  public int getStickyFaults() {
+    return 0;
+  }
+
+  @Override
+  public void setSimulatedState(double positionRot, double velocityRPS, double supplyVoltage) {}
+}
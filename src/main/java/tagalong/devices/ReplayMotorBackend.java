@@ -0,0 +1,171 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.devices;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+
+/**
+ * Motor backend for log replay, inputs are supplied from the log through setInputs and every
+ * output is ignored
+ */
+public class ReplayMotorBackend implements MotorBackend {
+  /**
+   * Empty signal set
+   */
+  private static final BaseStatusSignal[] NO_SIGNALS = new BaseStatusSignal[0];
+
+  /**
+   * Replayed position in rotations,
+   * Replayed velocity in rotations per second,
+   * Replayed applied voltage,
+   * Replayed stator current in amps
+   */
+  private double _positionRot, _velocityRPS, _voltage, _currentAmps;
+  /**
+   * Last commanded duty cycle
+   */
+  private double _dutyCycle;
+
+  /**
+   * Supplies the logged inputs for the current loop
+   *
+   * @param positionRot position in rotations
+   * @param velocityRPS velocity in rotations per second
+   * @param voltage     applied voltage
+   * @param currentAmps stator current in amps
+   */
+  public void setInputs(
+      double positionRot, double velocityRPS, double voltage, double currentAmps
+  ) {
+    _positionRot = positionRot;
+    _velocityRPS = velocityRPS;
+    _voltage = voltage;
+    _currentAmps = currentAmps;
+  }
+
+  @Override
+  public BaseStatusSignal[] getStatusSignals() {
+    return NO_SIGNALS;
+  }
+
+  @Override
+  public void refresh() {}
+
+  @Override
+  public double getPositionRot() {
+    return _positionRot;
+  }
+
+  @Override
+  public double getVelocityRPS() {
+    return _velocityRPS;
+  }
+
+  @Override
+  public double getVoltage() {
+    return _voltage;
+  }
+
+  @Override
+  public double getCurrentAmps() {
+    return _currentAmps;
+  }
+
+  @Override
+  public double getCompensatedPositionRot() {
+    return _positionRot;
+  }
+
+  @Override
+  public double getCompensatedVelocityRPS() {
+    return _velocityRPS;
+  }
+
+  @Override
+  public double getDutyCycle() {
+    return _dutyCycle;
+  }
+
+  @Override
+  public boolean setPosition(double rotations) {
+    return true;
+  }
+
+  @Override
+  public boolean setPositionVoltage(double positionRot, double velocityRPS, double feedForward) {
+    return true;
+  }
+
+  @Override
+  public boolean setVelocityVoltage(double velocityRPS, double feedForward) {
+    return true;
+  }
+
+  @Override
+  public boolean setMotionMagicVoltage(double positionRot, double feedForward) {
+    return true;
+  }
+
+  @Override
+  public boolean setDynamicMotionMagicVoltage(
+      double positionRot, double velocityRPS, double accelerationRPS2, double feedForward
+  ) {
+    return true;
+  }
+
+  @Override
+  public boolean setVoltage(double volts) {
+    return true;
+  }
+
+  @Override
+  public boolean setTorqueCurrent(double amps) {
+    return true;
+  }
+
+  @Override
+  public boolean setPositionTorqueCurrent(
+      double positionRot, double velocityRPS, double feedForwardAmps
+  ) {
+    return true;
+  }
+
+  @Override
+  public boolean setVelocityTorqueCurrent(double velocityRPS, double feedForwardAmps) {
+    return true;
+  }
+
+  @Override
+  public void setDutyCycle(double dutyCycle) {
+    _dutyCycle = dutyCycle;
+  }
+
+  @Override
+  public boolean isAlive() {
+    return true;
+  }
+
+  @Override
+  public boolean hasResetOccurred() {
+    return false;
+  }
+
+  @Override
+  public int getStickyFaults() {
+    return 0;
+  }
+
+  @Override
+  public boolean registerHighFrequencySampling(String canBus, SignalSampleBuffer buffer) {
+    return false;
+  }
+
+  @Override
+  public void setSimulatedRotorState(
+      double positionRot, double velocityRPS, double accelerationRPS2, double supplyVoltage
+  ) {}
+}
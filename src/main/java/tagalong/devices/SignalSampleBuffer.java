@@ -0,0 +1,140 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.devices;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Preallocated lock-free ring buffer of timestamped position, velocity and current samples. Safe
+ * for exactly one producer thread and one consumer thread. When the consumer falls behind the
+ * oldest samples are overwritten and skipped.
+ */
+public class SignalSampleBuffer {
+  /**
+   * Number of samples the buffer can hold, always a power of two
+   */
+  private final int _capacity;
+  /**
+   * Mask used to wrap sample indices into the buffer
+   */
+  private final int _mask;
+  /**
+   * Sample timestamps in seconds
+   */
+  private final double[] _timestamps;
+  /**
+   * Sample positions in rotations
+   */
+  private final double[] _positions;
+  /**
+   * Sample velocities in rotations per second
+   */
+  private final double[] _velocities;
+  /**
+   * Sample currents in amps
+   */
+  private final double[] _currents;
+  /**
+   * Total number of samples ever written, published by the producer after each write
+   */
+  private final AtomicLong _writeIndex = new AtomicLong(0);
+  /**
+   * Total number of samples ever consumed, only touched by the consumer
+   */
+  private long _readIndex = 0;
+
+  /**
+   * Constructs a sample buffer
+   *
+   * @param capacity minimum number of samples held, rounded up to a power of two
+   */
+  public SignalSampleBuffer(int capacity) {
+    int size = 1;
+    while (size < capacity) {
+      size <<= 1;
+    }
+    _capacity = size;
+    _mask = size - 1;
+    _timestamps = new double[size];
+    _positions = new double[size];
+    _velocities = new double[size];
+    _currents = new double[size];
+  }
+
+  /**
+   * @return number of samples the buffer can hold
+   */
+  public int getCapacity() {
+    return _capacity;
+  }
+
+  /**
+   * Adds a sample, only called by the producer thread
+   *
+   * @param timestamp sample timestamp in seconds
+   * @param position  position in rotations
+   * @param velocity  velocity in rotations per second
+   * @param current   current in amps
+   */
+  public void push(double timestamp, double position, double velocity, double current) {
+    long write = _writeIndex.get();
+    int slot = (int) (write & _mask);
+    _timestamps[slot] = timestamp;
+    _positions[slot] = position;
+    _velocities[slot] = velocity;
+    _currents[slot] = current;
+    _writeIndex.lazySet(write + 1);
+  }
+
+  /**
+   * Copies every unread sample into the destination arrays, oldest first, only called by the
+   * consumer thread. Samples overwritten by the producer while being copied are discarded.
+   *
+   * @param timestamps destination sample timestamps
+   * @param positions  destination sample positions
+   * @param velocities destination sample velocities
+   * @param currents   destination sample currents
+   * @return number of samples copied, at most the length of the destination arrays
+   */
+  public int drain(
+      double[] timestamps, double[] positions, double[] velocities, double[] currents
+  ) {
+    long write = _writeIndex.get();
+    // Skip anything the producer has already lapped
+    if (write - _readIndex > _capacity) {
+      _readIndex = write - _capacity;
+    }
+    // Keep only the newest samples that fit in the destination
+    if (write - _readIndex > timestamps.length) {
+      _readIndex = write - timestamps.length;
+    }
+
+    int count = 0;
+    for (long read = _readIndex; read < write; read++) {
+      int slot = (int) (read & _mask);
+      timestamps[count] = _timestamps[slot];
+      positions[count] = _positions[slot];
+      velocities[count] = _velocities[slot];
+      currents[count] = _currents[slot];
+      count++;
+    }
+
+    // Discard any samples the producer may have overwritten during the copy
+    long lapped = _writeIndex.get() - _capacity - _readIndex;
+    if (lapped > 0) {
+      int discard = (int) Math.min(lapped, count);
+      System.arraycopy(timestamps, discard, timestamps, 0, count - discard);
+      System.arraycopy(positions, discard, positions, 0, count - discard);
+      System.arraycopy(velocities, discard, velocities, 0, count - discard);
+      System.arraycopy(currents, discard, currents, 0, count - discard);
+      count -= discard;
+    }
+
+    _readIndex = write;
+    return count;
+  }
+}
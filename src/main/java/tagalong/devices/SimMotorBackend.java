@@ -0,0 +1,489 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.devices;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import tagalong.controls.TagalongTrapezoidProfile;
+
+/**
+ * Pure Java motor backend simulating a DC motor driving a rotor referenced inertia, with an
+ * approximation of the TalonFX onboard closed loops. Needs neither the HAL nor Phoenix, so control
+ * loops can be tested and benchmarked on a plain JVM. Each refresh advances the model by one
+ * robot loop.
+ */
+public class SimMotorBackend implements MotorBackend {
+  /**
+   * Empty signal set
+   */
+  private static final BaseStatusSignal[] NO_SIGNALS = new BaseStatusSignal[0];
+  /**
+   * Integration and onboard control period in seconds, matches the TalonFX 1 kHz loop
+   */
+  private static final double SUBSTEP_S = 0.001;
+  /**
+   * Duty cycle control mode
+   */
+  private static final int MODE_DUTY_CYCLE = 0;
+  /**
+   * Position voltage control mode
+   */
+  private static final int MODE_POSITION = 1;
+  /**
+   * Velocity voltage control mode
+   */
+  private static final int MODE_VELOCITY = 2;
+  /**
+   * Torque current control mode
+   */
+  private static final int MODE_TORQUE_CURRENT = 3;
+  /**
+   * Motion Magic voltage control mode
+   */
+  private static final int MODE_MOTION_MAGIC = 4;
+  /**
+   * Voltage control mode
+   */
+  private static final int MODE_VOLTAGE = 5;
+  /**
+   * Position torque current control mode
+   */
+  private static final int MODE_POSITION_TORQUE_CURRENT = 6;
+  /**
+   * Velocity torque current control mode
+   */
+  private static final int MODE_VELOCITY_TORQUE_CURRENT = 7;
+
+  /**
+   * Motor model, shaft referenced
+   */
+  private final DCMotor _motor;
+  /**
+   * Moment of inertia seen by the motor shaft in kg m^2
+   */
+  private final double _rotorMOIKgM2;
+  /**
+   * Time advanced per refresh in seconds
+   */
+  private final double _periodS;
+  /**
+   * P, I, D, S, G, V and A gains of each slot
+   */
+  private final double[][] _slotGains = new double[3][7];
+
+  /**
+   * Supply voltage
+   */
+  private double _supplyVoltage = 12.0;
+  /**
+   * Constant external torque on the motor shaft in newton meters
+   */
+  private double _loadTorqueNm = 0.0;
+
+  /**
+   * Motor position in rotations,
+   * Motor velocity in rotations per second,
+   * Applied voltage,
+   * Stator current in amps
+   */
+  private double _positionRot, _velocityRPS, _voltage, _currentAmps;
+  /**
+   * Active control mode
+   */
+  private int _mode = MODE_DUTY_CYCLE;
+  /**
+   * Active setpoint in the control mode's units,
+   * Active feedforward in volts, amps in the torque current modes
+   */
+  private double _setpoint, _feedForward;
+  /**
+   * Velocity setpoint of the active position request in rotations per second
+   */
+  private double _positionVelocityRPS;
+  /**
+   * Configured Motion Magic cruise velocity in rotations per second,
+   * Configured Motion Magic acceleration in rotations per second squared
+   */
+  private double _motionMagicCruiseRPS, _motionMagicAccelerationRPS2;
+  /**
+   * Onboard Motion Magic profile, advanced every substep
+   */
+  private final TagalongTrapezoidProfile _motionMagicProfile =
+      new TagalongTrapezoidProfile(new TrapezoidProfile.Constraints(0.0, 0.0));
+  /**
+   * Motion Magic reference the closed loop tracks,
+   * Motion Magic goal
+   */
+  private final TrapezoidProfile.State _motionMagicReference = new TrapezoidProfile.State(),
+                                       _motionMagicGoal = new TrapezoidProfile.State();
+  /**
+   * Closed loop error integral,
+   * Closed loop error during the previous substep
+   */
+  private double _errorIntegral, _lastError;
+
+  /**
+   * Constructs a pure Java motor simulation
+   *
+   * @param motor        motor model, use DCMotor's withReduction only for a gearbox at the shaft
+   * @param rotorMOIKgM2 moment of inertia seen by the motor shaft in kg m^2
+   * @param periodS      time advanced per refresh in seconds
+   */
+  public SimMotorBackend(DCMotor motor, double rotorMOIKgM2, double periodS) {
+    _motor = motor;
+    _rotorMOIKgM2 = rotorMOIKgM2;
+    _periodS = periodS;
+  }
+
+  /**
+   * Sets the gains of an onboard closed loop slot, in volts per motor rotation units or amps per
+   * motor rotation units for torque current requests
+   *
+   * @param slot slot 0 (position), 1 (velocity) or 2
+   * @param kP   proportional gain
+   * @param kI   integral gain
+   * @param kD   derivative gain
+   * @param kS   static feedforward in volts
+   * @param kG   gravity feedforward in volts
+   * @param kV   velocity feedforward in volts per rotation per second
+   * @param kA   acceleration feedforward in volts per rotation per second squared
+   */
+  public void setSlotGains(
+      int slot, double kP, double kI, double kD, double kS, double kG, double kV, double kA
+  ) {
+    double[] gains = _slotGains[slot];
+    gains[0] = kP;
+    gains[1] = kI;
+    gains[2] = kD;
+    gains[3] = kS;
+    gains[4] = kG;
+    gains[5] = kV;
+    gains[6] = kA;
+  }
+
+  /**
+   * Sets the limits of Motion Magic requests without per request limits
+   *
+   * @param cruiseRPS        cruise velocity in rotations per second
+   * @param accelerationRPS2 acceleration in rotations per second squared
+   */
+  public void setMotionMagicLimits(double cruiseRPS, double accelerationRPS2) {
+    _motionMagicCruiseRPS = cruiseRPS;
+    _motionMagicAccelerationRPS2 = accelerationRPS2;
+  }
+
+  /**
+   * @param loadTorqueNm constant external torque on the motor shaft in newton meters
+   */
+  public void setLoadTorque(double loadTorqueNm) {
+    _loadTorqueNm = loadTorqueNm;
+  }
+
+  /**
+   * @param supplyVoltage supply voltage
+   */
+  public void setSupplyVoltage(double supplyVoltage) {
+    _supplyVoltage = supplyVoltage;
+  }
+
+  /**
+   * Advances the simulation
+   *
+   * @param dtS time to advance in seconds
+   */
+  public void step(double dtS) {
+    double remainingS = dtS;
+    while (remainingS > 1e-9) {
+      double stepS = Math.min(SUBSTEP_S, remainingS);
+      substep(stepS);
+      remainingS -= stepS;
+    }
+  }
+
+  /**
+   * Runs the onboard control and integrates the dynamics over a single substep
+   *
+   * @param dtS substep duration in seconds
+   */
+  private void substep(double dtS) {
+    double speedRadPerSec = _velocityRPS * 2.0 * Math.PI;
+    double torqueNm;
+    if (_mode == MODE_TORQUE_CURRENT) {
+      _currentAmps = _setpoint;
+      _voltage = _motor.rOhms * _currentAmps + speedRadPerSec / _motor.KvRadPerSecPerVolt;
+      torqueNm = _motor.getTorque(_currentAmps);
+    } else if (_mode == MODE_POSITION_TORQUE_CURRENT || _mode == MODE_VELOCITY_TORQUE_CURRENT) {
+      // The current is limited by the voltage left over after back EMF
+      double backEmf = speedRadPerSec / _motor.KvRadPerSecPerVolt;
+      _currentAmps = Math.max(
+          (-_supplyVoltage - backEmf) / _motor.rOhms,
+          Math.min((_supplyVoltage - backEmf) / _motor.rOhms, computeCurrent(dtS))
+      );
+      _voltage = _motor.rOhms * _currentAmps + backEmf;
+      torqueNm = _motor.getTorque(_currentAmps);
+    } else {
+      _voltage = clampVoltage(computeVoltage(dtS));
+      _currentAmps = _motor.getCurrent(speedRadPerSec, _voltage);
+      torqueNm = _motor.getTorque(_currentAmps);
+    }
+
+    double accelRPS2 = (torqueNm + _loadTorqueNm) / _rotorMOIKgM2 / (2.0 * Math.PI);
+    _velocityRPS += accelRPS2 * dtS;
+    _positionRot += _velocityRPS * dtS;
+  }
+
+  /**
+   * @param dtS substep duration in seconds
+   * @return unclamped output voltage of the active voltage control mode
+   */
+  private double computeVoltage(double dtS) {
+    switch (_mode) {
+      case MODE_POSITION: {
+        double[] gains = _slotGains[0];
+        double error = _setpoint - _positionRot;
+        return closedLoop(gains, error, dtS) + gains[3] * Math.signum(error) + gains[4]
+            + gains[5] * _positionVelocityRPS + _feedForward;
+      }
+      case MODE_VELOCITY: {
+        double[] gains = _slotGains[1];
+        double error = _setpoint - _velocityRPS;
+        return closedLoop(gains, error, dtS) + gains[3] * Math.signum(_setpoint) + gains[4]
+            + gains[5] * _setpoint + _feedForward;
+      }
+      case MODE_MOTION_MAGIC: {
+        double[] gains = _slotGains[0];
+        double lastReferenceVelocity = _motionMagicReference.velocity;
+        _motionMagicProfile.calculate(
+            dtS, _motionMagicReference, _motionMagicGoal, _motionMagicReference
+        );
+        double referenceAcceleration =
+            (_motionMagicReference.velocity - lastReferenceVelocity) / dtS;
+        double error = _motionMagicReference.position - _positionRot;
+        return closedLoop(gains, error, dtS)
+            + gains[3] * Math.signum(_motionMagicReference.velocity) + gains[4]
+            + gains[5] * _motionMagicReference.velocity + gains[6] * referenceAcceleration
+            + _feedForward;
+      }
+      case MODE_VOLTAGE:
+        return _setpoint;
+      case MODE_DUTY_CYCLE:
+      default:
+        return _setpoint * _supplyVoltage;
+    }
+  }
+
+  /**
+   * @param dtS substep duration in seconds
+   * @return stator current of the active torque current closed loop in amps
+   */
+  private double computeCurrent(double dtS) {
+    if (_mode == MODE_POSITION_TORQUE_CURRENT) {
+      double[] gains = _slotGains[0];
+      double error = _setpoint - _positionRot;
+      return closedLoop(gains, error, dtS) + gains[3] * Math.signum(error) + gains[4]
+          + gains[5] * _positionVelocityRPS + _feedForward;
+    }
+    double[] gains = _slotGains[1];
+    double error = _setpoint - _velocityRPS;
+    return closedLoop(gains, error, dtS) + gains[3] * Math.signum(_setpoint) + gains[4]
+        + gains[5] * _setpoint + _feedForward;
+  }
+
+  /**
+   * @param gains slot gains
+   * @param error closed loop error
+   * @param dtS   substep duration in seconds
+   * @return PID output in volts, amps in the torque current modes
+   */
+  private double closedLoop(double[] gains, double error, double dtS) {
+    _errorIntegral += error * dtS;
+    double derivative = (error - _lastError) / dtS;
+    _lastError = error;
+    return gains[0] * error + gains[1] * _errorIntegral + gains[2] * derivative;
+  }
+
+  /**
+   * @param voltage requested voltage
+   * @return voltage limited to the supply
+   */
+  private double clampVoltage(double voltage) {
+    return Math.max(-_supplyVoltage, Math.min(_supplyVoltage, voltage));
+  }
+
+  /**
+   * Switches the active control request, resetting the closed loop state on mode changes
+   *
+   * @param mode        control mode
+   * @param setpoint    setpoint in the control mode's units
+   * @param feedForward feedforward in volts, amps in the torque current modes
+   */
+  private void setControl(int mode, double setpoint, double feedForward) {
+    if (mode != _mode) {
+      _errorIntegral = 0.0;
+      boolean isPosition = mode == MODE_POSITION || mode == MODE_POSITION_TORQUE_CURRENT;
+      _lastError = isPosition         ? setpoint - _positionRot
+          : mode == MODE_MOTION_MAGIC ? 0.0
+                                      : setpoint - _velocityRPS;
+    }
+    _mode = mode;
+    _setpoint = setpoint;
+    _feedForward = feedForward;
+  }
+
+  @Override
+  public BaseStatusSignal[] getStatusSignals() {
+    return NO_SIGNALS;
+  }
+
+  @Override
+  public void refresh() {
+    step(_periodS);
+  }
+
+  @Override
+  public double getPositionRot() {
+    return _positionRot;
+  }
+
+  @Override
+  public double getVelocityRPS() {
+    return _velocityRPS;
+  }
+
+  @Override
+  public double getVoltage() {
+    return _voltage;
+  }
+
+  @Override
+  public double getCurrentAmps() {
+    return _currentAmps;
+  }
+
+  @Override
+  public double getCompensatedPositionRot() {
+    return _positionRot;
+  }
+
+  @Override
+  public double getCompensatedVelocityRPS() {
+    return _velocityRPS;
+  }
+
+  @Override
+  public double getDutyCycle() {
+    return _voltage / _supplyVoltage;
+  }
+
+  @Override
+  public boolean setPosition(double rotations) {
+    _lastError += _positionRot - rotations;
+    _positionRot = rotations;
+    return true;
+  }
+
+  @Override
+  public boolean setPositionVoltage(double positionRot, double velocityRPS, double feedForward) {
+    _positionVelocityRPS = velocityRPS;
+    setControl(MODE_POSITION, positionRot, feedForward);
+    return true;
+  }
+
+  @Override
+  public boolean setVelocityVoltage(double velocityRPS, double feedForward) {
+    setControl(MODE_VELOCITY, velocityRPS, feedForward);
+    return true;
+  }
+
+  @Override
+  public boolean setMotionMagicVoltage(double positionRot, double feedForward) {
+    return setDynamicMotionMagicVoltage(
+        positionRot, _motionMagicCruiseRPS, _motionMagicAccelerationRPS2, feedForward
+    );
+  }
+
+  @Override
+  public boolean setDynamicMotionMagicVoltage(
+      double positionRot, double velocityRPS, double accelerationRPS2, double feedForward
+  ) {
+    // Like the device, a new goal continues from the current reference rather than the measurement
+    if (_mode != MODE_MOTION_MAGIC) {
+      _motionMagicReference.position = _positionRot;
+      _motionMagicReference.velocity = _velocityRPS;
+    }
+    _motionMagicGoal.position = positionRot;
+    _motionMagicProfile.setConstraints(velocityRPS, accelerationRPS2);
+    setControl(MODE_MOTION_MAGIC, positionRot, feedForward);
+    return true;
+  }
+
+  @Override
+  public boolean setVoltage(double volts) {
+    setControl(MODE_VOLTAGE, volts, 0.0);
+    return true;
+  }
+
+  @Override
+  public boolean setTorqueCurrent(double amps) {
+    setControl(MODE_TORQUE_CURRENT, amps, 0.0);
+    return true;
+  }
+
+  @Override
+  public boolean setPositionTorqueCurrent(
+      double positionRot, double velocityRPS, double feedForwardAmps
+  ) {
+    _positionVelocityRPS = velocityRPS;
+    setControl(MODE_POSITION_TORQUE_CURRENT, positionRot, feedForwardAmps);
+    return true;
+  }
+
+  @Override
+  public boolean setVelocityTorqueCurrent(double velocityRPS, double feedForwardAmps) {
+    setControl(MODE_VELOCITY_TORQUE_CURRENT, velocityRPS, feedForwardAmps);
+    return true;
+  }
+
+  @Override
+  public void setDutyCycle(double dutyCycle) {
+    setControl(MODE_DUTY_CYCLE, dutyCycle, 0.0);
+  }
+
+  @Override
+  public boolean isAlive() {
+    return true;
+  }
+
+  @Override
+  public boolean hasResetOccurred() {
+    return false;
+  }
+
+  @Override
+  public int getStickyFaults() {
+    return 0;
+  }
+
+  @Override
+  public boolean registerHighFrequencySampling(String canBus, SignalSampleBuffer buffer) {
+    return false;
+  }
+
+  /**
+   * Replaces the model's rotor state with the mechanism's, the next refresh advances the model
+   * from it
+   */
+  @Override
+  public void setSimulatedRotorState(
+      double positionRot, double velocityRPS, double accelerationRPS2, double supplyVoltage
+  ) {
+    _positionRot = positionRot;
+    _velocityRPS = velocityRPS;
+    _supplyVoltage = supplyVoltage;
+  }
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.devices;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registry of every microsystem status signal grouped by CAN bus. Calling refreshAll once at the
+ * top of the robot loop refreshes every registered signal with a single native call per bus, giving
+ * a timestamp aligned view of the whole robot.
+ *
+ * ```
+ * public void robotPeriodic() {
+ *   StatusSignalRegistry.refreshAll();
+ *   CommandScheduler.getInstance().run();
+ * }
+ * ```
+ */
+public class StatusSignalRegistry {
+  /**
+   * Name of the roboRIO CAN bus, empty bus names are stored under this name
+   */
+  public static final String RIO_BUS = "rio";
+
+  /**
+   * Index of each CAN bus in the bus arrays
+   */
+  private static final Map<String, Integer> _busIndices = new HashMap<>();
+  /**
+   * Names of the registered CAN buses
+   */
+  private static String[] _busNames = new String[0];
+  /**
+   * Registered signals, indexed by bus
+   */
+  private static BaseStatusSignal[][] _busSignals = new BaseStatusSignal[0][];
+  /**
+   * True once refreshAll has been called, microsystems then skip refreshing their own signals
+   */
+  private static boolean _isActive = false;
+
+  /**
+   * Registers signals to be refreshed with the rest of the signals on the same CAN bus. Must be
+   * called during robot construction so the signal arrays are never resized mid match.
+   *
+   * @param canBus  CAN bus the signals' device is on
+   * @param signals signals to register
+   */
+  public static synchronized void register(String canBus, BaseStatusSignal... signals) {
+    String bus = normalize(canBus);
+    Integer index = _busIndices.get(bus);
+    if (index == null) {
+      index = _busNames.length;
+      _busIndices.put(bus, index);
+
+      String[] busNames = new String[index + 1];
+      System.arraycopy(_busNames, 0, busNames, 0, index);
+      busNames[index] = bus;
+      _busNames = busNames;
+
+      BaseStatusSignal[][] busSignals = new BaseStatusSignal[index + 1][];
+      System.arraycopy(_busSignals, 0, busSignals, 0, index);
+      busSignals[index] = new BaseStatusSignal[0];
+      _busSignals = busSignals;
+    }
+
+    BaseStatusSignal[] existing = _busSignals[index];
+    BaseStatusSignal[] combined = new BaseStatusSignal[existing.length + signals.length];
+    System.arraycopy(existing, 0, combined, 0, existing.length);
+    System.arraycopy(signals, 0, combined, existing.length, signals.length);
+    _busSignals[index] = combined;
+  }
+
+  /**
+   * Refreshes every registered signal, one native call per CAN bus. Once called, this must be
+   * called every loop as microsystems stop refreshing their own signals.
+   */
+  public static void refreshAll() {
+    _isActive = true;
+    for (int i = 0; i < _busSignals.length; i++) {
+      if (_busSignals[i].length > 0) {
+        BaseStatusSignal.refreshAll(_busSignals[i]);
+      }
+    }
+  }
+
+  /**
+   * Refreshes every signal registered to a single CAN bus with one native call
+   *
+   * @param canBus CAN bus to refresh
+   */
+  public static void refreshBus(String canBus) {
+    Integer index = _busIndices.get(normalize(canBus));
+    if (index != null && _busSignals[index].length > 0) {
+      BaseStatusSignal.refreshAll(_busSignals[index]);
+    }
+  }
+
+  /**
+   * @return True if the registry is refreshing all signals at the top of the robot loop
+   */
+  public static boolean isActive() {
+    return _isActive;
+  }
+
+  /**
+   * @return names of all CAN buses with registered signals
+   */
+  public static String[] getCanBuses() {
+    return _busNames.clone();
+  }
+
+  /**
+   * @param canBus CAN bus name
+   * @return number of signals registered to the CAN bus
+   */
+  public static int getSignalCount(String canBus) {
+    Integer index = _busIndices.get(normalize(canBus));
+    return index == null ? 0 : _busSignals[index].length;
+  }
+
+  /**
+   * @param canBus CAN bus name
+   * @return registry key for the bus, the roboRIO bus may be named either "" or "rio"
+   */
+  private static String normalize(String canBus) {
+    return canBus == null || canBus.isEmpty() ? RIO_BUS : canBus;
+  }
+}
@@ -0,0 +1,295 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.devices;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.controls.DynamicMotionMagicVoltage;
+import com.ctre.phoenix6.controls.MotionMagicVoltage;
+import com.ctre.phoenix6.controls.PositionTorqueCurrentFOC;
+import com.ctre.phoenix6.controls.PositionVoltage;
+import com.ctre.phoenix6.controls.TorqueCurrentFOC;
+import com.ctre.phoenix6.controls.VelocityTorqueCurrentFOC;
+import com.ctre.phoenix6.controls.VelocityVoltage;
+import com.ctre.phoenix6.controls.VoltageOut;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.sim.TalonFXSimState;
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularAcceleration;
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.Current;
+import edu.wpi.first.units.measure.Voltage;
+
+/**
+ * Motor backend for a real or Phoenix simulated TalonFX
+ */
+public class TalonFXMotorBackend implements MotorBackend {
+  /**
+   * Motor device
+   */
+  private final TalonFX _motor;
+  /**
+   * Position signal
+   */
+  private final StatusSignal<Angle> _positionSignal;
+  /**
+   * Velocity signal
+   */
+  private final StatusSignal<AngularVelocity> _velocitySignal;
+  /**
+   * Applied (output) voltage signal
+   */
+  private final StatusSignal<Voltage> _voltageSignal;
+  /**
+   * Stator current signal
+   */
+  private final StatusSignal<Current> _currentSignal;
+  /**
+   * Acceleration signal, null without latency compensation
+   */
+  private final StatusSignal<AngularAcceleration> _accelerationSignal;
+  /**
+   * All input signals
+   */
+  private final BaseStatusSignal[] _signals;
+  /**
+   * Sticky fault bit field signal, a copy only refreshed by the DeviceHealthMonitor thread
+   */
+  private final StatusSignal<Integer> _stickyFaultSignal;
+  /**
+   * Phoenix simulation state of the motor
+   */
+  private final TalonFXSimState _simState;
+
+  /**
+   * Shared position voltage request, we put positional PIDSGVA constants into slot 0
+   */
+  private final PositionVoltage _positionVoltage = new PositionVoltage(0.0).withSlot(0);
+  /**
+   * Shared velocity voltage request, we put velocity PIDSGVA constants into slot 1
+   */
+  private final VelocityVoltage _velocityVoltage = new VelocityVoltage(0.0).withSlot(1);
+  /**
+   * Shared Motion Magic request, profiles follow the positional slot 0 constants
+   */
+  private final MotionMagicVoltage _motionMagicVoltage = new MotionMagicVoltage(0.0).withSlot(0);
+  /**
+   * Shared dynamic Motion Magic request, profiles follow the positional slot 0 constants
+   */
+  private final DynamicMotionMagicVoltage _dynamicMotionMagicVoltage =
+      new DynamicMotionMagicVoltage(0.0, 0.0, 0.0, 0.0).withSlot(0);
+  /**
+   * Shared voltage request
+   */
+  private final VoltageOut _voltageOut = new VoltageOut(0.0);
+  /**
+   * Shared torque current request
+   */
+  private final TorqueCurrentFOC _torqueCurrent = new TorqueCurrentFOC(0.0);
+  /**
+   * Shared position torque current request, follows the positional slot 0 constants in amps
+   */
+  private final PositionTorqueCurrentFOC _positionTorqueCurrent =
+      new PositionTorqueCurrentFOC(0.0).withSlot(0);
+  /**
+   * Shared velocity torque current request, follows the velocity slot 1 constants in amps
+   */
+  private final VelocityTorqueCurrentFOC _velocityTorqueCurrent =
+      new VelocityTorqueCurrentFOC(0.0).withSlot(1);
+
+  /**
+   * Constructs a TalonFX backend
+   *
+   * @param motor               motor device
+   * @param latencyCompensation True to latency compensate position and velocity using the
+   *                            velocity and acceleration signals
+   */
+  public TalonFXMotorBackend(TalonFX motor, boolean latencyCompensation) {
+    _motor = motor;
+    _positionSignal = motor.getPosition();
+    _velocitySignal = motor.getVelocity();
+    _voltageSignal = motor.getMotorVoltage();
+    _currentSignal = motor.getStatorCurrent();
+    _accelerationSignal = latencyCompensation ? motor.getAcceleration() : null;
+    _stickyFaultSignal = motor.getStickyFaultField().clone();
+    _simState = motor.getSimState();
+    _signals = latencyCompensation
+        ? new BaseStatusSignal[] {
+            _positionSignal, _velocitySignal, _voltageSignal, _currentSignal, _accelerationSignal
+        }
+        : new BaseStatusSignal[] {_positionSignal, _velocitySignal, _voltageSignal, _currentSignal};
+  }
+
+  /**
+   * @return motor device
+   */
+  public TalonFX getMotor() {
+    return _motor;
+  }
+
+  @Override
+  public BaseStatusSignal[] getStatusSignals() {
+    return _signals;
+  }
+
+  @Override
+  public void refresh() {
+    BaseStatusSignal.refreshAll(_signals);
+  }
+
+  @Override
+  public double getPositionRot() {
+    return _positionSignal.getValueAsDouble();
+  }
+
+  @Override
+  public double getVelocityRPS() {
+    return _velocitySignal.getValueAsDouble();
+  }
+
+  @Override
+  public double getVoltage() {
+    return _voltageSignal.getValueAsDouble();
+  }
+
+  @Override
+  public double getCurrentAmps() {
+    return _currentSignal.getValueAsDouble();
+  }
+
+  @Override
+  public double getCompensatedPositionRot() {
+    if (_accelerationSignal == null) {
+      return getPositionRot();
+    }
+    return BaseStatusSignal.getLatencyCompensatedValueAsDouble(_positionSignal, _velocitySignal);
+  }
+
+  @Override
+  public double getCompensatedVelocityRPS() {
+    if (_accelerationSignal == null) {
+      return getVelocityRPS();
+    }
+    return BaseStatusSignal.getLatencyCompensatedValueAsDouble(
+        _velocitySignal, _accelerationSignal
+    );
+  }
+
+  @Override
+  public double getDutyCycle() {
+    return _motor.get();
+  }
+
+  @Override
+  public boolean setPosition(double rotations) {
+    return _motor.setPosition(rotations).isOK();
+  }
+
+  @Override
+  public boolean setPositionVoltage(double positionRot, double velocityRPS, double feedForward) {
+    return _motor
+        .setControl(_positionVoltage.withPosition(positionRot)
+                        .withVelocity(velocityRPS)
+                        .withFeedForward(feedForward))
+        .isOK();
+  }
+
+  @Override
+  public boolean setVelocityVoltage(double velocityRPS, double feedForward) {
+    return _motor
+        .setControl(_velocityVoltage.withVelocity(velocityRPS).withFeedForward(feedForward))
+        .isOK();
+  }
+
+  @Override
+  public boolean setMotionMagicVoltage(double positionRot, double feedForward) {
+    return _motor
+        .setControl(_motionMagicVoltage.withPosition(positionRot).withFeedForward(feedForward))
+        .isOK();
+  }
+
+  @Override
+  public boolean setDynamicMotionMagicVoltage(
+      double positionRot, double velocityRPS, double accelerationRPS2, double feedForward
+  ) {
+    return _motor
+        .setControl(_dynamicMotionMagicVoltage.withPosition(positionRot)
+                        .withVelocity(velocityRPS)
+                        .withAcceleration(accelerationRPS2)
+                        .withFeedForward(feedForward))
+        .isOK();
+  }
+
+  @Override
+  public boolean setVoltage(double volts) {
+    return _motor.setControl(_voltageOut.withOutput(volts)).isOK();
+  }
+
+  @Override
+  public boolean setTorqueCurrent(double amps) {
+    return _motor.setControl(_torqueCurrent.withOutput(amps)).isOK();
+  }
+
+  @Override
+  public boolean setPositionTorqueCurrent(
+      double positionRot, double velocityRPS, double feedForwardAmps
+  ) {
+    return _motor
+        .setControl(_positionTorqueCurrent.withPosition(positionRot)
+                        .withVelocity(velocityRPS)
+                        .withFeedForward(feedForwardAmps))
+        .isOK();
+  }
+
+  @Override
+  public boolean setVelocityTorqueCurrent(double velocityRPS, double feedForwardAmps) {
+    return _motor
+        .setControl(
+            _velocityTorqueCurrent.withVelocity(velocityRPS).withFeedForward(feedForwardAmps)
+        )
+        .isOK();
+  }
+
+  @Override
+  public void setDutyCycle(double dutyCycle) {
+    _motor.set(dutyCycle);
+  }
+
+  @Override
+  public boolean isAlive() {
+    return _motor.isAlive();
+  }
+
+  @Override
+  public boolean hasResetOccurred() {
+    return _motor.hasResetOccurred();
+  }
+
+  @Override
+  public int getStickyFaults() {
+    return _stickyFaultSignal.refresh().getValue();
+  }
+
+  @Override
+  public boolean registerHighFrequencySampling(String canBus, SignalSampleBuffer buffer) {
+    // The acquisition thread refreshes its own copies so the main loop signals are never shared
+    HighFrequencySampler.register(
+        canBus, _positionSignal.clone(), _velocitySignal.clone(), _currentSignal.clone(), buffer
+    );
+    return true;
+  }
+
+  @Override
+  public void setSimulatedRotorState(
+      double positionRot, double velocityRPS, double accelerationRPS2, double supplyVoltage
+  ) {
+    _simState.setRawRotorPosition(positionRot);
+    _simState.setRotorVelocity(velocityRPS);
+    _simState.setRotorAcceleration(accelerationRPS2);
+    _simState.setSupplyVoltage(supplyVoltage);
+  }
+}
@@ -36,7 +36,7 @@ public class ElevatorIOTalonFX implements ElevatorIO {
   /**
    * Constructs a layer with the below elevator TalonFX data
    *
-   * @param elevator microsystem
+   * @param elevator microsystem with devices, not configured disabled or in replay
    */
   public ElevatorIOTalonFX(Elevator elevator) {
     _elevator = elevator;
@@ -44,9 +44,6 @@ public class ElevatorIOTalonFX implements ElevatorIO {
     _elevatorVelocity = elevator.getPrimaryMotor().getVelocity();
     _elevatorAppliedVolts = elevator.getPrimaryMotor().getMotorVoltage();
     _elevatorCurrentAmps = elevator.getPrimaryMotor().getStatorCurrent();
-    BaseStatusSignal.setUpdateFrequencyForAll(
-        50.0, _elevatorHeight, _elevatorVelocity, _elevatorAppliedVolts, _elevatorCurrentAmps
-    );
   }
 
   @Override
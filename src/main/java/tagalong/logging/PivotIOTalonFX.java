@@ -32,16 +32,13 @@ public class PivotIOTalonFX implements PivotIO {
   /**
    * Constructs a layer with the below pivot TalonFX data
    *
-   * @param pivot microsystem
+   * @param pivot microsystem with devices, not configured disabled or in replay
    */
   public PivotIOTalonFX(Pivot pivot) {
     _pivotPosition = pivot.getPrimaryMotor().getPosition();
     _pivotVelocity = pivot.getPrimaryMotor().getVelocity();
     _pivotAppliedVolts = pivot.getPrimaryMotor().getMotorVoltage();
     _pivotCurrentAmps = pivot.getPrimaryMotor().getStatorCurrent();
-    BaseStatusSignal.setUpdateFrequencyForAll(
-        50.0, _pivotPosition, _pivotVelocity, _pivotAppliedVolts, _pivotCurrentAmps
-    );
   }
   @Override
   public void updateInputs(PivotIOInputs inputs) {
@@ -32,16 +32,13 @@ public class RollerIOTalonFX implements RollerIO {
   /**
    * Constructs a layer with the below roller TalonFX data
    *
-   * @param roller microsystem
+   * @param roller microsystem with devices, not configured disabled or in replay
    */
   public RollerIOTalonFX(Roller roller) {
     _rollerPosition = roller.getPrimaryMotor().getPosition();
     _rollerVelocity = roller.getPrimaryMotor().getVelocity();
     _rollerAppliedVolts = roller.getPrimaryMotor().getMotorVoltage();
     _rollerCurrentAmps = roller.getPrimaryMotor().getStatorCurrent();
-    BaseStatusSignal.setUpdateFrequencyForAll(
-        50.0, _rollerPosition, _rollerVelocity, _rollerAppliedVolts, _rollerCurrentAmps
-    );
   }
 
   @Override
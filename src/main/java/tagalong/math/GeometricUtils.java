@@ -138,4 +138,23 @@ public class GeometricUtils {
 
     return checkLine12 && checkLine23 && checkLine34 && checkLine14;
   }
+
+  /**
+   * @param X  X-coordinate of the point to check
+   * @param Y  Y-coordinate of the point to check
+   * @param PX X-coordinates of the polygon's vertices, in order around the polygon
+   * @param PY Y-coordinates of the polygon's vertices, in order around the polygon
+   * @return Whether or not (X, Y) falls within the polygon specified, which may be concave
+   */
+  public static boolean inPolygon(double X, double Y, double[] PX, double[] PY) {
+    // Count the edges a ray from the point in the +X direction crosses
+    boolean inside = false;
+    for (int i = 0, j = PX.length - 1; i < PX.length; j = i++) {
+      if ((PY[i] > Y) != (PY[j] > Y)
+          && X < (PX[j] - PX[i]) * (Y - PY[i]) / (PY[j] - PY[i]) + PX[i]) {
+        inside = !inside;
+      }
+    }
+    return inside;
+  }
 }
@@ -0,0 +1,129 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.subsystems.micro;
+
+import edu.wpi.first.wpilibj.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import tagalong.TagalongConfiguration;
+
+/**
+ * Brings up the devices of every microsystem deferred during construction in parallel, waiting on
+ * a single deadline. Used when TagalongConfiguration.deferDeviceBringUp is set, the following line
+ * must then be put into Robot.java's constructor after the RobotContainer is constructed.
+ *
+ * ```
+ * BootCoordinator.bringUpAll();
+ * ```
+ */
+public class BootCoordinator {
+  /**
+   * Microsystems waiting to be brought up
+   */
+  private static final List<Microsystem> _pending = new ArrayList<>();
+
+  /**
+   * Registers a microsystem to be brought up by bringUpAll
+   *
+   * @param microsystem microsystem with deferred devices
+   */
+  public static synchronized void register(Microsystem microsystem) {
+    _pending.add(microsystem);
+  }
+
+  /**
+   * Waits for every registered microsystem's devices and applies their configurations in
+   * parallel, then runs each microsystem's post configuration setup on the calling thread and
+   * prints a readiness and timing summary
+   *
+   * @return True if every microsystem was brought up before the deadline
+   */
+  public static synchronized boolean bringUpAll() {
+    if (_pending.isEmpty()) {
+      return true;
+    }
+
+    double startS = Timer.getFPGATimestamp();
+    double deadlineS = startS + TagalongConfiguration.BOOT_DEADLINE_S;
+    ExecutorService executor = Executors.newFixedThreadPool(
+        Math.max(1, Math.min(_pending.size(), TagalongConfiguration.BOOT_PARALLELISM)),
+        runnable -> {
+          Thread thread = new Thread(runnable, "TagalongBoot");
+          thread.setDaemon(true);
+          return thread;
+        }
+    );
+
+    List<Future<Boolean>> results = new ArrayList<>(_pending.size());
+    for (Microsystem microsystem : _pending) {
+      results.add(executor.submit(() -> microsystem.bringUpDevices(deadlineS)));
+    }
+    executor.shutdown();
+
+    boolean allReady = true;
+    StringBuilder summary = new StringBuilder("Tagalong boot summary:\n");
+    for (int i = 0; i < _pending.size(); i++) {
+      Microsystem microsystem = _pending.get(i);
+      String status;
+      try {
+        double remainingS = Math.max(0.0, deadlineS - Timer.getFPGATimestamp());
+        boolean ready = results.get(i).get((long) (remainingS * 1e6), TimeUnit.MICROSECONDS);
+        // Configurations were applied even if the devices never responded
+        microsystem.onDevicesBroughtUp();
+        status = ready ? "READY" : "NOT ALIVE";
+        allReady &= ready;
+      } catch (TimeoutException e) {
+        abandon(microsystem, results.get(i));
+        status = "TIMED OUT";
+        allReady = false;
+      } catch (ExecutionException e) {
+        abandon(microsystem, results.get(i));
+        status = "FAILED (" + e.getCause() + ")";
+        allReady = false;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        abandon(microsystem, results.get(i));
+        status = "INTERRUPTED";
+        allReady = false;
+      }
+      summary.append(String.format(
+          "  %-32s %-12s %7.1f ms\n",
+          microsystem._conf.name,
+          status,
+          microsystem.getBringUpDurationS() * 1000.0
+      ));
+    }
+    summary.append(
+        String.format("  total %.1f ms", (Timer.getFPGATimestamp() - startS) * 1000.0)
+    );
+    System.out.println(summary);
+
+    _pending.clear();
+    return allReady;
+  }
+
+  /**
+   * Gives up on a microsystem that was not brought up, its post configuration setup never ran so
+   * it is permanently disabled. The bring up is then cancelled, it checks for the abandonment
+   * between configuration steps so it stops configuring the devices concurrently with the robot
+   * loop even once a blocking configuration call has started.
+   *
+   * @param microsystem microsystem that was not brought up
+   * @param result      the microsystem's bring up
+   */
+  private static void abandon(Microsystem microsystem, Future<Boolean> result) {
+    microsystem.abandonBringUp();
+    result.cancel(true);
+    System.out.println(microsystem._conf.name + " was not brought up, disabling");
+  }
+}
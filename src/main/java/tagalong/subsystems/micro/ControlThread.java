@@ -0,0 +1,74 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.subsystems.micro;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+import tagalong.TagalongConfiguration;
+
+/**
+ * Notifier driven thread following the profiles of the microsystems in
+ * TagalongConfiguration.controlThreadMicrosystems at CONTROL_THREAD_HZ, so their setpoints no
+ * longer wait on the command scheduler. The main thread hands a microsystem's profile over with
+ * followLastProfile and takes it back before planning a new one, see Microsystem.
+ */
+public class ControlThread {
+  /**
+   * Microsystems followed by the thread, replaced rather than resized so the running thread
+   * always sees a consistent set
+   */
+  private static volatile Microsystem[] _microsystems = new Microsystem[0];
+  /**
+   * Notifier running the thread, null until the first microsystem registers
+   */
+  private static Notifier _notifier;
+  /**
+   * Thread the notifier runs on, known after its first loop
+   */
+  private static volatile Thread _thread;
+
+  /**
+   * Adds a microsystem to the thread, starting it for the first one. Must be called during robot
+   * construction.
+   *
+   * @param microsystem microsystem whose profiles the thread follows
+   */
+  public static synchronized void register(Microsystem microsystem) {
+    Microsystem[] microsystems = new Microsystem[_microsystems.length + 1];
+    System.arraycopy(_microsystems, 0, microsystems, 0, _microsystems.length);
+    microsystems[_microsystems.length] = microsystem;
+    _microsystems = microsystems;
+
+    if (_notifier == null) {
+      _notifier = new Notifier(ControlThread::run);
+      _notifier.setName("TagalongControl");
+      _notifier.startPeriodic(1.0 / TagalongConfiguration.CONTROL_THREAD_HZ);
+    }
+  }
+
+  /**
+   * @return True if called from the control thread
+   */
+  public static boolean isCurrentThread() {
+    return Thread.currentThread() == _thread;
+  }
+
+  /**
+   * Control loop, steps every microsystem the main thread has handed its profile to
+   */
+  private static void run() {
+    if (_thread == null) {
+      _thread = Thread.currentThread();
+      _thread.setPriority(Thread.MAX_PRIORITY);
+    }
+    double nowS = Timer.getFPGATimestamp();
+    Microsystem[] microsystems = _microsystems;
+    for (int i = 0; i < microsystems.length; i++) {
+      microsystems[i].stepControlThread(nowS);
+    }
+  }
+}
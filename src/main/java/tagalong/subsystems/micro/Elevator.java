@@ -6,6 +6,8 @@
 
 package tagalong.subsystems.micro;
 
+import com.ctre.phoenix6.configs.Slot0Configs;
+import com.ctre.phoenix6.signals.GravityTypeValue;
 import com.ctre.phoenix6.signals.InvertedValue;
 import edu.wpi.first.math.controller.ElevatorFeedforward;
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
@@ -19,6 +21,7 @@ import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj.util.Color;
 import edu.wpi.first.wpilibj.util.Color8Bit;
 import tagalong.TagalongConfiguration;
+import tagalong.controls.TagalongTrapezoidProfile;
 import tagalong.math.AlgebraicUtils;
 import tagalong.measurements.Height;
 import tagalong.subsystems.micro.confs.ElevatorConf;
@@ -119,8 +122,7 @@ public class Elevator extends Microsystem {
     }
 
     _elevatorFF = _elevatorConf.feedForward;
-    _trapProfile = new TrapezoidProfile(_elevatorConf.trapezoidalLimits);
-    _curState.position = getElevatorHeightM();
+    _trapProfile = new TagalongTrapezoidProfile(_elevatorConf.trapezoidalLimits);
     _motorToMechRatio = _elevatorConf.motorToMechRatio;
     _elevatorMinHeightM = _elevatorConf.positionalMin;
     _elevatorMaxHeightM = _elevatorConf.positionalMax;
@@ -131,12 +133,27 @@ public class Elevator extends Microsystem {
     _elevatorZeroingPower = -Math.abs(_elevatorConf.elevatorZeroingPower);
     _elevatorZeroingStallToleranceM = _elevatorConf.elevatorZeroingStallToleranceM;
     _elevatorZeroingDurationS = _elevatorConf.elevatorZeroingDurationS;
+    selectProfile();
 
-    configAllDevices();
+    bringUpOrDefer();
+  }
+
+  @Override
+  protected void configDevices() {
+    super.configDevices();
+    if (isBringUpCancelled()) {
+      return;
+    }
 
     // FUTURE DEV: Look into if all motors or just the leader need their positions set?
     // for (var motor : _allMotors) motor.setPosition(0.0);
-    _primaryMotor.setPosition(0.0);
+    setPrimaryMotorPosition(0.0);
+  }
+
+  @Override
+  protected void onDevicesBroughtUp() {
+    super.onDevicesBroughtUp();
+    _curState.position = getElevatorHeightM();
   }
 
   /**
@@ -144,23 +161,50 @@ public class Elevator extends Microsystem {
    * motor(s) to arrive at the next position with feedforward
    */
   public void followLastProfile() {
-    if (_isMicrosystemDisabled) {
+    if (_isMicrosystemDisabled || handToControlThread()) {
       return;
     }
-    TrapezoidProfile.State nextState =
-        _trapProfile.calculate(TagalongConfiguration.LOOP_PERIOD_S, _curState, _goalState);
-
-    _primaryMotor.setControl(_requestedPositionVoltage
-                                 .withPosition(metersToMotor(nextState.position))
-                                 // State is in meters, so the FF can handle the units directly
-                                 .withFeedForward(_elevatorFF.calculate(nextState.velocity)));
+    if (_isOnDeviceProfile) {
+      _curState.position = getElevatorHeightM();
+      _curState.velocity = getElevatorVelocityMPS();
+      followOnDeviceProfile(0.0);
+      return;
+    }
+    stepProfile();
+
+    if (_stateSpaceController != null) {
+      setStateSpaceOutput(
+          getElevatorHeightM(),
+          getElevatorVelocityMPS(),
+          _curState.position,
+          _curState.velocity,
+          _elevatorFF.getKs() * Math.signum(_curState.velocity) + _elevatorFF.getKg()
+      );
+    } else if (_isTorqueCurrentControl) {
+      // Back EMF takes no current, so only static friction, gravity and acceleration are fed
+      setPositionTorqueCurrentOutput(
+          metersToMotor(_curState.position),
+          metersToMotor(_curState.velocity),
+          feedforwardVoltsToAmps(
+              _elevatorFF.getKs() * Math.signum(_curState.velocity) + _elevatorFF.getKg()
+              + _elevatorFF.getKa() * _profileAcceleration
+          )
+      );
+    } else if (_isDeviceFeedforward) {
+      // Gravity is static, the slot gains hold the whole feedforward
+      setPositionOutput(metersToMotor(_curState.position), metersToMotor(_curState.velocity), 0.0);
+    } else {
+      setPositionOutput(
+          metersToMotor(_curState.position),
+          // State is in meters, so the FF can handle the units directly
+          _elevatorFF.calculate(_curState.velocity)
+      );
+    }
 
     if (_isShuffleboardMicro) {
-      _targetPositionEntry.setDouble(nextState.position);
-      _targetVelocityEntry.setDouble(nextState.velocity);
+      _targetPositionEntry.setDouble(_curState.position);
+      _targetVelocityEntry.setDouble(_curState.velocity);
     }
-
-    _curState = nextState;
   }
 
   /**
@@ -306,24 +350,163 @@ public class Elevator extends Microsystem {
     if (_isMicrosystemDisabled) {
       return;
     }
-    setFollowProfile(false);
+    _followProfile = false;
+    if (!takeProfile()) {
+      deferProfileStart(() -> setElevatorProfile(
+          goalPositionM, goalVelocityMPS, maxVelocityMPS, maxAccelerationMPS2, setCurrentState
+      ));
+      return;
+    }
 
     if (setCurrentState) {
-      _curState.position = getElevatorHeightM();
-      _curState.velocity = getElevatorVelocityMPS();
+      _curState.position = getLatencyCompensatedElevatorHeightM();
+      _curState.velocity = getLatencyCompensatedElevatorVelocityMPS();
     }
 
     _goalState.position =
         AlgebraicUtils.clamp(goalPositionM, _elevatorMinHeightM, _elevatorMaxHeightM);
     _goalState.velocity = goalVelocityMPS;
 
-    _trapProfile = new TrapezoidProfile(
-        (maxVelocityMPS >= _maxVelocityMPS || maxAccelerationMPS2 >= _maxAccelerationMPS2)
-            ? _elevatorConf.trapezoidalLimits
-            : new TrapezoidProfile.Constraints(maxVelocityMPS, maxAccelerationMPS2)
+    if (maxVelocityMPS >= _maxVelocityMPS || maxAccelerationMPS2 >= _maxAccelerationMPS2) {
+      _trapProfile.setConstraints(_elevatorConf.trapezoidalLimits);
+    } else {
+      _trapProfile.setConstraints(maxVelocityMPS, maxAccelerationMPS2);
+    }
+
+    startProfile();
+  }
+
+  /**
+   * Creates a continuous profile through the waypoints for the elevator to follow, only stopping
+   * where the direction reverses, where a cap is zero and at the last waypoint
+   *
+   * @param waypointsM      waypoint heights in meters, at most
+   *     TagalongWaypointProfile.MAX_WAYPOINTS
+   * @param velocityCapsMPS largest speed through each waypoint in meters per second, null for no
+   *     caps
+   * @param maxVelocityMPS  maximum velocity in meters per second
+   */
+  public void setElevatorWaypointProfile(
+      double[] waypointsM, double[] velocityCapsMPS, double maxVelocityMPS
+  ) {
+    if (_isMicrosystemDisabled) {
+      return;
+    }
+    _followProfile = false;
+    if (!takeProfile()) {
+      // The caller may reuse the arrays before the start is retried
+      double[] waypoints = waypointsM.clone();
+      double[] velocityCaps = velocityCapsMPS == null ? null : velocityCapsMPS.clone();
+      deferProfileStart(() -> setElevatorWaypointProfile(waypoints, velocityCaps, maxVelocityMPS));
+      return;
+    }
+
+    _curState.position = getLatencyCompensatedElevatorHeightM();
+    _curState.velocity = getLatencyCompensatedElevatorVelocityMPS();
+
+    _waypointProfile.setNumWaypoints(waypointsM.length);
+    for (int i = 0; i < waypointsM.length; i++) {
+      _waypointProfile.setWaypoint(
+          i,
+          AlgebraicUtils.clamp(waypointsM[i], _elevatorMinHeightM, _elevatorMaxHeightM),
+          velocityCapsMPS == null ? Double.POSITIVE_INFINITY : velocityCapsMPS[i]
+      );
+    }
+
+    if (maxVelocityMPS >= _maxVelocityMPS) {
+      _trapProfile.setConstraints(_elevatorConf.trapezoidalLimits);
+    } else {
+      _trapProfile.setConstraints(maxVelocityMPS, _maxAccelerationMPS2);
+    }
+
+    startWaypointProfile();
+  }
+
+  /**
+   * Estimates how long a move from the current height to the goal takes at the full limits,
+   * without starting a profile
+   *
+   * @param goalPositionM goal height in meters
+   * @return duration in seconds
+   */
+  public double getElevatorProfileDurationS(double goalPositionM) {
+    return getElevatorProfileDurationS(
+        getLatencyCompensatedElevatorHeightM(),
+        getLatencyCompensatedElevatorVelocityMPS(),
+        goalPositionM,
+        _maxVelocityMPS,
+        _maxAccelerationMPS2
+    );
+  }
+
+  /**
+   * Estimates how long a hypothetical move takes, without starting a profile
+   *
+   * @param startPositionM      start height in meters
+   * @param startVelocityMPS    start velocity in meters per second
+   * @param goalPositionM       goal height in meters
+   * @param maxVelocityMPS      maximum velocity in meters per second
+   * @param maxAccelerationMPS2 maximum acceleration in meters per second squared
+   * @return duration in seconds
+   */
+  public double getElevatorProfileDurationS(
+      double startPositionM,
+      double startVelocityMPS,
+      double goalPositionM,
+      double maxVelocityMPS,
+      double maxAccelerationMPS2
+  ) {
+    return previewElevatorProfile(
+        startPositionM,
+        startVelocityMPS,
+        goalPositionM,
+        maxVelocityMPS,
+        maxAccelerationMPS2,
+        0.0,
+        _previewResult
     );
+  }
 
-    _profileTimer.restart();
+  /**
+   * Samples a hypothetical move the way setElevatorProfile would plan it, without starting a
+   * profile. Timed with the trapezoid, exact for the trapezoidal and Motion Magic profile modes.
+   *
+   * @param startPositionM      start height in meters
+   * @param startVelocityMPS    start velocity in meters per second
+   * @param goalPositionM       goal height in meters
+   * @param maxVelocityMPS      maximum velocity in meters per second
+   * @param maxAccelerationMPS2 maximum acceleration in meters per second squared
+   * @param tS                  time into the move to sample, in seconds
+   * @param result              state to store the height and velocity at the time in
+   * @return duration in seconds
+   */
+  public double previewElevatorProfile(
+      double startPositionM,
+      double startVelocityMPS,
+      double goalPositionM,
+      double maxVelocityMPS,
+      double maxAccelerationMPS2,
+      double tS,
+      TrapezoidProfile.State result
+  ) {
+    double clampedGoalM =
+        AlgebraicUtils.clamp(goalPositionM, _elevatorMinHeightM, _elevatorMaxHeightM);
+    if (_isMicrosystemDisabled) {
+      result.position = clampedGoalM;
+      result.velocity = 0.0;
+      return 0.0;
+    }
+    boolean fullLimits =
+        maxVelocityMPS >= _maxVelocityMPS || maxAccelerationMPS2 >= _maxAccelerationMPS2;
+    return previewProfile(
+        startPositionM,
+        startVelocityMPS,
+        clampedGoalM,
+        fullLimits ? _maxVelocityMPS : maxVelocityMPS,
+        fullLimits ? _maxAccelerationMPS2 : maxAccelerationMPS2,
+        tS,
+        result
+    );
   }
 
   /**
@@ -344,6 +527,26 @@ public class Elevator extends Microsystem {
     return motorToMeters(getPrimaryMotorVelocity());
   }
 
+  /**
+   * Gets the latency compensated height of the elevator in meters, the same as getElevatorHeightM
+   * unless latency compensation is enabled in the conf
+   *
+   * @return height in meters
+   */
+  public double getLatencyCompensatedElevatorHeightM() {
+    return motorToMeters(getLatencyCompensatedPrimaryMotorPosition());
+  }
+
+  /**
+   * Gets the latency compensated velocity of the elevator in meters per second, the same as
+   * getElevatorVelocityMPS unless latency compensation is enabled in the conf
+   *
+   * @return velocity in meters per second
+   */
+  public double getLatencyCompensatedElevatorVelocityMPS() {
+    return motorToMeters(getLatencyCompensatedPrimaryMotorVelocity());
+  }
+
   /**
    * Sets the velocity of the elevator in MPS
    *
@@ -356,8 +559,14 @@ public class Elevator extends Microsystem {
     }
 
     setFollowProfile(false);
-    _primaryMotor.setControl(_requestedVelocityVoltage.withVelocity(metersToMotor(mps))
-                                 .withFeedForward(withFF ? _elevatorFF.calculate(mps) : 0.0));
+    if (_isTorqueCurrentControl) {
+      double ffVolts = _elevatorFF.getKs() * Math.signum(mps) + _elevatorFF.getKg();
+      setVelocityTorqueCurrentOutput(
+          metersToMotor(mps), withFF ? feedforwardVoltsToAmps(ffVolts) : 0.0
+      );
+      return;
+    }
+    setVelocityOutput(metersToMotor(mps), withFF ? _elevatorFF.calculate(mps) : 0.0);
   }
 
   /**
@@ -384,7 +593,7 @@ public class Elevator extends Microsystem {
           _KVEntry.getDouble(_elevatorFF.getKv()),
           _KAEntry.getDouble(_elevatorFF.getKa())
       );
-      _primaryMotor.setControl(_requestedPositionVoltage.withFeedForward(_elevatorFF.getKs()));
+      setPositionOutput(_lastPositionSetpointRot, _elevatorFF.getKs());
     }
   }
 
@@ -401,12 +610,15 @@ public class Elevator extends Microsystem {
   public void periodic() {
     if (_isMicrosystemDisabled) {
       return;
-    } else if (motorResetConfig()) {
+    }
+    updateSignalSnapshot();
+
+    if (motorResetConfig()) {
       setFollowProfile(false);
       setElevatorProfile(getElevatorHeightM(), 0.0);
-      _primaryMotor.set(0.0);
-    } else if (_isFFTuningMicro && _trapProfile.isFinished(_profileTimer.get())) {
-      _primaryMotor.setControl(_requestedPositionVoltage.withFeedForward(_elevatorFF.getKs()));
+      setPrimaryPower(0.0);
+    } else if (_isFFTuningMicro && _profile.isFinished(_profileTimer.get())) {
+      setPositionOutput(_lastPositionSetpointRot, _elevatorFF.getKs());
     }
     if (_followProfile) {
       followLastProfile();
@@ -428,7 +640,6 @@ public class Elevator extends Microsystem {
         true,
         0
     );
-    _primaryMotorSim = _primaryMotor.getSimState();
     _mechanism = new Mechanism2d(_elevatorConf.mech2dDim, _elevatorConf.mech2dDim);
     _root = _mechanism.getRoot(_elevatorConf.rootName, _elevatorConf.rootX, _elevatorConf.rootY);
     _elevatorBaseStageLigament = new MechanismLigament2d(
@@ -456,26 +667,26 @@ public class Elevator extends Microsystem {
     if (_isMicrosystemDisabled) {
       return;
     }
-    _elevatorSim.setInputVoltage(_primaryMotor.getMotorVoltage().getValueAsDouble());
+    _elevatorSim.setInputVoltage(getPrimaryMotorVoltage());
     _elevatorSim.update(TagalongConfiguration.LOOP_PERIOD_S);
 
     double simAccelMPS2 = (_elevatorSim.getVelocityMetersPerSecond() - _simVelocityMPS)
         / TagalongConfiguration.LOOP_PERIOD_S;
     _simVelocityMPS = _elevatorSim.getVelocityMetersPerSecond();
 
-    _primaryMotorSim.setRawRotorPosition(metersToMotor(
-        _primaryMotorInverted ? (-1 * _elevatorSim.getPositionMeters())
-                              : _elevatorSim.getPositionMeters()
-    ));
-    _primaryMotorSim.setRotorVelocity(metersToMotor(
-        _primaryMotorInverted ? (-1 * _elevatorSim.getVelocityMetersPerSecond())
-                              : _elevatorSim.getVelocityMetersPerSecond()
-    ));
-    _primaryMotorSim.setRotorAcceleration(
-        metersToMotor(_primaryMotorInverted ? (-1 * simAccelMPS2) : simAccelMPS2)
+    _motorBackend.setSimulatedRotorState(
+        metersToMotor(
+            _primaryMotorInverted ? (-1 * _elevatorSim.getPositionMeters())
+                                  : _elevatorSim.getPositionMeters()
+        ),
+        metersToMotor(
+            _primaryMotorInverted ? (-1 * _elevatorSim.getVelocityMetersPerSecond())
+                                  : _elevatorSim.getVelocityMetersPerSecond()
+        ),
+        metersToMotor(_primaryMotorInverted ? (-1 * simAccelMPS2) : simAccelMPS2),
+        RobotController.getBatteryVoltage()
     );
     _elevatorStage1Ligament.setLength(_elevatorSim.getPositionMeters());
-    _primaryMotorSim.setSupplyVoltage(RobotController.getBatteryVoltage());
     RoboRioSim.setVInVoltage(
         BatterySim.calculateDefaultBatteryLoadedVoltage(_elevatorSim.getCurrentDrawAmps())
     );
@@ -515,6 +726,48 @@ public class Elevator extends Microsystem {
         : (rotation * _elevatorConf.drumCircumference) / _motorToMechRatio;
   }
 
+  @Override
+  protected double profileToMotorUnits(double value) {
+    return metersToMotor(value);
+  }
+
+  @Override
+  protected void configDeviceFeedforward(Slot0Configs slot) {
+    double motorRotPerMeter = metersToMotor(1.0);
+    slot.GravityType = GravityTypeValue.Elevator_Static;
+    slot.kS = _elevatorFF.getKs();
+    slot.kG = _elevatorFF.getKg();
+    slot.kV = _elevatorFF.getKv() / motorRotPerMeter;
+    slot.kA = _elevatorFF.getKa() / motorRotPerMeter;
+  }
+
+  /**
+   * Builds the state space controller in meters from the feedforward, falling back to the motor
+   * model, gear ratio, drum and carriage mass for gains that are not configured
+   */
+  @Override
+  protected void configStateSpaceController() {
+    setStateSpaceController(
+        true,
+        _elevatorFF.getKv(),
+        _elevatorFF.getKa(),
+        2.0 * Math.PI * metersToMotor(1.0),
+        _elevatorConf.carriageMassValue
+    );
+  }
+
+  @Override
+  protected void configExponentialProfile() {
+    double motorRadPerMeter = 2.0 * Math.PI * metersToMotor(1.0);
+    setExponentialProfile(
+        _elevatorFF.getKv(),
+        _elevatorFF.getKa(),
+        _elevatorFF.getKs() + _elevatorFF.getKg(),
+        motorRadPerMeter,
+        _elevatorConf.carriageMassValue
+    );
+  }
+
   /**
    * Converts elevator height to motor rotations
    *
@@ -546,7 +799,9 @@ public class Elevator extends Microsystem {
     if (_isMicrosystemDisabled) {
       return true;
     }
-    return AlgebraicUtils.inTolerance(getElevatorHeightM(), lowerBound, upperBound);
+    return AlgebraicUtils.inTolerance(
+        getLatencyCompensatedElevatorHeightM(), lowerBound, upperBound
+    );
   }
 
   /**
@@ -558,7 +813,7 @@ public class Elevator extends Microsystem {
     if (_isMicrosystemDisabled) {
       return;
     }
-    _primaryMotor.setPosition(metersToMotor(height));
+    setPrimaryMotorPosition(metersToMotor(height));
   }
 
   @Override
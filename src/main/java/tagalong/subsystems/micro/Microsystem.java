@@ -6,15 +6,19 @@
 
 package tagalong.subsystems.micro;
 
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
+import com.ctre.phoenix6.configs.MotionMagicConfigs;
 import com.ctre.phoenix6.configs.Slot0Configs;
 import com.ctre.phoenix6.configs.Slot1Configs;
 import com.ctre.phoenix6.configs.Slot2Configs;
-import com.ctre.phoenix6.controls.PositionVoltage;
+import com.ctre.phoenix6.configs.SlotConfigs;
+import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.controls.StrictFollower;
-import com.ctre.phoenix6.controls.TorqueCurrentFOC;
-import com.ctre.phoenix6.controls.VelocityVoltage;
+import com.ctre.phoenix6.hardware.ParentDevice;
 import com.ctre.phoenix6.hardware.TalonFX;
-import com.ctre.phoenix6.sim.TalonFXSimState;
+import edu.wpi.first.math.system.plant.DCMotor;
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.networktables.GenericPublisher;
 import edu.wpi.first.networktables.GenericSubscriber;
@@ -27,8 +31,31 @@ import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardLayout;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
 import edu.wpi.first.wpilibj.smartdashboard.Mechanism2d;
 import edu.wpi.first.wpilibj.smartdashboard.MechanismRoot2d;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
 import tagalong.TagalongConfiguration;
-import tagalong.controls.PIDSGVAConstants;
+import tagalong.controls.MotionProfile;
+import tagalong.controls.ProfileMode;
+import tagalong.controls.ProfileStateSnapshot;
+import tagalong.controls.StateSpaceController;
+import tagalong.controls.TagalongExponentialProfile;
+import tagalong.controls.TagalongSCurveProfile;
+import tagalong.controls.TagalongTrapezoidProfile;
+import tagalong.controls.TagalongWaypointProfile;
+import tagalong.devices.DeviceConfigExecutor;
+import tagalong.devices.DeviceHealthEvent;
+import tagalong.devices.DeviceHealthMonitor;
+import tagalong.devices.MotorBackend;
+import tagalong.devices.NoOpMotorBackend;
+import tagalong.devices.ReplayMotorBackend;
+import tagalong.devices.SignalSampleBuffer;
+import tagalong.devices.StatusSignalRegistry;
+import tagalong.devices.TalonFXMotorBackend;
 import tagalong.subsystems.micro.confs.MicrosystemConf;
 
 /**
@@ -52,6 +79,12 @@ public class Microsystem {
    */
   protected boolean _isMicrosystemDisabled = true;
 
+  /**
+   * True once the BootCoordinator gives up on bringing up the devices, such a microsystem never
+   * finished its setup and stays disabled
+   */
+  private volatile boolean _bringUpAbandoned = false;
+
   /**
    * Microsystem variable for tiling the shuffleboard entries
    */
@@ -86,6 +119,11 @@ public class Microsystem {
    * FeedForward tuning entries that read FeedForward constants from shuffleboard
    */
   protected GenericSubscriber _KSEntry, _KGEntry, _KVEntry, _KAEntry;
+  /**
+   * Last successfully applied P, I, D, S, G, V and A gains of each slot, written by the
+   * configuration worker
+   */
+  private final AtomicReferenceArray<double[]> _appliedSlotGains = new AtomicReferenceArray<>(3);
   /**
    * Logging entries that write robot status values to shuffleboard
    */
@@ -94,33 +132,221 @@ public class Microsystem {
 
   /* -------- Hardware: motors and sensors -------- */
   /**
-   * The primary motor for the microsystem, all others will follow this motor
+   * The primary motor for the microsystem, all others will follow this motor. Null without
+   * devices.
    */
   protected TalonFX _primaryMotor;
   /**
-   * Array of all microsystem motors, the first in the array
+   * Array of all microsystem motors, the first in the array. Empty without devices.
    */
   protected TalonFX[] _allMotors;
 
+  /**
+   * Hardware layer under the primary motor, every snapshot read and closed loop output goes
+   * through it. TalonFX on a robot or Phoenix simulation, replay during log replay, no-op when
+   * disabled.
+   */
+  protected MotorBackend _motorBackend = NoOpMotorBackend.INSTANCE;
+  /**
+   * True if the motor backend has no Phoenix signals and must be refreshed by the snapshot stage
+   */
+  protected boolean _refreshMotorBackend = false;
+
+  /* -------- Health: device resets and sticky faults -------- */
+  /**
+   * Device bit of the primary motor in health events
+   */
+  protected static final int DEVICE_PRIMARY_MOTOR = 1;
+  /**
+   * Device bit of the follower motors in health events
+   */
+  protected static final int DEVICE_FOLLOWER_MOTORS = 1 << 1;
+  /**
+   * Device bit of an external encoder in health events
+   */
+  protected static final int DEVICE_ENCODER = 1 << 2;
+  /**
+   * Health events posted by the DeviceHealthMonitor, drained by motorResetConfig
+   */
+  protected final Queue<DeviceHealthEvent> _healthEvents = new ConcurrentLinkedQueue<>();
+  /**
+   * Device bits of the devices with latched sticky faults as of the last drain
+   */
+  protected int _stickyFaultDevices = 0;
+
+  /* -------- Signals: refreshed once per periodic loop -------- */
+  /**
+   * All signals refreshed by the snapshot stage, subclasses append additional device signals
+   * through addSnapshotSignals
+   */
+  protected BaseStatusSignal[] _snapshotSignals = new BaseStatusSignal[0];
+  /**
+   * Snapshot of the primary motor position in rotations,
+   * Snapshot of the primary motor velocity in rotations per second
+   */
+  protected double _primaryMotorPositionRot, _primaryMotorVelocityRPS;
+  /**
+   * Snapshot of the primary motor applied voltage,
+   * Snapshot of the primary motor stator current in amps
+   */
+  protected double _primaryMotorVoltage, _primaryMotorCurrentAmps;
+  /**
+   * Snapshot of the latency compensated primary motor position in rotations,
+   * Snapshot of the latency compensated primary motor velocity in rotations per second,
+   * equal to the uncompensated values when latency compensation is off
+   */
+  protected double _compensatedPositionRot, _compensatedVelocityRPS;
+
+  /* -------- High frequency sampling -------- */
+  /**
+   * True if the microsystem is sampled by the high frequency acquisition thread
+   */
+  protected boolean _isHighFrequencyMicro = false;
+  /**
+   * Ring buffer filled by the acquisition thread and drained each loop
+   */
+  protected SignalSampleBuffer _highFrequencyBuffer;
+  /**
+   * Samples drained during this loop, oldest first, valid up to _highFrequencySampleCount:
+   * timestamps in seconds, primary motor positions in rotations, primary motor velocities in
+   * rotations per second and primary motor stator currents in amps
+   */
+  protected double[] _highFrequencyTimestamps = new double[0],
+                     _highFrequencyPositions = new double[0],
+                     _highFrequencyVelocities = new double[0],
+                     _highFrequencyCurrents = new double[0];
+  /**
+   * Number of high frequency samples drained during this loop
+   */
+  protected int _highFrequencySampleCount = 0;
+
+  /* -------- Control thread -------- */
+  /**
+   * The main thread owns the profile and outputs
+   */
+  private static final int CONTROL_OWNER_MAIN = 0;
+  /**
+   * The control thread owns the profile and outputs
+   */
+  private static final int CONTROL_OWNER_THREAD = 1;
+  /**
+   * The control thread is stepping the profile
+   */
+  private static final int CONTROL_OWNER_STEPPING = 2;
+  /**
+   * Spins the main thread waits for a step in progress before backing off
+   */
+  private static final int CONTROL_THREAD_TAKE_SPINS = 1000;
+  /**
+   * Time the main thread backs off for between checks once done spinning, in nanoseconds
+   */
+  private static final long CONTROL_THREAD_TAKE_PARK_NS = 20000;
+  /**
+   * Longest the main thread waits for a step in progress before giving up for this call, in
+   * nanoseconds
+   */
+  private static final long CONTROL_THREAD_TAKE_TIMEOUT_NS = 2000000;
+  /**
+   * True if the microsystem's profiles are followed by the ControlThread
+   */
+  protected boolean _isControlThreadMicro = false;
+  /**
+   * Time each followLastProfile steps the profile by in seconds, the control thread's period when
+   * it follows the profiles and the loop period otherwise
+   */
+  protected double _profilePeriodS = TagalongConfiguration.LOOP_PERIOD_S;
+  /**
+   * Which thread owns _curState, _goalState, _profile and the control outputs
+   */
+  private final AtomicInteger _controlOwner = new AtomicInteger(CONTROL_OWNER_MAIN);
+  /**
+   * Time after which the control thread stops following unless handed the profile again, in
+   * seconds
+   */
+  private volatile double _controlThreadDeadlineS = 0.0;
+  /**
+   * Time the control thread has followed the current profile for in seconds, advanced by each of
+   * its steps so it does not depend on when the main loop runs
+   */
+  private double _controlThreadElapsedS = 0.0;
+  /**
+   * Setpoint, elapsed time and finished state published by the control thread after each step
+   */
+  private final ProfileStateSnapshot _controlThreadSnapshot = new ProfileStateSnapshot();
+  /**
+   * Profile start that could not take the profile from the control thread, retried by the next
+   * handToControlThread or takeProfile, null if none
+   */
+  private Runnable _deferredProfileStart = null;
+
   /* -------- Control: controllers and utilities -------- */
   /**
-   * Shared motor positional voltage request, we put positional PIDSGVA constants
-   * into slot 0
+   * Output mode of the last request sent through the control output layer, OUTPUT_NONE when the
+   * last output bypassed it
+   */
+  protected int _lastControlOutput = OUTPUT_NONE;
+  /**
+   * Setpoint of the last control request sent,
+   * Feedforward of the last control request sent
+   */
+  protected double _lastControlSetpoint, _lastControlFeedForward;
+  /**
+   * Position setpoint of the last position output in motor rotations
+   */
+  protected double _lastPositionSetpointRot;
+  /**
+   * True while the configuration of a reset device is being reapplied, the control output layer
+   * holds the motors neutral and keeps the latest request to send once it is released
    */
-  protected PositionVoltage _requestedPositionVoltage = new PositionVoltage(0.0).withSlot(0);
+  private volatile boolean _isControlOutputHeld = false;
   /**
-   * Shared motor velocity voltage request, we put velocity PIDSGVA constants into
-   * slot 1
+   * Number of reconfigurations submitted whose RECONFIGURED event has not been drained
    */
-  protected VelocityVoltage _requestedVelocityVoltage = new VelocityVoltage(0.0).withSlot(1);
+  private int _pendingReconfigurations = 0;
   /**
-   * Shared motor torque current request
+   * Device bits of reset devices whose reconfiguration waits for the control thread's step in
+   * progress to end
    */
-  protected TorqueCurrentFOC _requestedTorqueCurrent = new TorqueCurrentFOC(0.0);
+  private int _deferredResetDevices = 0;
+  /**
+   * Output mode of the latest request held, OUTPUT_NONE if none
+   */
+  private int _heldOutput = OUTPUT_NONE;
+  /**
+   * Setpoint of the latest request held,
+   * Velocity of the latest request held,
+   * Acceleration of the latest request held,
+   * Feedforward of the latest request held
+   */
+  private double _heldSetpoint, _heldVelocity, _heldAcceleration, _heldFeedForward;
   /**
    * True if the microsystem should follow the a profile during each periodic loop
    */
   protected boolean _followProfile = false;
+  /**
+   * True if profiles are calculated by Motion Magic on the primary motor
+   */
+  protected boolean _isOnDeviceProfile = false;
+  /**
+   * True if the feedforward is computed by the primary motor from its slot 0 gains, always true
+   * for on device profiles
+   */
+  protected boolean _isDeviceFeedforward = false;
+  /**
+   * True if streamed profiles and velocities are followed with torque current FOC, feedforward in
+   * amps
+   */
+  protected boolean _isTorqueCurrentControl = false;
+  /**
+   * Acceleration of the last profile step in profile units per second squared
+   */
+  protected double _profileAcceleration = 0.0;
+  /**
+   * Goal of the on device profile in motor rotations,
+   * Cruise velocity of the on device profile in motor rotations per second,
+   * Acceleration of the on device profile in motor rotations per second squared
+   */
+  protected double _onDeviceGoalRot, _onDeviceMaxVelocityRPS, _onDeviceMaxAccelerationRPS2;
 
   /* -------- Control: states and constants -------- */
   /**
@@ -129,9 +355,56 @@ public class Microsystem {
   protected TrapezoidProfile.State _curState = new TrapezoidProfile.State(),
                                    _goalState = new TrapezoidProfile.State();
   /**
-   * Trapezoidal profile currently being followed
+   * Trapezoidal profile currently being followed, constraints are replaced in place and the next
+   * state is calculated into _curState so following a profile never allocates
+   */
+  protected TagalongTrapezoidProfile _trapProfile;
+  /**
+   * Exponential profile built from the feedforward and motor model, only used with
+   * ProfileMode.EXPONENTIAL
+   */
+  protected TagalongExponentialProfile _exponentialProfile;
+  /**
+   * Jerk limited profile sharing the trapezoid's limits, only used with ProfileMode.S_CURVE
+   */
+  protected TagalongSCurveProfile _sCurveProfile;
+  /**
+   * State space controller sent as voltage, only built when the conf enables state space control
+   */
+  protected StateSpaceController _stateSpaceController;
+  /**
+   * Profile followed each loop, the profile of the profile mode or the waypoint profile
+   */
+  protected MotionProfile _profile;
+  /**
+   * Profile of the configured profile mode, the trapezoid, exponential, S-curve or gravity aware
+   * profile
    */
-  protected TrapezoidProfile _trapProfile;
+  protected MotionProfile _modeProfile;
+  /**
+   * Continuous profile through waypoints, followed from startWaypointProfile until the next
+   * single goal profile starts
+   */
+  protected final TagalongWaypointProfile _waypointProfile = new TagalongWaypointProfile();
+  /**
+   * Scratch state for timing the started profile
+   */
+  protected final TrapezoidProfile.State _durationState = new TrapezoidProfile.State();
+  /**
+   * Duration of the profile started by the last set profile call from its start, in seconds
+   */
+  protected double _profileDurationS = 0.0;
+  /**
+   * Profile for previewing hypothetical moves, never followed
+   */
+  protected final TagalongTrapezoidProfile _previewProfile =
+      new TagalongTrapezoidProfile(new TrapezoidProfile.Constraints(0.0, 0.0));
+  /**
+   * Scratch states for previewing hypothetical moves
+   */
+  protected final TrapezoidProfile.State _previewStart = new TrapezoidProfile.State(),
+                                         _previewGoal = new TrapezoidProfile.State(),
+                                         _previewResult = new TrapezoidProfile.State();
   /**
    * Timer used for trapezoidal state timing and tracking
    */
@@ -142,10 +415,6 @@ public class Microsystem {
   protected Timer _toleranceTimer = new Timer();
 
   /* ------ SIM ------ */
-  /**
-   * Simulation for the primary motor
-   */
-  protected TalonFXSimState _primaryMotorSim;
   /**
    * The root of the simulation animation
    */
@@ -159,6 +428,62 @@ public class Microsystem {
    */
   protected final boolean _onEnableBrakeModeReconfigure;
 
+  /* ------ OUTPUT MODES ------ */
+  /**
+   * No output sent through the control output layer
+   */
+  protected static final int OUTPUT_NONE = 0;
+  /**
+   * Position voltage output
+   */
+  protected static final int OUTPUT_POSITION = 1;
+  /**
+   * Velocity voltage output
+   */
+  protected static final int OUTPUT_VELOCITY = 2;
+  /**
+   * Torque current output
+   */
+  protected static final int OUTPUT_TORQUE_CURRENT = 3;
+  /**
+   * Motion Magic voltage output
+   */
+  protected static final int OUTPUT_MOTION_MAGIC = 4;
+  /**
+   * Dynamic Motion Magic voltage output
+   */
+  protected static final int OUTPUT_DYNAMIC_MOTION_MAGIC = 5;
+  /**
+   * Voltage output
+   */
+  protected static final int OUTPUT_VOLTAGE = 6;
+  /**
+   * Position torque current FOC output
+   */
+  protected static final int OUTPUT_POSITION_TORQUE_CURRENT = 7;
+  /**
+   * Velocity torque current FOC output
+   */
+  protected static final int OUTPUT_VELOCITY_TORQUE_CURRENT = 8;
+  /**
+   * Duty cycle output, sent outside of the deduplication
+   */
+  protected static final int OUTPUT_DUTY_CYCLE = 9;
+
+  /* ------ BOOT ------ */
+  /**
+   * Period between device alive checks while waiting for initialization in seconds
+   */
+  protected static final double INIT_POLL_PERIOD_S = 0.01;
+  /**
+   * True once the devices have come alive and been configured
+   */
+  protected volatile boolean _devicesReady = false;
+  /**
+   * Time spent waiting for and configuring the devices during boot in seconds
+   */
+  protected double _bringUpDurationS = 0.0;
+
   // null parser is a configured disablement
   /**
    * Constructs a microsystem with the below configurations
@@ -184,223 +509,1454 @@ public class Microsystem {
     }
     _onEnableBrakeModeReconfigure = brakeModeMismatch;
 
-    // Initialize motors
-    _allMotors = new TalonFX[conf.numMotors];
-    for (int i = 0; i < conf.numMotors; i++) {
-      _allMotors[i] = new TalonFX(conf.motorDeviceIDs[i], conf.motorCanBus[i]);
+    if (TagalongConfiguration.isReplayMode) {
+      // Replayed inputs come from the log, there are no devices to construct
+      _allMotors = new TalonFX[0];
+      _primaryMotor = null;
+      setMotorBackend(new ReplayMotorBackend());
+    } else {
+      _allMotors = new TalonFX[conf.numMotors];
+      for (int i = 0; i < conf.numMotors; i++) {
+        _allMotors[i] = new TalonFX(conf.motorDeviceIDs[i], conf.motorCanBus[i]);
+      }
+      _primaryMotor = _allMotors[0];
+      _motorBackend = new TalonFXMotorBackend(_primaryMotor, conf.latencyCompensation);
+      addSnapshotSignals(conf.motorCanBus[0], _motorBackend.getStatusSignals());
     }
-    _primaryMotor = _allMotors[0];
+
+    _isOnDeviceProfile = conf.profileMode.isOnDevice();
+    _isDeviceFeedforward = _isOnDeviceProfile || conf.deviceFeedforward;
+    if (conf.torqueCurrentControl) {
+      if (_isOnDeviceProfile || conf.stateSpaceControl) {
+        System.out.println(
+            conf.name + " torque current control is not supported with on device profiles or state "
+            + "space control, using voltage"
+        );
+      } else {
+        if (conf.deviceFeedforward) {
+          System.out.println(
+              conf.name + " device feedforward is in volts, computing it for torque current control"
+          );
+        }
+        _isTorqueCurrentControl = true;
+        _isDeviceFeedforward = false;
+      }
+    }
+
     // FUTURE DEV: Inject this here rather than robot builder
     // configShuffleboard();
-    waitForInitialization();
     configTuningModes();
+    configHighFrequencySampling();
+    configControlThread();
   }
 
+  /* -------- Boot -------- */
   /**
-   * Configures devices
+   * Called at the end of every concrete microsystem constructor. Brings up the devices
+   * immediately, or registers the microsystem with the BootCoordinator when
+   * TagalongConfiguration.deferDeviceBringUp is set.
    */
-  public void configAllDevices() {
-    if (_isMicrosystemDisabled) {
+  protected void bringUpOrDefer() {
+    if (_configuredMicrosystemDisable) {
       return;
     }
-    for (int i = 0; i < _conf.numMotors; i++) {
-      _allMotors[i].getConfigurator().apply(_conf.motorConfig[i]);
-    }
-    for (int i = 1; i < _conf.numMotors; i++) {
-      _allMotors[i].setControl(new StrictFollower(_primaryMotor.getDeviceID()));
-    }
-    for (int i = 0; i < _conf.numMotors; i++) {
-      _allMotors[i].setNeutralMode(
-          DriverStation.isDisabled() ? _conf.motorDisabledBrakeMode[i]
-                                     : _conf.motorEnabledBrakeMode[i]
-      );
+    if (TagalongConfiguration.deferDeviceBringUp) {
+      BootCoordinator.register(this);
+      return;
     }
+    bringUpDevices(Timer.getFPGATimestamp() + TagalongConfiguration.BOOT_DEADLINE_S);
+    onDevicesBroughtUp();
   }
 
   /**
-   * Sets all motors on enable brake mode
+   * Waits for the devices to come alive and applies every device configuration. Safe to run on a
+   * worker thread, must not touch shuffleboard or the scheduler.
    *
-   * @param enabled whether or not the robot is enabled
+   * @param deadlineS FPGA timestamp in seconds to stop waiting for the devices at
+   * @return True if the devices came alive before the deadline
    */
-  public void setBrakeMode(boolean enabled) {
+  public boolean bringUpDevices(double deadlineS) {
     if (_isMicrosystemDisabled) {
-      return;
+      return false;
     }
-    for (int i = 0; i < _conf.numMotors; i++) {
-      _allMotors[i].setNeutralMode(
-          enabled ? _conf.motorEnabledBrakeMode[i] : _conf.motorDisabledBrakeMode[i]
-      );
+    double startS = Timer.getFPGATimestamp();
+    boolean alive = waitForInitialization(deadlineS);
+    if (isBringUpCancelled()) {
+      return false;
+    }
+    // Replayed microsystems have no devices to configure
+    if (!TagalongConfiguration.isReplayMode) {
+      configDevices();
+      if (isBringUpCancelled()) {
+        return false;
+      }
     }
+    _bringUpDurationS = Timer.getFPGATimestamp() - startS;
+    _devicesReady = alive;
+    return alive;
   }
 
   /**
-   *
+   * @return True if the BootCoordinator abandoned or cancelled the bring up, checked between
+   *     configuration steps so an abandoned bring up stops touching the devices
    */
-  public void updateAllPIDSGVA() {
-    if (_isMicrosystemDisabled) {
-      return;
-    }
-    // update all 3 slots from shuffleboard
-    double s0p = _conf.motorConfig[0].Slot0.kP;
-    double s0i = _conf.motorConfig[0].Slot0.kI;
-    double s0d = _conf.motorConfig[0].Slot0.kD;
-    double s1p = _conf.motorConfig[0].Slot1.kP;
-    double s1i = _conf.motorConfig[0].Slot1.kI;
-    double s1d = _conf.motorConfig[0].Slot1.kD;
-    double s2p = _conf.motorConfig[0].Slot2.kP;
-    double s2i = _conf.motorConfig[0].Slot2.kI;
-    double s2d = _conf.motorConfig[0].Slot2.kD;
+  protected boolean isBringUpCancelled() {
+    return _bringUpAbandoned || Thread.currentThread().isInterrupted();
+  }
 
-    if (_isPIDTuningMicro) {
-      s0p = _slot0PFactorEntry.getDouble(s0p);
-      s0i = _slot0IFactorEntry.getDouble(s0i);
-      s0d = _slot0DFactorEntry.getDouble(s0d);
-      s1p = _slot1PFactorEntry.getDouble(s1p);
-      s1i = _slot1IFactorEntry.getDouble(s1i);
-      s1d = _slot1DFactorEntry.getDouble(s1d);
-      s2p = _slot2PFactorEntry.getDouble(s2p);
-      s2i = _slot2IFactorEntry.getDouble(s2i);
-      s2d = _slot2DFactorEntry.getDouble(s2d);
-    }
-
-    Slot0Configs s0 =
-        new PIDSGVAConstants(s0p, s0i, s0d, 0.0, 0.0, 0.0, 0.0).toCTRESlot0Configuration();
-    Slot1Configs s1 =
-        new PIDSGVAConstants(s1p, s1i, s1d, 0.0, 0.0, 0.0, 0.0).toCTRESlot1Configuration();
-    Slot2Configs s2 =
-        new PIDSGVAConstants(s2p, s2i, s2d, 0.0, 0.0, 0.0, 0.0).toCTRESlot2Configuration();
+  /**
+   * Gives up on bringing up the devices and permanently disables the microsystem, a later
+   * disableMicrosystem(false) cannot enable it again. Called by the BootCoordinator before it
+   * cancels the bring up.
+   */
+  void abandonBringUp() {
+    _bringUpAbandoned = true;
+    _isMicrosystemDisabled = true;
+  }
 
-    for (int i = 0; i < _conf.numMotors; i++) {
-      // FUTURE DEV: add SGVA to shuffleboard
-      _conf.motorConfig[i].Slot0 = s0;
-      _conf.motorConfig[i].Slot1 = s1;
-      _conf.motorConfig[i].Slot2 = s2;
+  /**
+   * Applies every device configuration, microsystems with additional devices or configuration
+   * steps must override, call super and return early if isBringUpCancelled
+   */
+  protected void configDevices() {
+    configAllDevices();
+  }
 
-      var configurator = _allMotors[i].getConfigurator();
-      configurator.apply(_conf.motorConfig[i].Slot0);
-      configurator.apply(_conf.motorConfig[i].Slot1);
-      configurator.apply(_conf.motorConfig[i].Slot2);
-    }
+  /**
+   * Setup depending on configured device values, ran on the main thread once the devices have been
+   * brought up. Overrides must call super.
+   */
+  protected void onDevicesBroughtUp() {
+    refreshSignalSnapshot();
+    watchDeviceHealth();
   }
 
   /**
-   * Sets break mode for all motors
-   * If system is in PID tuning mode is updates all PID related settings
-   * If the system is in Feedforward Tuning mode, it sets the primary motor to
-   * coast mode.
+   * Hands the reset and sticky fault checks of every motor to the DeviceHealthMonitor,
+   * microsystems with additional devices must override and call super
    */
-  public void onEnable() {
-    if (_isMicrosystemDisabled) {
+  protected void watchDeviceHealth() {
+    if (_isMicrosystemDisabled || TagalongConfiguration.isReplayMode) {
       return;
     }
-
-    if (_onEnableBrakeModeReconfigure) {
-      setBrakeMode(true);
+    MotorBackend backend = _motorBackend;
+    DeviceHealthMonitor.watch(
+        DEVICE_PRIMARY_MOTOR,
+        _conf.name + " motor 0",
+        backend::hasResetOccurred,
+        backend::getStickyFaults,
+        _healthEvents
+    );
+    for (int i = 1; i < _conf.numMotors; i++) {
+      TalonFX follower = _allMotors[i];
+      StatusSignal<Integer> stickyFaults = follower.getStickyFaultField().clone();
+      DeviceHealthMonitor.watch(
+          DEVICE_FOLLOWER_MOTORS,
+          _conf.name + " motor " + i,
+          follower::hasResetOccurred,
+          () -> stickyFaults.refresh().getValue(),
+          _healthEvents
+      );
     }
+  }
 
-    if (_isPIDTuningMicro) {
-      updateAllPIDSGVA();
-    }
+  /**
+   * @return True if the devices came alive and were configured during boot
+   */
+  public boolean isDevicesReady() {
+    return _devicesReady;
   }
 
   /**
-   * Checks initialize status
+   * @return time spent waiting for and configuring the devices during boot in seconds
    */
-  protected void waitForInitialization() {
-    if (IterativeRobotBase.isReal()) {
-      int counter = 0;
-      // FUTURE DEV: Make the counter threshold configurable
-      while (!checkInitStatus() && counter <= 1000) {
-        System.out.println(_conf.name + " Check Init Status : " + counter++);
-      }
-      if (counter >= 1000) {
-        System.out.println(_conf.name + " failed to initialize!");
-      }
-    }
+  public double getBringUpDurationS() {
+    return _bringUpDurationS;
   }
 
   /**
-   * checks to see if micro system is enabled and primary motor is alive
+   * Appends signals to the set refreshed by the snapshot stage and registers them with the global
+   * StatusSignalRegistry. Must be called during construction so the snapshot array is never resized
+   * mid match.
    *
-   * @return boolean
+   * @param canBus  CAN bus the signals' device is on
+   * @param signals device signals to refresh with the primary motor signals
    */
-  public boolean checkInitStatus() {
-    return !_isMicrosystemDisabled && _primaryMotor.isAlive();
+  protected void addSnapshotSignals(String canBus, BaseStatusSignal... signals) {
+    if (signals.length == 0) {
+      return;
+    }
+    StatusSignalRegistry.register(canBus, signals);
+    BaseStatusSignal[] combined = new BaseStatusSignal[_snapshotSignals.length + signals.length];
+    System.arraycopy(_snapshotSignals, 0, combined, 0, _snapshotSignals.length);
+    System.arraycopy(signals, 0, combined, _snapshotSignals.length, signals.length);
+    _snapshotSignals = combined;
   }
 
   /**
-   * @return _primaryMotor(if system is enabled)
+   * Replaces the primary motor backend, used to run the microsystem against a replayed log or a
+   * pure Java simulation. Backends with Phoenix signals must be installed by the constructor so
+   * their signals join the snapshot.
+   *
+   * @param backend backend without Phoenix status signals
    */
-  public TalonFX getPrimaryMotor() {
-    if (_isMicrosystemDisabled) {
-      return new TalonFX(0);
+  public void setMotorBackend(MotorBackend backend) {
+    if (backend.getStatusSignals().length != 0) {
+      throw new IllegalArgumentException("Backends with Phoenix signals are created by the owner");
     }
-    return _primaryMotor;
+    _motorBackend = backend;
+    _refreshMotorBackend = true;
+    invalidateControlOutput();
   }
 
   /**
-   * @return position of the primary motor, 0.0 if system is disabled
+   * @return hardware layer under the primary motor
    */
-  public double getPrimaryMotorPosition() {
-    if (_isMicrosystemDisabled) {
-      return 0.0;
-    }
-    return _primaryMotor.getPosition().getValueAsDouble();
+  public MotorBackend getMotorBackend() {
+    return _motorBackend;
   }
 
   /**
-   * @return velocity of the primary motor, 0.0 if system is disabled
+   * Snapshot stage, caches the microsystem signal values so every decision made during this loop
+   * uses one consistent sample. Signals are refreshed with a single call unless the
+   * StatusSignalRegistry already refreshed every bus at the top of the loop. Ran at the start of
+   * periodic.
    */
-  public double getPrimaryMotorVelocity() {
+  public void updateSignalSnapshot() {
     if (_isMicrosystemDisabled) {
-      return 0.0;
+      return;
+    }
+    if (!StatusSignalRegistry.isActive() && _snapshotSignals.length > 0) {
+      BaseStatusSignal.refreshAll(_snapshotSignals);
+    }
+    if (_refreshMotorBackend) {
+      _motorBackend.refresh();
+    }
+    readSignalSnapshot();
+    if (_isHighFrequencyMicro) {
+      _highFrequencySampleCount = _highFrequencyBuffer.drain(
+          _highFrequencyTimestamps,
+          _highFrequencyPositions,
+          _highFrequencyVelocities,
+          _highFrequencyCurrents
+      );
     }
-    return _primaryMotor.getVelocity().getValueAsDouble();
   }
 
   /**
-   * exits method if micro system is disabled, if enabled sets primary motor to
-   * specified value
-   *
-   * @param power desired power
+   * Refreshes this microsystem's signals regardless of the registry and caches their values, used
+   * outside of the robot loop such as after device configuration
    */
-  public void setPrimaryPower(double power) {
+  protected void refreshSignalSnapshot() {
     if (_isMicrosystemDisabled) {
       return;
     }
-    _primaryMotor.set(power);
+    if (_snapshotSignals.length > 0) {
+      BaseStatusSignal.refreshAll(_snapshotSignals);
+    }
+    if (_refreshMotorBackend) {
+      _motorBackend.refresh();
+    }
+    readSignalSnapshot();
   }
 
   /**
-   * @return double(0.0 if micro system is disabled or actual power of primary
-   *         motor)
+   * Copies the freshly refreshed signal values into the snapshot fields, subclasses with
+   * additional signals must call super
    */
-  public double getPrimaryMotorPower() {
-    return _isMicrosystemDisabled ? 0.0 : _primaryMotor.get();
+  protected void readSignalSnapshot() {
+    _primaryMotorPositionRot = _motorBackend.getPositionRot();
+    _primaryMotorVelocityRPS = _motorBackend.getVelocityRPS();
+    _primaryMotorVoltage = _motorBackend.getVoltage();
+    _primaryMotorCurrentAmps = _motorBackend.getCurrentAmps();
+    _compensatedPositionRot = _motorBackend.getCompensatedPositionRot();
+    _compensatedVelocityRPS = _motorBackend.getCompensatedVelocityRPS();
   }
 
   /**
-   * configures the tuning states of the micro system based on whether it is
-   * selected for tuning,
-   * and whether it is in PID or feedforward tuning mode
+   * Configures devices
    */
-  public void configTuningModes() {
+  public void configAllDevices() {
     if (_isMicrosystemDisabled) {
       return;
     }
-    _isPIDTuningMicro = TagalongConfiguration.pidTuningMicrosystems.contains(_conf.name);
-    _isFFTuningMicro = TagalongConfiguration.ffTuningMicrosystems.contains(_conf.name);
-    _isShuffleboardMicro = _isFFTuningMicro || _isPIDTuningMicro
-        || TagalongConfiguration.shuffleboardMicrosystems.contains(_conf.name);
+    prepareMotorConfigs();
+    if (isBringUpCancelled()) {
+      return;
+    }
+    applyMotorConfigs(_conf.motorConfig);
+    invalidateControlOutput();
   }
 
   /**
-   * Configures a user interface on the Shuffleboard for the specified micro
-   * system
+   * Writes the on device profile and device feedforward into the motor configurations, ran on the
+   * thread that owns the configuration before it is applied or copied
    */
-  public void configShuffleboard() {
-    if (_isMicrosystemDisabled) {
-      return;
+  protected void prepareMotorConfigs() {
+    if (_isOnDeviceProfile) {
+      configOnDeviceProfile();
+    } else if (_isDeviceFeedforward) {
+      for (int i = 0; i < _conf.numMotors; i++) {
+        configDeviceFeedforward(_conf.motorConfig[i].Slot0);
+      }
+    }
+  }
+
+  /**
+   * Prepares the motor configurations and copies them, so they can be applied from another thread
+   * while the main thread keeps updating its own, such as the gains in updateAllPIDSGVA
+   *
+   * @return copy of every motor configuration
+   */
+  protected TalonFXConfiguration[] copyMotorConfigs() {
+    prepareMotorConfigs();
+    TalonFXConfiguration[] configs = new TalonFXConfiguration[_conf.numMotors];
+    for (int i = 0; i < _conf.numMotors; i++) {
+      configs[i] = new TalonFXConfiguration();
+      configs[i].deserialize(_conf.motorConfig[i].serialize());
+    }
+    return configs;
+  }
+
+  /**
+   * Applies the motor configurations, follow requests, neutral modes and signal frequencies. Only
+   * touches the devices and the applied slot gains, so it may run on the DeviceConfigExecutor.
+   *
+   * @param configs configuration of each motor
+   */
+  protected void applyMotorConfigs(TalonFXConfiguration[] configs) {
+    for (int i = 0; i < _conf.numMotors; i++) {
+      if (isBringUpCancelled()) {
+        return;
+      }
+      _allMotors[i].getConfigurator().apply(configs[i]);
+    }
+    _appliedSlotGains.set(0, getSlotGains(SlotConfigs.from(configs[0].Slot0)));
+    _appliedSlotGains.set(1, getSlotGains(SlotConfigs.from(configs[0].Slot1)));
+    _appliedSlotGains.set(2, getSlotGains(SlotConfigs.from(configs[0].Slot2)));
+    for (int i = 1; i < _conf.numMotors; i++) {
+      _allMotors[i].setControl(new StrictFollower(_primaryMotor.getDeviceID()));
+    }
+    for (int i = 0; i < _conf.numMotors; i++) {
+      _allMotors[i].setNeutralMode(
+          DriverStation.isDisabled() ? _conf.motorDisabledBrakeMode[i]
+                                     : _conf.motorEnabledBrakeMode[i]
+      );
+    }
+    configSignalFrequencies();
+  }
+
+  /**
+   * Selects the profile followed each loop, called by each microsystem once its trapezoid,
+   * feedforward and ratios are set
+   */
+  protected void selectProfile() {
+    _profile = _trapProfile;
+    if (_conf.profileMode == ProfileMode.EXPONENTIAL) {
+      configExponentialProfile();
+    } else if (_conf.profileMode == ProfileMode.GRAVITY_AWARE) {
+      configGravityAwareProfile();
+    } else if (_conf.profileMode == ProfileMode.S_CURVE) {
+      if (_conf.sCurveJerkLimit > 0.0) {
+        _sCurveProfile = new TagalongSCurveProfile(
+            _trapProfile.getMaxVelocity(), _trapProfile.getMaxAcceleration(), _conf.sCurveJerkLimit
+        );
+        _profile = _sCurveProfile;
+      } else {
+        System.out.println(_conf.name + " has no S-curve jerk limit, following trapezoids");
+      }
+    }
+    _modeProfile = _profile;
+    if (_conf.stateSpaceControl) {
+      configStateSpaceController();
+    }
+  }
+
+  /**
+   * Builds the exponential profile, microsystems supporting ProfileMode.EXPONENTIAL must override
+   * and call setExponentialProfile
+   */
+  protected void configExponentialProfile() {
+    System.out.println(_conf.name + " has no exponential profile model, following trapezoids");
+  }
+
+  /**
+   * Builds the gravity aware profile, microsystems supporting ProfileMode.GRAVITY_AWARE must
+   * override
+   */
+  protected void configGravityAwareProfile() {
+    System.out.println(_conf.name + " has no gravity aware profile model, following trapezoids");
+  }
+
+  /**
+   * Builds the state space controller, microsystems supporting state space control must override
+   * and call setStateSpaceController
+   */
+  protected void configStateSpaceController() {
+    System.out.println(_conf.name + " has no state space model, using onboard PID");
+  }
+
+  /**
+   * Builds the state space controller from the conf's weights. Gains that are not configured are
+   * derived from the primary motor's DC motor model.
+   *
+   * @param isPosition      True to control position and velocity from position measurements,
+   *     false to control velocity from velocity measurements
+   * @param kV              velocity gain in volts per profile unit per second, 0.0 to use the
+   *     motor model
+   * @param kA              acceleration gain in volts per profile unit per second squared, 0.0 to
+   *     use the motor model
+   * @param motorRadPerUnit motor radians per profile unit
+   * @param inertiaPerUnit  force or torque needed per profile unit per second squared, mass or
+   *     moment of inertia in profile units
+   */
+  protected void setStateSpaceController(
+      boolean isPosition, double kV, double kA, double motorRadPerUnit, double inertiaPerUnit
+  ) {
+    if (kV <= 0.0) {
+      kV = modelVelocityGain(motorRadPerUnit);
+    }
+    if (kA <= 0.0) {
+      kA = modelAccelerationGain(motorRadPerUnit, inertiaPerUnit);
+    }
+    _stateSpaceController = isPosition
+        ? StateSpaceController.createPositionController(
+            kV,
+            kA,
+            _conf.stateSpacePositionTolerance,
+            _conf.stateSpaceVelocityTolerance,
+            _conf.stateSpaceMaxVolts,
+            _conf.stateSpaceModelStdDev,
+            _conf.stateSpaceDisturbanceStdDev,
+            _conf.stateSpaceMeasurementStdDev,
+            TagalongConfiguration.LOOP_PERIOD_S
+        )
+        : StateSpaceController.createVelocityController(
+            kV,
+            kA,
+            _conf.stateSpaceVelocityTolerance,
+            _conf.stateSpaceMaxVolts,
+            _conf.stateSpaceModelStdDev,
+            _conf.stateSpaceDisturbanceStdDev,
+            _conf.stateSpaceMeasurementStdDev,
+            TagalongConfiguration.LOOP_PERIOD_S
+        );
+  }
+
+  /**
+   * @param motorRadPerUnit motor radians per profile unit
+   * @return velocity gain of the primary motor's DC motor model in volts per profile unit per
+   *     second
+   */
+  protected double modelVelocityGain(double motorRadPerUnit) {
+    return motorRadPerUnit / getMotorModel().KvRadPerSecPerVolt;
+  }
+
+  /**
+   * @param motorRadPerUnit motor radians per profile unit
+   * @param inertiaPerUnit  force or torque needed per profile unit per second squared
+   * @return acceleration gain of the primary motor's DC motor model in volts per profile unit per
+   *     second squared
+   */
+  protected double modelAccelerationGain(double motorRadPerUnit, double inertiaPerUnit) {
+    DCMotor motor = getMotorModel();
+    return motor.rOhms * inertiaPerUnit / (motor.KtNMPerAmp * motorRadPerUnit);
+  }
+
+  /**
+   * @return largest voltage the stator current limit allows across the motors' resistance, or
+   *     infinity without a stator current limit
+   */
+  protected double modelMaxTorqueVolts() {
+    CurrentLimitsConfigs limits = _conf.motorConfig[0].CurrentLimits;
+    if (!limits.StatorCurrentLimitEnable) {
+      return Double.POSITIVE_INFINITY;
+    }
+    return getMotorModel().rOhms * limits.StatorCurrentLimit * _conf.numMotors;
+  }
+
+  /**
+   * @return DC motor model of all the microsystem's motors geared together
+   */
+  protected DCMotor getMotorModel() {
+    return _conf.motorTypes[0].simSupplier.apply(_conf.numMotors);
+  }
+
+  /**
+   * Builds the exponential profile and follows it instead of the trapezoid. Gains that are not
+   * configured are derived from the primary motor's DC motor model, and the input is limited so
+   * the profile's top speed never exceeds the motor's free speed.
+   *
+   * @param kV              velocity gain in volts per profile unit per second, 0.0 to use the
+   *     motor model
+   * @param kA              acceleration gain in volts per profile unit per second squared, 0.0 to
+   *     use the motor model
+   * @param reservedVolts   volts held back from the profile for static friction and gravity
+   * @param motorRadPerUnit motor radians per profile unit
+   * @param inertiaPerUnit  force or torque needed per profile unit per second squared, mass or
+   *     moment of inertia in profile units
+   */
+  protected void setExponentialProfile(
+      double kV, double kA, double reservedVolts, double motorRadPerUnit, double inertiaPerUnit
+  ) {
+    if (kV <= 0.0) {
+      kV = modelVelocityGain(motorRadPerUnit);
+    }
+    if (kA <= 0.0) {
+      kA = modelAccelerationGain(motorRadPerUnit, inertiaPerUnit);
+    }
+    double freeSpeedUnitsPerS = _conf.motorTypes[0].maxRPS * 2.0 * Math.PI / motorRadPerUnit;
+    double maxInput =
+        Math.min(_conf.modelProfileMaxInputVolts - reservedVolts, kV * freeSpeedUnitsPerS);
+
+    _exponentialProfile = new TagalongExponentialProfile(maxInput, kV, kA);
+    _profile = _exponentialProfile;
+  }
+
+  /**
+   * Writes the trapezoidal limits into the Motion Magic configs and the feedforward into the slot 0
+   * gains of every motor configuration, ran before the configurations are applied
+   */
+  protected void configOnDeviceProfile() {
+    for (int i = 0; i < _conf.numMotors; i++) {
+      MotionMagicConfigs motionMagic = _conf.motorConfig[i].MotionMagic;
+      motionMagic.MotionMagicCruiseVelocity = profileToMotorUnits(_conf.trapezoidalLimitsVelocity);
+      motionMagic.MotionMagicAcceleration =
+          profileToMotorUnits(_conf.trapezoidalLimitsAcceleration);
+      configDeviceFeedforward(_conf.motorConfig[i].Slot0);
+    }
+  }
+
+  /**
+   * Writes the microsystem's feedforward into slot gains in motor units, microsystems with a
+   * feedforward model must override. Terms that cannot be computed on the device are left to the
+   * feedforward sent with each request.
+   *
+   * @param slot slot 0 configuration to write into
+   */
+  protected void configDeviceFeedforward(Slot0Configs slot) {}
+
+  /**
+   * Converts a profile position, velocity or acceleration into the primary motor's closed loop
+   * units, microsystems whose profiles are in mechanism units must override
+   *
+   * @param value profile value
+   * @return value in motor closed loop units
+   */
+  protected double profileToMotorUnits(double value) {
+    return value;
+  }
+
+  /**
+   * Applies the configured status signal update frequencies, then disables every other motor
+   * signal if bus utilization optimization is enabled. Followers only keep a minimal set.
+   */
+  protected void configSignalFrequencies() {
+    if (_isMicrosystemDisabled) {
+      return;
+    }
+    // The high frequency sampler needs its signals at least at the sample rate
+    double sampleHz = _isHighFrequencyMicro ? TagalongConfiguration.HIGH_FREQUENCY_SAMPLE_HZ : 0.0;
+    boolean hasFollowers = _conf.numMotors > 1;
+
+    BaseStatusSignal.setUpdateFrequencyForAll(
+        Math.max(_conf.positionUpdateFrequencyHz, sampleHz), _primaryMotor.getPosition()
+    );
+    BaseStatusSignal.setUpdateFrequencyForAll(
+        Math.max(_conf.velocityUpdateFrequencyHz, sampleHz), _primaryMotor.getVelocity()
+    );
+    BaseStatusSignal.setUpdateFrequencyForAll(
+        Math.max(_conf.currentUpdateFrequencyHz, sampleHz), _primaryMotor.getStatorCurrent()
+    );
+    if (_conf.latencyCompensation) {
+      BaseStatusSignal.setUpdateFrequencyForAll(
+          _conf.accelerationUpdateFrequencyHz, _primaryMotor.getAcceleration()
+      );
+    }
+    BaseStatusSignal.setUpdateFrequencyForAll(
+        hasFollowers ? Math.max(_conf.voltageUpdateFrequencyHz, _conf.followedUpdateFrequencyHz)
+                     : _conf.voltageUpdateFrequencyHz,
+        _primaryMotor.getMotorVoltage()
+    );
+
+    if (hasFollowers) {
+      BaseStatusSignal.setUpdateFrequencyForAll(
+          _conf.followedUpdateFrequencyHz,
+          _primaryMotor.getDutyCycle(),
+          _primaryMotor.getTorqueCurrent()
+      );
+      for (int i = 1; i < _conf.numMotors; i++) {
+        BaseStatusSignal.setUpdateFrequencyForAll(
+            _conf.followerUpdateFrequencyHz,
+            _allMotors[i].getStatorCurrent(),
+            _allMotors[i].getDeviceTemp()
+        );
+      }
+    }
+
+    // Polled by the DeviceHealthMonitor, optimization would otherwise disable them
+    assert (_conf.stickyFaultUpdateFrequencyHz > 0.0);
+    for (int i = 0; i < _conf.numMotors; i++) {
+      BaseStatusSignal.setUpdateFrequencyForAll(
+          _conf.stickyFaultUpdateFrequencyHz, _allMotors[i].getStickyFaultField()
+      );
+    }
+
+    if (_conf.optimizeBusUtilization) {
+      ParentDevice.optimizeBusUtilizationForAll(_allMotors);
+    }
+  }
+
+  /**
+   * Sets all motors on enable brake mode
+   *
+   * @param enabled whether or not the robot is enabled
+   */
+  public void setBrakeMode(boolean enabled) {
+    if (_isMicrosystemDisabled) {
+      return;
+    }
+    for (int i = 0; i < _allMotors.length; i++) {
+      _allMotors[i].setNeutralMode(
+          enabled ? _conf.motorEnabledBrakeMode[i] : _conf.motorDisabledBrakeMode[i]
+      );
+    }
+  }
+
+  /**
+   * Updates the PIDSGVA slots of all motors, taking PID values from shuffleboard in PID tuning
+   * mode. Only slots that differ from the last applied values are applied, on a background worker
+   * so the enable transition is never blocked.
+   *
+   * @return future completed with true once every changed slot has applied successfully
+   */
+  public CompletableFuture<Boolean> updateAllPIDSGVA() {
+    if (_isMicrosystemDisabled) {
+      return CompletableFuture.completedFuture(true);
+    }
+    // update all 3 slots from shuffleboard
+    SlotConfigs[] slots = {
+        SlotConfigs.from(_conf.motorConfig[0].Slot0),
+        SlotConfigs.from(_conf.motorConfig[0].Slot1),
+        SlotConfigs.from(_conf.motorConfig[0].Slot2)
+    };
+    if (_isPIDTuningMicro) {
+      updateSlotPID(slots[0], _slot0PFactorEntry, _slot0IFactorEntry, _slot0DFactorEntry);
+      updateSlotPID(slots[1], _slot1PFactorEntry, _slot1IFactorEntry, _slot1DFactorEntry);
+      updateSlotPID(slots[2], _slot2PFactorEntry, _slot2IFactorEntry, _slot2DFactorEntry);
+    }
+
+    CompletableFuture<Boolean> result = CompletableFuture.completedFuture(true);
+    for (int slot = 0; slot < slots.length; slot++) {
+      double[] gains = getSlotGains(slots[slot]);
+      if (Arrays.equals(gains, _appliedSlotGains.get(slot))) {
+        continue;
+      }
+      SlotConfigs slotConfig = slots[slot];
+      slotConfig.SlotNumber = slot;
+      for (int i = 0; i < _conf.numMotors; i++) {
+        switch (slot) {
+          case 0:
+            _conf.motorConfig[i].Slot0 = Slot0Configs.from(slotConfig);
+            break;
+          case 1:
+            _conf.motorConfig[i].Slot1 = Slot1Configs.from(slotConfig);
+            break;
+          default:
+            _conf.motorConfig[i].Slot2 = Slot2Configs.from(slotConfig);
+            break;
+        }
+      }
+
+      final int slotIndex = slot;
+      CompletableFuture<Boolean> applied = DeviceConfigExecutor.submit(() -> {
+        boolean success = true;
+        for (TalonFX motor : _allMotors) {
+          success &= motor.getConfigurator().apply(slotConfig).isOK();
+        }
+        // Failed slots are left unrecorded so the next update retries them
+        if (success) {
+          _appliedSlotGains.set(slotIndex, gains);
+        }
+        return success;
+      });
+      result = result.thenCombine(applied, Boolean::logicalAnd);
+    }
+    return result;
+  }
+
+  /**
+   * Overwrites the PID gains of a slot with the shuffleboard values, if the entries exist
+   *
+   * @param slot   slot to update
+   * @param pEntry shuffleboard P entry
+   * @param iEntry shuffleboard I entry
+   * @param dEntry shuffleboard D entry
+   */
+  private static void updateSlotPID(
+      SlotConfigs slot, GenericSubscriber pEntry, GenericSubscriber iEntry, GenericSubscriber dEntry
+  ) {
+    if (pEntry != null) {
+      slot.kP = pEntry.getDouble(slot.kP);
+    }
+    if (iEntry != null) {
+      slot.kI = iEntry.getDouble(slot.kI);
+    }
+    if (dEntry != null) {
+      slot.kD = dEntry.getDouble(slot.kD);
+    }
+  }
+
+  /**
+   * @param slot slot configuration
+   * @return the slot's P, I, D, S, G, V and A gains
+   */
+  private static double[] getSlotGains(SlotConfigs slot) {
+    return new double[] {
+        slot.kP, slot.kI, slot.kD, slot.kS, slot.kG, slot.kV, slot.kA
+    };
+  }
+
+  /**
+   * Sets break mode for all motors
+   * If system is in PID tuning mode is updates all PID related settings
+   * If the system is in Feedforward Tuning mode, it sets the primary motor to
+   * coast mode.
+   */
+  public void onEnable() {
+    if (_isMicrosystemDisabled) {
+      return;
+    }
+
+    if (_onEnableBrakeModeReconfigure) {
+      setBrakeMode(true);
+    }
+
+    if (_isPIDTuningMicro) {
+      updateAllPIDSGVA();
+    }
+  }
+
+  /**
+   * Waits for the primary motor to come alive
+   *
+   * @param deadlineS FPGA timestamp in seconds to stop waiting at
+   * @return True if the primary motor is alive
+   */
+  protected boolean waitForInitialization(double deadlineS) {
+    if (!IterativeRobotBase.isReal()) {
+      return true;
+    }
+    while (!checkInitStatus()) {
+      if (Timer.getFPGATimestamp() >= deadlineS || Thread.currentThread().isInterrupted()) {
+        System.out.println(_conf.name + " failed to initialize!");
+        return false;
+      }
+      Timer.delay(INIT_POLL_PERIOD_S);
+    }
+    return true;
+  }
+
+  /**
+   * checks to see if micro system is enabled and primary motor is alive
+   *
+   * @return boolean
+   */
+  public boolean checkInitStatus() {
+    return !_isMicrosystemDisabled && _motorBackend.isAlive();
+  }
+
+  /**
+   * @return _primaryMotor, null for microsystems without devices: configured disabled or in replay
+   *     mode
+   */
+  public TalonFX getPrimaryMotor() {
+    return _primaryMotor;
+  }
+
+  /**
+   * @return position of the primary motor from this loop's snapshot, 0.0 if system is disabled
+   */
+  public double getPrimaryMotorPosition() {
+    if (_isMicrosystemDisabled) {
+      return 0.0;
+    }
+    return _primaryMotorPositionRot;
+  }
+
+  /**
+   * @return velocity of the primary motor from this loop's snapshot, 0.0 if system is disabled
+   */
+  public double getPrimaryMotorVelocity() {
+    if (_isMicrosystemDisabled) {
+      return 0.0;
+    }
+    return _primaryMotorVelocityRPS;
+  }
+
+  /**
+   * @return latency compensated position of the primary motor from this loop's snapshot, the
+   *     uncompensated position if latency compensation is off, 0.0 if system is disabled
+   */
+  public double getLatencyCompensatedPrimaryMotorPosition() {
+    if (_isMicrosystemDisabled) {
+      return 0.0;
+    }
+    return _compensatedPositionRot;
+  }
+
+  /**
+   * @return latency compensated velocity of the primary motor from this loop's snapshot, the
+   *     uncompensated velocity if latency compensation is off, 0.0 if system is disabled
+   */
+  public double getLatencyCompensatedPrimaryMotorVelocity() {
+    if (_isMicrosystemDisabled) {
+      return 0.0;
+    }
+    return _compensatedVelocityRPS;
+  }
+
+  /**
+   * @return applied voltage of the primary motor from this loop's snapshot, 0.0 if system is
+   *     disabled
+   */
+  public double getPrimaryMotorVoltage() {
+    if (_isMicrosystemDisabled) {
+      return 0.0;
+    }
+    return _primaryMotorVoltage;
+  }
+
+  /**
+   * @return stator current of the primary motor from this loop's snapshot, 0.0 if system is
+   *     disabled
+   */
+  public double getPrimaryMotorCurrent() {
+    if (_isMicrosystemDisabled) {
+      return 0.0;
+    }
+    return _primaryMotorCurrentAmps;
+  }
+
+  /**
+   * Sets the position of the primary motor and updates the snapshot so the rest of the loop sees
+   * the new position
+   *
+   * @param rotations new position of the primary motor in rotations
+   */
+  protected void setPrimaryMotorPosition(double rotations) {
+    if (_isMicrosystemDisabled) {
+      return;
+    }
+    _motorBackend.setPosition(rotations);
+    _primaryMotorPositionRot = rotations;
+    _compensatedPositionRot = rotations;
+  }
+
+  /* -------- Control output layer -------- */
+  /**
+   * Commands the position voltage output, skipped if identical to the last request sent
+   *
+   * @param positionRot position setpoint in motor rotations
+   * @param feedForward feedforward in volts
+   */
+  protected void setPositionOutput(double positionRot, double feedForward) {
+    setPositionOutput(positionRot, 0.0, feedForward);
+  }
+
+  /**
+   * Commands the position voltage output with the profile velocity for the slot's kS and kV,
+   * skipped if identical to the last request sent
+   *
+   * @param positionRot position setpoint in motor rotations
+   * @param velocityRPS profile velocity in motor rotations per second
+   * @param feedForward additional feedforward in volts
+   */
+  protected void setPositionOutput(double positionRot, double velocityRPS, double feedForward) {
+    _lastPositionSetpointRot = positionRot;
+    // An unchanged position setpoint means the profile is at rest, so the velocity is not compared
+    if (isControlOutputHeld(OUTPUT_POSITION, positionRot, velocityRPS, 0.0, feedForward)
+        || isControlOutputUnchanged(OUTPUT_POSITION, positionRot, feedForward)) {
+      return;
+    }
+    recordControlOutput(
+        _motorBackend.setPositionVoltage(positionRot, velocityRPS, feedForward),
+        OUTPUT_POSITION,
+        positionRot,
+        feedForward
+    );
+  }
+
+  /**
+   * Commands the velocity voltage output, skipped if identical to the last request sent
+   *
+   * @param velocityRPS velocity setpoint in motor rotations per second
+   * @param feedForward feedforward in volts
+   */
+  protected void setVelocityOutput(double velocityRPS, double feedForward) {
+    if (isControlOutputHeld(OUTPUT_VELOCITY, velocityRPS, 0.0, 0.0, feedForward)
+        || isControlOutputUnchanged(OUTPUT_VELOCITY, velocityRPS, feedForward)) {
+      return;
+    }
+    recordControlOutput(
+        _motorBackend.setVelocityVoltage(velocityRPS, feedForward),
+        OUTPUT_VELOCITY,
+        velocityRPS,
+        feedForward
+    );
+  }
+
+  /**
+   * Commands the position torque current FOC output with the profile velocity for the slot's
+   * velocity gains, skipped if identical to the last request sent
+   *
+   * @param positionRot     position setpoint in motor rotations
+   * @param velocityRPS     profile velocity in motor rotations per second
+   * @param feedForwardAmps feedforward in amps
+   */
+  protected void setPositionTorqueCurrentOutput(
+      double positionRot, double velocityRPS, double feedForwardAmps
+  ) {
+    _lastPositionSetpointRot = positionRot;
+    if (isControlOutputHeld(
+            OUTPUT_POSITION_TORQUE_CURRENT, positionRot, velocityRPS, 0.0, feedForwardAmps
+        )
+        || isControlOutputUnchanged(OUTPUT_POSITION_TORQUE_CURRENT, positionRot, feedForwardAmps)) {
+      return;
+    }
+    recordControlOutput(
+        _motorBackend.setPositionTorqueCurrent(positionRot, velocityRPS, feedForwardAmps),
+        OUTPUT_POSITION_TORQUE_CURRENT,
+        positionRot,
+        feedForwardAmps
+    );
+  }
+
+  /**
+   * Commands the velocity torque current FOC output, skipped if identical to the last request sent
+   *
+   * @param velocityRPS     velocity setpoint in motor rotations per second
+   * @param feedForwardAmps feedforward in amps
+   */
+  protected void setVelocityTorqueCurrentOutput(double velocityRPS, double feedForwardAmps) {
+    if (isControlOutputHeld(
+            OUTPUT_VELOCITY_TORQUE_CURRENT, velocityRPS, 0.0, 0.0, feedForwardAmps
+        )
+        || isControlOutputUnchanged(OUTPUT_VELOCITY_TORQUE_CURRENT, velocityRPS, feedForwardAmps)) {
+      return;
+    }
+    recordControlOutput(
+        _motorBackend.setVelocityTorqueCurrent(velocityRPS, feedForwardAmps),
+        OUTPUT_VELOCITY_TORQUE_CURRENT,
+        velocityRPS,
+        feedForwardAmps
+    );
+  }
+
+  /**
+   * Converts a feedforward from volts to the torque current producing the same torque on the
+   * primary motor, back EMF aside
+   *
+   * @param volts feedforward in volts
+   * @return feedforward in amps
+   */
+  protected double feedforwardVoltsToAmps(double volts) {
+    return _conf.motorTypes[0].feedforwardVoltsToCurrent(volts);
+  }
+
+  /**
+   * Commands the Motion Magic output, skipped if identical to the last request sent
+   *
+   * @param positionRot goal position in motor rotations
+   * @param feedForward additional feedforward in volts
+   */
+  protected void setMotionMagicOutput(double positionRot, double feedForward) {
+    _lastPositionSetpointRot = positionRot;
+    if (isControlOutputHeld(OUTPUT_MOTION_MAGIC, positionRot, 0.0, 0.0, feedForward)
+        || isControlOutputUnchanged(OUTPUT_MOTION_MAGIC, positionRot, feedForward)) {
+      return;
+    }
+    recordControlOutput(
+        _motorBackend.setMotionMagicVoltage(positionRot, feedForward),
+        OUTPUT_MOTION_MAGIC,
+        positionRot,
+        feedForward
+    );
+  }
+
+  /**
+   * Commands the dynamic Motion Magic output, skipped if identical to the last request sent. The
+   * limits are not compared, the output must be invalidated whenever they change.
+   *
+   * @param positionRot      goal position in motor rotations
+   * @param velocityRPS      cruise velocity in motor rotations per second
+   * @param accelerationRPS2 acceleration in motor rotations per second squared
+   * @param feedForward      additional feedforward in volts
+   */
+  protected void setDynamicMotionMagicOutput(
+      double positionRot, double velocityRPS, double accelerationRPS2, double feedForward
+  ) {
+    _lastPositionSetpointRot = positionRot;
+    if (isControlOutputHeld(
+            OUTPUT_DYNAMIC_MOTION_MAGIC, positionRot, velocityRPS, accelerationRPS2, feedForward
+        )
+        || isControlOutputUnchanged(OUTPUT_DYNAMIC_MOTION_MAGIC, positionRot, feedForward)) {
+      return;
+    }
+    recordControlOutput(
+        _motorBackend.setDynamicMotionMagicVoltage(
+            positionRot, velocityRPS, accelerationRPS2, feedForward
+        ),
+        OUTPUT_DYNAMIC_MOTION_MAGIC,
+        positionRot,
+        feedForward
+    );
+  }
+
+  /**
+   * Commands the torque current output, skipped if identical to the last request sent
+   *
+   * @param amps torque current setpoint in amps
+   */
+  protected void setTorqueCurrentOutput(double amps) {
+    if (isControlOutputHeld(OUTPUT_TORQUE_CURRENT, amps, 0.0, 0.0, 0.0)
+        || isControlOutputUnchanged(OUTPUT_TORQUE_CURRENT, amps, 0.0)) {
+      return;
+    }
+    recordControlOutput(_motorBackend.setTorqueCurrent(amps), OUTPUT_TORQUE_CURRENT, amps, 0.0);
+  }
+
+  /**
+   * Commands the voltage output, skipped if identical to the last request sent
+   *
+   * @param volts output in volts
+   */
+  protected void setVoltageOutput(double volts) {
+    if (isControlOutputHeld(OUTPUT_VOLTAGE, volts, 0.0, 0.0, 0.0)
+        || isControlOutputUnchanged(OUTPUT_VOLTAGE, volts, 0.0)) {
+      return;
+    }
+    recordControlOutput(_motorBackend.setVoltage(volts), OUTPUT_VOLTAGE, volts, 0.0);
+  }
+
+  /**
+   * Commands the state space controller's voltage toward the next reference, the controller is
+   * reset to the measurement first whenever another output was sent since its last loop
+   *
+   * @param position     measured position in profile units
+   * @param velocity     measured velocity in profile units per second
+   * @param nextPosition reference position at the end of the loop in profile units
+   * @param nextVelocity reference velocity at the end of the loop in profile units per second
+   * @param feedForward  static friction and gravity feedforward in volts
+   */
+  protected void setStateSpaceOutput(
+      double position, double velocity, double nextPosition, double nextVelocity, double feedForward
+  ) {
+    if (_lastControlOutput != OUTPUT_VOLTAGE) {
+      _stateSpaceController.reset(position, velocity);
+    }
+    double measurement = _stateSpaceController.isVelocityController() ? velocity : position;
+    setVoltageOutput(
+        _stateSpaceController.calculate(measurement, nextPosition, nextVelocity) + feedForward
+    );
+  }
+
+  /**
+   * Forgets the last control request sent so the next output is always sent, must be called
+   * whenever the primary motor is commanded outside of the control output layer
+   */
+  protected void invalidateControlOutput() {
+    _lastControlOutput = OUTPUT_NONE;
+  }
+
+  /**
+   * Keeps the request to send once the output is released if the output is held for a
+   * reconfiguration. Requests the main thread makes while it could not take the outputs back from
+   * the control thread are dropped.
+   *
+   * @param output       output mode about to be sent
+   * @param setpoint     setpoint about to be sent
+   * @param velocity     velocity about to be sent
+   * @param acceleration acceleration about to be sent
+   * @param feedForward  feedforward about to be sent
+   * @return True if the output is held and the request must not be sent
+   */
+  private boolean isControlOutputHeld(
+      int output, double setpoint, double velocity, double acceleration, double feedForward
+  ) {
+    if (_controlOwner.get() != CONTROL_OWNER_MAIN && !ControlThread.isCurrentThread()) {
+      // The control thread's step outlasted takeFromControlThread, the next loop's request is sent
+      return true;
+    }
+    if (!_isControlOutputHeld) {
+      return false;
+    }
+    _heldOutput = output;
+    _heldSetpoint = setpoint;
+    _heldVelocity = velocity;
+    _heldAcceleration = acceleration;
+    _heldFeedForward = feedForward;
+    return true;
+  }
+
+  /**
+   * Holds the motors neutral until releaseControlOutput, requests made meanwhile are kept instead
+   * of sent. Takes the profile back from the control thread so no step sends past the hold.
+   *
+   * @return False if a control thread step is still in progress, its request may be sent after the
+   *     hold so the caller must not reconfigure until a later call returns True
+   */
+  private boolean holdControlOutput() {
+    if (!_isControlOutputHeld) {
+      _heldOutput = OUTPUT_NONE;
+      _isControlOutputHeld = true;
+    }
+    if (!takeFromControlThread()) {
+      return false;
+    }
+    invalidateControlOutput();
+    _motorBackend.setDutyCycle(0.0);
+    return true;
+  }
+
+  /**
+   * Releases the held output and sends the latest request held, the configuration it was made for
+   * is back on the devices
+   */
+  private void releaseControlOutput() {
+    // The control thread may have made the latest request, released by a later call otherwise
+    if (!takeFromControlThread()) {
+      return;
+    }
+    _isControlOutputHeld = false;
+    invalidateControlOutput();
+    switch (_heldOutput) {
+      case OUTPUT_POSITION:
+        setPositionOutput(_heldSetpoint, _heldVelocity, _heldFeedForward);
+        break;
+      case OUTPUT_VELOCITY:
+        setVelocityOutput(_heldSetpoint, _heldFeedForward);
+        break;
+      case OUTPUT_TORQUE_CURRENT:
+        setTorqueCurrentOutput(_heldSetpoint);
+        break;
+      case OUTPUT_MOTION_MAGIC:
+        setMotionMagicOutput(_heldSetpoint, _heldFeedForward);
+        break;
+      case OUTPUT_DYNAMIC_MOTION_MAGIC:
+        setDynamicMotionMagicOutput(
+            _heldSetpoint, _heldVelocity, _heldAcceleration, _heldFeedForward
+        );
+        break;
+      case OUTPUT_VOLTAGE:
+        setVoltageOutput(_heldSetpoint);
+        break;
+      case OUTPUT_POSITION_TORQUE_CURRENT:
+        setPositionTorqueCurrentOutput(_heldSetpoint, _heldVelocity, _heldFeedForward);
+        break;
+      case OUTPUT_VELOCITY_TORQUE_CURRENT:
+        setVelocityTorqueCurrentOutput(_heldSetpoint, _heldFeedForward);
+        break;
+      case OUTPUT_DUTY_CYCLE:
+        _motorBackend.setDutyCycle(_heldSetpoint);
+        break;
+      default:
+        break;
+    }
+    _heldOutput = OUTPUT_NONE;
+  }
+
+  /**
+   * @param output      output mode about to be sent
+   * @param setpoint    setpoint about to be sent
+   * @param feedForward feedforward about to be sent
+   * @return True if the request matches the last request sent within the deduplication epsilon
+   */
+  private boolean isControlOutputUnchanged(int output, double setpoint, double feedForward) {
+    return _conf.controlDeduplication && _lastControlOutput == output
+        && Math.abs(setpoint - _lastControlSetpoint) <= _conf.controlDeduplicationEpsilon
+        && Math.abs(feedForward - _lastControlFeedForward) <= _conf.controlDeduplicationEpsilon;
+  }
+
+  /**
+   * Records the request sent, failed requests are forgotten so they are retried next loop
+   *
+   * @param success     True if the request was sent successfully
+   * @param output      output mode sent
+   * @param setpoint    setpoint sent
+   * @param feedForward feedforward sent
+   */
+  private void recordControlOutput(
+      boolean success, int output, double setpoint, double feedForward
+  ) {
+    _lastControlOutput = success ? output : OUTPUT_NONE;
+    _lastControlSetpoint = setpoint;
+    _lastControlFeedForward = feedForward;
+  }
+
+  /**
+   * exits method if micro system is disabled, if enabled sets primary motor to
+   * specified value
+   *
+   * @param power desired power
+   */
+  public void setPrimaryPower(double power) {
+    if (_isMicrosystemDisabled) {
+      return;
+    }
+    if (!takeFromControlThread() || isControlOutputHeld(OUTPUT_DUTY_CYCLE, power, 0.0, 0.0, 0.0)) {
+      return;
+    }
+    invalidateControlOutput();
+    _motorBackend.setDutyCycle(power);
+  }
+
+  /**
+   * @return double(0.0 if micro system is disabled or actual power of primary
+   *         motor)
+   */
+  public double getPrimaryMotorPower() {
+    return _motorBackend.getDutyCycle();
+  }
+
+  /**
+   * configures the tuning states of the micro system based on whether it is
+   * selected for tuning,
+   * and whether it is in PID or feedforward tuning mode
+   */
+  public void configTuningModes() {
+    if (_isMicrosystemDisabled) {
+      return;
+    }
+    _isPIDTuningMicro = TagalongConfiguration.pidTuningMicrosystems.contains(_conf.name);
+    _isFFTuningMicro = TagalongConfiguration.ffTuningMicrosystems.contains(_conf.name);
+    _isShuffleboardMicro = _isFFTuningMicro || _isPIDTuningMicro
+        || TagalongConfiguration.shuffleboardMicrosystems.contains(_conf.name);
+  }
+
+  /**
+   * Registers the primary motor with the high frequency acquisition thread if the microsystem is in
+   * TagalongConfiguration.highFrequencyMicrosystems
+   */
+  public void configHighFrequencySampling() {
+    if (_isMicrosystemDisabled || _isHighFrequencyMicro) {
+      return;
+    }
+    _isHighFrequencyMicro = TagalongConfiguration.highFrequencyMicrosystems.contains(_conf.name);
+    if (!_isHighFrequencyMicro) {
+      return;
+    }
+
+    int capacity = TagalongConfiguration.HIGH_FREQUENCY_BUFFER_SIZE;
+    _highFrequencyBuffer = new SignalSampleBuffer(capacity);
+    _highFrequencyTimestamps = new double[capacity];
+    _highFrequencyPositions = new double[capacity];
+    _highFrequencyVelocities = new double[capacity];
+    _highFrequencyCurrents = new double[capacity];
+
+    boolean supported =
+        _motorBackend.registerHighFrequencySampling(_conf.motorCanBus[0], _highFrequencyBuffer);
+    if (!supported) {
+      _isHighFrequencyMicro = false;
+      _highFrequencyBuffer = null;
+    }
+  }
+
+  /**
+   * Registers the microsystem with the ControlThread if it is in
+   * TagalongConfiguration.controlThreadMicrosystems. On device profiles have nothing to stream and
+   * state space control runs on the main loop's measurements, both stay on the main loop.
+   */
+  public void configControlThread() {
+    if (_isMicrosystemDisabled || _isControlThreadMicro
+        || !TagalongConfiguration.controlThreadMicrosystems.contains(_conf.name)) {
+      return;
+    }
+    if (_isOnDeviceProfile || _conf.stateSpaceControl) {
+      System.out.println(
+          _conf.name + " follows its profiles on the main loop, on device and state space control"
+          + " are not run on the control thread"
+      );
+      return;
+    }
+    _isControlThreadMicro = true;
+    _profilePeriodS = 1.0 / TagalongConfiguration.CONTROL_THREAD_HZ;
+    ControlThread.register(this);
+  }
+
+  /**
+   * Hands the profile to the control thread when called from the main thread, which then must not
+   * touch the profile or outputs until takeFromControlThread. Keeps the control thread following
+   * for another CONTROL_THREAD_TIMEOUT_S, starting a deferred profile start first.
+   *
+   * @return True if the control thread follows the profile and the caller should not step it
+   */
+  protected boolean handToControlThread() {
+    if (!_isControlThreadMicro || ControlThread.isCurrentThread()) {
+      return false;
+    }
+    if (_deferredProfileStart != null && !takeProfile()) {
+      // The control thread is still stepping the previous profile
+      return true;
+    }
+    _controlThreadDeadlineS =
+        Timer.getFPGATimestamp() + TagalongConfiguration.CONTROL_THREAD_TIMEOUT_S;
+    // Publishes the main thread's writes to the profile states to the control thread
+    _controlOwner.compareAndSet(CONTROL_OWNER_MAIN, CONTROL_OWNER_THREAD);
+    return true;
+  }
+
+  /**
+   * Takes the profile and outputs back from the control thread, waiting out a step in progress.
+   * Steps take microseconds and the control thread never waits on the main thread. A step in
+   * progress is never interrupted, if it is descheduled for longer than
+   * CONTROL_THREAD_TAKE_TIMEOUT_NS the control thread is stopped after it and the caller must
+   * leave the profile and outputs alone until a later call returns True.
+   *
+   * @return True if the main thread owns the profile and outputs
+   */
+  protected boolean takeFromControlThread() {
+    if (!_isControlThreadMicro || ControlThread.isCurrentThread()) {
+      return true;
+    }
+    long deadlineNs = 0;
+    for (int spins = 0;; spins++) {
+      int owner = _controlOwner.get();
+      if (owner == CONTROL_OWNER_MAIN
+          || (owner == CONTROL_OWNER_THREAD
+              && _controlOwner.compareAndSet(CONTROL_OWNER_THREAD, CONTROL_OWNER_MAIN))) {
+        return true;
+      }
+      if (spins < CONTROL_THREAD_TAKE_SPINS) {
+        Thread.onSpinWait();
+        continue;
+      }
+      if (deadlineNs == 0) {
+        deadlineNs = System.nanoTime() + CONTROL_THREAD_TAKE_TIMEOUT_NS;
+      } else if (System.nanoTime() >= deadlineNs) {
+        // No further steps, the next call takes the profile once the step in progress has ended
+        _controlThreadDeadlineS = 0.0;
+        return false;
+      }
+      LockSupport.parkNanos(CONTROL_THREAD_TAKE_PARK_NS);
+    }
+  }
+
+  /**
+   * Takes the profile back from the control thread before a profile start, then starts the
+   * profile deferred by a start that could not take it
+   *
+   * @return True if the main thread owns the profile and may start a profile
+   */
+  protected boolean takeProfile() {
+    if (!takeFromControlThread()) {
+      return false;
+    }
+    if (_deferredProfileStart != null) {
+      Runnable start = _deferredProfileStart;
+      _deferredProfileStart = null;
+      start.run();
+    }
+    return true;
+  }
+
+  /**
+   * Retries a profile start that could not take the profile from the control thread at the next
+   * followLastProfile, replacing any start deferred before it. Only called when takeProfile fails.
+   *
+   * @param start profile start to retry
+   */
+  protected void deferProfileStart(Runnable start) {
+    _deferredProfileStart = start;
+  }
+
+  /**
+   * Steps the profile on the control thread if the main thread has handed it over, then publishes
+   * the setpoint for the main thread
+   *
+   * @param nowS current time in seconds
+   */
+  void stepControlThread(double nowS) {
+    if (nowS > _controlThreadDeadlineS
+        || !_controlOwner.compareAndSet(CONTROL_OWNER_THREAD, CONTROL_OWNER_STEPPING)) {
+      return;
+    }
+    try {
+      followLastProfile();
+      _controlThreadElapsedS += _profilePeriodS;
+      // Each step plans from the state before it, so the profile has finished once a step reaches
+      // the end of its plan
+      _controlThreadSnapshot.publish(
+          _curState.position,
+          _curState.velocity,
+          _controlThreadElapsedS,
+          _profile.isFinished(_profilePeriodS)
+      );
+    } finally {
+      _controlOwner.set(CONTROL_OWNER_THREAD);
+    }
+  }
+
+  /**
+   * Gets the profile's current setpoint, safe to call while the control thread follows the profile
+   *
+   * @param result state to store the setpoint position and velocity in, in profile units
+   */
+  public void getProfileSetpoint(TrapezoidProfile.State result) {
+    if (_controlOwner.get() == CONTROL_OWNER_MAIN) {
+      result.position = _curState.position;
+      result.velocity = _curState.velocity;
+    } else {
+      _controlThreadSnapshot.read(result);
+    }
+  }
+
+  /**
+   * @return number of high frequency samples drained during this loop
+   */
+  public int getHighFrequencySampleCount() {
+    return _highFrequencySampleCount;
+  }
+
+  /**
+   * @param index sample index, 0 is the oldest sample drained this loop
+   * @return sample timestamp in seconds
+   */
+  public double getHighFrequencyTimestamp(int index) {
+    return _highFrequencyTimestamps[index];
+  }
+
+  /**
+   * @param index sample index, 0 is the oldest sample drained this loop
+   * @return primary motor position in rotations
+   */
+  public double getHighFrequencyPosition(int index) {
+    return _highFrequencyPositions[index];
+  }
+
+  /**
+   * @param index sample index, 0 is the oldest sample drained this loop
+   * @return primary motor velocity in rotations per second
+   */
+  public double getHighFrequencyVelocity(int index) {
+    return _highFrequencyVelocities[index];
+  }
+
+  /**
+   * @param index sample index, 0 is the oldest sample drained this loop
+   * @return primary motor stator current in amps
+   */
+  public double getHighFrequencyCurrent(int index) {
+    return _highFrequencyCurrents[index];
+  }
+
+  /**
+   * Configures a user interface on the Shuffleboard for the specified micro
+   * system
+   */
+  public void configShuffleboard() {
+    if (_isMicrosystemDisabled) {
+      return;
     }
     String name = _conf.name;
     ShuffleboardTab tuningTab = Shuffleboard.getTab("Tuning tab");
@@ -463,9 +2019,24 @@ public class Microsystem {
   public void setFollowProfile(boolean followProfile) {
     if (!(_isMicrosystemDisabled)) {
       _followProfile = followProfile;
+      if (followProfile) {
+        handToControlThread();
+      } else {
+        takeFromControlThread();
+      }
     }
   }
 
+  /**
+   * Steps the current state along the profile by one profile period and records the step's
+   * acceleration for the acceleration feedforward
+   */
+  protected void stepProfile() {
+    double lastVelocity = _curState.velocity;
+    _profile.calculate(_profilePeriodS, _curState, _goalState, _curState);
+    _profileAcceleration = (_curState.velocity - lastVelocity) / _profilePeriodS;
+  }
+
   /**
    * alias for setFollowProfile
    *
@@ -476,21 +2047,250 @@ public class Microsystem {
   }
 
   /**
+   * Drains the health events posted by the DeviceHealthMonitor and, if any device has reset,
+   * queues its reconfiguration on the DeviceConfigExecutor. Never blocks the calling loop. The
+   * motors are held neutral until every reconfiguration has completed, then the latest request
+   * made meanwhile is sent.
    *
-   * @return boolean (micro system is enabled and the primary motor has been reset
-   *         and if
-   *         successful, it reconfigures the devices and returns true)
+   * @return True if the microsystem is enabled and a device has reset since the last call
    */
   public boolean motorResetConfig() {
     if (_isMicrosystemDisabled) {
       return false;
     }
-    if (_primaryMotor.hasResetOccurred()) {
-      configAllDevices();
+    int resetDevices = drainHealthEvents() | _deferredResetDevices;
+    if (resetDevices == 0) {
+      if (_isControlOutputHeld && _pendingReconfigurations == 0) {
+        releaseControlOutput();
+      }
+      return false;
+    }
+    // A reset device has lost its configuration and control request
+    if (!holdControlOutput()) {
+      _deferredResetDevices = resetDevices;
+      return true;
+    }
+    _deferredResetDevices = 0;
+    _pendingReconfigurations++;
+    TalonFXConfiguration[] configs = copyMotorConfigs();
+    CompletableFuture<Boolean> reconfigured = DeviceConfigExecutor.submit(() -> {
+      reconfigureDevices(resetDevices, configs);
       return true;
+    });
+    // Completion is handed back through the health events so the hold is released on this thread
+    reconfigured.whenComplete((applied, error) -> {
+      _healthEvents.add(new DeviceHealthEvent(
+          DeviceHealthEvent.Type.RECONFIGURED, resetDevices, _conf.name, 0, Timer.getFPGATimestamp()
+      ));
+    });
+    return true;
+  }
+
+  /**
+   * Drains the health event queue, recording and reporting sticky fault changes
+   *
+   * @return device bits of every device that reset since the last drain
+   */
+  protected int drainHealthEvents() {
+    int resetDevices = 0;
+    DeviceHealthEvent event;
+    while ((event = _healthEvents.poll()) != null) {
+      if (event.type == DeviceHealthEvent.Type.RESET) {
+        resetDevices |= event.device;
+        System.out.println(event.deviceName + " reset, reconfiguring");
+      } else if (event.type == DeviceHealthEvent.Type.RECONFIGURED) {
+        _pendingReconfigurations--;
+        onDevicesReconfigured(event.device);
+      } else if (event.stickyFaults != 0) {
+        _stickyFaultDevices |= event.device;
+        System.out.println(
+            event.deviceName + " sticky faults: 0x" + Integer.toHexString(event.stickyFaults)
+        );
+      } else {
+        _stickyFaultDevices &= ~event.device;
+      }
+    }
+    return resetDevices;
+  }
+
+  /**
+   * Reapplies the configuration of the devices that reset, ran on the DeviceConfigExecutor. Must
+   * only touch the devices and the copied configurations, state owned by the main thread is
+   * updated by onDevicesReconfigured. Microsystems with additional devices must override and call
+   * super.
+   *
+   * @param resetDevices device bits of every device that reset
+   * @param configs      copy of every motor configuration, taken when the reset was drained
+   */
+  protected void reconfigureDevices(int resetDevices, TalonFXConfiguration[] configs) {
+    // Followers lose their follow request on reset, so any motor reset reconfigures every motor
+    if ((resetDevices & (DEVICE_PRIMARY_MOTOR | DEVICE_FOLLOWER_MOTORS)) != 0) {
+      applyMotorConfigs(configs);
     }
+  }
+
+  /**
+   * Updates the state depending on the configuration of reset devices once it is reapplied, ran on
+   * the main thread before the held output is released. Overrides must call super.
+   *
+   * @param reconfiguredDevices device bits of every device reconfigured
+   */
+  protected void onDevicesReconfigured(int reconfiguredDevices) {}
+
+  /**
+   * @return True if any device of the microsystem had latched sticky faults as of the last drain
+   */
+  public boolean hasStickyFaults() {
+    return _stickyFaultDevices != 0;
+  }
+
+  /**
+   * Starts the profile to the newly set _goalState from _curState using the trapezoid's current
+   * constraints. On device profiles are timed once here and sent by followOnDeviceProfile.
+   */
+  protected void startProfile() {
+    _profile = _modeProfile;
+    if (_sCurveProfile != null) {
+      // Only re-plans if the limits changed, an unchanged goal keeps following the current plan
+      _sCurveProfile.setConstraints(
+          _trapProfile.getMaxVelocity(), _trapProfile.getMaxAcceleration(), _conf.sCurveJerkLimit
+      );
+    }
+    if (_isOnDeviceProfile) {
+      // Motion Magic always ends at rest, the trapezoid is only calculated to time the profile
+      _goalState.velocity = 0.0;
+      _trapProfile.calculate(0.0, _curState, _goalState, _curState);
+      _onDeviceGoalRot = profileToMotorUnits(_goalState.position);
+      _onDeviceMaxVelocityRPS = profileToMotorUnits(_trapProfile.getMaxVelocity());
+      _onDeviceMaxAccelerationRPS2 = profileToMotorUnits(_trapProfile.getMaxAcceleration());
+      invalidateControlOutput();
+    }
+    timeStartedProfile();
+    _profileTimer.restart();
+    if (_isControlThreadMicro) {
+      // The previous profile's finished state must not be read before the thread's first step
+      _controlThreadElapsedS = 0.0;
+      _controlThreadSnapshot.publish(_curState.position, _curState.velocity, 0.0, false);
+    }
+  }
+
+  /**
+   * Starts the waypoint profile from _curState through the waypoints set on _waypointProfile using
+   * the trapezoid's current constraints, the last waypoint becomes _goalState. On device profiles
+   * go straight to the last waypoint.
+   */
+  protected void startWaypointProfile() {
+    _goalState.position = _waypointProfile.getGoalPosition();
+    _goalState.velocity = 0.0;
+    startProfile();
+    if (!_isOnDeviceProfile) {
+      _waypointProfile.setConstraints(
+          _trapProfile.getMaxVelocity(), _trapProfile.getMaxAcceleration()
+      );
+      _waypointProfile.plan(_curState);
+      _profile = _waypointProfile;
+      timeStartedProfile();
+    }
+  }
+
+  /**
+   * Records the duration of the profile just started from _curState, so it can be read later
+   * without calculating the followed profile again
+   */
+  private void timeStartedProfile() {
+    // Calculating no time ahead leaves the profile at its start
+    _profile.calculate(0.0, _curState, _goalState, _durationState);
+    _profileDurationS = _profile.totalTime();
+  }
+
+  /**
+   * Gets the time the profile started by the last set profile call takes from its start, used to
+   * find the slowest of several microsystems moving together
+   *
+   * @return duration of the started profile in seconds
+   */
+  public double getProfileDurationS() {
+    if (_isMicrosystemDisabled) {
+      return 0.0;
+    }
+    return _profileDurationS;
+  }
+
+  /**
+   * Calculates a hypothetical trapezoidal move to rest on the preview profile without touching the
+   * followed profile or the motors
+   *
+   * @param startPosition   start position in profile units
+   * @param startVelocity   start velocity in profile units per second
+   * @param goalPosition    goal position in profile units
+   * @param maxVelocity     maximum velocity in profile units per second
+   * @param maxAcceleration maximum acceleration in profile units per second squared
+   * @param tS              time into the move to sample, in seconds
+   * @param result          state to store the sampled state in
+   * @return duration of the move in seconds
+   */
+  protected double previewProfile(
+      double startPosition,
+      double startVelocity,
+      double goalPosition,
+      double maxVelocity,
+      double maxAcceleration,
+      double tS,
+      TrapezoidProfile.State result
+  ) {
+    _previewStart.position = startPosition;
+    _previewStart.velocity = startVelocity;
+    _previewGoal.position = goalPosition;
+    _previewGoal.velocity = 0.0;
+    _previewProfile.setConstraints(maxVelocity, maxAcceleration);
+    _previewProfile.calculate(tS, _previewStart, _previewGoal, result);
+    return _previewProfile.totalTime();
+  }
+
+  /**
+   * Restarts the profile started by the last set profile call with the trapezoid's constraints
+   * slowed so it takes the duration, letting several microsystems arrive together. Only
+   * TRAPEZOIDAL and DYNAMIC_MOTION_MAGIC profiles to a single goal run in the trapezoid's time and
+   * are stretched. Every other profile keeps its own timing: the exponential, S-curve and gravity
+   * aware profiles are not timed by the trapezoid, MOTION_MAGIC ignores per profile limits and
+   * waypoint profiles pass through their waypoints. Never speeds a profile up.
+   *
+   * @param durationS duration the profile should take, in seconds
+   */
+  public void synchronizeProfile(double durationS) {
+    if (_isMicrosystemDisabled) {
+      return;
+    }
+    if (!takeProfile()) {
+      // Synchronizes after the deferred start, if any, once the control thread's step has ended
+      Runnable start = _deferredProfileStart;
+      deferProfileStart(start == null ? () -> synchronizeProfile(durationS) : () -> {
+        start.run();
+        synchronizeProfile(durationS);
+      });
+      return;
+    }
+    if (_profile != _trapProfile || _conf.profileMode == ProfileMode.MOTION_MAGIC) {
+      return;
+    }
+    _trapProfile.scaleToDuration(_curState, _goalState, durationS);
+    startProfile();
+  }
 
-    return false;
+  /**
+   * Sends the on device profile's goal, only a single frame per goal unless the feedforward
+   * changes
+   *
+   * @param feedForward additional feedforward in volts for terms the device cannot compute
+   */
+  protected void followOnDeviceProfile(double feedForward) {
+    if (_conf.profileMode == ProfileMode.DYNAMIC_MOTION_MAGIC) {
+      setDynamicMotionMagicOutput(
+          _onDeviceGoalRot, _onDeviceMaxVelocityRPS, _onDeviceMaxAccelerationRPS2, feedForward
+      );
+    } else {
+      setMotionMagicOutput(_onDeviceGoalRot, feedForward);
+    }
   }
 
   /**
@@ -499,23 +2299,33 @@ public class Microsystem {
    * @return whether or not the profile has finished
    */
   public boolean isProfileFinished() {
-    return _isMicrosystemDisabled || _trapProfile.isFinished(_profileTimer.get());
+    if (_isMicrosystemDisabled) {
+      return true;
+    }
+    if (_deferredProfileStart != null) {
+      return false;
+    }
+    if (_controlOwner.get() == CONTROL_OWNER_MAIN) {
+      return _profile.isFinished(_profileTimer.get());
+    }
+    return _controlThreadSnapshot.isFinished();
   }
 
   /**
    * Sets microsystem disablement
    *
-   * @param disable whether or not the microsystem should be disabled
+   * @param disable whether or not the microsystem should be disabled, ignored for microsystems
+   *                configured disabled or whose bring up was abandoned
    */
   public void disableMicrosystem(boolean disable) {
-    _isMicrosystemDisabled = _configuredMicrosystemDisable || disable;
+    _isMicrosystemDisabled = _configuredMicrosystemDisable || _bringUpAbandoned || disable;
   }
 
   /**
    * Sets the power of the primary motor to zero
    */
   public void holdCurrentPosition() {
-    _primaryMotor.set(0.0);
+    setPrimaryPower(0.0);
   }
 
   /* -------- IO and config functions -------- */
@@ -536,6 +2346,7 @@ public class Microsystem {
     if (_isMicrosystemDisabled) {
       return;
     }
+    updateSignalSnapshot();
     updateShuffleboard();
   }
 
@@ -5,18 +5,25 @@
  */
 package tagalong.subsystems.micro;
 
+import com.ctre.phoenix6.configs.Slot0Configs;
+import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.hardware.TalonFX;
-import com.ctre.phoenix6.sim.CANcoderSimState;
+import com.ctre.phoenix6.signals.GravityTypeValue;
 import edu.wpi.first.math.controller.ArmFeedforward;
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.math.util.Units;
-import edu.wpi.first.wpilibj.IterativeRobotBase;
 import edu.wpi.first.wpilibj.simulation.SingleJointedArmSim;
 import edu.wpi.first.wpilibj.smartdashboard.Mechanism2d;
 import edu.wpi.first.wpilibj.smartdashboard.MechanismLigament2d;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj.util.Color8Bit;
 import tagalong.TagalongConfiguration;
+import tagalong.controls.GravityAwarePivotProfile;
+import tagalong.controls.PivotStateEstimator;
+import tagalong.controls.TagalongTrapezoidProfile;
+import tagalong.devices.DeviceHealthMonitor;
+import tagalong.devices.EncoderBackend;
+import tagalong.devices.NoOpEncoderBackend;
 import tagalong.math.AlgebraicUtils;
 import tagalong.measurements.Angle;
 import tagalong.subsystems.micro.confs.PivotConf;
@@ -30,6 +37,12 @@ public class Pivot extends Microsystem {
    */
   public final PivotConf _pivotConf;
 
+  /* -------- Hardware: sensors -------- */
+  /**
+   * Hardware layer under the external pivot encoder, no-op for pivots without one
+   */
+  protected EncoderBackend _encoderBackend = NoOpEncoderBackend.INSTANCE;
+
   /* -------- Control: states and constants -------- */
   /**
    * Gear ratio from the motor to encoder (conversion g.t. 1 represents a reduction)
@@ -47,12 +60,12 @@ public class Pivot extends Microsystem {
   /**
    * Absolute range of pivot movement in rotations
    */
-  public final double _absoluteRangeRot;
+  public double _absoluteRangeRot;
   /**
    * Minimum position of the pivot in rotations,
    * Maximum position of the pivot in rotations
    */
-  public final double _minPositionRot, _maxPositionRot;
+  public double _minPositionRot, _maxPositionRot;
   /**
    * Maximum velocity of the pivot in rotations per second,
    * Maximum acceleration of the pivot in rotations per second squared
@@ -68,6 +81,24 @@ public class Pivot extends Microsystem {
    * Feedforward model for the pivot
    */
   protected ArmFeedforward _pivotFF;
+  /**
+   * Gravity aware profile, only used with ProfileMode.GRAVITY_AWARE
+   */
+  protected GravityAwarePivotProfile _gravityAwareProfile;
+  /**
+   * Fused position and velocity estimate, null unless enabled in the conf
+   */
+  protected PivotStateEstimator _stateEstimator;
+  /**
+   * True if the estimator resets to the next measurements instead of updating, set when the rotor
+   * is re-zeroed
+   */
+  private boolean _resetStateEstimator = false;
+  /**
+   * Feedforward angle of the last signal snapshot in radians, published by the main thread for the
+   * control thread. Volatile so the control thread reads it whole and fresh.
+   */
+  private volatile double _snapshotFFPositionRad = 0.0;
   /**
    * Offset value for the target position
    */
@@ -86,10 +117,6 @@ public class Pivot extends Microsystem {
    * Single jointed arm simulation for the pivot
    */
   protected SingleJointedArmSim _pivotSim;
-  /**
-   * CANcoder simulation
-   */
-  protected CANcoderSimState _pivotCancoderSim;
   /**
    * Position of the simulated pivot in rotations
    */
@@ -133,6 +160,31 @@ public class Pivot extends Microsystem {
     _pivotFF = _pivotConf.feedForward;
     _defaultPivotLowerToleranceRot = _pivotConf.defaultLowerTolerance;
     _defaultPivotUpperToleranceRot = _pivotConf.defaultUpperTolerance;
+    _minPositionRot = _pivotConf.rotationalMin;
+    _maxPositionRot = _pivotConf.rotationalMax;
+    _absoluteRangeRot = _maxPositionRot - _minPositionRot;
+    _maxVelocityRPS = _pivotConf.trapezoidalLimitsVelocity;
+    _maxAccelerationRPS2 = _pivotConf.trapezoidalLimitsAcceleration;
+    _profileTargetOffset = _pivotConf.profileOffsetValue;
+    _ffCenterOfMassOffsetRad = _pivotConf.ffOffsetValue;
+
+    _trapProfile = new TagalongTrapezoidProfile(_pivotConf.trapezoidalLimits);
+
+    _motorToEncoderRatio = _pivotConf.motorToEncoderRatio;
+    _encoderToPivotRatio = _pivotConf.encoderToPivotRatio;
+    if (_pivotConf.stateEstimator) {
+      configStateEstimator();
+    }
+    selectProfile();
+  }
+
+  /**
+   * Scopes the rotational limits around the configured pivot position, which is only valid once
+   * the devices have been configured
+   */
+  @Override
+  protected void onDevicesBroughtUp() {
+    super.onDevicesBroughtUp();
     // NOTE: This (temporarily) resolves an issue with an absolute encoder that boots out of range
     // TODO: generalize this logic to better handle the CTRE encoder boot location and how it tends
     // to play jump rope with 0 and is seemingly unpredictable
@@ -141,6 +193,7 @@ public class Pivot extends Microsystem {
     double min = _pivotConf.rotationalMin;
     double max = _pivotConf.rotationalMax;
 
+    _scopeOffset = 0.0;
     while (min + _scopeOffset >= getPivotPosition()) {
       _scopeOffset -= 1.0;
     }
@@ -149,19 +202,10 @@ public class Pivot extends Microsystem {
     }
     _minPositionRot = min + _scopeOffset;
     _maxPositionRot = max + _scopeOffset;
-
     _absoluteRangeRot = _maxPositionRot - _minPositionRot;
-    _maxVelocityRPS = _pivotConf.trapezoidalLimitsVelocity;
-    _maxAccelerationRPS2 = _pivotConf.trapezoidalLimitsAcceleration;
-    _profileTargetOffset = _pivotConf.profileOffsetValue;
-    _ffCenterOfMassOffsetRad = _pivotConf.ffOffsetValue;
 
-    _trapProfile = new TrapezoidProfile(_pivotConf.trapezoidalLimits);
     _curState.position = getPivotPosition();
 
-    _motorToEncoderRatio = _pivotConf.motorToEncoderRatio;
-    _encoderToPivotRatio = _pivotConf.encoderToPivotRatio;
-
     double minAbs = AlgebraicUtils.cppMod(_minPositionRot, 1.0);
     double maxAbs = AlgebraicUtils.cppMod(_maxPositionRot, 1.0);
     double halfUnusedRange = (1.0 - _absoluteRangeRot) / 2.0;
@@ -177,15 +221,26 @@ public class Pivot extends Microsystem {
       _values = new double[] {maxAbs, midUnused, minAbs, 1.0};
       _ids = new int[] {1, 2, 0, 1};
     }
-    if (IterativeRobotBase.isReal()) {
-      int count = 0;
-      // while (!_primaryMotor.isAlive() && count <= 1000) {
-      // System.out.println(_pivotConf.name + " not alive " + (count++));
-      // }
-      if (count >= 1000) {
-        System.out.println(_pivotConf.name + " failed to initialize!");
-      }
+  }
+
+  /**
+   * Also hands the external encoder's reset and sticky fault checks to the DeviceHealthMonitor
+   */
+  @Override
+  protected void watchDeviceHealth() {
+    super.watchDeviceHealth();
+    if (_isMicrosystemDisabled || TagalongConfiguration.isReplayMode
+        || _encoderBackend == NoOpEncoderBackend.INSTANCE) {
+      return;
     }
+    EncoderBackend encoder = _encoderBackend;
+    DeviceHealthMonitor.watch(
+        DEVICE_ENCODER,
+        _conf.name + " encoder",
+        encoder::hasResetOccurred,
+        encoder::getStickyFaults,
+        _healthEvents
+    );
   }
 
   // Override to ensure the position config happens after the devices are configured
@@ -195,7 +250,74 @@ public class Pivot extends Microsystem {
 
     // FUTURE DEV: Look into if all motors or just the leader need their positions set?
     // for (var motor : _allMotors) motor.setPosition(0.0);
-    _primaryMotor.setPosition(0.0);
+    setPrimaryMotorPosition(0.0);
+  }
+
+  /**
+   * Also re-zeroes the primary motor like configAllDevices, then reapplies the motor configurations
+   * as configDevices does once the position is set
+   */
+  @Override
+  protected void reconfigureDevices(int resetDevices, TalonFXConfiguration[] configs) {
+    super.reconfigureDevices(resetDevices, configs);
+    if ((resetDevices & (DEVICE_PRIMARY_MOTOR | DEVICE_FOLLOWER_MOTORS)) != 0) {
+      _motorBackend.setPosition(0.0);
+      for (int i = 0; i < _conf.numMotors; i++) {
+        _allMotors[i].getConfigurator().apply(configs[i]);
+      }
+    }
+  }
+
+  /**
+   * Moves the position snapshot and state estimator to the re-zeroed primary motor
+   */
+  @Override
+  protected void onDevicesReconfigured(int reconfiguredDevices) {
+    super.onDevicesReconfigured(reconfiguredDevices);
+    if ((reconfiguredDevices & (DEVICE_PRIMARY_MOTOR | DEVICE_FOLLOWER_MOTORS)) != 0) {
+      _primaryMotorPositionRot = 0.0;
+      _compensatedPositionRot = 0.0;
+      _resetStateEstimator = true;
+    }
+  }
+
+  /**
+   * Also re-zeroes the state estimator, the rotor frame it estimates in has moved
+   */
+  @Override
+  protected void setPrimaryMotorPosition(double rotations) {
+    super.setPrimaryMotorPosition(rotations);
+    _resetStateEstimator = true;
+  }
+
+  /**
+   * Updates the state estimator with the fresh measurements and the voltage applied since the last
+   * snapshot, then publishes the feedforward angle for the control thread
+   */
+  @Override
+  protected void readSignalSnapshot() {
+    super.readSignalSnapshot();
+    if (_stateEstimator != null) {
+      if (_resetStateEstimator) {
+        _stateEstimator.reset(getPivotPosition(), getPivotVelocity(), getEncoderPivotPosition());
+        _resetStateEstimator = false;
+      } else {
+        _stateEstimator.update(
+            getPivotPosition(), getPivotVelocity(), getEncoderPivotPosition(), _primaryMotorVoltage
+        );
+      }
+    }
+    _snapshotFFPositionRad = getFFPositionRad();
+  }
+
+  /**
+   * Gets the feedforward angle for an output request. The control thread must not read the
+   * snapshot fields the main thread writes, so it uses the angle published with the last snapshot.
+   *
+   * @return feedforward angle in radians
+   */
+  protected double getOutputFFPositionRad() {
+    return ControlThread.isCurrentThread() ? _snapshotFFPositionRad : getFFPositionRad();
   }
 
   /**
@@ -204,13 +326,17 @@ public class Pivot extends Microsystem {
   public void periodic() {
     if (_isMicrosystemDisabled) {
       return;
-    } else if (motorResetConfig()) {
+    }
+    updateSignalSnapshot();
+
+    if (motorResetConfig()) {
       setPivotProfile(getPivotPosition(), 0.0);
-      _primaryMotor.set(0.0);
-    } else if (_isFFTuningMicro && _trapProfile.isFinished(_profileTimer.get())) {
-      _primaryMotor.setControl(_requestedPositionVoltage.withFeedForward(
+      setPrimaryPower(0.0);
+    } else if (_isFFTuningMicro && _profile.isFinished(_profileTimer.get())) {
+      setPositionOutput(
+          _lastPositionSetpointRot,
           _pivotFF.getKs() + _pivotFF.getKg() * Math.cos(getFFPositionRad())
-      ));
+      );
     }
 
     if (_followProfile) {
@@ -244,9 +370,10 @@ public class Pivot extends Microsystem {
           _KVEntry.getDouble(_pivotFF.getKv()),
           _KAEntry.getDouble(_pivotFF.getKa())
       );
-      _primaryMotor.setControl(_requestedPositionVoltage.withFeedForward(
+      setPositionOutput(
+          _lastPositionSetpointRot,
           _pivotFF.getKs() + _pivotFF.getKg() * Math.cos(getFFPositionRad())
-      ));
+      );
     }
   }
 
@@ -301,6 +428,229 @@ public class Pivot extends Microsystem {
     return pivotRot * (_encoderToPivotRatio * _motorToEncoderRatio);
   }
 
+  @Override
+  protected double profileToMotorUnits(double value) {
+    return pivotRotToMotor(value);
+  }
+
+  /**
+   * Writes kS, kV and kA into the slot, and kG as an arm cosine when the device computes gravity.
+   * Otherwise gravity depends on the feedforward angle and is sent with each request instead.
+   */
+  @Override
+  protected void configDeviceFeedforward(Slot0Configs slot) {
+    // ArmFeedforward gains are per radian
+    double motorUnitsPerRad = profileToMotorUnits(1.0) / (2.0 * Math.PI);
+    slot.kS = _pivotFF.getKs();
+    slot.kV = _pivotFF.getKv() / motorUnitsPerRad;
+    slot.kA = _pivotFF.getKa() / motorUnitsPerRad;
+    if (isDeviceGravity()) {
+      slot.GravityType = GravityTypeValue.Arm_Cosine;
+      slot.kG = _pivotFF.getKg();
+    }
+  }
+
+  /**
+   * Gets whether the motor's position matches the feedforward angle, so the device can compute
+   * gravity as an arm cosine. Needs a motor position in pivot rotations with 0 at horizontal, only
+   * fused pivots can provide it.
+   *
+   * @return True if gravity is computed on the device
+   */
+  protected boolean isDeviceGravity() {
+    return false;
+  }
+
+  /**
+   * Gets the feedforward sent with each request when the slot holds the rest of the feedforward
+   *
+   * @return gravity feedforward of the current angle in volts, 0.0 if computed on the device
+   */
+  protected double getRequestFeedforward() {
+    return isDeviceGravity() ? 0.0 : _pivotFF.getKg() * Math.cos(getOutputFFPositionRad());
+  }
+
+  /**
+   * Builds the state estimator in pivot rotations from the feedforward, falling back to the motor
+   * model, gear ratio and moment of inertia for velocity and acceleration gains that are not
+   * configured
+   */
+  protected void configStateEstimator() {
+    double motorRadPerRot = 2.0 * Math.PI * pivotRotToMotor(1.0);
+    // ArmFeedforward gains are per radian
+    double kV = _pivotFF.getKv() > 0.0 ? _pivotFF.getKv() * 2.0 * Math.PI
+                                       : modelVelocityGain(motorRadPerRot);
+    double kA = _pivotFF.getKa() > 0.0
+        ? _pivotFF.getKa() * 2.0 * Math.PI
+        : modelAccelerationGain(motorRadPerRot, 2.0 * Math.PI * _pivotConf.pivotMOI);
+
+    _stateEstimator = new PivotStateEstimator(
+        _pivotFF.getKs(),
+        _pivotFF.getKg(),
+        kV,
+        kA,
+        _ffCenterOfMassOffsetRad,
+        hasAbsoluteEncoder(),
+        _pivotConf.stateEstimatorModelStdDev,
+        _pivotConf.stateEstimatorOffsetStdDev,
+        _pivotConf.stateEstimatorRotorPositionStdDev,
+        _pivotConf.stateEstimatorRotorVelocityStdDev,
+        _pivotConf.stateEstimatorEncoderStdDev,
+        TagalongConfiguration.LOOP_PERIOD_S
+    );
+  }
+
+  /**
+   * Gets whether an absolute encoder measures the pivot separately from the rotor, fused with the
+   * rotor by the state estimator. Fused pivots already fuse it on the device.
+   *
+   * @return True if getEncoderPivotPosition is a separate measurement
+   */
+  protected boolean hasAbsoluteEncoder() {
+    return false;
+  }
+
+  /**
+   * Gets the snapshot of the absolute encoder's position
+   *
+   * @return encoder position in pivot rotations, the pivot position without an absolute encoder
+   */
+  protected double getEncoderPivotPosition() {
+    return getPivotPosition();
+  }
+
+  /**
+   * Builds the exponential profile in pivot rotations, reserving the worst case gravity load
+   */
+  @Override
+  protected void configExponentialProfile() {
+    // ArmFeedforward gains are per radian
+    setExponentialProfile(
+        _pivotFF.getKv() * 2.0 * Math.PI,
+        _pivotFF.getKa() * 2.0 * Math.PI,
+        _pivotFF.getKs() + _pivotFF.getKg(),
+        2.0 * Math.PI * pivotRotToMotor(1.0),
+        2.0 * Math.PI * _pivotConf.pivotMOI
+    );
+  }
+
+  /**
+   * Builds the gravity aware profile in pivot rotations from the feedforward, falling back to the
+   * motor model, gear ratio and moment of inertia for velocity and acceleration gains that are not
+   * configured
+   */
+  @Override
+  protected void configGravityAwareProfile() {
+    double motorRadPerRot = 2.0 * Math.PI * pivotRotToMotor(1.0);
+    // ArmFeedforward gains are per radian
+    double kV = _pivotFF.getKv() > 0.0 ? _pivotFF.getKv() * 2.0 * Math.PI
+                                       : modelVelocityGain(motorRadPerRot);
+    double kA = _pivotFF.getKa() > 0.0
+        ? _pivotFF.getKa() * 2.0 * Math.PI
+        : modelAccelerationGain(motorRadPerRot, 2.0 * Math.PI * _pivotConf.pivotMOI);
+
+    _gravityAwareProfile = new GravityAwarePivotProfile(
+        _pivotFF.getKs(),
+        _pivotFF.getKg(),
+        kV,
+        kA,
+        _ffCenterOfMassOffsetRad,
+        _conf.modelProfileMaxInputVolts,
+        modelMaxTorqueVolts()
+    );
+    _gravityAwareProfile.setLimits(_maxVelocityRPS, Double.POSITIVE_INFINITY);
+    _profile = _gravityAwareProfile;
+  }
+
+  /**
+   * Passes the profile's velocity limit to the gravity aware profile. Its acceleration comes from
+   * the model, only a per profile acceleration below the configured limit caps it.
+   */
+  @Override
+  protected void startProfile() {
+    if (_gravityAwareProfile != null) {
+      double maxAccelerationRPS2 = _trapProfile.getMaxAcceleration();
+      _gravityAwareProfile.setLimits(
+          _trapProfile.getMaxVelocity(),
+          maxAccelerationRPS2 < _maxAccelerationRPS2 ? maxAccelerationRPS2
+                                                     : Double.POSITIVE_INFINITY
+      );
+    }
+    super.startProfile();
+  }
+
+  /**
+   * Follows the on device profile with the gravity feedforward of the current angle
+   */
+  protected void followOnDevicePivotProfile() {
+    _curState.position = getPivotPosition();
+    _curState.velocity = getPivotVelocity();
+    followOnDeviceProfile(getRequestFeedforward());
+  }
+
+  /**
+   * Requests the pivot motor(s) to arrive at the profile's current state, with the feedforward
+   * computed on the roboRIO or from the slot gains
+   */
+  protected void setPivotProfileOutput() {
+    if (_isTorqueCurrentControl) {
+      setPositionTorqueCurrentOutput(
+          profileToMotorUnits(_curState.position),
+          profileToMotorUnits(_curState.velocity),
+          getTorqueFeedforwardAmps(_curState.velocity, _profileAcceleration)
+      );
+    } else if (_isDeviceFeedforward) {
+      setPositionOutput(
+          profileToMotorUnits(_curState.position),
+          profileToMotorUnits(_curState.velocity),
+          getRequestFeedforward()
+      );
+    } else {
+      setPositionOutput(
+          profileToMotorUnits(_curState.position),
+          _pivotFF.calculate(
+              getOutputFFPositionRad(), Units.rotationsToRadians(_curState.velocity)
+          )
+      );
+    }
+  }
+
+  /**
+   * Requests the pivot motor(s) to hold a velocity, with the feedforward in volts or in amps for
+   * torque current control
+   *
+   * @param rps    velocity in pivot rotations per second
+   * @param withFF with feedforward
+   */
+  protected void setPivotVelocityOutput(double rps, boolean withFF) {
+    if (_isTorqueCurrentControl) {
+      setVelocityTorqueCurrentOutput(
+          profileToMotorUnits(rps), withFF ? getTorqueFeedforwardAmps(rps, 0.0) : 0.0
+      );
+    } else {
+      setVelocityOutput(
+          profileToMotorUnits(rps),
+          withFF ? _pivotFF.calculate(getFFPositionRad(), Units.rotationsToRadians(rps)) : 0.0
+      );
+    }
+  }
+
+  /**
+   * Static friction, gravity and acceleration feedforward in amps, back EMF takes no current so kV
+   * is left out
+   *
+   * @param velocityRPS      velocity in pivot rotations per second
+   * @param accelerationRPS2 acceleration in pivot rotations per second squared
+   * @return feedforward in amps
+   */
+  protected double getTorqueFeedforwardAmps(double velocityRPS, double accelerationRPS2) {
+    return feedforwardVoltsToAmps(
+        _pivotFF.getKs() * Math.signum(velocityRPS)
+        + _pivotFF.getKg() * Math.cos(getOutputFFPositionRad())
+        + _pivotFF.getKa() * Units.rotationsToRadians(accelerationRPS2)
+    );
+  }
+
   /**
    * Configure shuffleboard for the pivot
    */
@@ -378,6 +728,52 @@ public class Pivot extends Microsystem {
     return 0.0;
   }
 
+  /**
+   * Gets the latency compensated position of the pivot in rotations, the same as getPivotPosition
+   * unless latency compensation is enabled in the conf
+   *
+   * @return latency compensated pivot position
+   */
+  public double getLatencyCompensatedPivotPosition() {
+    return 0.0;
+  }
+
+  /**
+   * Gets the latency compensated velocity of the pivot in rotations per second, the same as
+   * getPivotVelocity unless latency compensation is enabled in the conf
+   *
+   * @return latency compensated pivot velocity
+   */
+  public double getLatencyCompensatedPivotVelocity() {
+    return 0.0;
+  }
+
+  /**
+   * Gets the position profiles are planned from and tolerances are checked against, the state
+   * estimator's when enabled in the conf
+   *
+   * @return estimated pivot position in rotations, latency compensated without the estimator
+   */
+  public double getEstimatedPivotPosition() {
+    if (_stateEstimator != null) {
+      return _stateEstimator.getPosition();
+    }
+    return getLatencyCompensatedPivotPosition();
+  }
+
+  /**
+   * Gets the velocity profiles are planned from, the state estimator's when enabled in the conf
+   *
+   * @return estimated pivot velocity in rotations per second, latency compensated without the
+   *     estimator
+   */
+  public double getEstimatedPivotVelocity() {
+    if (_stateEstimator != null) {
+      return _stateEstimator.getVelocity();
+    }
+    return getLatencyCompensatedPivotVelocity();
+  }
+
   /**
    * Returns the new pivot angle in the closest scope of the reference pivot angle
    *
@@ -530,11 +926,17 @@ public class Pivot extends Microsystem {
     if (_isMicrosystemDisabled) {
       return;
     }
-    setFollowProfile(false);
+    _followProfile = false;
+    if (!takeProfile()) {
+      deferProfileStart(() -> setPivotProfile(
+          goalPositionRot, goalVelocityRPS, maxVelocityRPS, maxAccelerationRPS2, setCurrentState
+      ));
+      return;
+    }
 
     if (setCurrentState) {
-      _curState.position = getPivotPosition();
-      _curState.velocity = getPivotVelocity();
+      _curState.position = getEstimatedPivotPosition();
+      _curState.velocity = getEstimatedPivotVelocity();
     }
 
     _goalState.velocity = goalVelocityRPS;
@@ -546,13 +948,145 @@ public class Pivot extends Microsystem {
     //                                                _scopeOffset))
     //     + _profileTargetOffset;
 
-    _trapProfile = new TrapezoidProfile(
-        (maxVelocityRPS >= _maxVelocityRPS || maxAccelerationRPS2 >= _maxAccelerationRPS2)
-            ? _pivotConf.trapezoidalLimits
-            : new TrapezoidProfile.Constraints(maxVelocityRPS, maxAccelerationRPS2)
+    if (maxVelocityRPS >= _maxVelocityRPS || maxAccelerationRPS2 >= _maxAccelerationRPS2) {
+      _trapProfile.setConstraints(_pivotConf.trapezoidalLimits);
+    } else {
+      _trapProfile.setConstraints(maxVelocityRPS, maxAccelerationRPS2);
+    }
+
+    startProfile();
+  }
+
+  /**
+   * Creates a continuous profile through the waypoints for the pivot to follow, only stopping
+   * where the direction reverses, where a cap is zero and at the last waypoint
+   *
+   * @param waypointsRot    waypoint positions in rotations, at most
+   *     TagalongWaypointProfile.MAX_WAYPOINTS
+   * @param velocityCapsRPS largest speed through each waypoint in rotations per second, null for no
+   *     caps
+   * @param maxVelocityRPS  maximum velocity in rotations per second
+   */
+  public void setPivotWaypointProfile(
+      double[] waypointsRot, double[] velocityCapsRPS, double maxVelocityRPS
+  ) {
+    if (_isMicrosystemDisabled) {
+      return;
+    }
+    _followProfile = false;
+    if (!takeProfile()) {
+      // The caller may reuse the arrays before the start is retried
+      double[] waypoints = waypointsRot.clone();
+      double[] velocityCaps = velocityCapsRPS == null ? null : velocityCapsRPS.clone();
+      deferProfileStart(() -> setPivotWaypointProfile(waypoints, velocityCaps, maxVelocityRPS));
+      return;
+    }
+
+    _curState.position = getEstimatedPivotPosition();
+    _curState.velocity = getEstimatedPivotVelocity();
+
+    _waypointProfile.setNumWaypoints(waypointsRot.length);
+    for (int i = 0; i < waypointsRot.length; i++) {
+      _waypointProfile.setWaypoint(
+          i,
+          clampPivotPosition(waypointsRot[i]),
+          velocityCapsRPS == null ? Double.POSITIVE_INFINITY : velocityCapsRPS[i]
+      );
+    }
+
+    if (maxVelocityRPS >= _maxVelocityRPS) {
+      _trapProfile.setConstraints(_pivotConf.trapezoidalLimits);
+    } else {
+      _trapProfile.setConstraints(maxVelocityRPS, _maxAccelerationRPS2);
+    }
+
+    startWaypointProfile();
+  }
+
+  /**
+   * Estimates how long a move from the current position to the goal takes at the full limits,
+   * without starting a profile
+   *
+   * @param goalPositionRot goal position in rotations
+   * @return duration in seconds
+   */
+  public double getPivotProfileDurationS(double goalPositionRot) {
+    return getPivotProfileDurationS(
+        getEstimatedPivotPosition(),
+        getEstimatedPivotVelocity(),
+        goalPositionRot,
+        _maxVelocityRPS,
+        _maxAccelerationRPS2
+    );
+  }
+
+  /**
+   * Estimates how long a hypothetical move takes, without starting a profile
+   *
+   * @param startPositionRot    start position in rotations
+   * @param startVelocityRPS    start velocity in rotations per second
+   * @param goalPositionRot     goal position in rotations
+   * @param maxVelocityRPS      maximum velocity in rotations per second
+   * @param maxAccelerationRPS2 maximum acceleration in rotations per second squared
+   * @return duration in seconds
+   */
+  public double getPivotProfileDurationS(
+      double startPositionRot,
+      double startVelocityRPS,
+      double goalPositionRot,
+      double maxVelocityRPS,
+      double maxAccelerationRPS2
+  ) {
+    return previewPivotProfile(
+        startPositionRot,
+        startVelocityRPS,
+        goalPositionRot,
+        maxVelocityRPS,
+        maxAccelerationRPS2,
+        0.0,
+        _previewResult
     );
+  }
 
-    _profileTimer.restart();
+  /**
+   * Samples a hypothetical move the way setPivotProfile would plan it, without starting a
+   * profile. Timed with the trapezoid, exact for the trapezoidal and Motion Magic profile modes.
+   *
+   * @param startPositionRot    start position in rotations
+   * @param startVelocityRPS    start velocity in rotations per second
+   * @param goalPositionRot     goal position in rotations
+   * @param maxVelocityRPS      maximum velocity in rotations per second
+   * @param maxAccelerationRPS2 maximum acceleration in rotations per second squared
+   * @param tS                  time into the move to sample, in seconds
+   * @param result              state to store the position and velocity at the time in
+   * @return duration in seconds
+   */
+  public double previewPivotProfile(
+      double startPositionRot,
+      double startVelocityRPS,
+      double goalPositionRot,
+      double maxVelocityRPS,
+      double maxAccelerationRPS2,
+      double tS,
+      TrapezoidProfile.State result
+  ) {
+    double clampedGoalRot = clampPivotPosition(goalPositionRot);
+    if (_isMicrosystemDisabled) {
+      result.position = clampedGoalRot;
+      result.velocity = 0.0;
+      return 0.0;
+    }
+    boolean fullLimits =
+        maxVelocityRPS >= _maxVelocityRPS || maxAccelerationRPS2 >= _maxAccelerationRPS2;
+    return previewProfile(
+        startPositionRot,
+        startVelocityRPS,
+        clampedGoalRot,
+        fullLimits ? _maxVelocityRPS : maxVelocityRPS,
+        fullLimits ? _maxAccelerationRPS2 : maxAccelerationRPS2,
+        tS,
+        result
+    );
   }
 
   /**
@@ -574,14 +1108,6 @@ public class Pivot extends Microsystem {
     return AlgebraicUtils.clamp(target, _minPositionRot, _maxPositionRot);
   }
 
-  /**
-   * Resets devices if resets have occurred
-   */
-  @Override
-  public boolean motorResetConfig() {
-    return false;
-  }
-
   /**
    * Initializes the pivot simulation
    */
@@ -609,8 +1135,6 @@ public class Pivot extends Microsystem {
     _pivotLigament = new MechanismLigament2d(_pivotConf.name, _pivotConf.pivotLengthM, 0.0);
     _root.append(_pivotLigament);
     _pivotLigament.setColor(new Color8Bit(255, 255, 255));
-
-    _primaryMotorSim = _primaryMotor.getSimState();
   }
 
   /**
@@ -666,7 +1190,7 @@ public class Pivot extends Microsystem {
     if (_isMicrosystemDisabled) {
       return true;
     }
-    return AlgebraicUtils.inTolerance(getPivotPosition(), lowerBound, upperBound);
+    return AlgebraicUtils.inTolerance(getEstimatedPivotPosition(), lowerBound, upperBound);
   }
 
   /**
@@ -677,7 +1201,7 @@ public class Pivot extends Microsystem {
    * @return if the absolute current position is in absolute acceptable range
    */
   public boolean isPivotInAbsoluteTolerance(double lowerBound, double upperBound) {
-    double position = AlgebraicUtils.cppMod(getPivotPosition(), 1.0);
+    double position = AlgebraicUtils.cppMod(getEstimatedPivotPosition(), 1.0);
     lowerBound = AlgebraicUtils.cppMod(lowerBound, 1.0);
     upperBound = AlgebraicUtils.cppMod(upperBound, 1.0);
     return _isMicrosystemDisabled || position >= 0
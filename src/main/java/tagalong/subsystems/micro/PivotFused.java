@@ -5,17 +5,20 @@
  */
 package tagalong.subsystems.micro;
 
+import com.ctre.phoenix6.BaseStatusSignal;
 import com.ctre.phoenix6.configs.CANcoderConfiguration;
 import com.ctre.phoenix6.configs.FeedbackConfigs;
+import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.hardware.CANcoder;
 import com.ctre.phoenix6.signals.FeedbackSensorSourceValue;
 import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.simulation.BatterySim;
 import edu.wpi.first.wpilibj.simulation.RoboRioSim;
 import tagalong.TagalongConfiguration;
+import tagalong.devices.CANcoderEncoderBackend;
+import tagalong.devices.ReplayEncoderBackend;
 import tagalong.subsystems.micro.confs.PivotConf;
 
 /**
@@ -23,14 +26,17 @@ import tagalong.subsystems.micro.confs.PivotConf;
  */
 public class PivotFused extends Pivot {
   /**
-   * CANcoder device
+   * CANcoder device, null in replay mode
    */
   public CANcoder _pivotCancoder;
   /**
    * Configuration for the CANcoder
    */
   protected CANcoderConfiguration _pivotCancoderConfiguration;
-  protected boolean _fusedCancoderSetup = false;
+  /**
+   * Snapshot of the CANcoder position in rotations
+   */
+  protected double _pivotCancoderPositionRot;
   /**
    * Constructs a pivot microsystem with the below configurations
    *
@@ -41,41 +47,55 @@ public class PivotFused extends Pivot {
     if (_configuredMicrosystemDisable) {
       return;
     }
-    setupFusedCancoder();
+    _pivotCancoderConfiguration = _pivotConf.encoderConfig;
+    if (TagalongConfiguration.isReplayMode) {
+      _encoderBackend = new ReplayEncoderBackend();
+    } else {
+      _pivotCancoder = new CANcoder(_pivotConf.encoderDeviceID, _pivotConf.encoderCanBus);
+      _encoderBackend = new CANcoderEncoderBackend(_pivotCancoder);
+      addSnapshotSignals(_pivotConf.encoderCanBus, _encoderBackend.getStatusSignals());
+    }
+    bringUpOrDefer();
   }
 
-  private void setupFusedCancoder() {
-    if(!_fusedCancoderSetup) {
-      _pivotCancoder = new CANcoder(_pivotConf.encoderDeviceID, _pivotConf.encoderCanBus);
-      _pivotCancoderConfiguration = _pivotConf.encoderConfig;
-      configCancoder();
-      configAllDevices();
-      configMotor();
-      _fusedCancoderSetup = true;
+  @Override
+  protected void configDevices() {
+    configCancoder();
+    if (isBringUpCancelled()) {
+      return;
+    }
+    super.configDevices();
+    if (isBringUpCancelled()) {
+      return;
     }
+    // Fused position is only valid once the feedback configs are applied
+    configMotor();
   }
 
   @Override
   public void followLastProfile() {
-    if (_isMicrosystemDisabled) {
+    if (_isMicrosystemDisabled || handToControlThread()) {
+      return;
+    }
+    if (_isOnDeviceProfile) {
+      followOnDevicePivotProfile();
       return;
     }
 
-    TrapezoidProfile.State nextState =
-        _trapProfile.calculate(TagalongConfiguration.LOOP_PERIOD_S, _curState, _goalState);
-    _primaryMotor.setControl(
-        _requestedPositionVoltage.withPosition(nextState.position)
-            .withFeedForward(
-                _pivotFF.calculate(getFFPositionRad(), Units.rotationsToRadians(nextState.velocity))
-            )
-    );
+    stepProfile();
+    setPivotProfileOutput();
 
     if (_isShuffleboardMicro) {
-      _targetPositionEntry.setDouble(nextState.position);
-      _targetVelocityEntry.setDouble(nextState.velocity);
+      _targetPositionEntry.setDouble(_curState.position);
+      _targetVelocityEntry.setDouble(_curState.velocity);
     }
+  }
 
-    _curState = nextState;
+  @Override
+  protected void readSignalSnapshot() {
+    // Read first so the feedforward angle published by super uses this snapshot
+    _pivotCancoderPositionRot = _encoderBackend.getPositionRot();
+    super.readSignalSnapshot();
   }
 
   @Override
@@ -84,8 +104,24 @@ public class PivotFused extends Pivot {
       return 0.0;
     }
 
-    return Units.rotationsToRadians(_pivotCancoder.getPosition().getValueAsDouble())
-        + _ffCenterOfMassOffsetRad;
+    return Units.rotationsToRadians(_pivotCancoderPositionRot) + _ffCenterOfMassOffsetRad;
+  }
+
+  /**
+   * The fused position is the feedforward angle when the encoder turns with the pivot and the
+   * center of mass is not offset
+   */
+  @Override
+  protected boolean isDeviceGravity() {
+    return _pivotConf.encoderToPivotRatio == 1.0 && _ffCenterOfMassOffsetRad == 0.0;
+  }
+
+  /**
+   * Fused motor positions are already in pivot rotations
+   */
+  @Override
+  protected double profileToMotorUnits(double value) {
+    return value;
   }
 
   @Override
@@ -95,14 +131,11 @@ public class PivotFused extends Pivot {
     }
     setFollowProfile(false);
 
-    _primaryMotor.setControl(_requestedVelocityVoltage.withVelocity(rps).withFeedForward(
-        withFF ? _pivotFF.calculate(getFFPositionRad(), Units.rotationsToRadians(rps)) : 0.0
-    ));
+    setPivotVelocityOutput(rps, withFF);
   }
 
   @Override
   public double getPivotPosition() {
-    setupFusedCancoder();
     return getPrimaryMotorPosition();
   }
 
@@ -111,6 +144,16 @@ public class PivotFused extends Pivot {
     return getPrimaryMotorVelocity();
   }
 
+  @Override
+  public double getLatencyCompensatedPivotPosition() {
+    return getLatencyCompensatedPrimaryMotorPosition();
+  }
+
+  @Override
+  public double getLatencyCompensatedPivotVelocity() {
+    return getLatencyCompensatedPrimaryMotorVelocity();
+  }
+
   /**
    * Configures the CANcoder according to specified configuration
    */
@@ -120,6 +163,20 @@ public class PivotFused extends Pivot {
     }
 
     _pivotCancoder.getConfigurator().apply(_pivotCancoderConfiguration);
+    BaseStatusSignal.setUpdateFrequencyForAll(
+        _pivotConf.encoderPositionUpdateFrequencyHz, _pivotCancoder.getPosition()
+    );
+    BaseStatusSignal.setUpdateFrequencyForAll(
+        _pivotConf.encoderVelocityUpdateFrequencyHz, _pivotCancoder.getVelocity()
+    );
+    // Polled by the DeviceHealthMonitor, optimization would otherwise disable it
+    assert (_pivotConf.stickyFaultUpdateFrequencyHz > 0.0);
+    BaseStatusSignal.setUpdateFrequencyForAll(
+        _pivotConf.stickyFaultUpdateFrequencyHz, _pivotCancoder.getStickyFaultField()
+    );
+    if (_pivotConf.optimizeBusUtilization) {
+      _pivotCancoder.optimizeBusUtilization();
+    }
   }
 
   @Override
@@ -128,7 +185,7 @@ public class PivotFused extends Pivot {
       _conf.motorConfig[i].withFeedback(
           new FeedbackConfigs()
               .withFeedbackSensorSource(FeedbackSensorSourceValue.FusedCANcoder)
-              .withFeedbackRemoteSensorID(_pivotCancoder.getDeviceID())
+              .withFeedbackRemoteSensorID(_pivotConf.encoderDeviceID)
               .withRotorToSensorRatio(_pivotConf.motorToEncoderRatio)
               .withSensorToMechanismRatio(_pivotConf.encoderToPivotRatio)
       );
@@ -137,32 +194,11 @@ public class PivotFused extends Pivot {
   }
 
   @Override
-  public boolean motorResetConfig() {
-    if (_isMicrosystemDisabled) {
-      return false;
-    }
-    if (_primaryMotor.hasResetOccurred()) {
-      configAllDevices();
-      configMotor();
-      return true;
-    }
-    if (_pivotCancoder.hasResetOccurred()) {
+  protected void reconfigureDevices(int resetDevices, TalonFXConfiguration[] configs) {
+    if ((resetDevices & DEVICE_ENCODER) != 0) {
       configCancoder();
-      return true;
-    }
-    return false;
-  }
-
-  /**
-   * Initializes the pivot simulation
-   */
-  @Override
-  public void simulationInit() {
-    if (_isMicrosystemDisabled) {
-      return;
     }
-    super.simulationInit();
-    _pivotCancoderSim = _pivotCancoder.getSimState();
+    super.reconfigureDevices(resetDevices, configs);
   }
 
   @Override
@@ -170,7 +206,7 @@ public class PivotFused extends Pivot {
     if (_isMicrosystemDisabled) {
       return;
     }
-    _pivotSim.setInputVoltage(_primaryMotor.get() * RobotController.getBatteryVoltage());
+    _pivotSim.setInputVoltage(getPrimaryMotorPower() * RobotController.getBatteryVoltage());
     _pivotSim.update(TagalongConfiguration.LOOP_PERIOD_S);
 
     double prevSimVelo = _simVeloRPS;
@@ -180,14 +216,15 @@ public class PivotFused extends Pivot {
 
     _pivotLigament.setAngle(Rotation2d.fromRadians(_pivotSim.getAngleRads()));
 
-    _pivotCancoderSim.setRawPosition(Units.radiansToRotations(_pivotSim.getAngleRads()));
-    _pivotCancoderSim.setVelocity(_simVeloRPS);
-    _pivotCancoderSim.setSupplyVoltage(RobotController.getBatteryVoltage());
+    _encoderBackend.setSimulatedState(
+        Units.radiansToRotations(_pivotSim.getAngleRads()),
+        _simVeloRPS,
+        RobotController.getBatteryVoltage()
+    );
 
-    _primaryMotorSim.setRawRotorPosition(_simRotations);
-    _primaryMotorSim.setRotorVelocity(_simVeloRPS);
-    _primaryMotorSim.setRotorAcceleration(_simAccelRPS2);
-    _primaryMotorSim.setSupplyVoltage(RobotController.getBatteryVoltage());
+    _motorBackend.setSimulatedRotorState(
+        _simRotations, _simVeloRPS, _simAccelRPS2, RobotController.getBatteryVoltage()
+    );
 
     RoboRioSim.setVInVoltage(
         BatterySim.calculateDefaultBatteryLoadedVoltage(_pivotSim.getCurrentDrawAmps())
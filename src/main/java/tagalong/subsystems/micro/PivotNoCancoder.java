@@ -6,7 +6,6 @@
 package tagalong.subsystems.micro;
 
 import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.simulation.BatterySim;
@@ -28,31 +27,35 @@ public class PivotNoCancoder extends Pivot {
     if (_configuredMicrosystemDisable) {
       return;
     }
-    configAllDevices();
+    bringUpOrDefer();
+  }
+
+  @Override
+  protected void configDevices() {
+    super.configDevices();
+    if (isBringUpCancelled()) {
+      return;
+    }
     configMotor();
   }
 
   @Override
   public void followLastProfile() {
-    if (_isMicrosystemDisabled) {
+    if (_isMicrosystemDisabled || handToControlThread()) {
+      return;
+    }
+    if (_isOnDeviceProfile) {
+      followOnDevicePivotProfile();
       return;
     }
 
-    TrapezoidProfile.State nextState =
-        _trapProfile.calculate(TagalongConfiguration.LOOP_PERIOD_S, _curState, _goalState);
-    _primaryMotor.setControl(
-        _requestedPositionVoltage.withPosition(pivotRotToMotor(nextState.position))
-            .withFeedForward(
-                _pivotFF.calculate(getFFPositionRad(), Units.rotationsToRadians(nextState.velocity))
-            )
-    );
+    stepProfile();
+    setPivotProfileOutput();
 
     if (_isShuffleboardMicro) {
-      _targetPositionEntry.setDouble(nextState.position);
-      _targetVelocityEntry.setDouble(nextState.velocity);
+      _targetPositionEntry.setDouble(_curState.position);
+      _targetVelocityEntry.setDouble(_curState.velocity);
     }
-
-    _curState = nextState;
   }
 
   @Override
@@ -71,12 +74,7 @@ public class PivotNoCancoder extends Pivot {
     }
     setFollowProfile(false);
 
-    _primaryMotor.setControl(
-        _requestedVelocityVoltage.withVelocity(pivotRotToMotor(rps))
-            .withFeedForward(
-                withFF ? _pivotFF.calculate(getFFPositionRad(), Units.rotationsToRadians(rps)) : 0.0
-            )
-    );
+    setPivotVelocityOutput(rps, withFF);
   }
 
   @Override
@@ -90,16 +88,13 @@ public class PivotNoCancoder extends Pivot {
   }
 
   @Override
-  public boolean motorResetConfig() {
-    if (_isMicrosystemDisabled) {
-      return false;
-    }
-    if (_primaryMotor.hasResetOccurred()) {
-      configAllDevices();
-      configMotor();
-      return true;
-    }
-    return false;
+  public double getLatencyCompensatedPivotPosition() {
+    return motorToPivotRot(getLatencyCompensatedPrimaryMotorPosition());
+  }
+
+  @Override
+  public double getLatencyCompensatedPivotVelocity() {
+    return motorToPivotRot(getLatencyCompensatedPrimaryMotorVelocity());
   }
 
   /**
@@ -118,7 +113,7 @@ public class PivotNoCancoder extends Pivot {
     if (_isMicrosystemDisabled) {
       return;
     }
-    _pivotSim.setInputVoltage(_primaryMotor.get() * RobotController.getBatteryVoltage());
+    _pivotSim.setInputVoltage(getPrimaryMotorPower() * RobotController.getBatteryVoltage());
     _pivotSim.update(TagalongConfiguration.LOOP_PERIOD_S);
 
     double prevSimVelo = _simVeloRPS;
@@ -128,10 +123,12 @@ public class PivotNoCancoder extends Pivot {
 
     _pivotLigament.setAngle(Rotation2d.fromRadians(_pivotSim.getAngleRads()));
 
-    _primaryMotorSim.setRawRotorPosition(pivotRotToMotor(_simRotations));
-    _primaryMotorSim.setRotorVelocity(pivotRotToMotor(_simVeloRPS));
-    _primaryMotorSim.setRotorAcceleration(pivotRotToMotor(_simAccelRPS2));
-    _primaryMotorSim.setSupplyVoltage(RobotController.getBatteryVoltage());
+    _motorBackend.setSimulatedRotorState(
+        pivotRotToMotor(_simRotations),
+        pivotRotToMotor(_simVeloRPS),
+        pivotRotToMotor(_simAccelRPS2),
+        RobotController.getBatteryVoltage()
+    );
 
     RoboRioSim.setVInVoltage(
         BatterySim.calculateDefaultBatteryLoadedVoltage(_pivotSim.getCurrentDrawAmps())
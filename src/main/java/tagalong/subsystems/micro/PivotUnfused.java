@@ -5,12 +5,13 @@
  */
 package tagalong.subsystems.micro;
 
+import com.ctre.phoenix6.BaseStatusSignal;
 import com.ctre.phoenix6.configs.CANcoderConfiguration;
 import com.ctre.phoenix6.configs.FeedbackConfigs;
+import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.hardware.CANcoder;
 import com.ctre.phoenix6.signals.FeedbackSensorSourceValue;
 import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.simulation.BatterySim;
@@ -21,6 +22,8 @@ import edu.wpi.first.wpilibj.smartdashboard.MechanismLigament2d;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj.util.Color8Bit;
 import tagalong.TagalongConfiguration;
+import tagalong.devices.CANcoderEncoderBackend;
+import tagalong.devices.ReplayEncoderBackend;
 import tagalong.subsystems.micro.confs.PivotConf;
 
 /**
@@ -28,13 +31,17 @@ import tagalong.subsystems.micro.confs.PivotConf;
  */
 public class PivotUnfused extends Pivot {
   /**
-   * CANcoder device
+   * CANcoder device, null in replay mode
    */
   public CANcoder _pivotCancoder;
   /**
    * Configuration for the CANcoder
    */
   protected CANcoderConfiguration _pivotCancoderConfiguration;
+  /**
+   * Snapshot of the CANcoder position in rotations
+   */
+  protected double _pivotCancoderPositionRot;
   /**
    * Constructs a pivot microsystem with the below configurations
    *
@@ -45,36 +52,71 @@ public class PivotUnfused extends Pivot {
     if (_configuredMicrosystemDisable) {
       return;
     }
-    _pivotCancoder = new CANcoder(_pivotConf.encoderDeviceID, _pivotConf.encoderCanBus);
     _pivotCancoderConfiguration = _pivotConf.encoderConfig;
+    if (TagalongConfiguration.isReplayMode) {
+      _encoderBackend = new ReplayEncoderBackend();
+    } else {
+      _pivotCancoder = new CANcoder(_pivotConf.encoderDeviceID, _pivotConf.encoderCanBus);
+      _encoderBackend = new CANcoderEncoderBackend(_pivotCancoder);
+      addSnapshotSignals(_pivotConf.encoderCanBus, _encoderBackend.getStatusSignals());
+    }
+    bringUpOrDefer();
+  }
+
+  @Override
+  protected void configDevices() {
     configCancoder();
-    configAllDevices();
+    if (isBringUpCancelled()) {
+      return;
+    }
+    super.configDevices();
+    if (isBringUpCancelled()) {
+      return;
+    }
     configMotor();
   }
 
   @Override
   public void followLastProfile() {
-    if (_isMicrosystemDisabled) {
+    if (_isMicrosystemDisabled || handToControlThread()) {
+      return;
+    }
+    if (_isOnDeviceProfile) {
+      followOnDevicePivotProfile();
       return;
     }
 
-    TrapezoidProfile.State nextState =
-        _trapProfile.calculate(TagalongConfiguration.LOOP_PERIOD_S, _curState, _goalState);
-    _primaryMotor.setControl(
-        _requestedPositionVoltage.withPosition(pivotRotToMotor(nextState.position))
-            .withFeedForward(
-                _pivotFF.calculate(getFFPositionRad(), Units.rotationsToRadians(nextState.velocity))
-            )
-    );
+    stepProfile();
+    setPivotProfileOutput();
 
     if (_isShuffleboardMicro) {
-      _targetPositionEntry.setDouble(nextState.position);
-      _targetVelocityEntry.setDouble(nextState.velocity);
+      _targetPositionEntry.setDouble(_curState.position);
+      _targetVelocityEntry.setDouble(_curState.velocity);
     }
+  }
+
+  /**
+   * Reads the CANcoder before super so the state estimator sees this snapshot's encoder position
+   */
+  @Override
+  protected void readSignalSnapshot() {
+    _pivotCancoderPositionRot = _encoderBackend.getPositionRot();
+    super.readSignalSnapshot();
+  }
+
+  @Override
+  protected boolean hasAbsoluteEncoder() {
+    return true;
+  }
 
-    _curState = nextState;
+  @Override
+  protected double getEncoderPivotPosition() {
+    return _pivotCancoderPositionRot;
   }
 
+  /**
+   * Uses the state estimator's encoder angle when enabled, which filters out the CANcoder's noise
+   */
   @Override
   public double getFFPositionRad() {
     if (_isMicrosystemDisabled) {
@@ -82,8 +124,9 @@ public class PivotUnfused extends Pivot {
     }
 
     // FUTURE DEV: modify to allow for unfused or not 1:1 with pivot
-    return Units.rotationsToRadians(_pivotCancoder.getPosition().getValueAsDouble())
-        + _ffCenterOfMassOffsetRad;
+    double positionRot = _stateEstimator != null ? _stateEstimator.getEncoderPosition()
+                                                 : _pivotCancoderPositionRot;
+    return Units.rotationsToRadians(positionRot) + _ffCenterOfMassOffsetRad;
   }
 
   @Override
@@ -93,12 +136,7 @@ public class PivotUnfused extends Pivot {
     }
     setFollowProfile(false);
 
-    _primaryMotor.setControl(
-        _requestedVelocityVoltage.withVelocity(pivotRotToMotor(rps))
-            .withFeedForward(
-                withFF ? _pivotFF.calculate(getFFPositionRad(), Units.rotationsToRadians(rps)) : 0.0
-            )
-    );
+    setPivotVelocityOutput(rps, withFF);
   }
 
   @Override
@@ -111,6 +149,16 @@ public class PivotUnfused extends Pivot {
     return motorToPivotRot(getPrimaryMotorVelocity());
   }
 
+  @Override
+  public double getLatencyCompensatedPivotPosition() {
+    return motorToPivotRot(getLatencyCompensatedPrimaryMotorPosition());
+  }
+
+  @Override
+  public double getLatencyCompensatedPivotVelocity() {
+    return motorToPivotRot(getLatencyCompensatedPrimaryMotorVelocity());
+  }
+
   /**
    * Configures the CANcoder according to specified configuration
    */
@@ -120,35 +168,28 @@ public class PivotUnfused extends Pivot {
     }
 
     _pivotCancoder.getConfigurator().apply(_pivotCancoderConfiguration);
-  }
-
-  @Override
-  public boolean motorResetConfig() {
-    if (_isMicrosystemDisabled) {
-      return false;
-    }
-    if (_primaryMotor.hasResetOccurred()) {
-      configAllDevices();
-      configMotor();
-      return true;
-    }
-    if (_pivotCancoder.hasResetOccurred()) {
-      configCancoder();
-      return true;
+    BaseStatusSignal.setUpdateFrequencyForAll(
+        _pivotConf.encoderPositionUpdateFrequencyHz, _pivotCancoder.getPosition()
+    );
+    BaseStatusSignal.setUpdateFrequencyForAll(
+        _pivotConf.encoderVelocityUpdateFrequencyHz, _pivotCancoder.getVelocity()
+    );
+    // Polled by the DeviceHealthMonitor, optimization would otherwise disable it
+    assert (_pivotConf.stickyFaultUpdateFrequencyHz > 0.0);
+    BaseStatusSignal.setUpdateFrequencyForAll(
+        _pivotConf.stickyFaultUpdateFrequencyHz, _pivotCancoder.getStickyFaultField()
+    );
+    if (_pivotConf.optimizeBusUtilization) {
+      _pivotCancoder.optimizeBusUtilization();
     }
-    return false;
   }
 
-  /**
-   * Initializes the pivot simulation
-   */
   @Override
-  public void simulationInit() {
-    if (_isMicrosystemDisabled) {
-      return;
+  protected void reconfigureDevices(int resetDevices, TalonFXConfiguration[] configs) {
+    if ((resetDevices & DEVICE_ENCODER) != 0) {
+      configCancoder();
     }
-    super.simulationInit();
-    _pivotCancoderSim = _pivotCancoder.getSimState();
+    super.reconfigureDevices(resetDevices, configs);
   }
 
   @Override
@@ -156,7 +197,7 @@ public class PivotUnfused extends Pivot {
     if (_isMicrosystemDisabled) {
       return;
     }
-    _pivotSim.setInputVoltage(_primaryMotor.get() * RobotController.getBatteryVoltage());
+    _pivotSim.setInputVoltage(getPrimaryMotorPower() * RobotController.getBatteryVoltage());
     _pivotSim.update(TagalongConfiguration.LOOP_PERIOD_S);
 
     // FUTURE DEV: modify to allow for unfused or not 1:1 with pivot
@@ -167,14 +208,18 @@ public class PivotUnfused extends Pivot {
 
     _pivotLigament.setAngle(Rotation2d.fromRadians(_pivotSim.getAngleRads()));
 
-    _pivotCancoderSim.setRawPosition(Units.radiansToRotations(_pivotSim.getAngleRads()));
-    _pivotCancoderSim.setVelocity(_simVeloRPS);
-    _pivotCancoderSim.setSupplyVoltage(RobotController.getBatteryVoltage());
+    _encoderBackend.setSimulatedState(
+        Units.radiansToRotations(_pivotSim.getAngleRads()),
+        _simVeloRPS,
+        RobotController.getBatteryVoltage()
+    );
 
-    _primaryMotorSim.setRawRotorPosition(pivotRotToMotor(_simRotations));
-    _primaryMotorSim.setRotorVelocity(pivotRotToMotor(_simVeloRPS));
-    _primaryMotorSim.setRotorAcceleration(pivotRotToMotor(_simAccelRPS2));
-    _primaryMotorSim.setSupplyVoltage(RobotController.getBatteryVoltage());
+    _motorBackend.setSimulatedRotorState(
+        pivotRotToMotor(_simRotations),
+        pivotRotToMotor(_simVeloRPS),
+        pivotRotToMotor(_simAccelRPS2),
+        RobotController.getBatteryVoltage()
+    );
 
     RoboRioSim.setVInVoltage(
         BatterySim.calculateDefaultBatteryLoadedVoltage(_pivotSim.getCurrentDrawAmps())
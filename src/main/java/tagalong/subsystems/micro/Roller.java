@@ -6,6 +6,7 @@
 
 package tagalong.subsystems.micro;
 
+import com.ctre.phoenix6.configs.Slot0Configs;
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.system.plant.LinearSystemId;
@@ -23,6 +24,7 @@ import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import java.util.ArrayList;
 import tagalong.TagalongConfiguration;
+import tagalong.controls.TagalongTrapezoidProfile;
 import tagalong.math.AlgebraicUtils;
 import tagalong.measurements.Angle;
 import tagalong.subsystems.micro.confs.RollerConf;
@@ -59,6 +61,14 @@ public class Roller extends Microsystem {
    * Maximum acceleration in rotations per second squared
    */
   public final double _maxAccelerationRPS2;
+  /**
+   * True if the state space controller holds a velocity each periodic loop
+   */
+  protected boolean _followStateSpaceVelocity = false;
+  /**
+   * Velocity held by the state space controller in rotations per second
+   */
+  protected double _stateSpaceVelocityRPS;
 
   /* -------- Control: controllers and utilities -------- */
   /**
@@ -111,18 +121,27 @@ public class Roller extends Microsystem {
     }
 
     _rollerFF = _rollerConf.feedForward;
-    _trapProfile = new TrapezoidProfile(_rollerConf.trapezoidalLimits);
+    _trapProfile = new TagalongTrapezoidProfile(_rollerConf.trapezoidalLimits);
     _motorToMechRatio = _rollerConf.motorToMechRatio;
     _maxVelocityRPS = conf.trapezoidalLimitsVelocity;
     _maxAccelerationRPS2 = conf.trapezoidalLimitsAcceleration;
     _defaultRollerLowerToleranceRot = _rollerConf.defaultLowerTolerance;
     _defaultRollerUpperToleranceRot = _rollerConf.defaultUpperTolerance;
+    selectProfile();
 
-    configAllDevices();
+    bringUpOrDefer();
+  }
+
+  @Override
+  protected void configDevices() {
+    super.configDevices();
+    if (isBringUpCancelled()) {
+      return;
+    }
 
     // FUTURE DEV: Look into if all motors or just the leader need their positions set?
     // for (var motor : _allMotors) motor.setPosition(0.0);
-    _primaryMotor.setPosition(0.0);
+    setPrimaryMotorPosition(0.0);
   }
 
   @Override
@@ -138,7 +157,7 @@ public class Roller extends Microsystem {
           _KVEntry.getDouble(_rollerFF.getKv()),
           _KAEntry.getDouble(_rollerFF.getKa())
       );
-      _primaryMotor.setControl(_requestedPositionVoltage.withFeedForward(_rollerFF.getKs()));
+      setPositionOutput(_lastPositionSetpointRot, _rollerFF.getKs());
     }
   }
 
@@ -157,14 +176,19 @@ public class Roller extends Microsystem {
   public void periodic() {
     if (_isMicrosystemDisabled) {
       return;
-    } else if (motorResetConfig()) {
+    }
+    updateSignalSnapshot();
+
+    if (motorResetConfig()) {
       setRollerProfile(getRollerPosition(), 0.0);
-      _primaryMotor.set(0.0);
-    } else if (_isFFTuningMicro && _trapProfile.isFinished(_profileTimer.get())) {
-      _primaryMotor.setControl(_requestedPositionVoltage.withFeedForward(_rollerFF.getKs()));
+      setPrimaryPower(0.0);
+    } else if (_isFFTuningMicro && _profile.isFinished(_profileTimer.get())) {
+      setPositionOutput(_lastPositionSetpointRot, _rollerFF.getKs());
     }
     if (_followProfile) {
       followLastProfile();
+    } else if (_followStateSpaceVelocity) {
+      followStateSpaceVelocity();
     }
   }
 
@@ -199,7 +223,6 @@ public class Roller extends Microsystem {
           i * 255 / _rollerConf.simNumLigaments
       ));
     }
-    _primaryMotorSim = _primaryMotor.getSimState();
   }
 
   @Override
@@ -221,10 +244,12 @@ public class Roller extends Microsystem {
       );
     }
 
-    _primaryMotorSim.setRawRotorPosition(rollerRotToMotor(_simRotations));
-    _primaryMotorSim.setRotorVelocity(rollerRotToMotor(_rollerSim.getAngularVelocityRPM() / 60.0));
-    _primaryMotorSim.setRotorAcceleration(rollerRotToMotor(_simAccelRPM2 / 3600.0));
-    _primaryMotorSim.setSupplyVoltage(RobotController.getBatteryVoltage());
+    _motorBackend.setSimulatedRotorState(
+        rollerRotToMotor(_simRotations),
+        rollerRotToMotor(_rollerSim.getAngularVelocityRPM() / 60.0),
+        rollerRotToMotor(_simAccelRPM2 / 3600.0),
+        RobotController.getBatteryVoltage()
+    );
 
     RoboRioSim.setVInVoltage(
         BatterySim.calculateDefaultBatteryLoadedVoltage(_rollerSim.getCurrentDrawAmps())
@@ -285,28 +310,100 @@ public class Roller extends Microsystem {
     return rollerRot * _motorToMechRatio;
   }
 
+  @Override
+  protected double profileToMotorUnits(double value) {
+    return rollerRotToMotor(value);
+  }
+
+  @Override
+  protected void configDeviceFeedforward(Slot0Configs slot) {
+    double motorRotPerRollerRot = rollerRotToMotor(1.0);
+    slot.kS = _rollerFF.getKs();
+    slot.kV = _rollerFF.getKv() / motorRotPerRollerRot;
+    slot.kA = _rollerFF.getKa() / motorRotPerRollerRot;
+  }
+
+  /**
+   * Builds the state space velocity controller in roller rotations from the feedforward, falling
+   * back to the motor model, gear ratio and moment of inertia for gains that are not configured
+   */
+  @Override
+  protected void configStateSpaceController() {
+    // Torque per roller rotation per second squared is the moment of inertia per radian
+    setStateSpaceController(
+        false,
+        _rollerFF.getKv(),
+        _rollerFF.getKa(),
+        2.0 * Math.PI * rollerRotToMotor(1.0),
+        2.0 * Math.PI * _rollerConf.rollerMOI
+    );
+  }
+
+  /**
+   * Requests the state space controller's voltage toward the held velocity with static friction
+   */
+  protected void followStateSpaceVelocity() {
+    setStateSpaceOutput(
+        getRollerPosition(),
+        getRollerVelocity(),
+        0.0,
+        _stateSpaceVelocityRPS,
+        _rollerFF.getKs() * Math.signum(_stateSpaceVelocityRPS)
+    );
+  }
+
+  @Override
+  protected void configExponentialProfile() {
+    // Torque per roller rotation per second squared is the moment of inertia per radian
+    setExponentialProfile(
+        _rollerFF.getKv(),
+        _rollerFF.getKa(),
+        _rollerFF.getKs(),
+        2.0 * Math.PI * rollerRotToMotor(1.0),
+        2.0 * Math.PI * _rollerConf.rollerMOI
+    );
+  }
+
   /**
    * Calculates the next state according to the trapezoidal profile and requests the roller
    * motor(s) to arrive at the next position with feedforward
    */
   public void followLastProfile() {
-    if (_isMicrosystemDisabled) {
+    if (_isMicrosystemDisabled || handToControlThread()) {
+      return;
+    }
+    if (_isOnDeviceProfile) {
+      _curState.position = getRollerPosition();
+      _curState.velocity = getRollerVelocity();
+      followOnDeviceProfile(0.0);
       return;
     }
-    TrapezoidProfile.State nextState =
-        _trapProfile.calculate(TagalongConfiguration.LOOP_PERIOD_S, _curState, _goalState);
+    stepProfile();
 
     // Control and FeedForward based on mechanism rotations rather than motor rotations
-    _primaryMotor.setControl(_requestedPositionVoltage
-                                 .withPosition(rollerRotToMotor(nextState.position))
-                                 .withFeedForward(_rollerFF.calculate(nextState.velocity)));
+    if (_isTorqueCurrentControl) {
+      setPositionTorqueCurrentOutput(
+          rollerRotToMotor(_curState.position),
+          rollerRotToMotor(_curState.velocity),
+          feedforwardVoltsToAmps(
+              _rollerFF.getKs() * Math.signum(_curState.velocity)
+              + _rollerFF.getKa() * _profileAcceleration
+          )
+      );
+    } else if (_isDeviceFeedforward) {
+      setPositionOutput(
+          rollerRotToMotor(_curState.position), rollerRotToMotor(_curState.velocity), 0.0
+      );
+    } else {
+      setPositionOutput(
+          rollerRotToMotor(_curState.position), _rollerFF.calculate(_curState.velocity)
+      );
+    }
 
     if (_isShuffleboardMicro) {
-      _targetPositionEntry.setDouble(nextState.position);
-      _targetVelocityEntry.setDouble(nextState.velocity);
+      _targetPositionEntry.setDouble(_curState.position);
+      _targetVelocityEntry.setDouble(_curState.velocity);
     }
-
-    _curState = nextState;
   }
 
   /**
@@ -449,23 +546,162 @@ public class Roller extends Microsystem {
     if (_isMicrosystemDisabled) {
       return;
     }
-    setFollowProfile(false);
+    _followProfile = false;
+    if (!takeProfile()) {
+      deferProfileStart(() -> setRollerProfile(
+          goalPositionRot, goalVelocityRPS, maxVelocityRPS, maxAccelerationRPS2, setCurrentState
+      ));
+      return;
+    }
+    _followStateSpaceVelocity = false;
 
     if (setCurrentState) {
-      _curState.position = getRollerPosition();
-      _curState.velocity = getRollerVelocity();
+      _curState.position = getLatencyCompensatedRollerPosition();
+      _curState.velocity = getLatencyCompensatedRollerVelocity();
     }
 
     _goalState.position = goalPositionRot;
     _goalState.velocity = goalVelocityRPS;
 
-    _trapProfile = new TrapezoidProfile(
-        (maxVelocityRPS >= _maxVelocityRPS || maxAccelerationRPS2 >= _maxAccelerationRPS2)
-            ? _rollerConf.trapezoidalLimits
-            : new TrapezoidProfile.Constraints(maxVelocityRPS, maxAccelerationRPS2)
+    if (maxVelocityRPS >= _maxVelocityRPS || maxAccelerationRPS2 >= _maxAccelerationRPS2) {
+      _trapProfile.setConstraints(_rollerConf.trapezoidalLimits);
+    } else {
+      _trapProfile.setConstraints(maxVelocityRPS, maxAccelerationRPS2);
+    }
+
+    startProfile();
+  }
+
+  /**
+   * Creates a continuous profile through the waypoints for the roller to follow, only stopping
+   * where the direction reverses, where a cap is zero and at the last waypoint
+   *
+   * @param waypointsRot    waypoint positions in rotations, at most
+   *     TagalongWaypointProfile.MAX_WAYPOINTS
+   * @param velocityCapsRPS largest speed through each waypoint in rotations per second, null for no
+   *     caps
+   * @param maxVelocityRPS  maximum velocity in rotations per second
+   */
+  public void setRollerWaypointProfile(
+      double[] waypointsRot, double[] velocityCapsRPS, double maxVelocityRPS
+  ) {
+    if (_isMicrosystemDisabled) {
+      return;
+    }
+    _followProfile = false;
+    if (!takeProfile()) {
+      // The caller may reuse the arrays before the start is retried
+      double[] waypoints = waypointsRot.clone();
+      double[] velocityCaps = velocityCapsRPS == null ? null : velocityCapsRPS.clone();
+      deferProfileStart(() -> setRollerWaypointProfile(waypoints, velocityCaps, maxVelocityRPS));
+      return;
+    }
+    _followStateSpaceVelocity = false;
+
+    _curState.position = getLatencyCompensatedRollerPosition();
+    _curState.velocity = getLatencyCompensatedRollerVelocity();
+
+    _waypointProfile.setNumWaypoints(waypointsRot.length);
+    for (int i = 0; i < waypointsRot.length; i++) {
+      _waypointProfile.setWaypoint(
+          i,
+          waypointsRot[i],
+          velocityCapsRPS == null ? Double.POSITIVE_INFINITY : velocityCapsRPS[i]
+      );
+    }
+
+    if (maxVelocityRPS >= _maxVelocityRPS) {
+      _trapProfile.setConstraints(_rollerConf.trapezoidalLimits);
+    } else {
+      _trapProfile.setConstraints(maxVelocityRPS, _maxAccelerationRPS2);
+    }
+
+    startWaypointProfile();
+  }
+
+  /**
+   * Estimates how long a move from the current position to the goal takes at the full limits,
+   * without starting a profile
+   *
+   * @param goalPositionRot goal position in rotations
+   * @return duration in seconds
+   */
+  public double getRollerProfileDurationS(double goalPositionRot) {
+    return getRollerProfileDurationS(
+        getLatencyCompensatedRollerPosition(),
+        getLatencyCompensatedRollerVelocity(),
+        goalPositionRot,
+        _maxVelocityRPS,
+        _maxAccelerationRPS2
     );
+  }
 
-    _profileTimer.restart();
+  /**
+   * Estimates how long a hypothetical move takes, without starting a profile
+   *
+   * @param startPositionRot    start position in rotations
+   * @param startVelocityRPS    start velocity in rotations per second
+   * @param goalPositionRot     goal position in rotations
+   * @param maxVelocityRPS      maximum velocity in rotations per second
+   * @param maxAccelerationRPS2 maximum acceleration in rotations per second squared
+   * @return duration in seconds
+   */
+  public double getRollerProfileDurationS(
+      double startPositionRot,
+      double startVelocityRPS,
+      double goalPositionRot,
+      double maxVelocityRPS,
+      double maxAccelerationRPS2
+  ) {
+    return previewRollerProfile(
+        startPositionRot,
+        startVelocityRPS,
+        goalPositionRot,
+        maxVelocityRPS,
+        maxAccelerationRPS2,
+        0.0,
+        _previewResult
+    );
+  }
+
+  /**
+   * Samples a hypothetical move the way setRollerProfile would plan it, without starting a
+   * profile. Timed with the trapezoid, exact for the trapezoidal and Motion Magic profile modes.
+   *
+   * @param startPositionRot    start position in rotations
+   * @param startVelocityRPS    start velocity in rotations per second
+   * @param goalPositionRot     goal position in rotations
+   * @param maxVelocityRPS      maximum velocity in rotations per second
+   * @param maxAccelerationRPS2 maximum acceleration in rotations per second squared
+   * @param tS                  time into the move to sample, in seconds
+   * @param result              state to store the position and velocity at the time in
+   * @return duration in seconds
+   */
+  public double previewRollerProfile(
+      double startPositionRot,
+      double startVelocityRPS,
+      double goalPositionRot,
+      double maxVelocityRPS,
+      double maxAccelerationRPS2,
+      double tS,
+      TrapezoidProfile.State result
+  ) {
+    if (_isMicrosystemDisabled) {
+      result.position = goalPositionRot;
+      result.velocity = 0.0;
+      return 0.0;
+    }
+    boolean fullLimits =
+        maxVelocityRPS >= _maxVelocityRPS || maxAccelerationRPS2 >= _maxAccelerationRPS2;
+    return previewProfile(
+        startPositionRot,
+        startVelocityRPS,
+        goalPositionRot,
+        fullLimits ? _maxVelocityRPS : maxVelocityRPS,
+        fullLimits ? _maxAccelerationRPS2 : maxAccelerationRPS2,
+        tS,
+        result
+    );
   }
 
   /**
@@ -474,6 +710,7 @@ public class Roller extends Microsystem {
    * @param power roller power
    */
   public void setRollerPower(double power) {
+    _followStateSpaceVelocity = false;
     setPrimaryPower(power);
   }
 
@@ -505,7 +742,28 @@ public class Roller extends Microsystem {
   }
 
   /**
-   * Sets the velocity of the roller in RPS
+   * Gets the latency compensated position of the roller in rotations, the same as
+   * getRollerPosition unless latency compensation is enabled in the conf
+   *
+   * @return roller position in rotations
+   */
+  public double getLatencyCompensatedRollerPosition() {
+    return motorToRollerRot(getLatencyCompensatedPrimaryMotorPosition());
+  }
+
+  /**
+   * Gets the latency compensated velocity of the roller in rotations per second, the same as
+   * getRollerVelocity unless latency compensation is enabled in the conf
+   *
+   * @return roller velocity in rotations per second
+   */
+  public double getLatencyCompensatedRollerVelocity() {
+    return motorToRollerRot(getLatencyCompensatedPrimaryMotorVelocity());
+  }
+
+  /**
+   * Sets the velocity of the roller in RPS. With state space control the velocity is held by the
+   * controller each periodic loop, always with its feedforward.
    *
    * @param rps    Desired velocity in rotations per second
    * @param withFF with feedforward
@@ -516,8 +774,20 @@ public class Roller extends Microsystem {
     }
 
     setFollowProfile(false);
-    _primaryMotor.setControl(_requestedVelocityVoltage.withVelocity(rollerRotToMotor(rps))
-                                 .withFeedForward(withFF ? _rollerFF.calculate(rps) : 0.0));
+    if (_stateSpaceController != null) {
+      _stateSpaceVelocityRPS = rps;
+      _followStateSpaceVelocity = true;
+      followStateSpaceVelocity();
+      return;
+    }
+    if (_isTorqueCurrentControl) {
+      double ffVolts = _rollerFF.getKs() * Math.signum(rps);
+      setVelocityTorqueCurrentOutput(
+          rollerRotToMotor(rps), withFF ? feedforwardVoltsToAmps(ffVolts) : 0.0
+      );
+      return;
+    }
+    setVelocityOutput(rollerRotToMotor(rps), withFF ? _rollerFF.calculate(rps) : 0.0);
   }
 
   /**
@@ -531,7 +801,7 @@ public class Roller extends Microsystem {
       return true;
     }
     return AlgebraicUtils.inTolerance(
-        getRollerVelocity() - targetSpeed,
+        getLatencyCompensatedRollerVelocity() - targetSpeed,
         -_defaultRollerLowerToleranceRot,
         _defaultRollerUpperToleranceRot
     );
@@ -610,7 +880,9 @@ public class Roller extends Microsystem {
     if (_isMicrosystemDisabled) {
       return true;
     }
-    return AlgebraicUtils.inTolerance(getRollerPosition(), lowerBound, upperBound);
+    return AlgebraicUtils.inTolerance(
+        getLatencyCompensatedRollerPosition(), lowerBound, upperBound
+    );
   }
 
   @Override
@@ -13,6 +13,7 @@ import com.ctre.phoenix6.signals.NeutralModeValue;
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.wpilibj.IterativeRobotBase;
 import tagalong.controls.PIDSGVAConstants;
+import tagalong.controls.ProfileMode;
 import tagalong.devices.Motors;
 import tagalong.units.AccelerationUnits;
 import tagalong.units.DistanceUnits;
@@ -112,6 +113,138 @@ public class MicrosystemConf {
    */
   public final TalonFXConfiguration[] motorConfig;
 
+  /**
+   * Update frequency of the primary motor position signal in hertz
+   */
+  public double positionUpdateFrequencyHz = 100.0;
+  /**
+   * Update frequency of the primary motor velocity signal in hertz
+   */
+  public double velocityUpdateFrequencyHz = 100.0;
+  /**
+   * Update frequency of the primary motor applied voltage signal in hertz
+   */
+  public double voltageUpdateFrequencyHz = 50.0;
+  /**
+   * Update frequency of the primary motor stator current signal in hertz
+   */
+  public double currentUpdateFrequencyHz = 50.0;
+  /**
+   * Update frequency of the primary motor duty cycle, voltage and torque current signals followed
+   * by the follower motors in hertz, only applied when there are follower motors
+   */
+  public double followedUpdateFrequencyHz = 100.0;
+  /**
+   * Update frequency of the follower motor stator current and temperature signals in hertz
+   */
+  public double followerUpdateFrequencyHz = 4.0;
+  /**
+   * Update frequency of the primary motor acceleration signal in hertz, only used with latency
+   * compensation
+   */
+  public double accelerationUpdateFrequencyHz = 100.0;
+  /**
+   * Update frequency of every motor and encoder sticky fault signal in hertz, polled by the
+   * DeviceHealthMonitor so it must not be zero
+   */
+  public double stickyFaultUpdateFrequencyHz = 4.0;
+  /**
+   * Latency compensate the primary motor position and velocity used for profile starting states
+   * and tolerance checks, requires the primary motor acceleration signal
+   */
+  public boolean latencyCompensation = false;
+  /**
+   * Disable every motor status signal without a configured update frequency
+   */
+  public boolean optimizeBusUtilization = true;
+  /**
+   * Skip sending control requests identical to the last request sent, the request's own update
+   * frequency keeps the device fed
+   */
+  public boolean controlDeduplication = true;
+  /**
+   * Largest setpoint or feedforward change treated as identical when deduplicating control
+   * requests, in the request's units
+   */
+  public double controlDeduplicationEpsilon = 1e-6;
+  /**
+   * How motion profiles are generated and followed, on device modes write the trapezoidal limits
+   * into the Motion Magic configs and the feedforward into the slot 0 gains
+   */
+  public ProfileMode profileMode = ProfileMode.TRAPEZOIDAL;
+  /**
+   * Write the feedforward into the slot 0 gains for streamed profiles too, so the TalonFX computes
+   * it at 1 kHz from the profile velocity sent with each position setpoint. Gravity is computed on
+   * the device where its sensor allows, see each microsystem's configDeviceFeedforward.
+   */
+  public boolean deviceFeedforward = false;
+  /**
+   * Follow streamed profiles and velocities with torque current FOC instead of voltage, so
+   * tracking does not change as the battery sags. The slot gains are read in amps, and the kS, kG
+   * and kA feedforward is converted to amps through the primary motor's torque constant. Back EMF
+   * takes no current, so kV is not used. Not supported with on device profiles, device
+   * feedforward or state space control.
+   */
+  public boolean torqueCurrentControl = false;
+  /**
+   * Voltage budget of the model based exponential and gravity aware profiles before static
+   * friction and gravity are taken out, kept below the battery voltage so the feedback controller
+   * has headroom
+   */
+  public double modelProfileMaxInputVolts = 10.0;
+  /**
+   * Jerk limit of S-curve profiles in profile units per second cubed, meters for elevators and
+   * rotations for pivots and rollers. Required by ProfileMode.S_CURVE.
+   */
+  public double sCurveJerkLimit = 0.0;
+  /**
+   * Follow elevator profiles and roller velocities with a state space controller (LQR with a
+   * Kalman filter) on the roboRIO sent as voltage, instead of the onboard PID. Feedforward gains
+   * that are not configured come from the motor model.
+   */
+  public boolean stateSpaceControl = false;
+  /**
+   * LQR position error weight in profile units, the error that uses the whole voltage
+   */
+  public double stateSpacePositionTolerance = 0.02;
+  /**
+   * LQR velocity error weight in profile units per second, the error that uses the whole voltage
+   */
+  public double stateSpaceVelocityTolerance = 0.5;
+  /**
+   * Largest state space output in volts before static friction and gravity
+   */
+  public double stateSpaceMaxVolts = 12.0;
+  /**
+   * Standard deviation of the model's acceleration in profile units per second squared, higher
+   * trusts measurements more
+   */
+  public double stateSpaceModelStdDev = 3.0;
+  /**
+   * Standard deviation of the input disturbance's change in volts per second, higher rejects
+   * disturbances like game pieces faster but passes more measurement noise
+   */
+  public double stateSpaceDisturbanceStdDev = 10.0;
+  /**
+   * Standard deviation of the measurement, positions for elevators and velocities for rollers, in
+   * profile units
+   */
+  public double stateSpaceMeasurementStdDev = 0.01;
+  /**
+   * Smallest goal change in profile units that makes dynamic commands re-plan right away, smaller
+   * changes wait for the re-plan interval. 0.0 re-plans on any change.
+   */
+  public double dynamicGoalDeadband = 0.0;
+  /**
+   * Longest time in seconds dynamic commands hold a goal that moved within the deadband before
+   * re-planning to it
+   */
+  public double dynamicGoalReplanIntervalS = 0.5;
+  /**
+   * Time constant in seconds of the low pass filter on dynamic command goals, 0.0 to not filter
+   */
+  public double dynamicGoalFilterTimeConstantS = 0.0;
+
   /**
    *
    * @param name                          microsystem name
@@ -63,6 +63,40 @@ public class PivotConf extends MicrosystemConf {
    * Encoder configuration
    */
   public final CANcoderConfiguration encoderConfig;
+  /**
+   * Update frequency of the encoder position signal in hertz
+   */
+  public double encoderPositionUpdateFrequencyHz = 100.0;
+  /**
+   * Update frequency of the encoder velocity signal in hertz
+   */
+  public double encoderVelocityUpdateFrequencyHz = 100.0;
+  /**
+   * True to plan profiles and check tolerances from a Kalman filter fusing the rotor, the encoder
+   * when there is one and the applied voltage through the feedforward model
+   */
+  public boolean stateEstimator = false;
+  /**
+   * Standard deviation of the arm model's acceleration in rotations per second squared
+   */
+  public double stateEstimatorModelStdDev = 2.0;
+  /**
+   * Standard deviation of the change of the offset between the encoder and rotor, backlash and
+   * zeroing error, in rotations per second
+   */
+  public double stateEstimatorOffsetStdDev = 0.005;
+  /**
+   * Standard deviation of the rotor position in pivot rotations
+   */
+  public double stateEstimatorRotorPositionStdDev = 0.001;
+  /**
+   * Standard deviation of the rotor velocity in pivot rotations per second
+   */
+  public double stateEstimatorRotorVelocityStdDev = 0.05;
+  /**
+   * Standard deviation of the encoder position in pivot rotations
+   */
+  public double stateEstimatorEncoderStdDev = 0.002;
 
   /**
    * Whether the encoder configuration operates in a zero to one range
@@ -0,0 +1,54 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.controls;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class DynamicGoalFilterTest {
+  static final double kTol = 1e-9;
+  static final double kDt = 0.02;
+
+  @Test
+  public void deadbandTest() {
+    DynamicGoalFilter filter = new DynamicGoalFilter(0.01, 0.1, 0.0);
+    assertTrue(filter.update(1.0, kDt));
+    assertEquals(1.0, filter.getGoal(), kTol);
+
+    // Unchanged and noisy goals keep the plan until the interval expires
+    assertFalse(filter.update(1.0, kDt));
+    assertFalse(filter.update(1.005, kDt));
+    assertFalse(filter.update(0.995, kDt));
+    assertFalse(filter.update(1.002, kDt));
+    assertTrue(filter.update(1.002, kDt));
+    assertEquals(1.002, filter.getGoal(), kTol);
+
+    // Large changes re-plan right away
+    assertTrue(filter.update(1.5, kDt));
+    assertEquals(1.5, filter.getGoal(), kTol);
+
+    // A reset re-plans to the next goal
+    filter.reset();
+    assertTrue(filter.update(1.501, kDt));
+    assertEquals(1.501, filter.getGoal(), kTol);
+  }
+
+  @Test
+  public void lowPassTest() {
+    DynamicGoalFilter filter = new DynamicGoalFilter(0.0, 0.1, 0.1);
+    filter.update(0.0, kDt);
+
+    // A step is approached at the time constant rather than jumped to
+    assertTrue(filter.update(1.0, kDt));
+    assertTrue(filter.getGoal() > 0.0 && filter.getGoal() < 0.5);
+    for (int i = 0; i < 5; i++) {
+      filter.update(1.0, kDt);
+    }
+    assertEquals(1.0 - Math.exp(-6.0 * kDt / 0.1), filter.getGoal(), 1e-6);
+  }
+}
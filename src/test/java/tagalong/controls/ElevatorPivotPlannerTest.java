@@ -0,0 +1,80 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.controls;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class ElevatorPivotPlannerTest {
+  static final double kTol = 1e-9;
+
+  /**
+   * Planner over a 1 m elevator and half rotation pivot with a wall across the middle heights that
+   * only leaves the high pivot angles clear
+   */
+  private static ElevatorPivotPlanner makePlanner() {
+    ElevatorPivotPlanner planner =
+        new ElevatorPivotPlanner(0.0, 1.0, 50, 0.0, 0.5, 50, 1, 1.0, 1.0);
+    planner.addKeepOut(
+        new double[] {0.4, 0.6, 0.6, 0.4}, new double[] {-0.1, -0.1, 0.35, 0.35}
+    );
+    planner.build();
+    return planner;
+  }
+
+  /**
+   * Checks every straight line of the planned path stays clear
+   */
+  private static void assertPathClear(
+      ElevatorPivotPlanner planner, double startM, double startRot
+  ) {
+    double fromM = startM;
+    double fromRot = startRot;
+    for (int i = 0; i < planner.getNumWaypoints(); i++) {
+      double toM = planner.getWaypointHeightM(i);
+      double toRot = planner.getWaypointAngleRot(i);
+      for (int s = 0; s <= 100; s++) {
+        double t = s / 100.0;
+        double heightM = fromM + (toM - fromM) * t;
+        double angleRot = fromRot + (toRot - fromRot) * t;
+        assertTrue(planner.getClearanceCells(heightM, angleRot) > 0.0);
+      }
+      fromM = toM;
+      fromRot = toRot;
+    }
+  }
+
+  @Test
+  public void aroundKeepOutTest() {
+    ElevatorPivotPlanner planner = makePlanner();
+    assertFalse(planner.isFree(0.5, 0.1));
+    assertTrue(planner.isFree(0.5, 0.45));
+
+    // Crossing the wall raises the pivot over it and lowers it again
+    assertTrue(planner.plan(0.1, 0.1, 0.9, 0.1));
+    int last = planner.getNumWaypoints() - 1;
+    assertTrue(last >= 2);
+    assertEquals(0.9, planner.getWaypointHeightM(last), kTol);
+    assertEquals(0.1, planner.getWaypointAngleRot(last), kTol);
+    assertPathClear(planner, 0.1, 0.1);
+
+    // A clear straight line needs no intermediate waypoints
+    assertTrue(planner.plan(0.1, 0.1, 0.3, 0.4));
+    assertEquals(1, planner.getNumWaypoints());
+  }
+
+  @Test
+  public void blockedGoalTest() {
+    ElevatorPivotPlanner planner = makePlanner();
+    assertFalse(planner.plan(0.1, 0.1, 0.5, 0.1));
+    assertEquals(0, planner.getNumWaypoints());
+
+    // Starting inside the margin still escapes it
+    assertTrue(planner.plan(0.39, 0.1, 0.1, 0.1));
+  }
+}
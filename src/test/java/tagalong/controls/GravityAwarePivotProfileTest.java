@@ -0,0 +1,85 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.controls;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import org.junit.jupiter.api.Test;
+
+public class GravityAwarePivotProfileTest {
+  static final double kTol = 1e-9;
+  static final double kDt = 0.001;
+
+  private static GravityAwarePivotProfile makeProfile() {
+    GravityAwarePivotProfile profile =
+        new GravityAwarePivotProfile(0.1, 1.0, 4.0, 0.2, 0.0, 10.0, Double.POSITIVE_INFINITY);
+    profile.setLimits(2.0, Double.POSITIVE_INFINITY);
+    return profile;
+  }
+
+  /**
+   * Follows a move to the goal, checking the acceleration stays within the model's limits
+   *
+   * @return time taken in seconds
+   */
+  private static double followMove(double startRot, double goalRot) {
+    GravityAwarePivotProfile profile = makeProfile();
+    TrapezoidProfile.State state = new TrapezoidProfile.State(startRot, 0.0);
+    TrapezoidProfile.State goal = new TrapezoidProfile.State(goalRot, 0.0);
+    double direction = Math.signum(goalRot - startRot);
+    double lastVelocity = 0.0;
+
+    int loops = 0;
+    while (state.position != goal.position || state.velocity != goal.velocity) {
+      profile.calculate(kDt, state, goal, state);
+      double accel = (state.velocity - lastVelocity) / kDt * direction;
+      double speed = Math.abs(state.velocity);
+      double limit = accel >= 0 ? profile.getAcceleration(state.position, speed, direction)
+                                : profile.getDeceleration(state.position, speed, direction);
+      // Allow for sampling the table between positions
+      assertTrue(Math.abs(accel) <= limit * 1.02);
+      lastVelocity = state.velocity;
+      loops++;
+      assertTrue(loops < 10000);
+    }
+    return loops * kDt;
+  }
+
+  @Test
+  public void gravityTest() {
+    // Horizontal at 0.0, lowering from horizontal runs with gravity and raising fights it
+    double lowerTimeS = followMove(0.0, -0.25);
+    double raiseTimeS = followMove(-0.25, 0.0);
+    assertTrue(lowerTimeS < raiseTimeS);
+
+    GravityAwarePivotProfile profile = makeProfile();
+    // Fighting gravity leaves less acceleration than going with it, and none matters near vertical
+    assertTrue(profile.getAcceleration(0.0, 0.0, 1.0) < profile.getAcceleration(0.0, 0.0, -1.0));
+    assertEquals(
+        profile.getAcceleration(0.25, 0.0, 1.0), profile.getAcceleration(0.25, 0.0, -1.0), 1e-6
+    );
+  }
+
+  @Test
+  public void limitsTest() {
+    GravityAwarePivotProfile profile = makeProfile();
+    TrapezoidProfile.State state = new TrapezoidProfile.State();
+    TrapezoidProfile.State goal = new TrapezoidProfile.State(0.5, 0.0);
+
+    profile.setLimits(1.0, 5.0);
+    double lastVelocity = 0.0;
+    for (int i = 0; i < 5000; i++) {
+      profile.calculate(kDt, state, goal, state);
+      assertTrue(Math.abs(state.velocity) <= 1.0 + kTol);
+      assertTrue(Math.abs(state.velocity - lastVelocity) <= 5.0 * kDt * 1.02);
+      lastVelocity = state.velocity;
+    }
+    assertEquals(goal.position, state.position, kTol);
+    assertTrue(profile.isFinished(0.0));
+  }
+}
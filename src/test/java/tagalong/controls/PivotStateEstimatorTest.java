@@ -0,0 +1,74 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.controls;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class PivotStateEstimatorTest {
+  static final double kDt = 0.02;
+  static final double kS = 0.1;
+  static final double kG = 0.5;
+  static final double kV = 2.0;
+  static final double kA = 0.1;
+
+  @Test
+  public void encoderNoiseTest() {
+    PivotStateEstimator estimator = new PivotStateEstimator(
+        kS, kG, kV, kA, 0.0, true, 2.0, 0.005, 0.001, 0.05, 0.01, kDt
+    );
+    Random random = new Random(1868);
+    double decay = Math.exp(-kV / kA * kDt);
+    // The rotor was zeroed 0.25 rotations from the encoder
+    double offset = 0.25;
+    double position = 0.0;
+    double velocity = 0.0;
+    double rawError = 0.0;
+    double estimatedError = 0.0;
+
+    for (int i = 0; i < 500; i++) {
+      double encoder = position + offset + 0.01 * random.nextGaussian();
+      double volts = 2.0 * Math.sin(i * kDt * 2.0);
+      estimator.update(position, velocity, encoder, volts);
+      if (i >= 250) {
+        rawError += Math.abs(encoder - position - offset);
+        estimatedError += Math.abs(estimator.getEncoderPosition() - position - offset);
+      }
+
+      double input =
+          volts - kS * Math.signum(velocity) - kG * Math.cos(2.0 * Math.PI * (position + offset));
+      position += velocity * (1.0 - decay) * kA / kV
+          + (kDt - (1.0 - decay) * kA / kV) * input / kV;
+      velocity = decay * velocity + (1.0 - decay) * input / kV;
+    }
+    // The offset is learned and the encoder noise is filtered out
+    assertTrue(estimatedError < rawError / 3.0);
+  }
+
+  @Test
+  public void modelVelocityTest() {
+    PivotStateEstimator estimator =
+        new PivotStateEstimator(kS, 0.0, kV, kA, 0.0, false, 2.0, 0.0, 0.001, 1.0, 0.0, kDt);
+    Random random = new Random(62868);
+    double velocity = 0.0;
+    double position = 0.0;
+    double decay = Math.exp(-kV / kA * kDt);
+
+    for (int i = 0; i < 200; i++) {
+      estimator.update(position, velocity + 0.5 * random.nextGaussian(), 0.0, 6.0);
+      double input = 6.0 - kS * Math.signum(velocity);
+      position += velocity * (1.0 - decay) * kA / kV
+          + (kDt - (1.0 - decay) * kA / kV) * input / kV;
+      velocity = decay * velocity + (1.0 - decay) * input / kV;
+    }
+    // The precise rotor position and the model outweigh the noisy velocity
+    assertEquals((6.0 - kS) / kV, estimator.getVelocity(), 0.1);
+    assertEquals(estimator.getPosition(), estimator.getEncoderPosition(), 0.0);
+  }
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.controls;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import org.junit.jupiter.api.Test;
+
+public class ProfileStateSnapshotTest {
+  @Test
+  public void consistentReadTest() throws InterruptedException {
+    ProfileStateSnapshot snapshot = new ProfileStateSnapshot();
+    TrapezoidProfile.State result = new TrapezoidProfile.State();
+    assertEquals(0.0, snapshot.read(result), 0.0);
+
+    Thread writer = new Thread(() -> {
+      for (int i = 1; i <= 200000; i++) {
+        snapshot.publish(i, 2.0 * i, 3.0 * i, i == 200000);
+      }
+    });
+    writer.start();
+
+    // Every read sees all three values of the same publish
+    double lastPosition = 0.0;
+    while (writer.isAlive() || result.position < 200000.0) {
+      double elapsedS = snapshot.read(result);
+      assertEquals(2.0 * result.position, result.velocity, 0.0);
+      assertEquals(3.0 * result.position, elapsedS, 0.0);
+      assertTrue(result.position >= lastPosition);
+      lastPosition = result.position;
+    }
+    writer.join();
+    assertTrue(snapshot.isFinished());
+  }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.controls;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class StateSpaceControllerTest {
+  static final double kDt = 0.02;
+  static final double kV = 0.12;
+  static final double kA = 0.01;
+
+  @Test
+  public void velocityGainTest() {
+    StateSpaceController controller =
+        StateSpaceController.createVelocityController(kV, kA, 1.0, 12.0, 3.0, 10.0, 0.1, kDt);
+
+    // Closed form solution of the scalar Riccati equation
+    double a = Math.exp(-kV / kA * kDt);
+    double b = (1.0 - a) / kV;
+    double q = 1.0;
+    double r = 1.0 / 144.0;
+    double linear = r * (1.0 - a * a) - q * b * b;
+    double p = (-linear + Math.sqrt(linear * linear + 4.0 * b * b * q * r)) / (2.0 * b * b);
+    assertEquals(a * b * p / (r + b * b * p), controller.getGain(0), 1e-9);
+  }
+
+  @Test
+  public void disturbanceRejectionTest() {
+    StateSpaceController controller =
+        StateSpaceController.createVelocityController(kV, kA, 1.0, 12.0, 3.0, 10.0, 0.1, kDt);
+    double a = Math.exp(-kV / kA * kDt);
+    double b = (1.0 - a) / kV;
+    double velocity = 0.0;
+    controller.reset(0.0, velocity);
+
+    for (int i = 0; i < 100; i++) {
+      double volts = controller.calculate(velocity, 0.0, 50.0);
+      assertTrue(Math.abs(volts) <= 12.0);
+      velocity = a * velocity + b * volts;
+    }
+    assertEquals(50.0, velocity, 0.5);
+
+    // A game piece loads the flywheel with 3 V worth of drag
+    double minVelocity = velocity;
+    for (int i = 0; i < 50; i++) {
+      double volts = controller.calculate(velocity, 0.0, 50.0);
+      velocity = a * velocity + b * (volts - 3.0);
+      minVelocity = Math.min(minVelocity, velocity);
+    }
+    // The disturbance is estimated and cancelled, leaving no steady state error
+    assertTrue(minVelocity > 44.0);
+    assertEquals(50.0, velocity, 0.01);
+    assertEquals(-3.0, controller.getEstimatedDisturbance(), 0.01);
+  }
+
+  @Test
+  public void positionTrackingTest() {
+    StateSpaceController controller = StateSpaceController.createPositionController(
+        kV, kA, 0.01, 0.5, 12.0, 3.0, 10.0, 0.001, kDt
+    );
+    double decay = Math.exp(-kV / kA * kDt);
+    double position = 0.0;
+    double velocity = 0.0;
+    controller.reset(position, velocity);
+
+    // Ramp to 2 units at 4 units per second, then hold
+    for (int i = 1; i <= 50; i++) {
+      double reference = Math.min(2.0, 4.0 * kDt * i);
+      double referenceVelocity = reference < 2.0 ? 4.0 : 0.0;
+      double volts = controller.calculate(position, reference, referenceVelocity);
+      position += velocity * (1.0 - decay) * kA / kV
+          + (kDt - (1.0 - decay) * kA / kV) * volts / kV;
+      velocity = decay * velocity + (1.0 - decay) * volts / kV;
+    }
+    assertEquals(2.0, position, 0.01);
+    assertEquals(0.0, controller.getEstimatedVelocity(), 0.1);
+  }
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.controls;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tagalong.controls.WpilibProfileComparison.kTol;
+
+import edu.wpi.first.math.trajectory.ExponentialProfile;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import org.junit.jupiter.api.Test;
+
+public class TagalongExponentialProfileTest {
+  static final double kMaxInput = 10.0;
+  static final double kV = 2.0;
+  static final double kA = 0.3;
+
+  /**
+   * Follows a profile with both engines and checks every state matches WPILib
+   */
+  private static void assertMatchesWpilib(
+      TrapezoidProfile.State start, TrapezoidProfile.State goal
+  ) {
+    ExponentialProfile wpilib = new ExponentialProfile(
+        ExponentialProfile.Constraints.fromCharacteristics(kMaxInput, kV, kA)
+    );
+    ExponentialProfile.State wpilibGoal =
+        new ExponentialProfile.State(goal.position, goal.velocity);
+    WpilibProfileComparison.assertMatchesWpilib(
+        (dt, expected, unused) -> {
+          ExponentialProfile.State current =
+              new ExponentialProfile.State(expected.position, expected.velocity);
+          // Tagalong reports the time left from the state it planned from
+          double timeLeft = wpilib.timeLeftUntil(current, wpilibGoal);
+          ExponentialProfile.State next = wpilib.calculate(dt, current, wpilibGoal);
+          expected.position = next.position;
+          expected.velocity = next.velocity;
+          return timeLeft;
+        },
+        new TagalongExponentialProfile(kMaxInput, kV, kA),
+        start,
+        goal
+    );
+  }
+
+  @Test
+  public void matchesWpilibTest() {
+    // Reaches top speed
+    assertMatchesWpilib(new TrapezoidProfile.State(0.0, 0.0), new TrapezoidProfile.State(3.0, 0.0));
+    // Short move
+    assertMatchesWpilib(new TrapezoidProfile.State(0.0, 0.0), new TrapezoidProfile.State(0.1, 0.0));
+    // Reverse with a moving start
+    assertMatchesWpilib(
+        new TrapezoidProfile.State(1.0, 4.0), new TrapezoidProfile.State(-2.0, 0.0)
+    );
+    // Non-zero goal velocity
+    assertMatchesWpilib(new TrapezoidProfile.State(0.0, 0.0), new TrapezoidProfile.State(4.0, 1.0));
+  }
+
+  @Test
+  public void voltageLimitTest() {
+    TagalongExponentialProfile profile = new TagalongExponentialProfile(kMaxInput, kV, kA);
+    TrapezoidProfile.State state = new TrapezoidProfile.State();
+    TrapezoidProfile.State goal = new TrapezoidProfile.State(10.0, 0.0);
+    assertEquals(kMaxInput / kV, profile.getMaxVelocity(), kTol);
+
+    for (int i = 0; i < 1000; i++) {
+      double lastVelocity = state.velocity;
+      profile.calculate(0.001, state, goal, state);
+      double acceleration = (state.velocity - lastVelocity) / 0.001;
+      double input = kV * (state.velocity + lastVelocity) / 2.0 + kA * acceleration;
+      assertTrue(Math.abs(input) <= kMaxInput + 1e-3);
+      assertTrue(Math.abs(state.velocity) <= profile.getMaxVelocity() + kTol);
+    }
+  }
+}
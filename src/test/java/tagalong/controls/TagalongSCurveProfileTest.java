@@ -0,0 +1,95 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.controls;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import org.junit.jupiter.api.Test;
+
+public class TagalongSCurveProfileTest {
+  static final double kTol = 1e-6;
+  static final double kDt = 0.001;
+  static final double kMaxVelocity = 2.0;
+  static final double kMaxAcceleration = 4.0;
+  static final double kMaxJerk = 20.0;
+
+  /**
+   * Follows a profile to the goal, optionally moving the goal part way, and checks the velocity,
+   * acceleration and jerk never exceed the limits
+   */
+  private static void assertWithinLimits(
+      TrapezoidProfile.State start,
+      TrapezoidProfile.State goal,
+      double goalChangeTimeS,
+      double changedGoalPosition
+  ) {
+    TagalongSCurveProfile profile =
+        new TagalongSCurveProfile(kMaxVelocity, kMaxAcceleration, kMaxJerk);
+    TrapezoidProfile.State state = new TrapezoidProfile.State(start.position, start.velocity);
+    double lastAcceleration = 0.0;
+
+    for (int i = 0; i < 10000; i++) {
+      if (i == (int) (goalChangeTimeS / kDt)) {
+        goal.position = changedGoalPosition;
+      }
+      profile.calculate(kDt, state, goal, state);
+      assertTrue(Math.abs(state.velocity) <= kMaxVelocity + kTol);
+      assertTrue(Math.abs(profile.getAcceleration()) <= kMaxAcceleration + kTol);
+      assertTrue(Math.abs(profile.getAcceleration() - lastAcceleration) <= kMaxJerk * kDt + kTol);
+      lastAcceleration = profile.getAcceleration();
+    }
+    assertEquals(goal.position, state.position, kTol);
+    assertEquals(goal.velocity, state.velocity, kTol);
+    assertTrue(profile.isFinished(0.0));
+  }
+
+  @Test
+  public void limitsTest() {
+    // Reaches full speed
+    assertWithinLimits(
+        new TrapezoidProfile.State(0.0, 0.0), new TrapezoidProfile.State(3.0, 0.0), 99.0, 0.0
+    );
+    // Never reaches full acceleration
+    assertWithinLimits(
+        new TrapezoidProfile.State(0.0, 0.0), new TrapezoidProfile.State(0.1, 0.0), 99.0, 0.0
+    );
+    // Reverse with a moving start
+    assertWithinLimits(
+        new TrapezoidProfile.State(1.0, 1.5), new TrapezoidProfile.State(-2.0, 0.0), 99.0, 0.0
+    );
+    // Non-zero goal velocity
+    assertWithinLimits(
+        new TrapezoidProfile.State(0.0, 0.0), new TrapezoidProfile.State(4.0, 1.0), 99.0, 0.0
+    );
+    // Goal reversed while accelerating keeps the acceleration continuous
+    assertWithinLimits(
+        new TrapezoidProfile.State(0.0, 0.0), new TrapezoidProfile.State(3.0, 0.0), 0.1, -1.0
+    );
+  }
+
+  @Test
+  public void totalTimeTest() {
+    TagalongSCurveProfile profile =
+        new TagalongSCurveProfile(kMaxVelocity, kMaxAcceleration, kMaxJerk);
+    TrapezoidProfile.State state = new TrapezoidProfile.State();
+    TrapezoidProfile.State goal = new TrapezoidProfile.State(3.0, 0.0);
+
+    // Accelerating takes a jerk ramp on each side of the acceleration limit: 0.7 s covering 0.7 m
+    // twice, leaving 1.6 m at 2 m/s
+    profile.calculate(kDt, state, goal, state);
+    assertEquals(2.2, profile.totalTime(), kTol);
+    profile.calculate(kDt, state, goal, state);
+    assertEquals(2.2 - kDt, profile.totalTime(), kTol);
+
+    // Unchanged limits keep the plan, changed limits leave the profile finished until re-planned
+    profile.setConstraints(kMaxVelocity, kMaxAcceleration, kMaxJerk);
+    assertFalse(profile.isFinished(0.0));
+    profile.setConstraints(1.0, kMaxAcceleration, kMaxJerk);
+    assertTrue(profile.isFinished(0.0));
+  }
+}
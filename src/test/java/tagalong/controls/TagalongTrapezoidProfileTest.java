@@ -0,0 +1,147 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.controls;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tagalong.controls.WpilibProfileComparison.kDt;
+import static tagalong.controls.WpilibProfileComparison.kTol;
+
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import java.lang.management.ManagementFactory;
+import org.junit.jupiter.api.Test;
+
+public class TagalongTrapezoidProfileTest {
+  /**
+   * Average bytes a steady state loop may allocate, well under a single state object so only JVM
+   * bookkeeping such as JIT compilation on the test thread is tolerated
+   */
+  static final double kMaxAllocatedBytesPerLoop = 1.0;
+
+  /**
+   * Follows a profile with both engines and checks every state matches WPILib
+   */
+  private static void assertMatchesWpilib(
+      TrapezoidProfile.Constraints constraints,
+      TrapezoidProfile.State start,
+      TrapezoidProfile.State goal
+  ) {
+    TrapezoidProfile wpilib = new TrapezoidProfile(constraints);
+    WpilibProfileComparison.assertMatchesWpilib(
+        (dt, expected, wpilibGoal) -> {
+          TrapezoidProfile.State next = wpilib.calculate(dt, expected, wpilibGoal);
+          expected.position = next.position;
+          expected.velocity = next.velocity;
+          return wpilib.totalTime();
+        },
+        new TagalongTrapezoidProfile(constraints),
+        start,
+        goal
+    );
+  }
+
+  @Test
+  public void matchesWpilibTest() {
+    TrapezoidProfile.Constraints constraints = new TrapezoidProfile.Constraints(2.0, 4.0);
+
+    // Full trapezoid
+    assertMatchesWpilib(
+        constraints, new TrapezoidProfile.State(0.0, 0.0), new TrapezoidProfile.State(3.0, 0.0)
+    );
+    // Triangle, never reaches full speed
+    assertMatchesWpilib(
+        constraints, new TrapezoidProfile.State(0.0, 0.0), new TrapezoidProfile.State(0.5, 0.0)
+    );
+    // Reverse with a moving start
+    assertMatchesWpilib(
+        constraints, new TrapezoidProfile.State(1.0, 1.5), new TrapezoidProfile.State(-2.0, 0.0)
+    );
+    // Start faster than the constraints with a non-zero goal velocity
+    assertMatchesWpilib(
+        constraints, new TrapezoidProfile.State(0.0, 3.0), new TrapezoidProfile.State(4.0, 1.0)
+    );
+  }
+
+  @Test
+  public void setConstraintsTest() {
+    TagalongTrapezoidProfile profile =
+        new TagalongTrapezoidProfile(new TrapezoidProfile.Constraints(2.0, 4.0));
+    TrapezoidProfile.State state = new TrapezoidProfile.State();
+    TrapezoidProfile.State goal = new TrapezoidProfile.State(3.0, 0.0);
+
+    profile.calculate(kDt, state, goal, state);
+    assertFalse(profile.isFinished(0.0));
+
+    profile.setConstraints(1.0, 1.0);
+    assertEquals(1.0, profile.getMaxVelocity());
+    assertEquals(1.0, profile.getMaxAcceleration());
+    assertTrue(profile.isFinished(0.0));
+
+    profile.calculate(kDt, state, goal, state);
+    assertTrue(state.velocity <= 1.0);
+  }
+
+  @Test
+  public void scaleToDurationTest() {
+    TagalongTrapezoidProfile profile =
+        new TagalongTrapezoidProfile(new TrapezoidProfile.Constraints(2.0, 4.0));
+    TrapezoidProfile.State state = new TrapezoidProfile.State();
+    TrapezoidProfile.State goal = new TrapezoidProfile.State(3.0, 0.0);
+
+    // 3 m at 2 m/s and 4 m/s^2 takes 2 s, stretching to 4 s halves the velocity
+    assertEquals(0.5, profile.scaleToDuration(state, goal, 4.0), kTol);
+    assertEquals(1.0, profile.getMaxVelocity(), kTol);
+    assertEquals(1.0, profile.getMaxAcceleration(), kTol);
+    profile.calculate(0.0, state, goal, state);
+    assertEquals(4.0, profile.totalTime(), kTol);
+
+    // Never speeds up
+    assertEquals(1.0, profile.scaleToDuration(state, goal, 1.0));
+
+    // A moving start lands within the bisection tolerance
+    state.velocity = 1.0;
+    profile.setConstraints(2.0, 4.0);
+    profile.scaleToDuration(state, goal, 5.0);
+    profile.calculate(0.0, state, goal, state);
+    assertEquals(5.0, profile.totalTime(), 1e-6);
+  }
+
+  @Test
+  public void steadyStateAllocationTest() {
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    TrapezoidProfile.Constraints limits = new TrapezoidProfile.Constraints(2.0, 4.0);
+    TagalongTrapezoidProfile profile = new TagalongTrapezoidProfile(limits);
+    TrapezoidProfile.State state = new TrapezoidProfile.State();
+    TrapezoidProfile.State goal = new TrapezoidProfile.State();
+
+    // Re-plan every loop like the dynamic commands, alternating the constraints
+    int loopsPerPass = 10000;
+    Runnable loops = () -> {
+      for (int i = 0; i < loopsPerPass; i++) {
+        goal.position = (i / 500) % 2 == 0 ? 3.0 : -3.0;
+        if (i % 2 == 0) {
+          profile.setConstraints(limits);
+        } else {
+          profile.setConstraints(1.0, 2.0);
+        }
+        profile.calculate(kDt, state, goal, state);
+      }
+    };
+    // The first passes warm up the code path, only the last steady state pass is checked
+    long allocated = -1;
+    for (int pass = 0; pass < 3; pass++) {
+      long before = threads.getCurrentThreadAllocatedBytes();
+      loops.run();
+      allocated = threads.getCurrentThreadAllocatedBytes() - before;
+    }
+
+    assertTrue(
+        (double) allocated / loopsPerPass < kMaxAllocatedBytesPerLoop,
+        allocated + " bytes allocated over " + loopsPerPass + " loops"
+    );
+  }
+}
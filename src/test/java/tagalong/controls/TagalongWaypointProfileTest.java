@@ -0,0 +1,70 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.controls;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import org.junit.jupiter.api.Test;
+
+public class TagalongWaypointProfileTest {
+  static final double kTol = 1e-6;
+  static final double kDt = 0.001;
+  static final double kMaxVelocity = 2.0;
+  static final double kMaxAcceleration = 4.0;
+
+  /**
+   * Follows the planned profile to its last waypoint, checking the velocity and acceleration
+   * limits
+   *
+   * @return time taken in seconds
+   */
+  private static double follow(TagalongWaypointProfile profile, TrapezoidProfile.State state) {
+    double lastVelocity = state.velocity;
+    int loops = 0;
+    while (state.position != profile.getGoalPosition() || state.velocity != 0.0) {
+      profile.calculate(kDt, state, null, state);
+      assertTrue(Math.abs(state.velocity) <= kMaxVelocity + kTol);
+      assertTrue(Math.abs(state.velocity - lastVelocity) <= kMaxAcceleration * kDt + kTol);
+      lastVelocity = state.velocity;
+      loops++;
+      assertTrue(loops < 10000);
+    }
+    return loops * kDt;
+  }
+
+  @Test
+  public void passThroughTest() {
+    TagalongWaypointProfile profile = new TagalongWaypointProfile();
+    profile.setConstraints(kMaxVelocity, kMaxAcceleration);
+    profile.setNumWaypoints(3);
+    profile.setWaypoint(0, 1.0, Double.POSITIVE_INFINITY);
+    profile.setWaypoint(1, 2.0, Double.POSITIVE_INFINITY);
+    profile.setWaypoint(2, 3.0, 0.0);
+
+    // Passing through waypoints in one direction takes as long as moving straight to the last
+    TrapezoidProfile.State state = new TrapezoidProfile.State();
+    profile.plan(state);
+    assertEquals(2.0, follow(profile, state), 2.0 * kDt);
+  }
+
+  @Test
+  public void reverseTest() {
+    TagalongWaypointProfile profile = new TagalongWaypointProfile();
+    profile.setConstraints(kMaxVelocity, kMaxAcceleration);
+    profile.setNumWaypoints(2);
+    profile.setWaypoint(0, 1.0, Double.POSITIVE_INFINITY);
+    profile.setWaypoint(1, -1.0, 0.0);
+
+    // Reversing stops at the waypoint, 1 s out and 1.5 s back over 2 m
+    TrapezoidProfile.State state = new TrapezoidProfile.State();
+    profile.plan(state);
+    profile.calculate(0.0, state, null, new TrapezoidProfile.State());
+    assertEquals(2.5, profile.totalTime(), kTol);
+    assertEquals(2.5, follow(profile, state), 2.0 * kDt);
+  }
+}
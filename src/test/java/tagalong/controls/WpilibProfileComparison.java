@@ -0,0 +1,66 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.controls;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+
+/**
+ * Follows a profile with a WPILib reference and a Tagalong profile side by side, checking every
+ * state and total time matches
+ */
+final class WpilibProfileComparison {
+  static final double kTol = 1e-9;
+  static final double kDt = 0.02;
+  static final int kLoops = 500;
+
+  /**
+   * WPILib profile the Tagalong profile is compared against
+   */
+  interface Reference {
+    /**
+     * Advances the reference by one loop
+     *
+     * @param dt       loop period in seconds
+     * @param expected state of the reference, advanced in place
+     * @param goal     goal state, not modified
+     * @return total time the Tagalong profile is expected to report after the same loop
+     */
+    double step(double dt, TrapezoidProfile.State expected, TrapezoidProfile.State goal);
+  }
+
+  private WpilibProfileComparison() {}
+
+  /**
+   * Follows a profile with both engines from start to goal and checks every state matches
+   *
+   * @param reference WPILib reference profile
+   * @param tagalong  Tagalong profile under test
+   * @param start     start state, not modified
+   * @param goal      goal state, not modified
+   */
+  static void assertMatchesWpilib(
+      Reference reference,
+      MotionProfile tagalong,
+      TrapezoidProfile.State start,
+      TrapezoidProfile.State goal
+  ) {
+    TrapezoidProfile.State expected = new TrapezoidProfile.State(start.position, start.velocity);
+    TrapezoidProfile.State actual = new TrapezoidProfile.State(start.position, start.velocity);
+
+    for (int i = 0; i < kLoops; i++) {
+      double totalTime = reference.step(kDt, expected, goal);
+      tagalong.calculate(kDt, actual, goal, actual);
+      assertEquals(expected.position, actual.position, kTol);
+      assertEquals(expected.velocity, actual.velocity, kTol);
+      assertEquals(totalTime, tagalong.totalTime(), kTol);
+    }
+    assertEquals(goal.position, actual.position, kTol);
+    assertEquals(goal.velocity, actual.velocity, kTol);
+  }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright 2024 The Space Cookies : Girl Scout Troop #62868 and FRC Team #1868
+ * Open Source Software; you may modify and/or share it under the terms of
+ * the 3-Clause BSD License found in the root directory of this project.
+ */
+
+package tagalong.devices;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import org.junit.jupiter.api.Test;
+
+public class SimMotorBackendTest {
+  static final double kTol = 1e-2;
+  static final double kPeriodS = 0.02;
+  static final double kRotorMOIKgM2 = 1e-3;
+
+  @Test
+  public void dutyCycleReachesFreeSpeed() {
+    DCMotor motor = DCMotor.getKrakenX60(1);
+    SimMotorBackend backend = new SimMotorBackend(motor, kRotorMOIKgM2, kPeriodS);
+    backend.setDutyCycle(1.0);
+    for (int i = 0; i < 250; i++) {
+      backend.refresh();
+    }
+    double freeSpeedRPS = motor.freeSpeedRadPerSec / (2.0 * Math.PI);
+    assertEquals(freeSpeedRPS, backend.getVelocityRPS(), freeSpeedRPS * kTol);
+    assertEquals(12.0, backend.getVoltage(), kTol);
+    assertEquals(1.0, backend.getDutyCycle(), kTol);
+  }
+
+  @Test
+  public void positionVoltageSettles() {
+    SimMotorBackend backend =
+        new SimMotorBackend(DCMotor.getKrakenX60(1), kRotorMOIKgM2, kPeriodS);
+    backend.setSlotGains(0, 8.0, 0.0, 0.1, 0.0, 0.0, 0.0, 0.0);
+    assertTrue(backend.setPositionVoltage(5.0, 0.0, 0.0));
+    for (int i = 0; i < 100; i++) {
+      backend.refresh();
+    }
+    assertEquals(5.0, backend.getPositionRot(), kTol);
+    assertEquals(0.0, backend.getVelocityRPS(), kTol);
+  }
+
+  @Test
+  public void positionTorqueCurrentSettles() {
+    SimMotorBackend backend =
+        new SimMotorBackend(DCMotor.getKrakenX60(1), kRotorMOIKgM2, kPeriodS);
+    backend.setSlotGains(0, 20.0, 0.0, 2.0, 0.0, 0.0, 0.0, 0.0);
+    assertTrue(backend.setPositionTorqueCurrent(5.0, 0.0, 0.0));
+    for (int i = 0; i < 150; i++) {
+      backend.refresh();
+    }
+    assertEquals(5.0, backend.getPositionRot(), kTol);
+    assertEquals(0.0, backend.getVelocityRPS(), kTol);
+  }
+
+  @Test
+  public void setPositionOffsetsReadings() {
+    SimMotorBackend backend =
+        new SimMotorBackend(DCMotor.getKrakenX60(1), kRotorMOIKgM2, kPeriodS);
+    assertTrue(backend.setPosition(3.0));
+    backend.refresh();
+    assertEquals(3.0, backend.getPositionRot(), kTol);
+    assertEquals(3.0, backend.getCompensatedPositionRot(), kTol);
+  }
+}
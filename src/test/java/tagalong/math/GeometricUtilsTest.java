@@ -26,4 +26,19 @@ public class GeometricUtilsTest {
         )
     );
   }
+
+  @Test
+  public void inPolygonTest() {
+    // Axis aligned square and an L shaped concave polygon
+    double[] squareX = {0.0, 1.0, 1.0, 0.0};
+    double[] squareY = {0.0, 0.0, 1.0, 1.0};
+    assertTrue(GeometricUtils.inPolygon(0.5, 0.5, squareX, squareY));
+    assertFalse(GeometricUtils.inPolygon(1.5, 0.5, squareX, squareY));
+
+    double[] lX = {0.0, 2.0, 2.0, 1.0, 1.0, 0.0};
+    double[] lY = {0.0, 0.0, 1.0, 1.0, 2.0, 2.0};
+    assertTrue(GeometricUtils.inPolygon(0.5, 1.5, lX, lY));
+    assertTrue(GeometricUtils.inPolygon(1.5, 0.5, lX, lY));
+    assertFalse(GeometricUtils.inPolygon(1.5, 1.5, lX, lY));
+  }
 }